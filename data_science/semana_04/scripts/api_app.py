@@ -1,11 +1,19 @@
 from pathlib import Path
+import hashlib
 import json
+import time
 import pandas as pd
-from fastapi import FastAPI, HTTPException, Body, Request
-from fastapi.responses import HTMLResponse
+from fastapi import FastAPI, HTTPException, Depends, Request
+from fastapi.middleware.gzip import GZipMiddleware
+from fastapi.responses import HTMLResponse, Response
 from fastapi.staticfiles import StaticFiles
 from fastapi.templating import Jinja2Templates
 
+try:
+    import cbor2
+except ImportError:  # sem cbor2: só JSON (o Java percebe pelo Content-Type e segue em JSON)
+    cbor2 = None
+
 import flight_delay_pipeline as scr
 
 BASE_DIR = Path(__file__).resolve().parent
@@ -14,7 +22,16 @@ EXPLAIN_GLOBAL_PATH = BASE_DIR / "explain_global.json"
 
 API_VERSION = "2.0"
 
+# Formatos do corpo: o cliente escolhe pelo Content-Type (requisição) e pelo Accept (resposta)
+JSON = "application/json"
+CBOR = "application/cbor"
+FORMATOS = [JSON, CBOR] if cbor2 is not None else [JSON]
+
+# Só respostas acima disso são compactadas (na prática: as com explicabilidade)
+GZIP_MIN_BYTES = 512
+
 app = FastAPI(title="FlightOnTime API", version=API_VERSION)
+app.add_middleware(GZipMiddleware, minimum_size=GZIP_MIN_BYTES)
 
 # Templates e estáticos (UI)
 templates = Jinja2Templates(directory=str(BASE_DIR / "templates"))
@@ -23,6 +40,10 @@ app.mount("/static", StaticFiles(directory=str(BASE_DIR / "static")), name="stat
 # carrega pipeline
 pipeline = scr.carregar_pickle(str(MODEL_PATH))
 
+# versão do modelo = hash do pickle (mesmo critério do export_modelo_java.py);
+# o Java usa para saber quando buscar de novo a explicabilidade global
+MODELO_VERSAO = hashlib.sha256(MODEL_PATH.read_bytes()).hexdigest()[:12]
+
 # carrega explicabilidade global (json)
 explain_global = None
 if EXPLAIN_GLOBAL_PATH.exists():
@@ -49,20 +70,57 @@ def health():
         "modelo_carregado": bool(modelo_carregado),
         "modelo_path_ok": bool(modelo_path_ok),
         "version": API_VERSION,
+        "modelo_versao": MODELO_VERSAO,
+        "formatos": FORMATOS,
     }
 
 
 @app.get("/explain/global")
-def explain_global_endpoint():
+def explain_global_endpoint(request: Request):
     if explain_global is None:
         raise HTTPException(status_code=404, detail="Arquivo de explicabilidade global não encontrado.")
-    return {"explain_global": explain_global}
+    return _responder(request, {"modelo_versao": MODELO_VERSAO, "explain_global": explain_global})
+
+
+async def _corpo(request: Request) -> dict:
+    """
+    Corpo da requisição em JSON ou CBOR, conforme o Content-Type
+    (CBOR sem cbor2 instalado → 415: o Java volta a enviar JSON)
+    """
+    tipo = request.headers.get("content-type", JSON).split(";")[0].strip().lower()
+    bruto = await request.body()
+    try:
+        if tipo == CBOR:
+            if cbor2 is None:
+                raise HTTPException(status_code=415, detail="CBOR não suportado nesta instância.")
+            payload = cbor2.loads(bruto)
+        elif tipo in (JSON, ""):
+            payload = json.loads(bruto)
+        else:
+            raise HTTPException(status_code=415, detail=f"Content-Type não suportado: {tipo}")
+    except HTTPException:
+        raise
+    except Exception as e:
+        raise HTTPException(status_code=400, detail=f"Corpo inválido: {e}")
+    if not isinstance(payload, dict):
+        raise HTTPException(status_code=400, detail="Payload deve ser um objeto.")
+    return payload
+
+
+def _responder(request: Request, resp: dict):
+    """
+    CBOR quando o cliente aceita (Accept), senão o JSON de sempre
+    string_referencing: nomes de features e chaves repetidas vão uma vez só no corpo
+    """
+    if cbor2 is not None and CBOR in request.headers.get("accept", ""):
+        return Response(content=cbor2.dumps(resp, string_referencing=True), media_type=CBOR)
+    return resp
 
 
 @app.post("/predict")
-def predict(payload: dict = Body(...)):
+def predict(request: Request, payload: dict = Depends(_corpo)):
     """
-    payload esperado:
+    payload esperado (JSON, ou CBOR com Content-Type: application/cbor):
     {
       "dados": {
         "partida_prevista": "2024-03-01 10:30:00",
@@ -71,9 +129,60 @@ def predict(payload: dict = Body(...)):
         "aerodromo_destino": "SBRJ",
         "codigo_tipo_linha": "N"
       },
-      "topk": 8
+      "topk": 8,
+      "explain_global": false
     }
+
+    explain_global (opcional, padrão true): false omite a importância global do response
+    (o cliente busca uma única vez em /explain/global, pela modelo_versao)
+    topk (opcional, padrão 8): 0 pula a explicabilidade local (explicar_local_xgb)
     """
+    x, topk = _ler_payload(payload)
+
+    # Uma única passada pelo pipeline: o rótulo sai da probabilidade
+    # (mesmo critério do XGBClassifier.predict: proba > 0.5)
+    if hasattr(pipeline, "predict_proba"):
+        proba = float(pipeline.predict_proba(x)[0, 1])
+        pred = int(proba > 0.5)
+    else:
+        proba = None
+        pred = int(pipeline.predict(x)[0])
+
+    resp = {
+        "prediction": pred,
+        "label": "atrasado" if pred == 1 else "no_prazo",
+        "modelo_versao": MODELO_VERSAO,
+    }
+
+    if proba is not None:
+        resp["proba_atraso"] = proba
+
+    # ✅ explicabilidade global (só se pedida; padrão mantém o contrato antigo)
+    # Se não existir, retorna None (mantém o contrato estável)
+    if payload.get("explain_global", True):
+        resp["explain_global"] = explain_global
+
+    # ✅ explicabilidade local (só com topk > 0: o backend Java envia 0 e busca
+    # em /explain/local apenas quando o cliente pede o gráfico do voo)
+    if topk > 0:
+        _explicar(resp, x, topk)
+
+    return _responder(request, resp)
+
+
+@app.post("/explain/local")
+def explain_local_endpoint(request: Request, payload: dict = Depends(_corpo)):
+    """
+    Só a explicabilidade local (sem predict_proba): o Java já tem a previsão em cache
+    payload: o mesmo do /predict ("dados" + "topk")
+    """
+    x, topk = _ler_payload(payload)
+    resp = {"modelo_versao": MODELO_VERSAO}
+    _explicar(resp, x, max(topk, 1))
+    return _responder(request, resp)
+
+
+def _ler_payload(payload: dict):
     if "dados" not in payload:
         raise HTTPException(status_code=400, detail="Payload deve conter a chave 'dados'.")
 
@@ -83,28 +192,21 @@ def predict(payload: dict = Body(...)):
     faltando = [c for c in REQUIRED_RAW_COLS if c not in x.columns]
     if faltando:
         raise HTTPException(status_code=400, detail=f"Faltando colunas obrigatórias: {faltando}")
+    return x, topk
 
-    pred = int(pipeline.predict(x)[0])
 
-    resp = {
-        "prediction": pred,
-        "label": "atrasado" if pred == 1 else "no_prazo",
-    }
-
-    if hasattr(pipeline, "predict_proba"):
-        resp["proba_atraso"] = float(pipeline.predict_proba(x)[0, 1])
-
-    # ✅ explicabilidade global (sempre no response)
-    # Se não existir, retorna None (mantém o contrato estável)
-    resp["explain_global"] = explain_global
-
-    # ✅ explicabilidade local
+def _explicar(resp: dict, x: pd.DataFrame, topk: int):
+    """
+    Preenche explain_local + o custo medido (o Java usa para estimar a economia
+    das previsões que não pedem explicação)
+    """
+    inicio, inicio_cpu = time.perf_counter(), time.process_time()
     try:
         resp["explain_local"] = scr.explicar_local_xgb(pipeline, x, top_k=topk)
     except Exception as e:
         resp["explain_local_error"] = str(e)
-
-    return resp
+    resp["explain_local_ms"] = (time.perf_counter() - inicio) * 1000.0
+    resp["explain_local_cpu_ms"] = (time.process_time() - inicio_cpu) * 1000.0
 
 @app.get("/", response_class=HTMLResponse)
 def home(request: Request):
@@ -0,0 +1,241 @@
+# ----------------------------------------------------------------------------#
+# Exporta o flightontime_pipeline.pkl para o scorer Java (InJvmFlightScorer)
+# ----------------------------------------------------------------------------#
+# Uso:
+#   python export_modelo_java.py [--pkl flightontime_pipeline.pkl] [--saida .]
+#
+# Gera:
+#   - flightontime_model.json: fe (médias + hubs), pre (mediana/escala + one-hot) e árvores
+#   - flightontime_equivalence.json: voos sintéticos + proba_atraso do Python,
+#     usados pelo teste de equivalência do lado Java (copiar os dois arquivos para
+#     src/test/resources/scoring; sem eles o teste é ignorado)
+# ----------------------------------------------------------------------------#
+
+from __future__ import annotations
+
+import argparse
+import hashlib
+import json
+import math
+from pathlib import Path
+
+import numpy as np
+import pandas as pd
+import scipy.sparse as sp
+
+import flight_delay_pipeline as scr
+
+FORMATO = "flightontime-xgb-1"
+HUBS = ["SBGR", "SBSP", "SBGL", "SBRJ", "SBCF", "SBKP"]
+
+BASE_DIR = Path(__file__).resolve().parent
+
+
+# ----------------------------------------------------------------------------#
+# fe + pre
+# ----------------------------------------------------------------------------#
+def _exportar_numericas(pre) -> list[dict]:
+    _, pipe, colunas = _transformer(pre, "num")
+    imputer = pipe.named_steps["imputer"]
+    scaler = pipe.named_steps["scaler"]
+    media = scaler.mean_ if scaler.with_mean else np.zeros(len(colunas))
+    escala = scaler.scale_ if scaler.with_std else np.ones(len(colunas))
+    return [
+        {
+            "nome": col,
+            "mediana": float(imputer.statistics_[i]),
+            "media": float(media[i]),
+            "escala": float(escala[i]),
+        }
+        for i, col in enumerate(colunas)
+    ]
+
+
+def _exportar_categoricas(pre, inicio: int) -> list[dict]:
+    """
+    Mapa categoria → coluna absoluta do one-hot.
+    Categorias infrequentes (min_frequency) dividem a coluna "infrequent_sklearn".
+    """
+    _, pipe, colunas = _transformer(pre, "cat")
+    imputer = pipe.named_steps["imputer"]
+    ohe = pipe.named_steps["ohe"]
+    infrequentes = getattr(ohe, "infrequent_categories_", None) or [None] * len(colunas)
+
+    saida = []
+    posicao = inicio
+    for i, col in enumerate(colunas):
+        categorias = list(ohe.categories_[i])
+        raras = set(infrequentes[i]) if infrequentes[i] is not None else set()
+        frequentes = [c for c in categorias if c not in raras]
+        drop = ohe.drop_idx_[i] if getattr(ohe, "drop_idx_", None) is not None else None
+        if drop is not None:
+            raise ValueError("OneHotEncoder com drop não é suportado pelo scorer Java.")
+
+        indices = {}
+        for j, cat in enumerate(frequentes):
+            indices[str(cat)] = posicao + j
+        largura = len(frequentes)
+        if raras:
+            for cat in raras:
+                indices[str(cat)] = posicao + largura
+            largura += 1
+
+        saida.append({
+            "nome": col,
+            "preenchimento": str(imputer.fill_value),
+            "indices": indices,
+        })
+        posicao += largura
+    return saida
+
+
+def _transformer(pre, nome: str):
+    for n, pipe, colunas in pre.transformers_:
+        if n == nome:
+            return n, pipe, list(colunas)
+    raise ValueError(f"ColumnTransformer sem o bloco '{nome}'.")
+
+
+# ----------------------------------------------------------------------------#
+# model (XGBoost)
+# ----------------------------------------------------------------------------#
+def _base_margin(booster) -> float:
+    config = json.loads(booster.save_config())
+    learner = config["learner"]
+    objetivo = learner["objective"]["name"]
+    if objetivo != "binary:logistic":
+        raise ValueError(f"Objetivo '{objetivo}' não suportado (esperado binary:logistic).")
+    base_score = float(learner["learner_model_param"]["base_score"].strip("[]"))
+    return math.log(base_score / (1.0 - base_score))
+
+
+def _exportar_arvores(model, features: list[str]) -> list[dict]:
+    booster = model.get_booster()
+    if booster.booster not in (None, "gbtree"):
+        raise ValueError(f"Booster '{booster.booster}' não suportado (esperado gbtree).")
+
+    por_nome = {nome: i for i, nome in enumerate(features)}
+    limite = getattr(model, "best_iteration", None)
+    dumps = booster.get_dump(dump_format="json")
+    if limite is not None:
+        dumps = dumps[: limite + 1]
+
+    def indice_feature(split: str) -> int:
+        if split in por_nome:
+            return por_nome[split]
+        if split.startswith("f") and split[1:].isdigit():
+            return int(split[1:])
+        raise ValueError(f"Split em feature desconhecida: {split}")
+
+    arvores = []
+    for dump in dumps:
+        nos = {}
+        pendentes = [json.loads(dump)]
+        while pendentes:
+            no = pendentes.pop()
+            nos[no["nodeid"]] = no
+            pendentes.extend(no.get("children", []))
+
+        n = max(nos) + 1
+        arvore = {k: [0] * n for k in ("feature", "sim", "nao", "ausente")}
+        arvore["limiar"] = [0.0] * n
+        arvore["folha"] = [0.0] * n
+        for i, no in nos.items():
+            if "leaf" in no:
+                arvore["feature"][i] = -1
+                arvore["folha"][i] = float(no["leaf"])
+            else:
+                arvore["feature"][i] = indice_feature(no["split"])
+                arvore["limiar"][i] = float(no["split_condition"])
+                arvore["sim"][i] = no["yes"]
+                arvore["nao"][i] = no["no"]
+                arvore["ausente"][i] = no["missing"]
+        arvores.append(arvore)
+    return arvores
+
+
+# ----------------------------------------------------------------------------#
+# Equivalência
+# ----------------------------------------------------------------------------#
+def _voos_sinteticos(medias, quantidade: int = 200, semente: int = 42) -> pd.DataFrame:
+    """
+    Mistura códigos conhecidos no treino, desconhecidos e horários de todos os períodos
+    """
+    rng = np.random.default_rng(semente)
+    empresas = list(medias.medias_empresa_)[:20] + ["XXX"]
+    aeroportos = list(medias.medias_origem_)[:30] + HUBS + ["SBZZ"]
+    inicio = pd.Timestamp("2025-01-01")
+    linhas = []
+    for _ in range(quantidade):
+        partida = inicio + pd.Timedelta(minutes=int(rng.integers(0, 365 * 24 * 60)))
+        linhas.append({
+            "partida_prevista": partida.strftime("%Y-%m-%d %H:%M:%S"),
+            "empresa_aerea": str(rng.choice(empresas)),
+            "aerodromo_origem": str(rng.choice(aeroportos)),
+            "aerodromo_destino": str(rng.choice(aeroportos)),
+            "codigo_tipo_linha": str(rng.choice(["N", "I", "R", "X"])),
+        })
+    return pd.DataFrame(linhas)
+
+
+def exportar(caminho_pkl: Path, saida: Path) -> None:
+    pipeline = scr.carregar_pickle(str(caminho_pkl))
+    fe, pre, model = scr._get_steps(pipeline)
+
+    features = [str(f) for f in pre.get_feature_names_out()]
+    numericas = _exportar_numericas(pre)
+    categoricas = _exportar_categoricas(pre, inicio=len(numericas))
+
+    # Confere o mapa com o próprio OneHotEncoder: cada categoria deve cair na coluna com o seu nome
+    for cat in categoricas:
+        for valor, indice in cat["indices"].items():
+            nome = features[indice]
+            if not (nome == f"cat__{cat['nome']}_{valor}" or nome.endswith("_infrequent_sklearn")):
+                raise ValueError(f"Coluna {indice} ({nome}) não corresponde a {cat['nome']}={valor}")
+
+    exemplo = _voos_sinteticos(fe._medias, quantidade=1)
+    zeros_ausentes = sp.issparse(pre.transform(fe.transform(exemplo)))
+
+    medias = fe._medias
+    modelo = {
+        "formato": FORMATO,
+        "modelo_versao": hashlib.sha256(caminho_pkl.read_bytes()).hexdigest()[:12],
+        "features": features,
+        "numericas": numericas,
+        "categoricas": categoricas,
+        "medias_atraso": {
+            "empresa": {str(k): float(v) for k, v in medias.medias_empresa_.items()},
+            "origem": {str(k): float(v) for k, v in medias.medias_origem_.items()},
+            "destino": {str(k): float(v) for k, v in medias.medias_destino_.items()},
+            "global": float(medias.media_global_),
+        },
+        "hubs": HUBS,
+        "zeros_ausentes": zeros_ausentes,
+        "base_margin": _base_margin(model.get_booster()),
+        "limiar": 0.5,
+        "arvores": _exportar_arvores(model, features),
+    }
+
+    voos = _voos_sinteticos(medias)
+    proba = pipeline.predict_proba(voos)[:, 1]
+    equivalencia = {
+        "modelo_versao": modelo["modelo_versao"],
+        "casos": [
+            {"dados": voo, "proba_atraso": float(p)}
+            for voo, p in zip(voos.to_dict(orient="records"), proba)
+        ],
+    }
+
+    saida.mkdir(parents=True, exist_ok=True)
+    scr.salvar_json(modelo, str(saida / "flightontime_model.json"))
+    scr.salvar_json(equivalencia, str(saida / "flightontime_equivalence.json"))
+    print(f"Exportado: {len(modelo['arvores'])} árvores, {len(features)} features, "
+          f"{len(equivalencia['casos'])} casos de equivalência → {saida}")
+
+
+if __name__ == "__main__":
+    parser = argparse.ArgumentParser(description="Exporta o pipeline para o scorer Java.")
+    parser.add_argument("--pkl", type=Path, default=BASE_DIR / "flightontime_pipeline.pkl")
+    parser.add_argument("--saida", type=Path, default=BASE_DIR)
+    args = parser.parse_args()
+    exportar(args.pkl, args.saida)
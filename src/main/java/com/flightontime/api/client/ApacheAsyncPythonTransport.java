@@ -0,0 +1,117 @@
+package com.flightontime.api.client;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Transporte HTTP sobre o Apache HttpClient 5 assíncrono (pool keep-alive + I/O reactor)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Pool, timeouts e métricas configurados em PythonHttpClientConfig.
+ * Com prediction.python.wire.compression=true envia Accept-Encoding: gzip; o Python só
+ * compacta respostas grandes (explicabilidade), e o client assíncrono não descompacta
+ * sozinho: é feito aqui.
+ *
+ * A thread de I/O só repassa a resposta: descompactação e conclusão do future (e, com
+ * ela, as continuações de quem chamou) rodam no pythonResponseExecutor.
+ */
+@Component
+public class ApacheAsyncPythonTransport implements PythonHttpTransport {
+
+    private static final byte[] VAZIO = new byte[0];
+
+    private final CloseableHttpAsyncClient httpClient;
+    private final Executor respostas;
+    private final boolean compressao;
+
+    public ApacheAsyncPythonTransport(
+            CloseableHttpAsyncClient pythonHttpClient,
+            @Qualifier("pythonResponseExecutor") Executor respostas,
+            @Value("${prediction.python.wire.compression:true}") boolean compressao) {
+        this.httpClient = pythonHttpClient;
+        this.respostas = respostas;
+        this.compressao = compressao;
+    }
+
+    @Override
+    public CompletableFuture<PythonHttpResponse> post(String url, String contentType, String accept, byte[] corpo) {
+        return executar(SimpleRequestBuilder.post(url)
+                .setBody(corpo, ContentType.parse(contentType)), accept);
+    }
+
+    @Override
+    public CompletableFuture<PythonHttpResponse> get(String url, String accept) {
+        return executar(SimpleRequestBuilder.get(url), accept);
+    }
+
+    private CompletableFuture<PythonHttpResponse> executar(SimpleRequestBuilder builder, String accept) {
+        builder.setHeader(HttpHeaders.ACCEPT, accept);
+        if (compressao) {
+            builder.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        }
+        SimpleHttpRequest request = builder.build();
+
+        CompletableFuture<PythonHttpResponse> future = new CompletableFuture<>();
+        Future<SimpleHttpResponse> troca = httpClient.execute(request, new FutureCallback<>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                entregar(future, () -> {
+                    ContentType tipo = response.getContentType();
+                    byte[] corpo = response.getBodyBytes();
+                    try {
+                        future.complete(new PythonHttpResponse(
+                                response.getCode(),
+                                tipo != null ? tipo.getMimeType() : null,
+                                corpo != null ? descompactar(response, corpo) : VAZIO));
+                    } catch (IOException ex) {
+                        future.completeExceptionally(ex);
+                    }
+                });
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                entregar(future, () -> future.completeExceptionally(ex));
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+        });
+        // Timeout ou desistência de quem chamou aborta a troca e devolve a conexão ao pool
+        return PythonPredictionClient.cancelarJunto(future, troca);
+    }
+
+    /**
+     * Sai da thread de I/O; executor recusou (desligando) = falha na hora
+     */
+    private void entregar(CompletableFuture<PythonHttpResponse> future, Runnable conclusao) {
+        try {
+            respostas.execute(conclusao);
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+    }
+
+    private static byte[] descompactar(SimpleHttpResponse response, byte[] corpo) throws IOException {
+        Header codificacao = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+        return PythonHttpResponse.descompactar(corpo, codificacao != null ? codificacao.getValue() : null);
+    }
+}
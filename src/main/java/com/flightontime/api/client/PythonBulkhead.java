@@ -0,0 +1,228 @@
+package com.flightontime.api.client;
+
+import com.flightontime.api.exception.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead das chamadas ao microserviço Python
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * O FastAPI roda com um único worker: uma rajada de chamadas vira um comboio
+ * que segura threads da JVM inteira. O bulkhead limita:
+ * - max-concurrent: chamadas em andamento ao mesmo tempo
+ * - queue-capacity: chamadas aguardando uma vaga (fila limitada)
+ * - max-wait: tempo máximo aguardando na fila
+ *
+ * Fila cheia ou espera esgotada → BulkheadFullException imediata (fallback local).
+ * Os gauges de em andamento / na fila servem de sinal para o autoscaler.
+ *
+ * A fila guarda futures, não threads (executarAsync): quem espera por uma vaga
+ * não ocupa thread nenhuma.
+ */
+@Slf4j
+@Component
+public class PythonBulkhead {
+
+    private final int capacidadeFila;
+    private final Duration esperaMaxima;
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private final AtomicInteger naFila = new AtomicInteger();
+
+    // Vagas livres e fila de espera (protegidas por lock)
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<CompletableFuture<Void>> fila = new ArrayDeque<>();
+    private int vagasLivres;
+
+    private final Counter rejeitadasFilaCheia;
+    private final Counter rejeitadasTimeout;
+
+    public PythonBulkhead(
+            @Value("${prediction.python.bulkhead.max-concurrent:8}") int maxConcorrentes,
+            @Value("${prediction.python.bulkhead.queue-capacity:16}") int capacidadeFila,
+            @Value("${prediction.python.bulkhead.max-wait:200ms}") Duration esperaMaxima,
+            MeterRegistry meterRegistry) {
+        this.vagasLivres = maxConcorrentes;
+        this.capacidadeFila = capacidadeFila;
+        this.esperaMaxima = esperaMaxima;
+
+        Gauge.builder("prediction.python.bulkhead.inflight", emAndamento, AtomicInteger::get)
+                .description("Chamadas ao Python em andamento")
+                .register(meterRegistry);
+        Gauge.builder("prediction.python.bulkhead.queue", naFila, AtomicInteger::get)
+                .description("Chamadas aguardando vaga para o Python")
+                .register(meterRegistry);
+        Gauge.builder("prediction.python.bulkhead.max", () -> maxConcorrentes)
+                .description("Limite de chamadas simultâneas ao Python")
+                .register(meterRegistry);
+        this.rejeitadasFilaCheia = rejeitadas(meterRegistry, "fila_cheia");
+        this.rejeitadasTimeout = rejeitadas(meterRegistry, "timeout");
+
+        log.info("🚧 Bulkhead do Python: {} simultâneas, fila de {}, espera máxima de {}",
+                maxConcorrentes, capacidadeFila, esperaMaxima);
+    }
+
+    private static Counter rejeitadas(MeterRegistry registry, String motivo) {
+        return Counter.builder("prediction.python.bulkhead.rejected")
+                .description("Chamadas ao Python rejeitadas pelo bulkhead")
+                .tag("motivo", motivo)
+                .register(registry);
+    }
+
+    /**
+     * Executa a chamada se houver vaga (aguardando na fila, se necessário): só é disparada
+     * quando houver vaga, e a vaga é devolvida quando o future da chamada terminar
+     *
+     * Cancelar o future devolvido cancela a chamada em andamento (devolvendo a vaga); se
+     * ainda estiver na fila, a vaga recebida depois é repassada sem disparar a chamada
+     *
+     * @return future que falha com BulkheadFullException se a fila estiver cheia ou a espera esgotar
+     */
+    public <T> CompletableFuture<T> executarAsync(Supplier<CompletableFuture<T>> chamada) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        adquirir().whenComplete((vaga, rejeitada) -> {
+            if (rejeitada != null) {
+                resultado.completeExceptionally(PythonPredictionClient.causa(rejeitada));
+                return;
+            }
+            emAndamento.incrementAndGet();
+            if (resultado.isDone()) {
+                // Desistiu enquanto esperava na fila
+                liberar();
+                return;
+            }
+            CompletableFuture<T> emCurso;
+            try {
+                emCurso = chamada.get();
+            } catch (RuntimeException | Error ex) {
+                liberar();
+                resultado.completeExceptionally(ex);
+                return;
+            }
+            emCurso.whenComplete((resposta, ex) -> {
+                liberar();
+                if (ex != null) {
+                    resultado.completeExceptionally(PythonPredictionClient.causa(ex));
+                } else {
+                    resultado.complete(resposta);
+                }
+            });
+            PythonPredictionClient.cancelarJunto(resultado, emCurso);
+        });
+        return resultado;
+    }
+
+    /**
+     * Vaga extra sem passar pela fila (ex.: hedge): só se houver vaga livre agora
+     *
+     * @return true se a vaga foi reservada - devolver com liberar() quando a chamada terminar
+     */
+    public boolean tentarAdquirir() {
+        lock.lock();
+        try {
+            if (vagasLivres == 0) {
+                return false;
+            }
+            vagasLivres--;
+        } finally {
+            lock.unlock();
+        }
+        emAndamento.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Reserva uma vaga: concluído na hora se houver vaga livre,
+     * senão entra na fila até uma vaga ser devolvida ou a espera esgotar
+     */
+    private CompletableFuture<Void> adquirir() {
+        CompletableFuture<Void> vaga = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (vagasLivres > 0) {
+                vagasLivres--;
+                return CompletableFuture.completedFuture(null);
+            }
+            if (fila.size() >= capacidadeFila) {
+                rejeitadasFilaCheia.increment();
+                return CompletableFuture.failedFuture(new BulkheadFullException("Fila de chamadas ao Python cheia"));
+            }
+            fila.addLast(vaga);
+            naFila.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+
+        vaga.orTimeout(esperaMaxima.toNanos(), TimeUnit.NANOSECONDS);
+        return vaga.handle((ok, ex) -> {
+            if (ex == null) {
+                return null;
+            }
+            sairDaFila(vaga);
+            rejeitadasTimeout.increment();
+            throw new BulkheadFullException("Tempo de espera por vaga no Python esgotado");
+        });
+    }
+
+    /**
+     * Encerra a chamada e devolve a vaga: entrega direto ao primeiro da fila que ainda estiver esperando
+     */
+    public void liberar() {
+        emAndamento.decrementAndGet();
+        devolverVaga();
+    }
+
+    private void devolverVaga() {
+        while (true) {
+            CompletableFuture<Void> proximo;
+            lock.lock();
+            try {
+                proximo = fila.pollFirst();
+                if (proximo == null) {
+                    vagasLivres++;
+                    return;
+                }
+                naFila.decrementAndGet();
+            } finally {
+                lock.unlock();
+            }
+            // Fora do lock: completar executa a continuação de quem estava esperando
+            if (proximo.complete(null)) {
+                return;
+            }
+            // Esse já tinha desistido (timeout): tenta o próximo
+        }
+    }
+
+    private void sairDaFila(CompletableFuture<Void> vaga) {
+        lock.lock();
+        try {
+            if (fila.remove(vaga)) {
+                naFila.decrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getEmAndamento() {
+        return emAndamento.get();
+    }
+
+    public int getNaFila() {
+        return naFila.get();
+    }
+}
@@ -0,0 +1,174 @@
+package com.flightontime.api.client;
+
+import com.flightontime.api.dto.PythonHealthResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Saúde do serviço Python verificada em background, lida em O(1)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Uma única thread consulta o GET /health das réplicas a cada intervalo
+ * (prediction.python.health-interval) e publica um snapshot imutável:
+ * UP/DOWN, latência da última verificação, falhas seguidas e versão do modelo.
+ * O /api/v1/health e o actuator (PythonModelHealthIndicator) só leem o snapshot:
+ * sondas do Kubernetes e dashboards não geram chamadas ao Python, e um Python
+ * lento não deixa o nosso health lento.
+ *
+ * DOWN só depois de N falhas seguidas (prediction.python.health-failure-threshold),
+ * para uma verificação perdida não derrubar o status; UP na primeira resposta.
+ */
+@Slf4j
+@Component
+public class PythonHealthProber {
+
+    /**
+     * Resultado da última verificação
+     *
+     * @param verificadoEm null enquanto a primeira verificação não terminou
+     * @param latenciaMs duração da última verificação (-1 antes da primeira)
+     * @param modeloVersao última versão do modelo informada pelo Python (mantida enquanto DOWN)
+     * @param erro motivo da última falha (null se a última verificação deu certo)
+     */
+    public record Estado(boolean up, Instant verificadoEm, long latenciaMs, int falhasConsecutivas,
+                         String modeloVersao, String erro) {
+
+        static final Estado DESCONHECIDO = new Estado(false, null, -1, 0, null, null);
+
+        public boolean verificado() {
+            return verificadoEm != null;
+        }
+    }
+
+    private final PythonPredictionClient pythonClient;
+    private final Duration intervalo;
+    private final Duration prazo;
+    private final int limiteFalhas;
+    private final Timer latencia;
+    private final ScheduledExecutorService agendador;
+
+    private volatile Estado estado = Estado.DESCONHECIDO;
+
+    public PythonHealthProber(
+            PythonPredictionClient pythonClient,
+            MeterRegistry meterRegistry,
+            @Value("${prediction.python.health-interval:5s}") Duration intervalo,
+            @Value("${prediction.python.health-timeout:1s}") Duration prazo,
+            @Value("${prediction.python.health-failure-threshold:2}") int limiteFalhas) {
+        this.pythonClient = pythonClient;
+        this.intervalo = intervalo;
+        this.prazo = prazo;
+        this.limiteFalhas = Math.max(1, limiteFalhas);
+        this.latencia = Timer.builder("prediction.python.health.latency")
+                .description("Duração das verificações de saúde do Python")
+                .register(meterRegistry);
+        Gauge.builder("prediction.python.health.up", this, p -> p.estado.up() ? 1 : 0)
+                .description("Python UP (1) ou DOWN (0) na última verificação em background")
+                .register(meterRegistry);
+        Gauge.builder("prediction.python.health.failures", this, p -> p.estado.falhasConsecutivas())
+                .description("Verificações de saúde do Python que falharam em sequência")
+                .register(meterRegistry);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("python-health-");
+        threadFactory.setDaemon(true);
+        this.agendador = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        log.info("🩺 Health check do Python em background a cada {}ms (prazo {}ms, DOWN após {} falha(s))",
+                intervalo.toMillis(), prazo.toMillis(), limiteFalhas);
+        agendador.scheduleWithFixedDelay(this::verificarComSeguranca, 0, intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void parar() {
+        agendador.shutdownNow();
+    }
+
+    /**
+     * Snapshot da última verificação (não acessa o Python)
+     */
+    public Estado estado() {
+        return estado;
+    }
+
+    private void verificarComSeguranca() {
+        try {
+            verificar();
+        } catch (RuntimeException ex) {
+            // Exceção escapando do agendador cancelaria as próximas verificações
+            log.error("❌ Erro inesperado no health check do Python", ex);
+        }
+    }
+
+    /**
+     * Uma verificação: consulta o Python (até o prazo) e publica o novo snapshot
+     */
+    Estado verificar() {
+        long inicio = System.nanoTime();
+        Estado anterior = estado;
+        Estado novo = pythonClient.getHealthAsync()
+                .orTimeout(prazo.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((health, ex) -> {
+                    long duracao = System.nanoTime() - inicio;
+                    latencia.record(duracao, TimeUnit.NANOSECONDS);
+                    return proximo(anterior, health, ex, TimeUnit.NANOSECONDS.toMillis(duracao));
+                })
+                .join();
+        estado = novo;
+        registrarTransicao(anterior, novo);
+        return novo;
+    }
+
+    private Estado proximo(Estado anterior, PythonHealthResponse health, Throwable ex, long latenciaMs) {
+        String erro = motivo(health, ex);
+        if (erro == null) {
+            String versao = health != null && health.getModeloVersao() != null
+                    ? health.getModeloVersao() : anterior.modeloVersao();
+            return new Estado(true, Instant.now(), latenciaMs, 0, versao, null);
+        }
+        int falhas = anterior.falhasConsecutivas() + 1;
+        // Ainda não verificado: a primeira falha já é DOWN (não há UP a preservar)
+        boolean up = anterior.up() && falhas < limiteFalhas;
+        return new Estado(up, Instant.now(), latenciaMs, falhas, anterior.modeloVersao(), erro);
+    }
+
+    private String motivo(PythonHealthResponse health, Throwable ex) {
+        if (ex != null) {
+            Throwable causa = PythonPredictionClient.causa(ex);
+            return causa instanceof TimeoutException
+                    ? "sem resposta em " + prazo.toMillis() + "ms"
+                    : String.valueOf(causa.getMessage());
+        }
+        if (health != null && Boolean.FALSE.equals(health.getModeloCarregado())) {
+            return "modelo não carregado";
+        }
+        return null;
+    }
+
+    private void registrarTransicao(Estado anterior, Estado novo) {
+        if (novo.up() && !anterior.up()) {
+            log.info("✅ Python UP (modelo {}, {}ms)", novo.modeloVersao(), novo.latenciaMs());
+        } else if (!novo.up() && (anterior.up() || !anterior.verificado())) {
+            log.warn("⚠️ Python DOWN após {} falha(s) seguida(s): {}", novo.falhasConsecutivas(), novo.erro());
+        }
+        if (novo.up() && anterior.modeloVersao() != null && !anterior.modeloVersao().equals(novo.modeloVersao())) {
+            log.info("🔄 Versão do modelo no Python mudou: {} → {}", anterior.modeloVersao(), novo.modeloVersao());
+        }
+    }
+}
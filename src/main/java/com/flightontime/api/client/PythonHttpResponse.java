@@ -0,0 +1,32 @@
+package com.flightontime.api.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Resposta crua do microserviço Python
+ *
+ * @param status      Status HTTP
+ * @param contentType Tipo do corpo (sem parâmetros), ou null se ausente
+ * @param corpo       Corpo da resposta (vazio se não houver)
+ */
+public record PythonHttpResponse(int status, String contentType, byte[] corpo) {
+
+    public boolean sucesso() {
+        return status >= 200 && status < 300;
+    }
+
+    /**
+     * Corpo descompactado conforme o Content-Encoding (só gzip; demais valores: como veio)
+     */
+    static byte[] descompactar(byte[] corpo, String contentEncoding) throws IOException {
+        if (contentEncoding == null || !"gzip".equalsIgnoreCase(contentEncoding.strip())) {
+            return corpo;
+        }
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(corpo))) {
+            return gzip.readAllBytes();
+        }
+    }
+}
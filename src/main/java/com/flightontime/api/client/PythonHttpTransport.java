@@ -0,0 +1,34 @@
+package com.flightontime.api.client;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transporte HTTP não bloqueante até o microserviço Python
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Nenhuma thread fica parada aguardando o modelo, e os futures NÃO são concluídos
+ * na thread de I/O: as continuações de quem chama podem fazer trabalho de CPU.
+ * Cancelar o future (ou concluí-lo com falha, ex.: orTimeout) aborta a troca.
+ * Status HTTP de erro NÃO falham o future (quem chama decide).
+ * Respostas compactadas (Content-Encoding: gzip) chegam já descompactadas.
+ */
+public interface PythonHttpTransport {
+
+    /**
+     * POST com corpo já serializado
+     *
+     * @param url         URL completa (base + caminho)
+     * @param contentType Content-Type do corpo
+     * @param accept      Formatos aceitos na resposta (header Accept)
+     * @param corpo       Corpo da requisição
+     */
+    CompletableFuture<PythonHttpResponse> post(String url, String contentType, String accept, byte[] corpo);
+
+    /**
+     * GET simples (health, explicabilidade global...)
+     *
+     * @param accept Formatos aceitos na resposta (header Accept)
+     */
+    CompletableFuture<PythonHttpResponse> get(String url, String accept);
+}
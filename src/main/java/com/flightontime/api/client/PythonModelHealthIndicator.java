@@ -0,0 +1,48 @@
+package com.flightontime.api.client;
+
+import com.flightontime.api.client.PythonHealthProber.Estado;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Saúde do Python no actuator (/actuator/health, componente "pythonModel")
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Lê o snapshot do PythonHealthProber: não faz chamada ao Python.
+ * UNKNOWN até a primeira verificação terminar.
+ *
+ * Python fora não derruba o /actuator/health agregado (HEALTHCHECK do Docker, probes):
+ * a API continua atendendo por cache e regras, e reiniciar o Java não traz o Python de
+ * volta. O componente fica UP e o estado do Python vai no detalhe "python" (UP/DOWN).
+ */
+@Component
+public class PythonModelHealthIndicator implements HealthIndicator {
+
+    private final PythonHealthProber prober;
+
+    public PythonModelHealthIndicator(PythonHealthProber prober) {
+        this.prober = prober;
+    }
+
+    @Override
+    public Health health() {
+        Estado estado = prober.estado();
+        if (!estado.verificado()) {
+            return Health.unknown().build();
+        }
+        Health.Builder builder = Health.up()
+                .withDetail("python", estado.up() ? "UP" : "DOWN")
+                .withDetail("verificado_em", estado.verificadoEm().toString())
+                .withDetail("latencia_ms", estado.latenciaMs())
+                .withDetail("falhas_consecutivas", estado.falhasConsecutivas());
+        if (estado.modeloVersao() != null) {
+            builder.withDetail("modelo_versao", estado.modeloVersao());
+        }
+        if (estado.erro() != null) {
+            builder.withDetail("erro", estado.erro());
+        }
+        return builder.build();
+    }
+}
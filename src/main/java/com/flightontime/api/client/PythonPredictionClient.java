@@ -1,15 +1,37 @@
 package com.flightontime.api.client;
 
+import com.flightontime.api.client.PythonReplicaBalancer.Replica;
+import com.flightontime.api.client.PythonWireFormat.Corpo;
+import com.flightontime.api.dto.PythonExplainGlobalResponse;
+import com.flightontime.api.dto.PythonHealthResponse;
 import com.flightontime.api.dto.PythonPredictionRequest;
 import com.flightontime.api.dto.PythonPredictionResponse;
+import com.flightontime.api.exception.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 
 /**
  * Client HTTP para comunicação com o microserviço Python (Data Science)
@@ -20,71 +42,352 @@ import org.springframework.web.client.RestTemplate;
  * - Fazer requisição POST para o serviço Python
  * - Converter exceções HTTP em exceções de negócio
  * - Logar requisições/respostas para debugging
+ * - Circuit breaker ("pythonModel"): com o Python fora, falha em microssegundos
+ *   em vez de esperar o timeout, e sonda a volta do serviço (half-open)
+ * - Bulkhead (PythonBulkhead): limita chamadas simultâneas e a fila de espera
+ * - Várias réplicas (PythonReplicaBalancer): power of two choices + ejeção passiva
+ * - Hedge opcional: sem resposta até o percentil configurado de latência, dispara
+ *   o mesmo pedido em outra réplica e fica com a primeira resposta
+ *   (o par conta como UMA chamada no circuit breaker; no bulkhead o hedge ocupa uma
+ *   vaga própria até as duas chamadas terminarem, e não é disparado sem vaga livre)
+ * - Cancelamento: future devolvido que falha ou é cancelado (prazo de quem aguarda) cancela
+ *   a troca HTTP em andamento e devolve a vaga do bulkhead (cancelarJunto)
+ * 
+ * API:
+ * - getPredictionAsync / getHealthAsync / isHealthyAsync: não bloqueiam, permitem compor timeouts e chamadas em paralelo
+ * - getPrediction / isHealthy: adaptadores bloqueantes (aguardam o future)
  * 
  * TECH STACK:
- * - RestTemplate (Spring Framework)
- * - Alternativa moderna: WebClient (considerar para versões futuras)
+ * - PythonHttpTransport: Apache HttpClient 5 assíncrono (TCP, PythonHttpClientConfig) ou
+ *   socket Unix (http+unix://, sidecar no mesmo host) - RoutingPythonTransport escolhe pela URL
+ * - Jackson JSON/CBOR (PythonWireFormat: formato negociado por réplica, JSON como fallback)
+ * - Resilience4j CircuitBreaker (configurado em resilience4j.circuitbreaker.instances.pythonModel.*)
+ * 
+ * MÉTRICAS:
+ * - prediction.python.request{resultado}: getPredictionAsync de ponta a ponta (bulkhead, hedge,
+ *   reenvio em JSON), com histograma de percentis
+ * - prediction.python.responses{caminho,status}: cada resposta HTTP por código ("erro" sem resposta)
  */
 @Slf4j
 @Component
 public class PythonPredictionClient {
 
-    private final RestTemplate restTemplate;
-    private final String pythonServiceUrl;
+    public static final String CIRCUIT_BREAKER = "pythonModel";
+
+    private final PythonHttpTransport transport;
+    private final PythonWireFormat formato;
+    private final PythonReplicaBalancer balancer;
+    private final CircuitBreaker circuitBreaker;
+    private final PythonBulkhead bulkhead;
+    private final Counter hedgesDisparados;
+    private final Counter hedgesVencedores;
+    private final Counter hedgesSemVaga;
+    private final ScheduledExecutorService agendadorHedge;
+    private final MeterRegistry meterRegistry;
+    private final Timer chamadasComSucesso;
+    private final Timer chamadasCircuitoAberto;
+    private final Timer chamadasBulkheadCheio;
+    private final Timer chamadasComErro;
 
     /**
      * Construtor com injeção de dependências
      * 
-     * @param restTemplate Bean configurado no Spring Context
-     * @param pythonServiceUrl URL do serviço Python (vem do application.properties)
+     * @param transport Transporte HTTP não bloqueante até o Python
+     * @param formato Serialização do contrato (JSON ou CBOR, negociado com cada réplica)
+     * @param balancer Réplicas do serviço Python (prediction.service.url, lista separada por vírgula)
+     * @param circuitBreakerRegistry Registro do Resilience4j (configuração via properties)
+     * @param meterRegistry Registro de métricas (circuit breaker, latência e códigos HTTP do Python)
+     * @param bulkhead Limite de chamadas simultâneas ao Python
      */
     public PythonPredictionClient(
-            RestTemplate restTemplate,
-            @Value("${prediction.service.url}") String pythonServiceUrl) {
-        this.restTemplate = restTemplate;
-        this.pythonServiceUrl = pythonServiceUrl;
-        log.info("🔗 PythonPredictionClient inicializado. URL: {}", pythonServiceUrl);
+            PythonHttpTransport transport,
+            PythonWireFormat formato,
+            PythonReplicaBalancer balancer,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            MeterRegistry meterRegistry,
+            PythonBulkhead bulkhead) {
+        this.transport = transport;
+        this.formato = formato;
+        this.balancer = balancer;
+        this.bulkhead = bulkhead;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER);
+        this.circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            log.warn("🔌 Circuit breaker do Python: {}", event.getStateTransition());
+            Counter.builder("prediction.python.circuit.transitions")
+                    .description("Transições de estado do circuit breaker do Python")
+                    .tag("de", event.getStateTransition().getFromState().name())
+                    .tag("para", event.getStateTransition().getToState().name())
+                    .register(meterRegistry)
+                    .increment();
+        });
+        this.hedgesDisparados = Counter.builder("prediction.python.hedge.fired")
+                .description("Pedidos repetidos em outra réplica por demora da primeira")
+                .register(meterRegistry);
+        this.hedgesVencedores = Counter.builder("prediction.python.hedge.won")
+                .description("Pedidos repetidos (hedge) que responderam antes do original")
+                .register(meterRegistry);
+        this.hedgesSemVaga = Counter.builder("prediction.python.hedge.skipped")
+                .description("Hedges não disparados por falta de vaga no bulkhead")
+                .register(meterRegistry);
+        // Thread própria: serializar e postar o hedge não ocupa o agendador compartilhado do JDK
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("python-hedge-");
+        threadFactory.setDaemon(true);
+        this.agendadorHedge = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.meterRegistry = meterRegistry;
+        this.chamadasComSucesso = timerDeChamada("sucesso");
+        this.chamadasCircuitoAberto = timerDeChamada("circuito_aberto");
+        this.chamadasBulkheadCheio = timerDeChamada("bulkhead");
+        this.chamadasComErro = timerDeChamada("erro");
+        log.info("🔗 PythonPredictionClient inicializado. Réplicas: {}", balancer.getReplicas().size());
     }
 
     /**
-     * Faz requisição POST para o serviço Python
+     * Faz requisição POST para o serviço Python, protegida pelo circuit breaker
+     * (adaptador bloqueante de getPredictionAsync)
      * 
      * @param request Dados do voo em formato ICAO
      * @return Previsão retornada pelo modelo de ML
+     * @throws CallNotPermittedException se o circuit breaker estiver aberto (sem chamada HTTP)
+     * @throws BulkheadFullException se não houver vaga para chamar o Python (sem chamada HTTP)
      * @throws RuntimeException se houver erro na comunicação
      */
     public PythonPredictionResponse getPrediction(PythonPredictionRequest request) {
-        try {
-            log.info("📤 Enviando requisição para Python: {} → {}",
-                    request.getOrigemIcao(),
-                    request.getDestinoIcao());
+        return aguardar(getPredictionAsync(request));
+    }
+
+    /**
+     * Faz requisição POST para o serviço Python sem bloquear a thread chamadora
+     * 
+     * @param request Dados do voo em formato ICAO
+     * @return future com a previsão; falha com CallNotPermittedException (circuito aberto),
+     *         BulkheadFullException (sem vaga) ou RuntimeException (erro na comunicação)
+     */
+    public CompletableFuture<PythonPredictionResponse> getPredictionAsync(PythonPredictionRequest request) {
+        long inicio = System.nanoTime();
+        AtomicReference<CompletableFuture<PythonPredictionResponse>> chamada = new AtomicReference<>();
+        CompletableFuture<PythonPredictionResponse> resultado = circuitBreaker
+                .executeCompletionStage(() -> {
+                    chamada.set(bulkhead.executarAsync(() -> enviar(request)));
+                    return chamada.get();
+                })
+                .toCompletableFuture()
+                .whenComplete((resposta, ex) -> {
+                    Throwable causa = causa(ex);
+                    if (causa instanceof CallNotPermittedException) {
+                        log.debug("⛔ Circuit breaker {} - chamada ao Python não realizada", circuitBreaker.getState());
+                    }
+                    Timer timer = ex == null ? chamadasComSucesso
+                            : causa instanceof CallNotPermittedException ? chamadasCircuitoAberto
+                            : causa instanceof BulkheadFullException ? chamadasBulkheadCheio
+                            : chamadasComErro;
+                    timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                });
+        // Circuito aberto: nenhuma chamada foi feita, nada a cancelar
+        return chamada.get() != null ? cancelarJunto(resultado, chamada.get()) : resultado;
+    }
+
+    private Timer timerDeChamada(String resultado) {
+        return Timer.builder("prediction.python.request")
+                .description("Previsões pedidas ao Python, pelo resultado")
+                .tag("resultado", resultado)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Só a explicabilidade local de um voo (POST /explain/local), sem refazer a previsão
+     * Mesma proteção da previsão (circuit breaker + bulkhead): é CPU do Python do mesmo jeito
+     *
+     * @param request Dados do voo em formato ICAO, com o topk desejado
+     * @return future com explain_local e o custo medido; falha como getPredictionAsync
+     */
+    public CompletableFuture<PythonPredictionResponse> getExplainLocalAsync(PythonPredictionRequest request) {
+        AtomicReference<CompletableFuture<PythonPredictionResponse>> chamada = new AtomicReference<>();
+        CompletableFuture<PythonPredictionResponse> resultado = circuitBreaker
+                .executeCompletionStage(() -> {
+                    chamada.set(bulkhead.executarAsync(() -> {
+                        CompletableFuture<PythonHttpResponse> envio = postar(balancer.escolher(null), "/explain/local", request);
+                        return cancelarJunto(envio.thenApply(resposta -> ler(resposta, PythonPredictionResponse.class)), envio);
+                    }));
+                    return chamada.get();
+                })
+                .toCompletableFuture();
+        return chamada.get() != null ? cancelarJunto(resultado, chamada.get()) : resultado;
+    }
 
-            // Configurar headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+    /**
+     * Estado atual do circuit breaker (CLOSED, OPEN, HALF_OPEN...)
+     */
+    public String getCircuitState() {
+        return circuitBreaker.getState().name();
+    }
 
-            // Criar a requisição
-            HttpEntity<PythonPredictionRequest> httpEntity = new HttpEntity<>(request, headers);
+    private CompletableFuture<PythonPredictionResponse> enviar(PythonPredictionRequest request) {
+        log.info("📤 Enviando requisição para Python: {} → {}",
+                request.getDados() != null ? request.getDados().getAerodromoOrigem() : "null",
+                request.getDados() != null ? request.getDados().getAerodromoDestino() : "null");
 
-            // Fazer a chamada POST
-            ResponseEntity<PythonPredictionResponse> response = restTemplate.postForEntity(
-                    pythonServiceUrl + "/predict",
-                    httpEntity,
-                    PythonPredictionResponse.class
-            );
+        CompletableFuture<PythonHttpResponse> envio = postarComHedge(request);
+        return cancelarJunto(envio
+                .thenApply(resposta -> ler(resposta, PythonPredictionResponse.class))
+                .handle((body, ex) -> {
+                    if (ex != null) {
+                        Throwable erro = causa(ex);
+                        log.error("❌ Erro ao comunicar com o serviço Python: {}", erro.getMessage(), erro);
+                        throw new RuntimeException("Falha na comunicação com o serviço de previsão: " + erro.getMessage(), erro);
+                    }
+                    log.info("📥 Resposta do Python: Previsão={}, Probabilidade={}",
+                            body != null ? body.getLabel() : "null",
+                            body != null ? body.getProbaAtraso() : "null");
+                    return body;
+                }), envio);
+    }
+
+    /**
+     * POST na réplica escolhida; se o hedge estiver ativo e ela demorar além do percentil,
+     * repete em outra réplica e entrega a primeira resposta boa (erro só se as duas falharem)
+     */
+    private CompletableFuture<PythonHttpResponse> postarComHedge(PythonPredictionRequest request) {
+        Replica primeira = balancer.escolher(null);
+        CompletableFuture<PythonHttpResponse> original = postar(primeira, "/predict", request);
+        long atraso = balancer.getAtrasoHedgeNanos();
+        if (atraso == Long.MAX_VALUE) {
+            return original;
+        }
 
-            PythonPredictionResponse body = response.getBody();
+        CompletableFuture<PythonHttpResponse> resultado = new CompletableFuture<>();
+        AtomicInteger pendentes = new AtomicInteger(1);
+        AtomicBoolean respondido = new AtomicBoolean();
+        original.whenComplete(concluirHedge(resultado, pendentes, respondido, false));
+        // Prazo estourado em quem aguarda: aborta as duas trocas (a perdedora de um par que
+        // respondeu segue até o fim - o Python já está calculando)
+        cancelarJunto(resultado, original);
 
-            log.info("📥 Resposta do Python: Previsão={}, Probabilidade={}",
-                    body != null ? body.getPrevisao() : "null",
-                    body != null ? body.getProbabilidade() : "null");
+        try {
+            agendadorHedge.schedule(() -> {
+                // Já respondeu (ou já falhou de vez): nada a fazer
+                if (resultado.isDone()) {
+                    return;
+                }
+                // O hedge é uma chamada a mais no Python: sem vaga livre, fica só a original
+                if (!bulkhead.tentarAdquirir()) {
+                    hedgesSemVaga.increment();
+                    return;
+                }
+                if (pendentes.getAndUpdate(p -> p == 0 ? 0 : p + 1) == 0) {
+                    bulkhead.liberar();
+                    return;
+                }
+                hedgesDisparados.increment();
+                Replica segunda = balancer.escolher(primeira);
+                log.debug("🪃 Python em {} sem resposta após {} ms - repetindo em {}",
+                        primeira.url(), atraso / 1_000_000, segunda.url());
+
+                // A vaga do par (executarAsync) volta quando o resultado sai; a do hedge só quando
+                // as DUAS chamadas terminarem: a perdedora continua em andamento no Python
+                AtomicInteger emVoo = new AtomicInteger(2);
+                BiConsumer<PythonHttpResponse, Throwable> terminou = (resposta, ex) -> {
+                    if (emVoo.decrementAndGet() == 0) {
+                        bulkhead.liberar();
+                    }
+                };
+                original.whenComplete(terminou);
+                CompletableFuture<PythonHttpResponse> repetida = postar(segunda, "/predict", request);
+                repetida.whenComplete(terminou);
+                repetida.whenComplete(concluirHedge(resultado, pendentes, respondido, true));
+                cancelarJunto(resultado, repetida);
+            }, atraso, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ex) {
+            // Aplicação encerrando: segue só com a chamada original
+        }
+        return resultado;
+    }
+
+    @PreDestroy
+    void parar() {
+        agendadorHedge.shutdownNow();
+    }
+
+    private BiConsumer<PythonHttpResponse, Throwable> concluirHedge(
+            CompletableFuture<PythonHttpResponse> resultado, AtomicInteger pendentes,
+            AtomicBoolean respondido, boolean hedge) {
+        return (resposta, ex) -> {
+            boolean boa = ex == null && resposta.status() < 500;
+            if (boa) {
+                // Vencedor decidido e contado antes de completar: quem aguarda o resultado já vê a métrica
+                if (respondido.compareAndSet(false, true)) {
+                    if (hedge) {
+                        hedgesVencedores.increment();
+                    }
+                    resultado.complete(resposta);
+                }
+                return;
+            }
+            // Falhou: só propaga se não houver outra tentativa em andamento
+            if (pendentes.decrementAndGet() == 0) {
+                if (ex != null) {
+                    resultado.completeExceptionally(ex);
+                } else {
+                    resultado.complete(resposta);
+                }
+            }
+        };
+    }
 
-            return body;
+    /**
+     * POST na réplica no formato que ela já anunciou (PythonWireFormat);
+     * corpo CBOR recusado (415) é reenviado uma vez em JSON
+     */
+    private CompletableFuture<PythonHttpResponse> postar(Replica replica, String caminho, Object requisicao) {
+        Corpo corpo;
+        try {
+            corpo = formato.codificar(requisicao, replica);
+        } catch (IOException ex) {
+            return CompletableFuture.failedFuture(
+                    new RuntimeException("Falha ao serializar a requisição para o Python: " + ex.getMessage(), ex));
+        }
+        balancer.iniciar(replica);
+        long inicio = System.nanoTime();
+        CompletableFuture<PythonHttpResponse> troca =
+                transport.post(replica.url() + caminho, corpo.contentType(), formato.accept(), corpo.bytes());
+        return cancelarJunto(troca
+                .whenComplete((resposta, ex) -> {
+                    balancer.concluir(replica, ex == null && resposta.status() < 500, System.nanoTime() - inicio);
+                    Counter.builder("prediction.python.responses")
+                            .description("Respostas HTTP do Python, pelo código de status")
+                            .tag("caminho", caminho)
+                            .tag("status", ex == null ? String.valueOf(resposta.status()) : "erro")
+                            .register(meterRegistry)
+                            .increment();
+                })
+                .thenCompose(resposta -> formato.observar(replica, corpo, resposta)
+                        ? postar(replica, caminho, requisicao)
+                        : CompletableFuture.completedFuture(resposta)), troca);
+    }
 
-        } catch (Exception ex) {
-            log.error("❌ Erro ao comunicar com o serviço Python: {}", ex.getMessage(), ex);
-            throw new RuntimeException("Falha na comunicação com o serviço de previsão: " + ex.getMessage(), ex);
+    private <T> T ler(PythonHttpResponse resposta, Class<T> tipo) {
+        if (!resposta.sucesso()) {
+            throw new IllegalStateException("Python respondeu HTTP " + resposta.status());
         }
+        if (resposta.corpo().length == 0) {
+            return null;
+        }
+        return formato.ler(resposta, tipo);
+    }
+
+    /**
+     * Explicabilidade global do modelo (GET /explain/global em uma das réplicas)
+     * Fora do circuit breaker e do bulkhead: é buscada raramente (uma vez por versão do modelo)
+     *
+     * @return future com a importância global; falha se o Python não responder 2xx
+     */
+    public CompletableFuture<PythonExplainGlobalResponse> getExplainGlobalAsync() {
+        Replica replica = balancer.escolher(null);
+        return transport.get(replica.url() + "/explain/global", formato.accept())
+                .thenApply(resposta -> {
+                    formato.observar(replica, resposta);
+                    return ler(resposta, PythonExplainGlobalResponse.class);
+                });
     }
 
     /**
@@ -94,12 +397,86 @@ public class PythonPredictionClient {
      * @return true se o serviço está respondendo
      */
     public boolean isHealthy() {
+        return isHealthyAsync().join();
+    }
+
+    /**
+     * Health check sem bloquear (quem chama aplica o próprio timeout)
+     * 
+     * @return future com true assim que uma réplica responder 2xx; nunca falha
+     */
+    public CompletableFuture<Boolean> isHealthyAsync() {
+        return getHealthAsync().handle((health, ex) -> ex == null);
+    }
+
+    /**
+     * GET /health em todas as réplicas em paralelo; basta uma responder para o serviço estar UP
+     * Fora do circuit breaker e do bulkhead (usado pelo PythonHealthProber em background)
+     * 
+     * @return future com o /health da primeira réplica que responder 2xx (null se vier sem corpo);
+     *         falha com o erro da última réplica se nenhuma responder
+     */
+    public CompletableFuture<PythonHealthResponse> getHealthAsync() {
+        CompletableFuture<PythonHealthResponse> resultado = new CompletableFuture<>();
+        AtomicInteger pendentes = new AtomicInteger(balancer.getReplicas().size());
+        for (Replica replica : balancer.getReplicas()) {
+            transport.get(replica.url() + "/health", MediaType.APPLICATION_JSON_VALUE)
+                    .thenApply(resposta -> ler(resposta, PythonHealthResponse.class))
+                    .whenComplete((health, ex) -> {
+                        if (ex == null) {
+                            resultado.complete(health);
+                            return;
+                        }
+                        log.debug("Réplica Python {} não respondeu ao /health: {}", replica.url(), causa(ex).getMessage());
+                        if (pendentes.decrementAndGet() == 0) {
+                            resultado.completeExceptionally(causa(ex));
+                        }
+                    });
+        }
+        return resultado;
+    }
+
+    /**
+     * Exceção original de um future (sem o CompletionException/ExecutionException em volta)
+     */
+    public static Throwable causa(Throwable ex) {
+        if ((ex instanceof CompletionException || ex instanceof ExecutionException) && ex.getCause() != null) {
+            return ex.getCause();
+        }
+        return ex;
+    }
+
+    /**
+     * Cancela a origem quando o future derivado dela falhar ou for cancelado (ex.: orTimeout
+     * de quem aguarda): o CompletableFuture não propaga o cancelamento de volta sozinho.
+     * Origem já concluída (foi ela que falhou) não muda.
+     *
+     * @return o próprio derivado
+     */
+    public static <T> CompletableFuture<T> cancelarJunto(CompletableFuture<T> derivado, Future<?> origem) {
+        derivado.whenComplete((resultado, ex) -> {
+            if (ex != null) {
+                origem.cancel(true);
+            }
+        });
+        return derivado;
+    }
+
+    /**
+     * Aguarda o future e relança a exceção original
+     */
+    public static <T> T aguardar(CompletableFuture<T> future) {
         try {
-            restTemplate.getForEntity(pythonServiceUrl + "/health", String.class);
-            return true;
-        } catch (Exception ex) {
-            log.warn("⚠️ Serviço Python não está respondendo: {}", ex.getMessage());
-            return false;
+            return future.join();
+        } catch (CompletionException ex) {
+            Throwable causa = causa(ex);
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (causa instanceof Error erro) {
+                throw erro;
+            }
+            throw ex;
         }
     }
 }
@@ -0,0 +1,235 @@
+package com.flightontime.api.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Balanceamento client-side entre as réplicas do modelo Python
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * prediction.service.url aceita uma lista separada por vírgula. Sem proxy no meio:
+ * - Escolha "power of two choices": sorteia duas réplicas e usa a com menos
+ *   chamadas em andamento (least outstanding requests sem varrer a lista)
+ * - Ejeção passiva: N falhas seguidas (erro de conexão/timeout/5xx) tiram a réplica
+ *   de rotação por um período; depois ela volta e é testada pelo tráfego normal
+ * - Se todas estiverem ejetadas, usa a que volta primeiro (nunca fica sem destino)
+ *
+ * Também mantém a janela de latências usada para o hedge (PythonPredictionClient):
+ * o atraso do hedge é o percentil configurado das últimas respostas com sucesso.
+ */
+@Slf4j
+@Component
+public class PythonReplicaBalancer {
+
+    private static final int JANELA_LATENCIA = 512;
+    private static final int RECALCULAR_A_CADA = 64;
+
+    private final List<Replica> replicas;
+    private final int falhasParaEjetar;
+    private final long duracaoEjecaoNanos;
+    private final boolean hedgeAtivo;
+    private final double percentilHedge;
+    private final long atrasoMinimoHedgeNanos;
+
+    // Janela circular das últimas latências (ns) e atraso do hedge recalculado a partir dela
+    // (escritas concorrentes sem lock: é uma amostra, perder uma posição não muda o percentil)
+    private final long[] latencias = new long[JANELA_LATENCIA];
+    private final AtomicInteger amostras = new AtomicInteger();
+    private volatile long atrasoHedgeNanos;
+
+    private final Counter ejecoes;
+
+    public PythonReplicaBalancer(
+            @Value("${prediction.service.url}") String urls,
+            @Value("${prediction.python.replicas.eject-after-failures:3}") int falhasParaEjetar,
+            @Value("${prediction.python.replicas.eject-duration:10s}") Duration duracaoEjecao,
+            @Value("${prediction.python.hedge.enabled:false}") boolean hedgeAtivo,
+            @Value("${prediction.python.hedge.percentile:0.95}") double percentilHedge,
+            @Value("${prediction.python.hedge.min-delay:20ms}") Duration atrasoMinimoHedge,
+            MeterRegistry meterRegistry) {
+        if (percentilHedge <= 0 || percentilHedge >= 1) {
+            throw new IllegalArgumentException("prediction.python.hedge.percentile deve estar entre 0 e 1 (exclusivos)");
+        }
+        List<Replica> lista = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            if (!url.isBlank()) {
+                lista.add(new Replica(url.strip().replaceAll("/+$", "")));
+            }
+        }
+        if (lista.isEmpty()) {
+            throw new IllegalArgumentException("prediction.service.url deve ter ao menos uma URL");
+        }
+        this.replicas = List.copyOf(lista);
+        this.falhasParaEjetar = falhasParaEjetar;
+        this.duracaoEjecaoNanos = duracaoEjecao.toNanos();
+        this.hedgeAtivo = hedgeAtivo && replicas.size() > 1;
+        this.percentilHedge = percentilHedge;
+        this.atrasoMinimoHedgeNanos = atrasoMinimoHedge.toNanos();
+        this.atrasoHedgeNanos = Long.MAX_VALUE;
+
+        for (Replica replica : replicas) {
+            Gauge.builder("prediction.python.replica.inflight", replica.emAndamento, AtomicInteger::get)
+                    .description("Chamadas em andamento por réplica do Python")
+                    .tag("replica", replica.url)
+                    .register(meterRegistry);
+            Gauge.builder("prediction.python.replica.ejected", replica, r -> r.ejetada(System.nanoTime()) ? 1 : 0)
+                    .description("Réplica fora de rotação por falhas seguidas (1 = ejetada)")
+                    .tag("replica", replica.url)
+                    .register(meterRegistry);
+        }
+        this.ejecoes = Counter.builder("prediction.python.replica.ejections")
+                .description("Ejeções passivas de réplicas do Python")
+                .register(meterRegistry);
+
+        log.info("⚖️ {} réplica(s) do Python: {} (hedge {})", replicas.size(),
+                replicas.stream().map(Replica::url).toList(), this.hedgeAtivo ? "ativo" : "desativado");
+    }
+
+    /**
+     * Escolhe a réplica para a próxima chamada (power of two choices entre as disponíveis)
+     *
+     * @param excluir Réplica a evitar (a do pedido original, no caso do hedge); pode ser null
+     */
+    public Replica escolher(Replica excluir) {
+        long agora = System.nanoTime();
+        List<Replica> disponiveis = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica != excluir && !replica.ejetada(agora)) {
+                disponiveis.add(replica);
+            }
+        }
+        if (disponiveis.isEmpty()) {
+            return replicaQueVoltaPrimeiro(excluir);
+        }
+        if (disponiveis.size() == 1) {
+            return disponiveis.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(disponiveis.size());
+        int j = random.nextInt(disponiveis.size() - 1);
+        if (j >= i) {
+            j++;
+        }
+        Replica a = disponiveis.get(i);
+        Replica b = disponiveis.get(j);
+        return a.emAndamento.get() <= b.emAndamento.get() ? a : b;
+    }
+
+    private Replica replicaQueVoltaPrimeiro(Replica excluir) {
+        Replica melhor = null;
+        for (Replica replica : replicas) {
+            if (replica != excluir && (melhor == null || replica.ejetadaAte - melhor.ejetadaAte < 0)) {
+                melhor = replica;
+            }
+        }
+        return melhor != null ? melhor : excluir;
+    }
+
+    /**
+     * Marca o início de uma chamada na réplica
+     */
+    public void iniciar(Replica replica) {
+        replica.emAndamento.incrementAndGet();
+    }
+
+    /**
+     * Registra o fim de uma chamada: alimenta a ejeção passiva e a janela de latências
+     *
+     * @param sucesso false para erro de transporte ou 5xx (falha da réplica, não do pedido)
+     */
+    public void concluir(Replica replica, boolean sucesso, long duracaoNanos) {
+        replica.emAndamento.decrementAndGet();
+        if (sucesso) {
+            replica.falhasSeguidas.set(0);
+            registrarLatencia(duracaoNanos);
+            return;
+        }
+        if (replica.falhasSeguidas.incrementAndGet() >= falhasParaEjetar) {
+            replica.falhasSeguidas.set(0);
+            replica.ejetadaAte = System.nanoTime() + duracaoEjecaoNanos;
+            ejecoes.increment();
+            log.warn("⚖️ Réplica {} ejetada por {} ms após {} falhas seguidas",
+                    replica.url, duracaoEjecaoNanos / 1_000_000, falhasParaEjetar);
+        }
+    }
+
+    private void registrarLatencia(long duracaoNanos) {
+        int n = amostras.getAndIncrement();
+        latencias[Math.floorMod(n, JANELA_LATENCIA)] = duracaoNanos;
+        if (hedgeAtivo && (n + 1) % RECALCULAR_A_CADA == 0) {
+            // n < 0: o contador deu a volta, a janela já está cheia
+            long[] copia = Arrays.copyOf(latencias, n < 0 ? JANELA_LATENCIA : Math.min(n + 1, JANELA_LATENCIA));
+            Arrays.sort(copia);
+            long p = copia[Math.min(copia.length - 1, (int) (percentilHedge * copia.length))];
+            atrasoHedgeNanos = Math.max(atrasoMinimoHedgeNanos, p);
+        }
+    }
+
+    /**
+     * Atraso a partir do qual um pedido sem resposta ganha uma segunda tentativa em outra réplica
+     *
+     * @return Long.MAX_VALUE enquanto o hedge estiver desativado ou sem amostras suficientes
+     */
+    public long getAtrasoHedgeNanos() {
+        return hedgeAtivo ? atrasoHedgeNanos : Long.MAX_VALUE;
+    }
+
+    public boolean isHedgeAtivo() {
+        return hedgeAtivo;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Uma réplica do modelo (URL base) e seu estado no balanceador
+     */
+    public static final class Replica {
+
+        private final String url;
+        private final AtomicInteger emAndamento = new AtomicInteger();
+        private final AtomicInteger falhasSeguidas = new AtomicInteger();
+        // 0 = nunca ejetada; senão, System.nanoTime() em que volta à rotação
+        private volatile long ejetadaAte;
+        // Respondeu em CBOR: as requisições também vão em CBOR (PythonWireFormat)
+        private volatile boolean aceitaCbor;
+
+        Replica(String url) {
+            this.url = url;
+        }
+
+        public String url() {
+            return url;
+        }
+
+        public int emAndamento() {
+            return emAndamento.get();
+        }
+
+        boolean aceitaCbor() {
+            return aceitaCbor;
+        }
+
+        void aceitaCbor(boolean aceita) {
+            this.aceitaCbor = aceita;
+        }
+
+        boolean ejetada(long agora) {
+            long ate = ejetadaAte;
+            return ate != 0 && agora - ate < 0;
+        }
+    }
+}
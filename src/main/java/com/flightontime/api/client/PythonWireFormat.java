@@ -0,0 +1,158 @@
+package com.flightontime.api.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.flightontime.api.client.PythonReplicaBalancer.Replica;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Formato do corpo nas chamadas ao Python: JSON ou CBOR (binário), negociado por Content-Type
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * NEGOCIAÇÃO (por réplica, sem configuração no Python):
+ * - Com prediction.python.wire.format=cbor, toda chamada envia Accept: application/cbor
+ *   (JSON como segunda opção); a primeira requisição a cada réplica vai em JSON
+ * - A réplica respondeu em CBOR → anunciou suporte: as próximas requisições vão em CBOR
+ * - Respondeu em JSON (Python sem cbor2, mock_python_service.py...) → continua em JSON
+ * - 415 para um corpo CBOR (réplica trocada por uma versão sem suporte) → volta a JSON
+ *   e repete a chamada uma vez
+ *
+ * O mapper CBOR é uma cópia do ObjectMapper do Spring: mesmos módulos e (de)serializers
+ * (FeatureImportances/LocalExplanation leem e escrevem qualquer formato do Jackson).
+ */
+@Slf4j
+@Component
+public class PythonWireFormat {
+
+    public static final String CBOR = "application/cbor";
+
+    private static final String ACCEPT_CBOR = CBOR + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.5";
+
+    private final ObjectMapper json;
+    private final ObjectMapper cbor;
+    private final boolean cborAtivo;
+
+    private final DistributionSummary enviadosJson;
+    private final DistributionSummary enviadosCbor;
+    private final DistributionSummary recebidosJson;
+    private final DistributionSummary recebidosCbor;
+    private final Counter recusas;
+
+    public PythonWireFormat(
+            ObjectMapper objectMapper,
+            @Value("${prediction.python.wire.format:cbor}") String formato,
+            MeterRegistry meterRegistry) {
+        if (!formato.equalsIgnoreCase("json") && !formato.equalsIgnoreCase("cbor")) {
+            throw new IllegalArgumentException("prediction.python.wire.format deve ser json ou cbor: " + formato);
+        }
+        this.json = objectMapper;
+        this.cbor = objectMapper.copyWith(new CBORFactory());
+        this.cborAtivo = formato.equalsIgnoreCase("cbor");
+
+        this.enviadosJson = tamanho(meterRegistry, "enviado", "json");
+        this.enviadosCbor = tamanho(meterRegistry, "enviado", "cbor");
+        this.recebidosJson = tamanho(meterRegistry, "recebido", "json");
+        this.recebidosCbor = tamanho(meterRegistry, "recebido", "cbor");
+        this.recusas = Counter.builder("prediction.python.wire.fallbacks")
+                .description("Corpos CBOR recusados pelo Python (415) e reenviados em JSON")
+                .register(meterRegistry);
+
+        log.info("📦 Formato com o Python: {}", cborAtivo ? "CBOR (negociado, JSON como fallback)" : "JSON");
+    }
+
+    private static DistributionSummary tamanho(MeterRegistry registry, String direcao, String formato) {
+        return DistributionSummary.builder("prediction.python.wire.size")
+                .description("Tamanho dos corpos trocados com o Python (já descompactados)")
+                .baseUnit("bytes")
+                .tag("direcao", direcao)
+                .tag("formato", formato)
+                .register(registry);
+    }
+
+    /**
+     * Corpo pronto para enviar
+     *
+     * @param contentType Content-Type do corpo
+     * @param bytes       Corpo serializado
+     */
+    public record Corpo(String contentType, byte[] bytes) {
+
+        boolean binario() {
+            return CBOR.equals(contentType);
+        }
+    }
+
+    /**
+     * Accept das chamadas ao Python (CBOR primeiro, se ativo)
+     */
+    public String accept() {
+        return cborAtivo ? ACCEPT_CBOR : MediaType.APPLICATION_JSON_VALUE;
+    }
+
+    /**
+     * Serializa a requisição no formato que a réplica já anunciou
+     */
+    public Corpo codificar(Object valor, Replica replica) throws IOException {
+        if (cborAtivo && replica.aceitaCbor()) {
+            byte[] bytes = cbor.writeValueAsBytes(valor);
+            enviadosCbor.record(bytes.length);
+            return new Corpo(CBOR, bytes);
+        }
+        byte[] bytes = json.writeValueAsBytes(valor);
+        enviadosJson.record(bytes.length);
+        return new Corpo(MediaType.APPLICATION_JSON_VALUE, bytes);
+    }
+
+    /**
+     * Atualiza o que a réplica suporta a partir da resposta
+     *
+     * @return true se a réplica recusou o corpo CBOR (415): reenviar em JSON
+     */
+    public boolean observar(Replica replica, Corpo enviado, PythonHttpResponse resposta) {
+        if (enviado.binario() && resposta.status() == 415) {
+            replica.aceitaCbor(false);
+            recusas.increment();
+            log.warn("📦 Réplica {} recusou CBOR - voltando a JSON", replica.url());
+            return true;
+        }
+        observar(replica, resposta);
+        return false;
+    }
+
+    /**
+     * Atualiza o que a réplica suporta a partir de uma resposta 2xx (Content-Type)
+     */
+    public void observar(Replica replica, PythonHttpResponse resposta) {
+        if (!cborAtivo || !resposta.sucesso() || resposta.corpo().length == 0) {
+            return;
+        }
+        boolean binario = CBOR.equals(resposta.contentType());
+        if (binario != replica.aceitaCbor()) {
+            replica.aceitaCbor(binario);
+            log.info("📦 Réplica {} {} CBOR", replica.url(), binario ? "anunciou" : "deixou de anunciar");
+        }
+    }
+
+    /**
+     * Lê o corpo da resposta conforme o Content-Type (CBOR ou JSON)
+     */
+    public <T> T ler(PythonHttpResponse resposta, Class<T> tipo) {
+        boolean binario = CBOR.equals(resposta.contentType());
+        (binario ? recebidosCbor : recebidosJson).record(resposta.corpo().length);
+        try {
+            return (binario ? cbor : json).readValue(resposta.corpo(), tipo);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.flightontime.api.client;
+
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transporte usado pelo PythonPredictionClient: escolhe pelo esquema da URL da réplica
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * - http:// e https:// → ApacheAsyncPythonTransport (TCP, pool keep-alive)
+ * - http+unix://       → UnixSocketPythonTransport (sidecar no mesmo host)
+ * As réplicas de prediction.service.url podem misturar os dois.
+ */
+@Primary
+@Component
+public class RoutingPythonTransport implements PythonHttpTransport {
+
+    private final ApacheAsyncPythonTransport tcp;
+    private final UnixSocketPythonTransport unix;
+
+    public RoutingPythonTransport(ApacheAsyncPythonTransport tcp, UnixSocketPythonTransport unix) {
+        this.tcp = tcp;
+        this.unix = unix;
+    }
+
+    @Override
+    public CompletableFuture<PythonHttpResponse> post(String url, String contentType, String accept, byte[] corpo) {
+        return transporte(url).post(url, contentType, accept, corpo);
+    }
+
+    @Override
+    public CompletableFuture<PythonHttpResponse> get(String url, String accept) {
+        return transporte(url).get(url, accept);
+    }
+
+    private PythonHttpTransport transporte(String url) {
+        return url.startsWith(UnixSocketPythonTransport.ESQUEMA) ? unix : tcp;
+    }
+}
@@ -0,0 +1,421 @@
+package com.flightontime.api.client;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.URLDecoder;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transporte HTTP/1.1 sobre socket Unix (Python como sidecar no mesmo host)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * prediction.service.url=http+unix://%2Frun%2Fflightontime%2Fmodel.sock
+ * (o "host" é o caminho do socket com as barras codificadas; o caminho HTTP vem depois)
+ * e o Python sobe com: uvicorn api_app:app --uds /run/flightontime/model.sock
+ *
+ * Sem pilha TCP de loopback (checksum, janela, Nagle, portas efêmeras): o kernel só copia
+ * os bytes de um processo para o outro. O Apache HttpClient não fala socket Unix, então
+ * este transporte usa SocketChannel (JDK 16+) com um HTTP/1.1 mínimo:
+ * - conexões keep-alive reaproveitadas (prediction.http.pool.max-per-route por socket)
+ * - Content-Length ou chunked, gzip (prediction.python.wire.compression)
+ * - cada troca roda numa thread virtual: a I/O bloqueante não prende thread de plataforma
+ * - prazo da troca (prediction.http.socket-timeout): estourou → a conexão é fechada
+ */
+@Slf4j
+@Component
+public class UnixSocketPythonTransport implements PythonHttpTransport {
+
+    public static final String ESQUEMA = "http+unix://";
+
+    // O uvicorn fecha conexões ociosas após 5s (--timeout-keep-alive): descarta antes disso
+    private static final long OCIOSA_MAXIMO_NANOS = TimeUnit.SECONDS.toNanos(4);
+    private static final byte[] VAZIO = new byte[0];
+
+    private final long prazoMs;
+    private final long esperaConexaoMs;
+    private final boolean compressao;
+    private final int maxPorSocket;
+    private final Map<Path, Semaphore> vagas = new ConcurrentHashMap<>();
+    private final Map<Path, ConcurrentLinkedDeque<Conexao>> ociosas = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledThreadPoolExecutor prazos = agendador();
+
+    public UnixSocketPythonTransport(
+            @Value("${prediction.http.pool.max-per-route:20}") int maxPorSocket,
+            @Value("${prediction.http.socket-timeout:${prediction.service.timeout:5000}}") long prazoMs,
+            @Value("${prediction.http.pool-acquire-timeout:1000}") long esperaConexaoMs,
+            @Value("${prediction.python.wire.compression:true}") boolean compressao) {
+        this.maxPorSocket = maxPorSocket;
+        this.prazoMs = prazoMs;
+        this.esperaConexaoMs = esperaConexaoMs;
+        this.compressao = compressao;
+    }
+
+    @Override
+    public CompletableFuture<PythonHttpResponse> post(String url, String contentType, String accept, byte[] corpo) {
+        return executar("POST", url, contentType, accept, corpo);
+    }
+
+    @Override
+    public CompletableFuture<PythonHttpResponse> get(String url, String accept) {
+        return executar("GET", url, null, accept, VAZIO);
+    }
+
+    private CompletableFuture<PythonHttpResponse> executar(
+            String metodo, String url, String contentType, String accept, byte[] corpo) {
+        Destino destino;
+        try {
+            destino = Destino.de(url);
+        } catch (IllegalArgumentException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        byte[] cabecalho = cabecalho(metodo, destino.caminho(), contentType, accept, corpo.length);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return trocar(destino.socket(), cabecalho, corpo);
+            } catch (IOException ex) {
+                throw new CompletionException(ex);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(ex);
+            }
+        }, executor);
+    }
+
+    private byte[] cabecalho(String metodo, String caminho, String contentType, String accept, int tamanho) {
+        StringBuilder http = new StringBuilder(160)
+                .append(metodo).append(' ').append(caminho).append(" HTTP/1.1\r\n")
+                .append("Host: localhost\r\n")
+                .append("Accept: ").append(accept).append("\r\n");
+        if (compressao) {
+            http.append("Accept-Encoding: gzip\r\n");
+        }
+        if (contentType != null) {
+            http.append("Content-Type: ").append(contentType).append("\r\n");
+        }
+        if (tamanho > 0 || "POST".equals(metodo)) {
+            http.append("Content-Length: ").append(tamanho).append("\r\n");
+        }
+        return http.append("\r\n").toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private PythonHttpResponse trocar(Path socket, byte[] cabecalho, byte[] corpo) throws IOException, InterruptedException {
+        Semaphore vaga = vagas.computeIfAbsent(socket, s -> new Semaphore(maxPorSocket));
+        if (!vaga.tryAcquire(esperaConexaoMs, TimeUnit.MILLISECONDS)) {
+            throw new IOException("Sem conexão livre com " + socket + " após " + esperaConexaoMs + " ms");
+        }
+        try {
+            while (true) {
+                Conexao conexao = ociosa(socket);
+                boolean reaproveitada = conexao != null;
+                if (conexao == null) {
+                    conexao = Conexao.abrir(socket);
+                }
+                try {
+                    Conexao.Resposta resposta = conexao.trocar(cabecalho, corpo, prazoMs, prazos);
+                    if (resposta.manterAberta()) {
+                        ociosas.computeIfAbsent(socket, s -> new ConcurrentLinkedDeque<>()).offerFirst(conexao);
+                    } else {
+                        conexao.fechar();
+                    }
+                    return resposta.resposta();
+                } catch (IOException ex) {
+                    conexao.fechar();
+                    if (conexao.expirou()) {
+                        throw new SocketTimeoutException("Sem resposta de " + socket + " em " + prazoMs + " ms");
+                    }
+                    // Conexão ociosa fechada pelo Python sem aviso: repete em outra (o pedido não chegou)
+                    if (reaproveitada && !conexao.recebeuAlgo()) {
+                        log.debug("🔌 Conexão ociosa com {} encerrada pelo Python - repetindo", socket);
+                        continue;
+                    }
+                    throw ex;
+                }
+            }
+        } finally {
+            vaga.release();
+        }
+    }
+
+    private Conexao ociosa(Path socket) {
+        ConcurrentLinkedDeque<Conexao> fila = ociosas.get(socket);
+        if (fila == null) {
+            return null;
+        }
+        long agora = System.nanoTime();
+        Conexao conexao;
+        while ((conexao = fila.pollFirst()) != null) {
+            if (agora - conexao.ultimoUso() < OCIOSA_MAXIMO_NANOS && conexao.aberta()) {
+                return conexao;
+            }
+            conexao.fechar();
+        }
+        return null;
+    }
+
+    /**
+     * Uma thread para os prazos de todas as trocas; prazo cancelado sai da fila na hora
+     */
+    private static ScheduledThreadPoolExecutor agendador() {
+        ScheduledThreadPoolExecutor agendador = new ScheduledThreadPoolExecutor(1, tarefa -> {
+            Thread thread = new Thread(tarefa, "uds-prazo");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.setRemoveOnCancelPolicy(true);
+        return agendador;
+    }
+
+    int prazosPendentes() {
+        return prazos.getQueue().size();
+    }
+
+    @PreDestroy
+    public void fechar() {
+        executor.shutdownNow();
+        prazos.shutdownNow();
+        ociosas.values().forEach(fila -> fila.forEach(Conexao::fechar));
+        ociosas.clear();
+    }
+
+    /**
+     * Socket e caminho HTTP de uma URL http+unix://
+     */
+    record Destino(Path socket, String caminho) {
+
+        static Destino de(String url) {
+            if (!url.startsWith(ESQUEMA)) {
+                throw new IllegalArgumentException("URL de socket Unix deve começar com " + ESQUEMA + ": " + url);
+            }
+            String resto = url.substring(ESQUEMA.length());
+            int barra = resto.indexOf('/');
+            String host = barra < 0 ? resto : resto.substring(0, barra);
+            if (host.isEmpty()) {
+                throw new IllegalArgumentException("URL sem o caminho do socket: " + url);
+            }
+            return new Destino(Path.of(URLDecoder.decode(host, StandardCharsets.UTF_8)),
+                    barra < 0 ? "/" : resto.substring(barra));
+        }
+    }
+
+    /**
+     * Uma conexão keep-alive com o socket (usada por uma troca de cada vez)
+     */
+    private static final class Conexao {
+
+        private static final AtomicLong TROCAS = new AtomicLong();
+
+        private final SocketChannel canal;
+        private final ByteBuffer entrada = ByteBuffer.allocate(8192).flip();
+        private volatile long trocaAtual;
+        private volatile boolean expirou;
+        private long ultimoUso = System.nanoTime();
+        private boolean recebeuAlgo;
+
+        private Conexao(SocketChannel canal) {
+            this.canal = canal;
+        }
+
+        static Conexao abrir(Path socket) throws IOException {
+            SocketChannel canal = SocketChannel.open(StandardProtocolFamily.UNIX);
+            try {
+                canal.connect(UnixDomainSocketAddress.of(socket));
+            } catch (IOException ex) {
+                canal.close();
+                throw ex;
+            }
+            return new Conexao(canal);
+        }
+
+        record Resposta(PythonHttpResponse resposta, boolean manterAberta) {
+        }
+
+        Resposta trocar(byte[] cabecalho, byte[] corpo, long prazoMs, ScheduledExecutorService prazos) throws IOException {
+            recebeuAlgo = false;
+            long troca = TROCAS.incrementAndGet();
+            trocaAtual = troca;
+            // Prazo: fecha o canal, o que destrava a leitura bloqueada (AsynchronousCloseException)
+            ScheduledFuture<?> prazo = prazos.schedule(() -> {
+                if (trocaAtual == troca) {
+                    expirou = true;
+                    fechar();
+                }
+            }, prazoMs, TimeUnit.MILLISECONDS);
+            try {
+                ByteBuffer[] saida = {ByteBuffer.wrap(cabecalho), ByteBuffer.wrap(corpo)};
+                while (saida[1].hasRemaining() || saida[0].hasRemaining()) {
+                    canal.write(saida);
+                }
+                return lerResposta();
+            } finally {
+                trocaAtual = 0;
+                prazo.cancel(false);
+                ultimoUso = System.nanoTime();
+            }
+        }
+
+        private Resposta lerResposta() throws IOException {
+            String linhaStatus = lerLinha();
+            String[] partes = linhaStatus.split(" ", 3);
+            if (partes.length < 2 || !partes[0].startsWith("HTTP/1.")) {
+                throw new IOException("Resposta HTTP inválida do socket: " + linhaStatus);
+            }
+            int status = Integer.parseInt(partes[1]);
+
+            long tamanho = -1;
+            boolean chunked = false;
+            boolean manterAberta = partes[0].equals("HTTP/1.1");
+            String contentType = null;
+            String contentEncoding = null;
+            String linha;
+            while (!(linha = lerLinha()).isEmpty()) {
+                int doisPontos = linha.indexOf(':');
+                if (doisPontos <= 0) {
+                    continue;
+                }
+                String nome = linha.substring(0, doisPontos).strip().toLowerCase(Locale.ROOT);
+                String valor = linha.substring(doisPontos + 1).strip();
+                switch (nome) {
+                    case "content-length" -> tamanho = Long.parseLong(valor);
+                    case "transfer-encoding" -> chunked = valor.toLowerCase(Locale.ROOT).contains("chunked");
+                    case "content-type" -> contentType = valor.split(";", 2)[0].strip();
+                    case "content-encoding" -> contentEncoding = valor;
+                    case "connection" -> manterAberta = !valor.equalsIgnoreCase("close");
+                    default -> {
+                    }
+                }
+            }
+
+            byte[] corpo;
+            if (status == 204 || status == 304) {
+                corpo = VAZIO;
+            } else if (chunked) {
+                corpo = lerChunked();
+            } else if (tamanho >= 0) {
+                corpo = lerBytes(Math.toIntExact(tamanho));
+            } else {
+                corpo = lerAteFim();
+                manterAberta = false;
+            }
+            return new Resposta(new PythonHttpResponse(status, contentType,
+                    PythonHttpResponse.descompactar(corpo, contentEncoding)), manterAberta);
+        }
+
+        private int lerByte() throws IOException {
+            if (!entrada.hasRemaining()) {
+                entrada.clear();
+                int lidos = canal.read(entrada);
+                entrada.flip();
+                if (lidos < 0) {
+                    return -1;
+                }
+                recebeuAlgo = true;
+            }
+            return entrada.get() & 0xff;
+        }
+
+        private String lerLinha() throws IOException {
+            StringBuilder linha = new StringBuilder(64);
+            int b;
+            while ((b = lerByte()) != '\n') {
+                if (b < 0) {
+                    throw new IOException("Conexão com o socket encerrada no meio da resposta");
+                }
+                if (b != '\r') {
+                    linha.append((char) b);
+                }
+            }
+            return linha.toString();
+        }
+
+        private byte[] lerBytes(int tamanho) throws IOException {
+            byte[] corpo = new byte[tamanho];
+            int lidos = Math.min(entrada.remaining(), tamanho);
+            entrada.get(corpo, 0, lidos);
+            ByteBuffer destino = ByteBuffer.wrap(corpo, lidos, tamanho - lidos);
+            while (destino.hasRemaining()) {
+                if (canal.read(destino) < 0) {
+                    throw new IOException("Conexão com o socket encerrada no meio do corpo");
+                }
+            }
+            return corpo;
+        }
+
+        private byte[] lerChunked() throws IOException {
+            ByteArrayOutputStream corpo = new ByteArrayOutputStream();
+            while (true) {
+                String linha = lerLinha();
+                int fim = linha.indexOf(';');
+                int tamanho = Integer.parseInt((fim < 0 ? linha : linha.substring(0, fim)).strip(), 16);
+                if (tamanho == 0) {
+                    // Trailers (se houver) até a linha vazia
+                    while (!lerLinha().isEmpty()) {
+                        // ignorados
+                    }
+                    return corpo.toByteArray();
+                }
+                corpo.writeBytes(lerBytes(tamanho));
+                lerLinha();
+            }
+        }
+
+        private byte[] lerAteFim() throws IOException {
+            ByteArrayOutputStream corpo = new ByteArrayOutputStream();
+            int b;
+            while ((b = lerByte()) >= 0) {
+                corpo.write(b);
+            }
+            return corpo.toByteArray();
+        }
+
+        long ultimoUso() {
+            return ultimoUso;
+        }
+
+        boolean recebeuAlgo() {
+            return recebeuAlgo;
+        }
+
+        boolean expirou() {
+            return expirou;
+        }
+
+        boolean aberta() {
+            return canal.isOpen();
+        }
+
+        void fechar() {
+            try {
+                canal.close();
+            } catch (IOException ignorada) {
+                // já estava fechada
+            }
+        }
+    }
+}
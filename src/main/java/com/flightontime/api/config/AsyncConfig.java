@@ -0,0 +1,60 @@
+package com.flightontime.api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Configuração do pool de threads usado no fan-out de previsões
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Pool limitado: evita que um lote grande dispare centenas de chamadas
+ * simultâneas ao Python. Quando a fila enche, a própria thread da
+ * requisição executa o item (CallerRunsPolicy) em vez de rejeitar.
+ *
+ * Com spring.threads.virtual.enabled=true, cada item roda numa thread virtual;
+ * o paralelismo continua limitado (concurrency limit), só deixa de existir o pool.
+ */
+@Slf4j
+@Configuration
+public class AsyncConfig {
+
+    @Value("${prediction.batch.parallelism:16}")
+    private int parallelism;
+
+    @Value("${prediction.batch.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean threadsVirtuais;
+
+    @Bean(name = "predictionExecutor")
+    public Executor predictionExecutor() {
+        if (threadsVirtuais) {
+            log.info("🔧 Configurando predictionExecutor com threads virtuais (máximo de {} simultâneas)", parallelism);
+
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("prediction-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(parallelism);
+            return executor;
+        }
+
+        log.info("🔧 Configurando predictionExecutor com {} threads (fila: {})", parallelism, queueCapacity);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("prediction-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,65 @@
+package com.flightontime.api.config;
+
+import com.flightontime.api.service.DepartureAwareExpiry;
+import com.flightontime.api.service.PredictionWeigher;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Configuração do cache de previsões (Caffeine)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * - TTL por entrada, de acordo com a proximidade da partida (DepartureAwareExpiry)
+ * - Tamanho limitado por peso estimado em bytes, não por quantidade (PredictionWeigher)
+ * - Estatísticas habilitadas (expostas pelo actuator em cache.gets, cache.evictions...)
+ */
+@Slf4j
+@Configuration
+public class CacheConfig {
+
+    public static final String PREDICTIONS_CACHE = "predictions";
+
+    @Value("${prediction.cache.ttl.tiers:2h=5m,24h=30m,7d=2h}")
+    private String ttlTiers;
+
+    @Value("${prediction.cache.ttl.default:6h}")
+    private Duration ttlPadrao;
+
+    @Value("${prediction.cache.max-weight:32MB}")
+    private DataSize pesoMaximo;
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+
+    @Bean
+    public DepartureAwareExpiry predictionExpiry(Clock clock) {
+        return new DepartureAwareExpiry(DepartureAwareExpiry.parseTiers(ttlTiers), ttlPadrao, clock);
+    }
+
+    @Bean
+    public CacheManager cacheManager(DepartureAwareExpiry predictionExpiry) {
+        log.info("🗄️ Cache '{}': faixas de TTL [{}], TTL padrão {}, peso máximo {}",
+                PREDICTIONS_CACHE, ttlTiers, ttlPadrao, pesoMaximo);
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(PREDICTIONS_CACHE, Caffeine.newBuilder()
+                .expireAfter(predictionExpiry)
+                .maximumWeight(pesoMaximo.toBytes())
+                .weigher(new PredictionWeigher())
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,149 @@
+package com.flightontime.api.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Configuração do client HTTP assíncrono usado para falar com o Python
+ * com pool de conexões keep-alive e timeouts configuráveis
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Este Bean será injetado no ApacheAsyncPythonTransport (substitui o antigo RestTemplate)
+ *
+ * I/O NÃO BLOQUEANTE (Apache HttpClient 5 async):
+ * - Poucas threads de I/O (io-threads) atendem todas as chamadas em andamento
+ * - Nenhuma thread da requisição fica parada durante a ida ao modelo
+ * - As respostas são entregues no pythonResponseExecutor (response-threads): gzip/CBOR,
+ *   tradução, cache, fallback e a vaga do bulkhead não ocupam as threads de I/O
+ *
+ * POOL:
+ * - Conexões reaproveitadas entre previsões (sem handshake TCP a cada chamada)
+ * - Limite total e por rota (host do Python)
+ * - Conexões ociosas/expiradas são removidas em background
+ *
+ * TIMEOUTS (independentes):
+ * - connect: abrir a conexão TCP
+ * - socket: aguardar dados da resposta
+ * - pool-acquire: aguardar uma conexão livre no pool
+ */
+@Slf4j
+@Configuration
+public class PythonHttpClientConfig {
+
+    @Value("${prediction.http.pool.max-total:50}")
+    private int maxTotal;
+
+    @Value("${prediction.http.pool.max-per-route:20}")
+    private int maxPerRoute;
+
+    @Value("${prediction.http.pool.idle-eviction:30000}")
+    private long idleEvictionMs;
+
+    @Value("${prediction.http.connect-timeout:${prediction.service.timeout:5000}}")
+    private long connectTimeoutMs;
+
+    @Value("${prediction.http.socket-timeout:${prediction.service.timeout:5000}}")
+    private long socketTimeoutMs;
+
+    @Value("${prediction.http.pool-acquire-timeout:1000}")
+    private long poolAcquireTimeoutMs;
+
+    @Value("${prediction.http.io-threads:2}")
+    private int ioThreads;
+
+    @Value("${prediction.http.response-threads:0}")
+    private int responseThreads;
+
+    @Bean(destroyMethod = "close")
+    public PoolingAsyncClientConnectionManager pythonConnectionManager() {
+        log.info("🔧 Configurando pool HTTP: total={}, por rota={}, connect={}ms, socket={}ms",
+                maxTotal, maxPerRoute, connectTimeoutMs, socketTimeoutMs);
+
+        return PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(socketTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient pythonHttpClient(PoolingAsyncClientConnectionManager pythonConnectionManager) {
+        log.info("🔧 Configurando client HTTP assíncrono com {} thread(s) de I/O", ioThreads);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolAcquireTimeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(socketTimeoutMs))
+                .build();
+
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(pythonConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setIoThreadCount(ioThreads)
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictionMs))
+                .build();
+        client.start();
+        return client;
+    }
+
+    /**
+     * Threads que concluem os futures das respostas do Python (0 = uma por núcleo)
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService pythonResponseExecutor() {
+        int threads = responseThreads > 0 ? responseThreads : Runtime.getRuntime().availableProcessors();
+        log.info("🔧 Configurando {} thread(s) para processar as respostas do Python", threads);
+
+        AtomicInteger sequencia = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, tarefa -> {
+            Thread thread = new Thread(tarefa, "python-resposta-" + sequencia.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Utilização do pool exposta no actuator (/actuator/metrics e /actuator/prometheus)
+     */
+    @Bean
+    public MeterBinder pythonConnectionPoolMetrics(PoolingAsyncClientConnectionManager pythonConnectionManager) {
+        return registry -> {
+            Gauge.builder("prediction.http.pool.leased", pythonConnectionManager, cm -> cm.getTotalStats().getLeased())
+                    .description("Conexões em uso com o serviço Python")
+                    .register(registry);
+            Gauge.builder("prediction.http.pool.pending", pythonConnectionManager, cm -> cm.getTotalStats().getPending())
+                    .description("Requisições aguardando conexão livre no pool")
+                    .register(registry);
+            Gauge.builder("prediction.http.pool.available", pythonConnectionManager, cm -> cm.getTotalStats().getAvailable())
+                    .description("Conexões ociosas prontas para reuso")
+                    .register(registry);
+            Gauge.builder("prediction.http.pool.max", pythonConnectionManager, cm -> cm.getTotalStats().getMax())
+                    .description("Tamanho máximo do pool")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.flightontime.api.config;
+
+import com.flightontime.api.interceptor.RateLimitRedisConnector;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Rate limit compartilhado entre as réplicas da API (prediction.ratelimit.mode=redis)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Sem esta configuração (mode=local) cada réplica tem os próprios buckets e o limite
+ * efetivo é capacity x número de réplicas. Com ela os buckets ficam num Redis (ou
+ * qualquer servidor compatível: Valkey, KeyDB, Dragonfly...) via Bucket4j + Lettuce,
+ * com compare-and-swap por chave; RateLimitBucketStore aplica o pre-fetch local.
+ *
+ * - Comandos com timeout curto e rejeitados na hora com o Redis fora
+ *   (o store cai para buckets locais em vez de segurar a requisição)
+ * - Redis fora na subida não derruba a API (RateLimitRedisConnector conecta depois)
+ * - Chaves expiram no Redis assim que o bucket estaria cheio de novo
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "prediction.ratelimit.mode", havingValue = "redis")
+public class RateLimitConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public RedisClient rateLimitRedisClient(
+            @Value("${prediction.ratelimit.redis.uri:redis://localhost:6379}") String uri,
+            @Value("${prediction.ratelimit.redis.timeout:200ms}") Duration timeout,
+            @Value("${prediction.ratelimit.redis.connect-timeout:1s}") Duration timeoutConexao) {
+        RedisURI redisUri = RedisURI.create(uri);
+        redisUri.setTimeout(timeout);
+        log.info("🚦 Rate limit compartilhado no Redis {}:{} (timeout {}ms)",
+                redisUri.getHost(), redisUri.getPort(), timeout.toMillis());
+
+        RedisClient client = RedisClient.create(redisUri);
+        client.setOptions(ClientOptions.builder()
+                .timeoutOptions(TimeoutOptions.enabled(timeout))
+                .socketOptions(SocketOptions.builder().connectTimeout(timeoutConexao).build())
+                .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                .build());
+        return client;
+    }
+
+    /**
+     * Conecta já na subida, mas sem falhar: com o Redis fora a API sobe com buckets locais
+     * e a conexão é tentada de novo sob demanda
+     */
+    @Bean(destroyMethod = "fechar")
+    public RateLimitRedisConnector rateLimitRedisConnector(
+            RedisClient rateLimitRedisClient,
+            @Value("${prediction.ratelimit.redis.key-prefix:flightontime:ratelimit:}") String prefixo,
+            @Value("${prediction.ratelimit.redis.reconnect-interval:5s}") Duration intervaloNovaTentativa) {
+        RateLimitRedisConnector conector = new RateLimitRedisConnector(rateLimitRedisClient, prefixo, intervaloNovaTentativa);
+        conector.proxyManager();
+        return conector;
+    }
+}
@@ -1,5 +1,6 @@
 package com.flightontime.api.config;
 
+import com.flightontime.api.interceptor.ConcurrencyLimitInterceptor;
 import com.flightontime.api.interceptor.RateLimitInterceptor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
@@ -11,7 +12,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 /**
  * Configuração unificada do Spring MVC
  * - Gerencia Segurança (CORS)
- * - Gerencia Performance (Rate Limit)
+ * - Gerencia Performance (Rate Limit e limite de concorrência)
  */
 @Configuration
 @RequiredArgsConstructor
@@ -20,20 +21,31 @@ public class WebMvcConfig implements WebMvcConfigurer {
     @NonNull
     private final RateLimitInterceptor rateLimitInterceptor;
 
+    @NonNull
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+
     // ---Configuração de CORS ---
     @Override
     public void addCorsMappings(@NonNull CorsRegistry registry) {
         registry.addMapping("/**")
                 .allowedOrigins("*")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
-                .allowedHeaders("*");
+                .allowedHeaders("*")
+                .exposedHeaders("X-RateLimit-Limit", "X-RateLimit-Remaining", "X-RateLimit-Reset", "Retry-After",
+                        "X-Degradation-Level", "Server-Timing");
     }
 
-    // --- Configuração de Interceptors (Rate Limit) ---
+    // --- Configuração de Interceptors (Rate Limit + limite de concorrência) ---
     @Override
     public void addInterceptors(@NonNull InterceptorRegistry registry) {
         registry.addInterceptor(rateLimitInterceptor)
                 .addPathPatterns("/api/**")
                 .excludePathPatterns("/actuator/**", "/swagger-ui/**", "/v3/api-docs/**");
+
+        // Depois do rate limit: abuso por IP é barrado antes de ocupar uma vaga.
+        // Só o /predict unitário: lote (prazo de segundos) e explicação têm latência de outra
+        // ordem e, no mesmo gradiente, derrubariam o limite das previsões simples (503 à toa)
+        registry.addInterceptor(concurrencyLimitInterceptor)
+                .addPathPatterns("/api/v1/predict");
     }
 }
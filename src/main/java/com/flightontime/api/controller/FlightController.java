@@ -1,9 +1,16 @@
 package com.flightontime.api.controller;
 
+import com.flightontime.api.client.PythonHealthProber;
+import com.flightontime.api.dto.BatchPredictionResponse;
+import com.flightontime.api.dto.ErrorResponse;
 import com.flightontime.api.dto.FlightPredictionRequest;
 import com.flightontime.api.dto.FlightPredictionResponse;
+import com.flightontime.api.service.BatchPredictionService;
 import com.flightontime.api.service.FlightPredictionService;
+import com.flightontime.api.service.GlobalExplainabilityService;
+import com.flightontime.api.service.NivelAplicado;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,10 +19,18 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -31,10 +46,25 @@ import java.util.Map;
 public class FlightController {
 
     private final FlightPredictionService predictionService;
+    private final BatchPredictionService batchPredictionService;
+    private final GlobalExplainabilityService globalExplainabilityService;
+    private final PythonHealthProber pythonHealthProber;
+
+    // Nível de degradação aplicado a esta resposta (completo, sem_explicacao, so_cache, regras)
+    static final String X_DEGRADATION_LEVEL = "X-Degradation-Level";
+
+    // Por quanto tempo o navegador/CDN pode reusar a explicabilidade global sem revalidar
+    @Value("${prediction.explain.global.max-age:1h}")
+    private Duration maxAgeExplicabilidadeGlobal = Duration.ofHours(1);
+
+    @Value("${prediction.explain.global.retry-interval:10s}")
+    private Duration intervaloNovaTentativa = Duration.ofSeconds(10);
 
     @Operation(
         summary = "Prever atraso de voo",
-        description = "Recebe informações do voo e retorna a previsão de atraso com probabilidade associada"
+        description = "Recebe informações do voo e retorna a previsão de atraso com probabilidade associada. "
+                + "A importância global do modelo é servida em GET /api/v1/explain/global; "
+                + "a explicabilidade local só vem quando pedida (explicabilidade_local = topk)."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -52,26 +82,147 @@ public class FlightController {
         )
     })
     @PostMapping("/predict")
-    public ResponseEntity<FlightPredictionResponse> predict(
-            @Valid @RequestBody FlightPredictionRequest request) {
+    public ResponseEntity<?> predict(
+            @Valid @RequestBody FlightPredictionRequest request,
+            @Parameter(description = "Inclui a explicabilidade global na resposta (compatibilidade com clientes antigos)")
+            @RequestParam(name = "explicabilidade_global", defaultValue = "false") boolean incluirGlobal,
+            @Parameter(description = "Quantidade de features na explicabilidade local (0 = sem explicação)")
+            @RequestParam(name = "explicabilidade_local", defaultValue = "0") int topk) {
         
         log.info("📨 Recebida requisição de previsão:  {} → {}", 
                 request.getOrigem(), 
                 request.getDestino());
 
-        FlightPredictionResponse response = predictionService.predict(request);
+        if (topk <= 0 && !incluirGlobal && predictionService.isSerializedCacheEnabled()) {
+            // Cache com a resposta já em JSON: bytes direto no corpo, sem ObjectMapper
+            byte[] json = predictionService.predictSerialized(request);
+            log.info("📤 Retornando previsão ({} bytes, pré-serializada)", json.length);
+            return ok().contentType(MediaType.APPLICATION_JSON).body(json);
+        }
+
+        FlightPredictionResponse response = topk > 0
+                ? predictionService.explain(request, topk)
+                : predictionService.predict(request);
+        if (incluirGlobal) {
+            response = globalExplainabilityService.anexar(response);
+        }
 
         log.info("📤 Retornando previsão: {}", response.getPrevisao());
         
-        return ResponseEntity.ok(response);
+        return ok().body(response);
+    }
+
+    @Operation(
+        summary = "Explicar a previsão de um voo",
+        description = "Retorna a previsão do voo (reaproveitando a do cache) com as topk features que mais "
+                + "pesaram. Só a explicação é calculada no Python; sem ela disponível, volta só a previsão."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Previsão com explicabilidade local",
+            content = @Content(schema = @Schema(implementation = FlightPredictionResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Dados inválidos fornecidos"
+        )
+    })
+    @PostMapping("/predict/explain")
+    public ResponseEntity<FlightPredictionResponse> explain(
+            @Valid @RequestBody FlightPredictionRequest request,
+            @Parameter(description = "Quantidade de features (limitada por prediction.explain.local.max-topk)")
+            @RequestParam(name = "topk", defaultValue = "8") int topk) {
+
+        log.info("📨 Recebida requisição de explicação: {} → {} (topk {})",
+                request.getOrigem(), request.getDestino(), topk);
+
+        return ok().body(predictionService.explain(request, topk));
+    }
+
+    @Operation(
+        summary = "Prever atraso de vários voos (lote)",
+        description = "Recebe uma lista de voos e retorna as previsões na mesma ordem. "
+                + "Voos idênticos são previstos uma única vez e cada item carrega seu próprio erro."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Lote processado (verifique o status de cada item)",
+            content = @Content(schema = @Schema(implementation = BatchPredictionResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Lista vazia ou acima do limite permitido"
+        )
+    })
+    @PostMapping("/predict/batch")
+    public ResponseEntity<BatchPredictionResponse> predictBatch(
+            @RequestBody List<FlightPredictionRequest> requests) {
+
+        log.info("📨 Recebida requisição de previsão em lote: {} voos", requests != null ? requests.size() : 0);
+
+        BatchPredictionResponse response = batchPredictionService.predictBatch(requests);
+
+        log.info("📤 Retornando lote: {} sucesso(s), {} falha(s)", response.getSucesso(), response.getFalhas());
+
+        return ok().body(response);
+    }
+
+    @Operation(
+        summary = "Explicabilidade global do modelo",
+        description = "Importância global das features, igual para todos os voos. "
+                + "Responde com ETag (versão do modelo): envie If-None-Match para receber 304 sem corpo."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Explicabilidade da versão atual do modelo",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Versão do modelo igual à do If-None-Match"
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Python indisponível e explicabilidade ainda não carregada",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    @GetMapping("/explain/global")
+    public ResponseEntity<?> explainGlobal() {
+        // 304: o Spring compara o ETag com o If-None-Match e descarta o corpo
+        return globalExplainabilityService.obter()
+                .<ResponseEntity<?>>map(snapshot -> ResponseEntity.ok()
+                        .eTag(snapshot.etag())
+                        .cacheControl(CacheControl.maxAge(maxAgeExplicabilidadeGlobal).cachePublic())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(snapshot.json()))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(intervaloNovaTentativa.toSeconds()))
+                        .body(ErrorResponse.builder()
+                                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                                .error("Service Unavailable")
+                                .message("Explicabilidade global indisponível no momento")
+                                .path("/api/v1/explain/global")
+                                .build()));
     }
 
-    @Operation(summary = "Health check detalhado", description = "Verifica status do backend e serviços dependentes")
+    @Operation(summary = "Health check detalhado",
+            description = "Verifica status do backend e serviços dependentes (Python: última verificação em background)")
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
-        boolean pythonUp = predictionService.isPythonHealthy();
+        PythonHealthProber.Estado python = pythonHealthProber.estado();
+        String circuito = predictionService.getPythonCircuitState();
         long uptime = java.lang.management.ManagementFactory.getRuntimeMXBean().getUptime();
 
+        Map<String, Object> pythonDetalhes = new LinkedHashMap<>();
+        pythonDetalhes.put("latencia_ms", python.latenciaMs());
+        pythonDetalhes.put("falhas_consecutivas", python.falhasConsecutivas());
+        pythonDetalhes.put("modelo_versao", python.modeloVersao());
+        pythonDetalhes.put("verificado_em", python.verificadoEm());
+
         return ResponseEntity.ok(Map.of(
                 "status", "UP",
                 "version", "1.0.0",
@@ -79,9 +230,17 @@ public class FlightController {
                 "uptime_ms", uptime,
                 "services", Map.of(
                         "java_backend", "UP",
-                        "python_ml", pythonUp ? "UP" : "DOWN"
+                        "python_ml", !python.verificado() ? "UNKNOWN" : python.up() ? "UP" : "DOWN",
+                        "python_circuit_breaker", circuito
                 ),
+                "python_ml", pythonDetalhes,
+                "degradation_level", predictionService.getNivelDegradacao().rotulo(),
                 "environment", System.getProperty("spring.profiles.active", "default")
         ));
     }
-}
\ No newline at end of file
+
+    private ResponseEntity.BodyBuilder ok() {
+        // Nível com que esta requisição foi atendida, não o global do momento (muda com as outras)
+        return ResponseEntity.ok().header(X_DEGRADATION_LEVEL, NivelAplicado.daRequisicao().nivel().rotulo());
+    }
+}
@@ -0,0 +1,55 @@
+package com.flightontime.api.controller;
+
+import com.flightontime.api.service.PipelineTimer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Header Server-Timing com o tempo de cada etapa da previsão
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Ex.: Server-Timing: mapeamento;dur=0.02, cache;dur=0.01, requisicao;dur=0.05, python;dur=41.80, traducao;dur=0.03, total;dur=42.10
+ * As etapas são registradas pelo PipelineTimer no atributo da requisição; o header precisa sair
+ * antes do corpo (um HandlerInterceptor.postHandle chegaria tarde), por isso fica aqui.
+ * Desligável com prediction.server-timing.enabled=false (expõe detalhes internos do pipeline).
+ */
+@RestControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String SERVER_TIMING = "Server-Timing";
+
+    private final boolean habilitado;
+
+    public ServerTimingAdvice(@Value("${prediction.server-timing.enabled:true}") boolean habilitado) {
+        this.habilitado = habilitado;
+    }
+
+    @Override
+    public boolean supports(@NonNull MethodParameter returnType,
+                            @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+        return habilitado;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body,
+                                  @NonNull MethodParameter returnType,
+                                  @NonNull MediaType selectedContentType,
+                                  @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  @NonNull ServerHttpRequest request,
+                                  @NonNull ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servlet
+                && servlet.getServletRequest().getAttribute(PipelineTimer.ATRIBUTO) instanceof PipelineTimer.Etapas etapas) {
+            response.getHeaders().set(SERVER_TIMING, etapas.serverTiming());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,45 @@
+package com.flightontime.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO com o resultado de UM item de uma previsão em lote
+ *
+ * Cada item carrega o próprio erro: um voo inválido não derruba o lote inteiro.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Resultado individual de um voo dentro do lote")
+public class BatchPredictionItem {
+
+    @Schema(description = "Posição do voo na lista enviada (começa em 0)", example = "0")
+    @JsonProperty("indice")
+    private Integer indice;
+
+    @Schema(description = "Situação do item", example = "OK", allowableValues = {"OK", "ERRO"})
+    @JsonProperty("status")
+    private String status;
+
+    @Schema(description = "Previsão do voo (presente quando status = OK)")
+    @JsonProperty("resultado")
+    private FlightPredictionResponse resultado;
+
+    @Schema(description = "Mensagem de erro do item (presente quando status = ERRO)", example = "Dados de entrada inválidos")
+    @JsonProperty("erro")
+    private String erro;
+
+    @Schema(description = "Lista de erros de validação do item, quando aplicável")
+    @JsonProperty("erros")
+    private List<String> erros;
+}
@@ -0,0 +1,38 @@
+package com.flightontime.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para resposta da previsão em lote
+ * Resultados na MESMA ordem da lista recebida
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado da previsão em lote (mesma ordem da requisição)")
+public class BatchPredictionResponse {
+
+    @Schema(description = "Quantidade de voos recebidos", example = "3")
+    @JsonProperty("total")
+    private Integer total;
+
+    @Schema(description = "Quantidade de voos previstos com sucesso", example = "2")
+    @JsonProperty("sucesso")
+    private Integer sucesso;
+
+    @Schema(description = "Quantidade de voos com erro", example = "1")
+    @JsonProperty("falhas")
+    private Integer falhas;
+
+    @Schema(description = "Resultados individuais, na ordem de entrada")
+    @JsonProperty("resultados")
+    private List<BatchPredictionItem> resultados;
+}
@@ -0,0 +1,62 @@
+package com.flightontime.api.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Leitura/escrita comuns de FeatureImportances e LocalExplanation
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Os nomes de feature se repetem em todas as explicações (algumas centenas no modelo):
+ * a mesma String é reaproveitada em vez de uma cópia por entrada do cache.
+ */
+final class ExplainabilityJson {
+
+    // Limite para não crescer sem fim se o Python mandar nomes inesperados
+    private static final int NOMES_MAXIMO = 4096;
+    private static final ConcurrentHashMap<String, String> NOMES = new ConcurrentHashMap<>();
+
+    private ExplainabilityJson() {
+    }
+
+    static String nomeFeature(String nome) {
+        if (nome == null) {
+            return null;
+        }
+        String existente = NOMES.get(nome);
+        if (existente != null) {
+            return existente;
+        }
+        if (NOMES.size() >= NOMES_MAXIMO) {
+            return nome;
+        }
+        String anterior = NOMES.putIfAbsent(nome, nome);
+        return anterior != null ? anterior : nome;
+    }
+
+    /**
+     * Número do token atual; null ou não numérico → NaN
+     */
+    static double lerNumero(JsonParser p) throws IOException {
+        if (p.currentToken().isNumeric()) {
+            return p.getDoubleValue();
+        }
+        p.skipChildren();
+        return Double.NaN;
+    }
+
+    /**
+     * NaN vira null (JSON não tem NaN)
+     */
+    static void escreverNumero(JsonGenerator gen, String campo, double valor) throws IOException {
+        if (Double.isNaN(valor)) {
+            gen.writeNullField(campo);
+        } else {
+            gen.writeNumberField(campo, valor);
+        }
+    }
+}
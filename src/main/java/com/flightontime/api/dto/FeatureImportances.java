@@ -0,0 +1,122 @@
+package com.flightontime.api.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Importância global das features (explain_global do Python)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Em memória: dois arrays paralelos, em vez de uma lista de LinkedHashMap por feature.
+ * No JSON: o mesmo contrato do Python/front-end:
+ * [{"feature": "num__hora_sin", "importance": 245.6}, ...]
+ *
+ * @param features     Nomes das features (na ordem do Python: maior importância primeiro)
+ * @param importancias Importância de cada feature (mesmo índice de features)
+ */
+@Schema(description = "Lista de {feature, importance}, da mais importante para a menos importante")
+@JsonSerialize(using = FeatureImportances.Serializer.class)
+@JsonDeserialize(using = FeatureImportances.Deserializer.class)
+public record FeatureImportances(String[] features, double[] importancias) {
+
+    public FeatureImportances {
+        if (features.length != importancias.length) {
+            throw new IllegalArgumentException("features e importancias devem ter o mesmo tamanho");
+        }
+    }
+
+    public int tamanho() {
+        return features.length;
+    }
+
+    // Arrays comparados pelo conteúdo (o equals padrão do record compara referências)
+    @Override
+    public boolean equals(Object outro) {
+        return outro instanceof FeatureImportances o
+                && Arrays.equals(features, o.features)
+                && Arrays.equals(importancias, o.importancias);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(features) + Arrays.hashCode(importancias);
+    }
+
+    @Override
+    public String toString() {
+        return "FeatureImportances" + Arrays.toString(features);
+    }
+
+    static class Serializer extends StdSerializer<FeatureImportances> {
+
+        Serializer() {
+            super(FeatureImportances.class);
+        }
+
+        @Override
+        public void serialize(FeatureImportances valor, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartArray(valor, valor.features.length);
+            for (int i = 0; i < valor.features.length; i++) {
+                gen.writeStartObject();
+                gen.writeStringField("feature", valor.features[i]);
+                ExplainabilityJson.escreverNumero(gen, "importance", valor.importancias[i]);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    static class Deserializer extends StdDeserializer<FeatureImportances> {
+
+        Deserializer() {
+            super(FeatureImportances.class);
+        }
+
+        @Override
+        public FeatureImportances deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() != JsonToken.START_ARRAY) {
+                return (FeatureImportances) ctxt.handleUnexpectedToken(FeatureImportances.class, p);
+            }
+            List<String> features = new ArrayList<>();
+            double[] importancias = new double[16];
+            JsonToken token;
+            while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    p.skipChildren();
+                    continue;
+                }
+                String feature = null;
+                double importancia = Double.NaN;
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String campo = p.currentName();
+                    p.nextToken();
+                    switch (campo) {
+                        case "feature" -> feature = ExplainabilityJson.nomeFeature(p.getValueAsString());
+                        case "importance" -> importancia = ExplainabilityJson.lerNumero(p);
+                        default -> p.skipChildren();
+                    }
+                }
+                if (features.size() == importancias.length) {
+                    importancias = Arrays.copyOf(importancias, importancias.length * 2);
+                }
+                importancias[features.size()] = importancia;
+                features.add(feature);
+            }
+            return new FeatureImportances(features.toArray(String[]::new), Arrays.copyOf(importancias, features.size()));
+        }
+    }
+}
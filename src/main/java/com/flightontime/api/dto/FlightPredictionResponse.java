@@ -28,9 +28,9 @@ public class FlightPredictionResponse {
 
     @Schema(description = "Dados para o gráfico de importância global (geral do modelo)")
     @JsonProperty("explicabilidade_global")
-    private Object explicabilidadeGlobal;
+    private FeatureImportances explicabilidadeGlobal;
 
     @Schema(description = "Dados para o gráfico de importância local (específico deste voo)")
     @JsonProperty("explicabilidade_local")
-    private Object explicabilidadeLocal;
+    private LocalExplanation explicabilidadeLocal;
 }
@@ -0,0 +1,18 @@
+package com.flightontime.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO da resposta do GET /api/v1/explain/global
+ *
+ * @param modeloVersao          Versão do modelo a que a importância se refere
+ * @param explicabilidadeGlobal Importância global das features (dados do gráfico)
+ */
+@Schema(description = "Importância global das features do modelo (muda só quando o modelo é trocado)")
+public record GlobalExplainabilityResponse(
+        @Schema(description = "Versão do modelo (hash do pickle)", example = "3f2a9c1b7d40")
+        @JsonProperty("modelo_versao") String modeloVersao,
+        @Schema(description = "Dados para o gráfico de importância global")
+        @JsonProperty("explicabilidade_global") FeatureImportances explicabilidadeGlobal) {
+}
@@ -0,0 +1,161 @@
+package com.flightontime.api.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Explicabilidade local de um voo (explain_local do Python: contribuições do XGBoost)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Em memória: arrays paralelos. No JSON: o mesmo contrato do Python/front-end:
+ * {"top_features": [{"feature": "...", "contribution": 0.12, "direction": "increase", "value": 1.0}, ...],
+ *  "bias": -0.34}
+ * (direction não é guardada: sai do sinal da contribuição)
+ *
+ * @param features      Nomes das features, da maior para a menor |contribuição|
+ * @param contribuicoes Contribuição (margem) de cada feature
+ * @param valores       Valor da feature já pré-processada, neste voo
+ * @param bias          Margem base do modelo (NaN se o Python não enviou)
+ */
+@Schema(description = "Features que mais pesaram na previsão deste voo ({top_features, bias})")
+@JsonSerialize(using = LocalExplanation.Serializer.class)
+@JsonDeserialize(using = LocalExplanation.Deserializer.class)
+public record LocalExplanation(String[] features, double[] contribuicoes, double[] valores, double bias) {
+
+    public LocalExplanation {
+        if (features.length != contribuicoes.length || features.length != valores.length) {
+            throw new IllegalArgumentException("features, contribuicoes e valores devem ter o mesmo tamanho");
+        }
+    }
+
+    public int tamanho() {
+        return features.length;
+    }
+
+    /**
+     * Só as topk primeiras features (a própria instância se já couber)
+     */
+    public LocalExplanation primeiras(int topk) {
+        if (topk >= features.length) {
+            return this;
+        }
+        return new LocalExplanation(Arrays.copyOf(features, topk), Arrays.copyOf(contribuicoes, topk),
+                Arrays.copyOf(valores, topk), bias);
+    }
+
+    // Arrays comparados pelo conteúdo (o equals padrão do record compara referências)
+    @Override
+    public boolean equals(Object outro) {
+        return outro instanceof LocalExplanation o
+                && Arrays.equals(features, o.features)
+                && Arrays.equals(contribuicoes, o.contribuicoes)
+                && Arrays.equals(valores, o.valores)
+                && Double.compare(bias, o.bias) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(features) + Arrays.hashCode(contribuicoes)) + Double.hashCode(bias);
+    }
+
+    @Override
+    public String toString() {
+        return "LocalExplanation" + Arrays.toString(features);
+    }
+
+    static class Serializer extends StdSerializer<LocalExplanation> {
+
+        Serializer() {
+            super(LocalExplanation.class);
+        }
+
+        @Override
+        public void serialize(LocalExplanation valor, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(valor);
+            gen.writeArrayFieldStart("top_features");
+            for (int i = 0; i < valor.features.length; i++) {
+                gen.writeStartObject();
+                gen.writeStringField("feature", valor.features[i]);
+                ExplainabilityJson.escreverNumero(gen, "contribution", valor.contribuicoes[i]);
+                gen.writeStringField("direction", valor.contribuicoes[i] >= 0 ? "increase" : "decrease");
+                ExplainabilityJson.escreverNumero(gen, "value", valor.valores[i]);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            ExplainabilityJson.escreverNumero(gen, "bias", valor.bias);
+            gen.writeEndObject();
+        }
+    }
+
+    static class Deserializer extends StdDeserializer<LocalExplanation> {
+
+        Deserializer() {
+            super(LocalExplanation.class);
+        }
+
+        @Override
+        public LocalExplanation deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() != JsonToken.START_OBJECT) {
+                return (LocalExplanation) ctxt.handleUnexpectedToken(LocalExplanation.class, p);
+            }
+            List<String> features = new ArrayList<>();
+            double[] contribuicoes = new double[8];
+            double[] valores = new double[8];
+            double bias = Double.NaN;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = p.currentName();
+                JsonToken token = p.nextToken();
+                if ("bias".equals(campo)) {
+                    bias = ExplainabilityJson.lerNumero(p);
+                } else if ("top_features".equals(campo) && token == JsonToken.START_ARRAY) {
+                    while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+                        if (token != JsonToken.START_OBJECT) {
+                            p.skipChildren();
+                            continue;
+                        }
+                        String feature = null;
+                        double contribuicao = Double.NaN;
+                        double valor = Double.NaN;
+                        while (p.nextToken() == JsonToken.FIELD_NAME) {
+                            String nome = p.currentName();
+                            p.nextToken();
+                            switch (nome) {
+                                case "feature" -> feature = ExplainabilityJson.nomeFeature(p.getValueAsString());
+                                case "contribution" -> contribuicao = ExplainabilityJson.lerNumero(p);
+                                case "value" -> valor = ExplainabilityJson.lerNumero(p);
+                                default -> p.skipChildren(); // direction: derivada do sinal
+                            }
+                        }
+                        int i = features.size();
+                        if (i == contribuicoes.length) {
+                            contribuicoes = Arrays.copyOf(contribuicoes, i * 2);
+                            valores = Arrays.copyOf(valores, i * 2);
+                        }
+                        contribuicoes[i] = contribuicao;
+                        valores[i] = valor;
+                        features.add(feature);
+                    }
+                } else {
+                    p.skipChildren();
+                }
+            }
+            int n = features.size();
+            return new LocalExplanation(features.toArray(String[]::new),
+                    Arrays.copyOf(contribuicoes, n), Arrays.copyOf(valores, n), bias);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.flightontime.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+/**
+ * DTO de RESPONSE do GET /explain/global do microserviço Python
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * CONTRATO COM DATA SCIENCE (Python):
+ * {
+ *   "modelo_versao": "3f2a9c1b7d40",
+ *   "explain_global": [{"feature": "num__hora_sin", "importance": 245.6}, ...]
+ * }
+ */
+@Data
+public class PythonExplainGlobalResponse {
+
+    @JsonProperty("modelo_versao")
+    private String modeloVersao;
+
+    @JsonProperty("explain_global")
+    private FeatureImportances explainGlobal;
+}
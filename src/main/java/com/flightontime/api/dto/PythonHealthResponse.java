@@ -0,0 +1,33 @@
+package com.flightontime.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+/**
+ * DTO de RESPONSE do GET /health do microserviço Python
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * CONTRATO COM DATA SCIENCE (Python):
+ * {
+ *   "status": "UP",
+ *   "modelo_carregado": true,
+ *   "version": "1.0.0",
+ *   "modelo_versao": "3f2a9c1b7d40"
+ * }
+ * Demais campos (message, modelo_path_ok, formatos) são ignorados.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PythonHealthResponse {
+    private String status;
+
+    @JsonProperty("modelo_carregado")
+    private Boolean modeloCarregado;
+
+    private String version;
+
+    @JsonProperty("modelo_versao")
+    private String modeloVersao;
+}
@@ -32,9 +32,17 @@ public class PythonPredictionRequest {
     @JsonProperty("dados")
     private PythonDataPayload dados;
 
+    // 0 = sem explicabilidade local (o Python nem roda explicar_local_xgb);
+    // o gráfico do voo é pedido à parte em /explain/local (LocalExplainabilityService)
     @JsonProperty("topk")
     @Builder.Default
-    private Integer topk = 8;
+    private Integer topk = 0;
+
+    // false: o Python não repete a explicabilidade global em cada previsão
+    // (o Java busca uma vez em /explain/global - GlobalExplainabilityService)
+    @JsonProperty("explain_global")
+    @Builder.Default
+    private Boolean explainGlobal = false;
 
     @Data
     @Builder
@@ -29,9 +29,20 @@ public class PythonPredictionResponse {
     @JsonProperty("proba_atraso")
     private Double probaAtraso;
 
+    // Hash do pickle que respondeu: quando muda, a explicabilidade global é buscada de novo
+    @JsonProperty("modelo_versao")
+    private String modeloVersao;
+
     @JsonProperty("explain_global") // Mapeia o que vem do Python
-    private Object explainGlobal;    // Gera o getExplainGlobal()
+    private FeatureImportances explainGlobal;    // Gera o getExplainGlobal()
 
     @JsonProperty("explain_local")  // Mapeia o que vem do Python
-    private Object explainLocal;     // Gera o getExplainLocal()
+    private LocalExplanation explainLocal;       // Gera o getExplainLocal()
+
+    // Custo da explicação local no Python (só quando ela foi calculada)
+    @JsonProperty("explain_local_ms")
+    private Double explainLocalMs;
+
+    @JsonProperty("explain_local_cpu_ms")
+    private Double explainLocalCpuMs;
 }
@@ -0,0 +1,14 @@
+package com.flightontime.api.exception;
+
+/**
+ * Lançada quando o limite de chamadas simultâneas ao Python (bulkhead) está
+ * esgotado e a fila de espera está cheia ou o tempo de espera terminou.
+ *
+ * Nenhuma chamada HTTP foi feita: quem recebe deve degradar para o fallback local.
+ */
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
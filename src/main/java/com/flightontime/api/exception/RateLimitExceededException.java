@@ -0,0 +1,21 @@
+package com.flightontime.api.exception;
+
+/**
+ * Lançada quando o saldo de rate limit do cliente não cobre o custo máximo de um lote
+ * (reserva feita antes de disparar os itens).
+ *
+ * Nenhum item foi processado: o cliente deve tentar de novo após o Retry-After.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long segundosParaNovaTentativa;
+
+    public RateLimitExceededException(String message, long segundosParaNovaTentativa) {
+        super(message);
+        this.segundosParaNovaTentativa = segundosParaNovaTentativa;
+    }
+
+    public long getSegundosParaNovaTentativa() {
+        return segundosParaNovaTentativa;
+    }
+}
@@ -0,0 +1,167 @@
+package com.flightontime.api.interceptor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limite de concorrência adaptativo (algoritmo de gradiente, no estilo do Gradient2)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * O rate limit por IP não enxerga a carga agregada. Aqui o limite de
+ * requisições simultâneas é aprendido pela latência observada:
+ * - rttLongo: média móvel exponencial da latência (a "linha de base")
+ * - rttCurto: média da janela atual de amostras
+ * - gradiente = tolerancia * rttLongo / rttCurto, limitado a [0.5, 1.0]
+ * - novoLimite = limite * gradiente + folga (sqrt do limite)
+ *
+ * Latência subindo → gradiente < 1 → limite cai. Latência estável → a folga
+ * faz o limite crescer até encontrar o ponto de saturação.
+ */
+@Slf4j
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double GRADIENTE_MINIMO = 0.5;
+
+    private final int limiteMinimo;
+    private final int limiteMaximo;
+    private final double tolerancia;
+    private final double suavizacao;
+    private final int tamanhoJanela;
+    private final double fatorMediaLonga;
+
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private volatile double limite;
+
+    // Estado da janela de amostras (protegido por janelaLock; lock em vez de synchronized
+    // para não prender a thread portadora quando as requisições rodam em threads virtuais)
+    private final ReentrantLock janelaLock = new ReentrantLock();
+    private double rttLongo;
+    private long somaJanela;
+    private int amostrasJanela;
+    private int maxEmAndamentoJanela;
+
+    private final Counter rejeitadas;
+
+    public AdaptiveConcurrencyLimiter(
+            @Value("${prediction.concurrency.initial-limit:20}") int limiteInicial,
+            @Value("${prediction.concurrency.min-limit:4}") int limiteMinimo,
+            @Value("${prediction.concurrency.max-limit:200}") int limiteMaximo,
+            @Value("${prediction.concurrency.tolerance:1.5}") double tolerancia,
+            @Value("${prediction.concurrency.smoothing:0.2}") double suavizacao,
+            @Value("${prediction.concurrency.window-size:20}") int tamanhoJanela,
+            @Value("${prediction.concurrency.long-window:600}") int janelaLonga,
+            MeterRegistry meterRegistry) {
+        this.limite = limiteInicial;
+        this.limiteMinimo = limiteMinimo;
+        this.limiteMaximo = limiteMaximo;
+        this.tolerancia = tolerancia;
+        this.suavizacao = suavizacao;
+        this.tamanhoJanela = tamanhoJanela;
+        this.fatorMediaLonga = 2.0 / (janelaLonga + 1);
+
+        Gauge.builder("prediction.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimite)
+                .description("Limite adaptativo de requisições simultâneas em /api/v1/predict")
+                .register(meterRegistry);
+        Gauge.builder("prediction.concurrency.inflight", emAndamento, AtomicInteger::get)
+                .description("Requisições de previsão em andamento")
+                .register(meterRegistry);
+        this.rejeitadas = Counter.builder("prediction.concurrency.rejected")
+                .description("Requisições de previsão rejeitadas pelo limite adaptativo")
+                .register(meterRegistry);
+
+        log.info("🎚️ Limite de concorrência adaptativo: inicial {}, faixa [{}, {}]",
+                limiteInicial, limiteMinimo, limiteMaximo);
+    }
+
+    /**
+     * Reserva uma vaga, sem esperar
+     *
+     * @return false se o limite atual já foi atingido (requisição deve ser rejeitada)
+     */
+    public boolean tentarAdquirir() {
+        while (true) {
+            int atual = emAndamento.get();
+            if (atual >= getLimite()) {
+                rejeitadas.increment();
+                return false;
+            }
+            if (emAndamento.compareAndSet(atual, atual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera a vaga e alimenta o algoritmo com a latência da requisição
+     *
+     * @param rttNanos Duração da requisição em nanossegundos
+     */
+    public void liberar(long rttNanos) {
+        int emAndamentoAntes = emAndamento.getAndDecrement();
+        janelaLock.lock();
+        try {
+            registrar(rttNanos, emAndamentoAntes);
+        } finally {
+            janelaLock.unlock();
+        }
+    }
+
+    private void registrar(long rttNanos, int emAndamentoNaAmostra) {
+        somaJanela += rttNanos;
+        amostrasJanela++;
+        maxEmAndamentoJanela = Math.max(maxEmAndamentoJanela, emAndamentoNaAmostra);
+        if (amostrasJanela < tamanhoJanela) {
+            return;
+        }
+
+        double rttCurto = (double) somaJanela / amostrasJanela;
+        int pico = maxEmAndamentoJanela;
+        somaJanela = 0;
+        amostrasJanela = 0;
+        maxEmAndamentoJanela = 0;
+
+        if (rttLongo == 0) {
+            rttLongo = rttCurto;
+            return;
+        }
+        rttLongo += (rttCurto - rttLongo) * fatorMediaLonga;
+        // Após uma queda longa de latência a média longa "lembra" o pior cenário: acelera a recuperação
+        if (rttLongo / rttCurto > 2) {
+            rttLongo *= 0.95;
+        }
+
+        double atual = limite;
+        // Pouca demanda: sem sinal de saturação, não há motivo para crescer
+        if (pico < atual / 2) {
+            return;
+        }
+
+        double gradiente = Math.max(GRADIENTE_MINIMO, Math.min(1.0, tolerancia * rttLongo / rttCurto));
+        double novoLimite = atual * gradiente + Math.sqrt(atual);
+        novoLimite = atual * (1 - suavizacao) + novoLimite * suavizacao;
+        novoLimite = Math.max(limiteMinimo, Math.min(limiteMaximo, novoLimite));
+
+        if ((int) novoLimite != (int) atual) {
+            log.debug("🎚️ Limite de concorrência {} → {} (rtt curto {} ms, longo {} ms)",
+                    (int) atual, (int) novoLimite, (long) (rttCurto / 1_000_000), (long) (rttLongo / 1_000_000));
+        }
+        limite = novoLimite;
+    }
+
+    public int getLimite() {
+        return (int) limite;
+    }
+
+    public int getEmAndamento() {
+        return emAndamento.get();
+    }
+}
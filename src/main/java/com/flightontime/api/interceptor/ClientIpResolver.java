@@ -0,0 +1,292 @@
+package com.flightontime.api.interceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Identifica o cliente de uma requisição (chave do rate limit)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * O X-Forwarded-For é escrito pelo próprio cliente: só vale quando a conexão vem de
+ * um proxy confiável (prediction.ratelimit.trusted-proxies, lista de CIDRs). Nesse caso
+ * o header é lido da direita para a esquerda, pulando os proxies confiáveis; o primeiro
+ * endereço que não é proxy é o cliente. Entrada inválida no meio da cadeia encerra a
+ * leitura (fica o último proxy válido): lixo no header não vira chave nova.
+ *
+ * - Parsing por índices, sem split/substring/InetAddress (nada de DNS com texto do cliente);
+ *   o caminho IPv4 não aloca nada além da chave final
+ * - IPv6: uma chave por /64 (o cliente escolhe livremente os 64 bits finais do endereço)
+ * - IPv4 mapeado em IPv6 (::ffff:a.b.c.d) é tratado como IPv4
+ */
+@Slf4j
+@Component
+public class ClientIpResolver {
+
+    static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    // Prefixo ::ffff:0:0/96 dos endereços IPv4 mapeados em IPv6
+    private static final long IPV4_MAPEADO = 0xffffL << 32;
+
+    private enum Salto { INVALIDO, PROXY, CLIENTE }
+
+    /**
+     * Faixa de endereços (128 bits; IPv4 como ::ffff:a.b.c.d)
+     */
+    record Cidr(long alto, long baixo, int prefixo) {
+
+        static Cidr de(String texto) {
+            String valor = texto.strip();
+            int barra = valor.indexOf('/');
+            String endereco = barra < 0 ? valor : valor.substring(0, barra);
+            long v4 = ipv4(endereco, 0, endereco.length());
+            long[] v6 = new long[2];
+            if (v4 < 0 && !ipv6(endereco, 0, endereco.length(), v6)) {
+                throw new IllegalArgumentException("Proxy confiável inválido: " + texto);
+            }
+            int maximo = v4 >= 0 ? 32 : 128;
+            int prefixo;
+            try {
+                prefixo = barra < 0 ? maximo : Integer.parseInt(valor.substring(barra + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Proxy confiável inválido: " + texto, e);
+            }
+            if (prefixo < 0 || prefixo > maximo) {
+                throw new IllegalArgumentException("Prefixo inválido em proxy confiável: " + texto);
+            }
+            return v4 >= 0
+                    ? new Cidr(0, IPV4_MAPEADO | v4, 96 + prefixo)
+                    : new Cidr(v6[0], v6[1], prefixo);
+        }
+
+        boolean contem(long outroAlto, long outroBaixo) {
+            if (prefixo == 0) {
+                return true;
+            }
+            if (prefixo <= 64) {
+                long mascara = -1L << (64 - prefixo);
+                return (outroAlto & mascara) == (alto & mascara);
+            }
+            long mascara = -1L << (128 - prefixo);
+            return outroAlto == alto && (outroBaixo & mascara) == (baixo & mascara);
+        }
+    }
+
+    private final Cidr[] proxiesConfiaveis;
+
+    public ClientIpResolver(
+            @Value("${prediction.ratelimit.trusted-proxies:127.0.0.0/8,::1/128}") String[] proxiesConfiaveis) {
+        List<Cidr> faixas = new ArrayList<>();
+        for (String proxy : proxiesConfiaveis) {
+            if (!proxy.isBlank()) {
+                faixas.add(Cidr.de(proxy));
+            }
+        }
+        this.proxiesConfiaveis = faixas.toArray(Cidr[]::new);
+        log.info("🛡️ X-Forwarded-For aceito somente de: {}", faixas.isEmpty() ? "(nenhum proxy)" : Arrays.toString(proxiesConfiaveis));
+    }
+
+    public String resolver(HttpServletRequest request) {
+        return resolver(request.getRemoteAddr(), request.getHeader(X_FORWARDED_FOR));
+    }
+
+    /**
+     * @param remoto endereço da conexão TCP (request.getRemoteAddr())
+     * @param encaminhado X-Forwarded-For (pode ser null)
+     * @return chave do cliente: IPv4, ou prefixo /64 para IPv6
+     */
+    String resolver(String remoto, String encaminhado) {
+        if (encaminhado == null || classificar(remoto, 0, remoto.length()) != Salto.PROXY) {
+            return chave(remoto, 0, remoto.length());
+        }
+        int proxyInicio = -1;
+        int proxyFim = -1;
+        int fim = encaminhado.length();
+        while (true) {
+            int virgula = encaminhado.lastIndexOf(',', fim - 1);
+            int inicio = virgula + 1;
+            while (inicio < fim && encaminhado.charAt(inicio) == ' ') {
+                inicio++;
+            }
+            int termino = fim;
+            while (termino > inicio && encaminhado.charAt(termino - 1) == ' ') {
+                termino--;
+            }
+            Salto salto = classificar(encaminhado, inicio, termino);
+            if (salto == Salto.CLIENTE) {
+                return chave(encaminhado, inicio, termino);
+            }
+            if (salto == Salto.INVALIDO) {
+                break;
+            }
+            proxyInicio = inicio;
+            proxyFim = termino;
+            if (virgula < 0) {
+                break;
+            }
+            fim = virgula;
+        }
+        // Cadeia só de proxies (cliente na rede interna) ou entrada inválida: fica o salto confiável mais à esquerda
+        return proxyInicio < 0 ? chave(remoto, 0, remoto.length()) : chave(encaminhado, proxyInicio, proxyFim);
+    }
+
+    private Salto classificar(String texto, int inicio, int fim) {
+        if (inicio >= fim) {
+            return Salto.INVALIDO;
+        }
+        long v4 = ipv4(texto, inicio, fim);
+        if (v4 >= 0) {
+            return confiavel(0, IPV4_MAPEADO | v4) ? Salto.PROXY : Salto.CLIENTE;
+        }
+        long[] v6 = new long[2];
+        if (!ipv6(texto, inicio, fim, v6)) {
+            return Salto.INVALIDO;
+        }
+        return confiavel(v6[0], v6[1]) ? Salto.PROXY : Salto.CLIENTE;
+    }
+
+    private boolean confiavel(long alto, long baixo) {
+        for (Cidr faixa : proxiesConfiaveis) {
+            if (faixa.contem(alto, baixo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String chave(String texto, int inicio, int fim) {
+        if (ipv4(texto, inicio, fim) >= 0) {
+            return inicio == 0 && fim == texto.length() ? texto : texto.substring(inicio, fim);
+        }
+        long[] v6 = new long[2];
+        if (!ipv6(texto, inicio, fim, v6)) {
+            // Só acontece com o endereço da conexão em formato inesperado (ex.: zone id)
+            return texto.substring(inicio, fim);
+        }
+        if (v6[0] == 0 && (v6[1] >>> 32) == 0xffffL) {
+            long v4 = v6[1] & 0xffffffffL;
+            return (v4 >>> 24) + "." + ((v4 >>> 16) & 0xff) + "." + ((v4 >>> 8) & 0xff) + "." + (v4 & 0xff);
+        }
+        StringBuilder prefixo = new StringBuilder(24);
+        for (int grupo = 3; grupo >= 0; grupo--) {
+            prefixo.append(Long.toHexString((v6[0] >>> (grupo * 16)) & 0xffff)).append(':');
+        }
+        return prefixo.append(":/64").toString();
+    }
+
+    /**
+     * IPv4 em notação decimal com pontos
+     *
+     * @return os 32 bits do endereço, ou -1 se texto[inicio, fim) não for um IPv4
+     */
+    static long ipv4(CharSequence texto, int inicio, int fim) {
+        long valor = 0;
+        int i = inicio;
+        for (int octeto = 0; octeto < 4; octeto++) {
+            if (octeto > 0) {
+                if (i >= fim || texto.charAt(i) != '.') {
+                    return -1;
+                }
+                i++;
+            }
+            int numero = 0;
+            int digitos = 0;
+            while (i < fim && digitos < 4) {
+                char c = texto.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                numero = numero * 10 + (c - '0');
+                digitos++;
+                i++;
+            }
+            if (digitos == 0 || digitos > 3 || numero > 255) {
+                return -1;
+            }
+            valor = (valor << 8) | numero;
+        }
+        return i == fim ? valor : -1;
+    }
+
+    /**
+     * IPv6 (com "::" e IPv4 nos 32 bits finais), sem zone id
+     *
+     * @param destino recebe os 64 bits altos e baixos
+     * @return false se texto[inicio, fim) não for um IPv6
+     */
+    static boolean ipv6(CharSequence texto, int inicio, int fim, long[] destino) {
+        int[] grupos = new int[8];
+        int n = 0;
+        int compressao = -1;
+        int i = inicio;
+        if (fim - inicio >= 2 && texto.charAt(i) == ':' && texto.charAt(i + 1) == ':') {
+            compressao = 0;
+            i += 2;
+        }
+        while (i < fim) {
+            if (n == 8) {
+                return false;
+            }
+            int j = i;
+            int valor = 0;
+            while (j < fim && j - i < 5) {
+                int digito = Character.digit(texto.charAt(j), 16);
+                if (digito < 0) {
+                    break;
+                }
+                valor = valor * 16 + digito;
+                j++;
+            }
+            if (j < fim && texto.charAt(j) == '.') {
+                long v4 = ipv4(texto, i, fim);
+                if (v4 < 0 || n > 6) {
+                    return false;
+                }
+                grupos[n++] = (int) (v4 >>> 16);
+                grupos[n++] = (int) (v4 & 0xffff);
+                break;
+            }
+            if (j == i || j - i > 4) {
+                return false;
+            }
+            grupos[n++] = valor;
+            i = j;
+            if (i == fim) {
+                break;
+            }
+            if (texto.charAt(i) != ':' || ++i == fim) {
+                return false;
+            }
+            if (texto.charAt(i) == ':') {
+                if (compressao >= 0) {
+                    return false;
+                }
+                compressao = n;
+                i++;
+            }
+        }
+        if (compressao < 0 ? n != 8 : n == 8) {
+            return false;
+        }
+        if (compressao >= 0) {
+            int depois = n - compressao;
+            System.arraycopy(grupos, compressao, grupos, 8 - depois, depois);
+            Arrays.fill(grupos, compressao, 8 - depois, 0);
+        }
+        long alto = 0;
+        long baixo = 0;
+        for (int g = 0; g < 4; g++) {
+            alto = (alto << 16) | grupos[g];
+            baixo = (baixo << 16) | grupos[g + 4];
+        }
+        destino[0] = alto;
+        destino[1] = baixo;
+        return true;
+    }
+}
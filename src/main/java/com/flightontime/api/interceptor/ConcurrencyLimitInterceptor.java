@@ -0,0 +1,55 @@
+package com.flightontime.api.interceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Interceptor do limite de concorrência adaptativo
+ * Acima do limite aprendido, responde 503 + Retry-After na hora,
+ * em vez de deixar a requisição esperando numa thread do Tomcat
+ */
+@Slf4j
+@Component
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String INICIO_ATTR = ConcurrencyLimitInterceptor.class.getName() + ".inicio";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final String retryAfter;
+
+    public ConcurrencyLimitInterceptor(
+            AdaptiveConcurrencyLimiter limiter,
+            @Value("${prediction.concurrency.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.limiter = limiter;
+        this.retryAfter = String.valueOf(retryAfterSeconds);
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+        if (!limiter.tentarAdquirir()) {
+            log.debug("🚦 Limite de concorrência atingido ({}) - 503", limiter.getLimite());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            return false;
+        }
+        request.setAttribute(INICIO_ATTR, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, @Nullable Exception ex) {
+        // Só é chamado quando o preHandle retornou true, ou seja, a vaga foi adquirida
+        Object inicio = request.getAttribute(INICIO_ATTR);
+        long rtt = inicio instanceof Long nanos ? System.nanoTime() - nanos : 0;
+        limiter.liberar(rtt);
+    }
+}
@@ -0,0 +1,184 @@
+package com.flightontime.api.interceptor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimization;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Function;
+
+/**
+ * Buckets do rate limit por cliente, com memória limitada
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Cada bucket segue o plano do cliente (RateLimitPlan), fixado na criação.
+ *
+ * Caffeine em vez de um mapa que só cresce:
+ * - Teto de clientes (prediction.ratelimit.max-clients, ~300 bytes cada). Acima dele o
+ *   W-TinyLFU descarta primeiro as chaves vistas poucas vezes: uma varredura de IPs
+ *   falsos não expulsa os clientes frequentes
+ * - Bucket ocioso por prediction.ratelimit.idle-expiry é removido. Com a expiração
+ *   >= refill-period o bucket removido já estaria cheio: nada muda para o cliente
+ *
+ * Modo redis (RateLimitConfig): o bucket de cada cliente fica no Redis, compartilhado
+ * pelas réplicas; aqui fica só o proxy dele, com pre-fetch local (Bucket4j delaying):
+ * até prediction.ratelimit.redis.prefetch-tokens tokens, ou sync-interval, consumidos
+ * sem ida ao Redis. Cada réplica pode passar do limite em no máximo prefetch-tokens.
+ * Redis fora: buckets locais até ele voltar (o limite vira por réplica, mas continua),
+ * inclusive quando já estava fora na subida (RateLimitRedisConnector).
+ *
+ * Métricas: prediction.ratelimit.buckets, prediction.ratelimit.evictions{motivo} e
+ * prediction.ratelimit.redis.errors
+ */
+@Slf4j
+@Component
+public class RateLimitBucketStore {
+
+    private static final long INTERVALO_AVISO_NANOS = Duration.ofSeconds(30).toNanos();
+
+    private final Cache<String, Bucket> buckets;
+    // Modo redis: buckets remotos e os locais usados enquanto o Redis estiver fora
+    private final RateLimitRedisConnector redis;
+    private final Optimization preFetch;
+    private final Cache<String, Bucket> reserva;
+    private final Counter falhasRedis;
+    private volatile long ultimoAviso = System.nanoTime() - INTERVALO_AVISO_NANOS;
+
+    public RateLimitBucketStore(
+            MeterRegistry meterRegistry,
+            Optional<RateLimitRedisConnector> redis,
+            @Value("${prediction.ratelimit.max-clients:100000}") long maxClientes,
+            @Value("${prediction.ratelimit.idle-expiry:1m}") Duration ociosidade,
+            @Value("${prediction.ratelimit.redis.prefetch-tokens:10}") long tokensPreFetch,
+            @Value("${prediction.ratelimit.redis.sync-interval:500ms}") Duration intervaloSincronizacao) {
+        Counter porTamanho = contadorRemocoes(meterRegistry, "tamanho");
+        Counter porOciosidade = contadorRemocoes(meterRegistry, "ociosidade");
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClientes)
+                .expireAfterAccess(ociosidade)
+                // Remove os ociosos mesmo sem tráfego (o gauge não fica com buckets mortos)
+                .scheduler(Scheduler.systemScheduler())
+                // Manutenção barata (só contadores): roda na própria thread, sem o commonPool
+                .executor(Runnable::run)
+                .evictionListener((String chave, Bucket bucket, RemovalCause causa) ->
+                        (causa == RemovalCause.SIZE ? porTamanho : porOciosidade).increment())
+                .build();
+
+        Gauge.builder("prediction.ratelimit.buckets", buckets, Cache::estimatedSize)
+                .description("Clientes com bucket de rate limit em memória")
+                .register(meterRegistry);
+
+        this.redis = redis.orElse(null);
+        this.preFetch = Optimizations.delaying(new DelayParameters(tokensPreFetch, intervaloSincronizacao));
+        this.reserva = this.redis == null ? null : Caffeine.newBuilder()
+                .maximumSize(maxClientes)
+                .expireAfterAccess(ociosidade)
+                .build();
+        this.falhasRedis = Counter.builder("prediction.ratelimit.redis.errors")
+                .description("Consultas ao Redis do rate limit que falharam (atendidas por bucket local)")
+                .register(meterRegistry);
+
+        log.info("🚦 Rate limit {}: até {} clientes, ociosos removidos após {}",
+                this.redis != null ? "compartilhado (Redis, pre-fetch de " + tokensPreFetch + " tokens)" : "local",
+                maxClientes, ociosidade);
+    }
+
+    private static Counter contadorRemocoes(MeterRegistry registry, String motivo) {
+        return Counter.builder("prediction.ratelimit.evictions")
+                .description("Buckets de rate limit removidos da memória")
+                .tag("motivo", motivo)
+                .register(registry);
+    }
+
+    /**
+     * Consome tokens do bucket do cliente (criado cheio, com o plano dado, no primeiro acesso)
+     *
+     * @return resultado com os tokens restantes e a espera até haver tokens de novo
+     */
+    public ConsumptionProbe tentarConsumir(String cliente, RateLimitPlan plano, long tokens) {
+        return executar(cliente, plano, bucket -> bucket.tryConsumeAndReturnRemaining(tokens));
+    }
+
+    /**
+     * Consome tokens mesmo sem saldo: o bucket fica devendo e as próximas requisições esperam
+     */
+    public void cobrar(String cliente, RateLimitPlan plano, long tokens) {
+        executar(cliente, plano, bucket -> bucket.consumeIgnoringRateLimits(tokens));
+    }
+
+    /**
+     * Devolve tokens reservados e não usados (limitado à capacidade do plano)
+     */
+    public void devolver(String cliente, RateLimitPlan plano, long tokens) {
+        executar(cliente, plano, bucket -> {
+            bucket.addTokens(tokens);
+            return null;
+        });
+    }
+
+    /**
+     * Tokens disponíveis de um cliente em memória (negativo = em débito)
+     */
+    public OptionalLong disponiveis(String cliente) {
+        Bucket bucket = buckets.getIfPresent(cliente);
+        if (bucket != null) {
+            try {
+                return OptionalLong.of(bucket.getAvailableTokens());
+            } catch (RuntimeException ex) {
+                falhasRedis.increment();
+            }
+        }
+        Bucket local = reserva != null ? reserva.getIfPresent(cliente) : null;
+        return local != null ? OptionalLong.of(local.getAvailableTokens()) : OptionalLong.empty();
+    }
+
+    private <T> T executar(String cliente, RateLimitPlan plano, Function<Bucket, T> operacao) {
+        if (redis == null) {
+            return operacao.apply(buckets.get(cliente, chave -> criarLocal(plano)));
+        }
+        ProxyManager<String> remoto = redis.proxyManager();
+        if (remoto == null) {
+            // Ainda sem conexão com o Redis: o bucket local não fica no cache dos remotos
+            falhasRedis.increment();
+            return operacao.apply(reserva.get(cliente, chave -> criarLocal(plano)));
+        }
+        try {
+            return operacao.apply(buckets.get(cliente, chave -> remoto.builder()
+                    .withOptimization(preFetch)
+                    .build(chave, plano::configuracao)));
+        } catch (RuntimeException ex) {
+            falhasRedis.increment();
+            long agora = System.nanoTime();
+            if (agora - ultimoAviso >= INTERVALO_AVISO_NANOS) {
+                ultimoAviso = agora;
+                log.warn("⚠️ Redis do rate limit indisponível, usando buckets locais: {}", ex.getMessage());
+            }
+            return operacao.apply(reserva.get(cliente, chave -> criarLocal(plano)));
+        }
+    }
+
+    private static Bucket criarLocal(RateLimitPlan plano) {
+        return Bucket.builder().addLimit(plano.limite()).build();
+    }
+
+    long tamanho() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,115 @@
+package com.flightontime.api.interceptor;
+
+import com.flightontime.api.exception.RateLimitExceededException;
+import io.github.bucket4j.ConsumptionProbe;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Previsões e chamadas ao modelo de uma requisição HTTP (custo extra no rate limit)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Só se sabe quantas previsões um lote tem, e quais foram de fato ao modelo, depois do
+ * serviço rodar: os serviços registram aqui e o RateLimitInterceptor acerta ao final.
+ * - reservarPrevisoes: antes de disparar um lote, reserva no bucket o custo máximo de
+ *   todos os itens (todos indo ao modelo); sem saldo = RateLimitExceededException (429)
+ * - registrarPrevisoes: previsões além da primeira (a primeira é paga na entrada)
+ * - registrarChamadaAoModelo: resposta que veio do modelo (Python ou scorer); fallbacks
+ *   (circuito aberto, bulkhead, timeout, degradação) e o modo mock não contam
+ *
+ * Obter com daRequisicao() na thread da requisição; os contadores podem ser usados nas
+ * continuações dos futures e nas threads do lote. Fora de uma requisição não faz nada.
+ */
+public final class RateLimitCost {
+
+    static final String ATRIBUTO = RateLimitCost.class.getName() + ".conta";
+
+    private static final RateLimitCost NENHUMA = new RateLimitCost();
+
+    /**
+     * Consome do bucket da requisição o custo máximo de N previsões (ligado pelo RateLimitInterceptor)
+     */
+    @FunctionalInterface
+    interface Reserva {
+        ConsumptionProbe consumir(int previsoes);
+    }
+
+    private final Reserva reserva;
+    private final AtomicInteger previsoesReservadas = new AtomicInteger();
+    private final AtomicInteger previsoesAdicionais = new AtomicInteger();
+    private final AtomicInteger chamadasAoModelo = new AtomicInteger();
+
+    RateLimitCost() {
+        this(null);
+    }
+
+    RateLimitCost(Reserva reserva) {
+        this.reserva = reserva;
+    }
+
+    /**
+     * Conta da requisição atual (criada na primeira chamada); sem requisição, uma conta que ignora tudo
+     */
+    public static RateLimitCost daRequisicao() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos == null) {
+            return NENHUMA;
+        }
+        if (atributos.getAttribute(ATRIBUTO, RequestAttributes.SCOPE_REQUEST) instanceof RateLimitCost conta) {
+            return conta;
+        }
+        RateLimitCost conta = new RateLimitCost();
+        atributos.setAttribute(ATRIBUTO, conta, RequestAttributes.SCOPE_REQUEST);
+        return conta;
+    }
+
+    /**
+     * Reserva o custo máximo de todas as previsões da requisição, incluindo a paga na entrada
+     * O que não for usado volta ao bucket no afterCompletion
+     *
+     * @throws RateLimitExceededException sem saldo para a reserva (nada foi consumido)
+     */
+    public void reservarPrevisoes(int previsoes) {
+        if (reserva == null || previsoes <= 0) {
+            return;
+        }
+        ConsumptionProbe resultado = reserva.consumir(previsoes);
+        if (!resultado.isConsumed()) {
+            throw new RateLimitExceededException("Rate limit excedido: saldo insuficiente para " + previsoes
+                    + " previsões", Math.max(1, RateLimitInterceptor.segundos(resultado.getNanosToWaitForRefill())));
+        }
+        previsoesReservadas.addAndGet(previsoes);
+    }
+
+    public void registrarPrevisoes(int previsoes) {
+        if (this != NENHUMA && previsoes > 0) {
+            previsoesAdicionais.addAndGet(previsoes);
+        }
+    }
+
+    public void registrarChamadaAoModelo() {
+        if (this != NENHUMA) {
+            chamadasAoModelo.incrementAndGet();
+        }
+    }
+
+    public int previsoesAdicionais() {
+        return previsoesAdicionais.get();
+    }
+
+    public int chamadasAoModelo() {
+        return chamadasAoModelo.get();
+    }
+
+    int previsoesReservadas() {
+        return previsoesReservadas.get();
+    }
+
+    static RateLimitCost de(HttpServletRequest request) {
+        return request.getAttribute(ATRIBUTO) instanceof RateLimitCost conta ? conta : NENHUMA;
+    }
+}
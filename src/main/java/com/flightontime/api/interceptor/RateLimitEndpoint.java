@@ -0,0 +1,60 @@
+package com.flightontime.api.interceptor;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Estado do rate limit no actuator
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * - GET /actuator/ratelimit: planos configurados
+ * - GET /actuator/ratelimit/{cliente}: tokens disponíveis ("api:<cliente>" ou o IP);
+ *   404 se o cliente não tem bucket em memória nesta réplica
+ *
+ * Expõe clientes e API keys: fica fora de management.endpoints.web.exposure.include
+ * público. Para usar, subir o actuator numa porta interna (management.server.port) e
+ * incluir "ratelimit" na exposição só nesse ambiente.
+ */
+@Component
+@Endpoint(id = "ratelimit")
+public class RateLimitEndpoint {
+
+    private final RateLimitPlans planos;
+    private final RateLimitBucketStore buckets;
+
+    public RateLimitEndpoint(RateLimitPlans planos, RateLimitBucketStore buckets) {
+        this.planos = planos;
+        this.buckets = buckets;
+    }
+
+    @ReadOperation
+    public Map<String, Object> planos() {
+        List<Map<String, Object>> lista = planos.planos().stream()
+                .map(plano -> Map.<String, Object>of(
+                        "nome", plano.nome(),
+                        "capacidade", plano.capacidade(),
+                        "periodo", plano.periodo().toString()))
+                .toList();
+        return Map.of("planos", lista);
+    }
+
+    @ReadOperation
+    public Map<String, Object> cliente(@Selector String cliente) {
+        OptionalLong disponiveis = buckets.disponiveis(cliente);
+        if (disponiveis.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("cliente", cliente);
+        estado.put("tokens_disponiveis", disponiveis.getAsLong());
+        return estado;
+    }
+}
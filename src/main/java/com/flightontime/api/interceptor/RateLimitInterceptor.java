@@ -1,57 +1,165 @@
 package com.flightontime.api.interceptor;
 
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
-import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Interceptor para Rate Limiting
- * Limita requisições por IP para evitar abuso
+ * Limita requisições por API key (plano do parceiro) ou, sem ela, por IP
+ *
+ * IP do cliente: ClientIpResolver (X-Forwarded-For só de proxies confiáveis)
+ * Planos e API keys: RateLimitPlans (X-API-Key desconhecida = 401)
+ * Buckets: RateLimitBucketStore (memória limitada, ociosos expiram; locais ou no Redis)
+ *
+ * Custo em tokens (prediction.ratelimit.cost.*):
+ * - Na entrada: explicabilidade local (/predict/explain ou explicabilidade_local > 0)
+ *   custa cost.explain; o resto custa cost.cache. Sem saldo = 429 com Retry-After
+ * - Lote (RateLimitCost.reservarPrevisoes): antes de disparar os itens reserva o custo
+ *   máximo, N x cost.model (menos o cost.cache da entrada). Sem saldo = 429, nenhum item roda
+ * - Ao final (RateLimitCost): cada previsão além da primeira custa cost.cache, e cada
+ *   resposta que veio de fato do modelo cost.model - cost.cache a mais (fallbacks e mock
+ *   não). A sobra da reserva volta ao bucket; sem reserva (previsão única) a diferença
+ *   é cobrada mesmo sem saldo - no máximo cost.model - cost.cache de dívida
+ *
+ * X-RateLimit-Limit/Remaining/Reset saem na entrada (o corpo é escrito antes do
+ * postHandle) e o Remaining é atualizado pela reserva do lote; numa previsão única
+ * ainda não inclui a cobrança do modelo desta requisição.
  */
 @Slf4j
 @Component
 public class RateLimitInterceptor implements HandlerInterceptor {
 
-    private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
+    static final String X_API_KEY = "X-API-Key";
+    static final String X_RATELIMIT_LIMIT = "X-RateLimit-Limit";
+    static final String X_RATELIMIT_REMAINING = "X-RateLimit-Remaining";
+    static final String X_RATELIMIT_RESET = "X-RateLimit-Reset";
 
-    private Bucket createNewBucket() {
-        Bandwidth limit = Bandwidth.builder()
-                .capacity(100)
-                .refillIntervally(100, Duration.ofMinutes(1))
-                .build();
-        return Bucket.builder()
-                .addLimit(limit)
-                .build();
+    private static final String ATRIBUTO_COBRANCA = RateLimitInterceptor.class.getName() + ".cobranca";
+
+    /**
+     * Bucket cobrado por uma requisição (para a cobrança do modelo no afterCompletion)
+     */
+    private record Cobranca(String cliente, RateLimitPlan plano) {
+    }
+
+    private final ClientIpResolver clientIpResolver;
+    private final RateLimitBucketStore buckets;
+    private final RateLimitPlans planos;
+    private final long custoCache;
+    private final long custoModelo;
+    private final long custoExplicacao;
+
+    public RateLimitInterceptor(
+            ClientIpResolver clientIpResolver,
+            RateLimitBucketStore buckets,
+            RateLimitPlans planos,
+            @Value("${prediction.ratelimit.cost.cache:1}") long custoCache,
+            @Value("${prediction.ratelimit.cost.model:5}") long custoModelo,
+            @Value("${prediction.ratelimit.cost.explain:20}") long custoExplicacao) {
+        if (custoCache <= 0 || custoModelo < custoCache || custoExplicacao < custoCache) {
+            throw new IllegalArgumentException("prediction.ratelimit.cost: esperado 0 < cache <= model e cache <= explain");
+        }
+        this.clientIpResolver = clientIpResolver;
+        this.buckets = buckets;
+        this.planos = planos;
+        this.custoCache = custoCache;
+        this.custoModelo = custoModelo;
+        this.custoExplicacao = custoExplicacao;
     }
 
     @Override
     public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
-        String ip = getClientIP(request);
-        Bucket bucket = cache.computeIfAbsent(ip, k -> createNewBucket());
+        String chave = request.getHeader(X_API_KEY);
+        Cobranca cobranca;
+        if (chave != null) {
+            Optional<RateLimitPlans.Assinante> assinante = planos.porChave(chave);
+            if (assinante.isEmpty()) {
+                log.warn("🔑 API key desconhecida ({})", clientIpResolver.resolver(request));
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                return false;
+            }
+            cobranca = new Cobranca("api:" + assinante.get().cliente(), assinante.get().plano());
+        } else {
+            cobranca = new Cobranca(clientIpResolver.resolver(request), planos.anonimo());
+        }
+
+        ConsumptionProbe resultado = buckets.tentarConsumir(cobranca.cliente(), cobranca.plano(), custoEntrada(request));
+        response.setHeader(X_RATELIMIT_LIMIT, String.valueOf(cobranca.plano().capacidade()));
+        response.setHeader(X_RATELIMIT_REMAINING, String.valueOf(Math.max(0, resultado.getRemainingTokens())));
+        response.setHeader(X_RATELIMIT_RESET, String.valueOf(segundos(resultado.getNanosToWaitForReset())));
 
-        if (bucket.tryConsume(1)) {
+        if (resultado.isConsumed()) {
+            request.setAttribute(ATRIBUTO_COBRANCA, cobranca);
+            request.setAttribute(RateLimitCost.ATRIBUTO, new RateLimitCost(previsoes -> reservar(cobranca, previsoes, response)));
             return true;
         } else {
-            log.warn("⚠️ Rate limit excedido para IP: {}", ip);
+            log.warn("⚠️ Rate limit excedido para {} (plano {})", cobranca.cliente(), cobranca.plano().nome());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, segundos(resultado.getNanosToWaitForRefill()))));
             response.setStatus(429); // Too Many Requests
             return false;
         }
     }
 
-    private String getClientIP(HttpServletRequest request) {
-        String xfHeader = request.getHeader("X-Forwarded-For");
-        if (xfHeader == null) {
-            return request.getRemoteAddr();
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, @Nullable Exception ex) {
+        if (!(request.getAttribute(ATRIBUTO_COBRANCA) instanceof Cobranca cobranca)) {
+            return;
         }
-        return xfHeader.split(",")[0];
+        RateLimitCost conta = RateLimitCost.de(request);
+        long devido = conta.previsoesAdicionais() * custoCache + conta.chamadasAoModelo() * (custoModelo - custoCache);
+        long diferenca = devido - custoReserva(conta.previsoesReservadas());
+        if (diferenca > 0) {
+            buckets.cobrar(cobranca.cliente(), cobranca.plano(), diferenca);
+        } else if (diferenca < 0) {
+            buckets.devolver(cobranca.cliente(), cobranca.plano(), -diferenca);
+        }
+    }
+
+    private ConsumptionProbe reservar(Cobranca cobranca, int previsoes, HttpServletResponse response) {
+        ConsumptionProbe resultado = buckets.tentarConsumir(cobranca.cliente(), cobranca.plano(), custoReserva(previsoes));
+        if (resultado.isConsumed() && !response.isCommitted()) {
+            response.setHeader(X_RATELIMIT_REMAINING, String.valueOf(Math.max(0, resultado.getRemainingTokens())));
+        }
+        return resultado;
+    }
+
+    /**
+     * Pior caso de N previsões (todas no modelo), descontado o cost.cache pago na entrada
+     */
+    private long custoReserva(int previsoes) {
+        return previsoes > 0 ? previsoes * custoModelo - custoCache : 0;
+    }
+
+    private long custoEntrada(HttpServletRequest request) {
+        if (request.getRequestURI().endsWith("/predict/explain")) {
+            return custoExplicacao;
+        }
+        String topk = request.getParameter("explicabilidade_local");
+        if (topk != null) {
+            try {
+                if (Integer.parseInt(topk.strip()) > 0) {
+                    return custoExplicacao;
+                }
+            } catch (NumberFormatException e) {
+                // Parâmetro inválido: o controller responde 400
+            }
+        }
+        return custoCache;
+    }
+
+    static long segundos(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
     }
 }
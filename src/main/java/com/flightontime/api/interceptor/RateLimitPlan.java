@@ -0,0 +1,31 @@
+package com.flightontime.api.interceptor;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+
+import java.time.Duration;
+
+/**
+ * Plano de rate limit: capacidade em tokens, reposta inteira a cada período
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+public record RateLimitPlan(String nome, long capacidade, Duration periodo) {
+
+    public RateLimitPlan {
+        if (capacidade <= 0 || periodo.isNegative() || periodo.isZero()) {
+            throw new IllegalArgumentException("Plano de rate limit inválido: " + nome);
+        }
+    }
+
+    Bandwidth limite() {
+        return Bandwidth.builder()
+                .capacity(capacidade)
+                .refillIntervally(capacidade, periodo)
+                .build();
+    }
+
+    BucketConfiguration configuracao() {
+        return BucketConfiguration.builder().addLimit(limite()).build();
+    }
+}
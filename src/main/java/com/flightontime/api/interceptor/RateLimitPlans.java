@@ -0,0 +1,109 @@
+package com.flightontime.api.interceptor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Planos de rate limit e as API keys de cada parceiro
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * - Sem X-API-Key: plano "anonimo" (prediction.ratelimit.capacity / refill-period), por IP
+ * - prediction.ratelimit.plans: "nome:capacidade:periodo", capacidade em tokens (ex.: parceiro:5000:1m)
+ * - prediction.ratelimit.api-keys: "cliente:plano:chave". O bucket e os logs usam o
+ *   nome do cliente; a chave nunca sai daqui
+ *
+ * Configuração inválida derruba a inicialização (IllegalArgumentException)
+ */
+@Slf4j
+@Component
+public class RateLimitPlans {
+
+    public static final String ANONIMO = "anonimo";
+
+    /**
+     * Dono de uma API key
+     */
+    public record Assinante(String cliente, RateLimitPlan plano) {
+    }
+
+    private final RateLimitPlan anonimo;
+    private final Map<String, RateLimitPlan> planos;
+    private final Map<String, Assinante> porChave;
+
+    public RateLimitPlans(
+            @Value("${prediction.ratelimit.capacity:100}") long capacidade,
+            @Value("${prediction.ratelimit.refill-period:1m}") Duration periodo,
+            @Value("${prediction.ratelimit.plans:}") String[] planos,
+            @Value("${prediction.ratelimit.api-keys:}") String[] chaves,
+            @Value("${prediction.ratelimit.idle-expiry:1m}") Duration ociosidade) {
+        this.anonimo = new RateLimitPlan(ANONIMO, capacidade, periodo);
+
+        Map<String, RateLimitPlan> porNome = new LinkedHashMap<>();
+        porNome.put(ANONIMO, anonimo);
+        for (String texto : planos) {
+            if (texto.isBlank()) {
+                continue;
+            }
+            String[] partes = texto.strip().split(":");
+            if (partes.length != 3 || porNome.containsKey(partes[0])) {
+                throw new IllegalArgumentException("Plano de rate limit inválido (nome:capacidade:periodo): " + texto);
+            }
+            try {
+                porNome.put(partes[0], new RateLimitPlan(partes[0], Long.parseLong(partes[1]),
+                        DurationStyle.detectAndParse(partes[2])));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Plano de rate limit inválido (nome:capacidade:periodo): " + texto, e);
+            }
+        }
+        this.planos = Collections.unmodifiableMap(porNome);
+
+        Map<String, Assinante> assinantes = new HashMap<>();
+        for (String texto : chaves) {
+            if (texto.isBlank()) {
+                continue;
+            }
+            String[] partes = texto.strip().split(":", 3);
+            RateLimitPlan plano = partes.length == 3 ? porNome.get(partes[1]) : null;
+            if (plano == null || partes[0].isEmpty() || partes[2].isEmpty()) {
+                // Sem repetir a entrada: ela contém a chave
+                throw new IllegalArgumentException("API key inválida ou com plano desconhecido (cliente:plano:chave), cliente "
+                        + (partes.length > 0 ? partes[0] : "?"));
+            }
+            if (assinantes.putIfAbsent(partes[2], new Assinante(partes[0], plano)) != null) {
+                throw new IllegalArgumentException("API key repetida, cliente " + partes[0]);
+            }
+        }
+        this.porChave = Map.copyOf(assinantes);
+
+        for (RateLimitPlan plano : porNome.values()) {
+            if (ociosidade.compareTo(plano.periodo()) < 0) {
+                log.warn("⚠️ prediction.ratelimit.idle-expiry ({}) menor que o período do plano {} ({}): "
+                        + "cliente ocioso volta com o bucket cheio antes da hora", ociosidade, plano.nome(), plano.periodo());
+            }
+        }
+        log.info("🚦 Planos de rate limit: {} ({} API keys)", porNome.values(), porChave.size());
+    }
+
+    public RateLimitPlan anonimo() {
+        return anonimo;
+    }
+
+    public Optional<Assinante> porChave(String chave) {
+        return Optional.ofNullable(porChave.get(chave));
+    }
+
+    public Collection<RateLimitPlan> planos() {
+        return planos.values();
+    }
+}
@@ -0,0 +1,86 @@
+package com.flightontime.api.interceptor;
+
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Conexão com o Redis do rate limit aberta sob demanda (modo redis)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Redis fora do ar na subida não impede a API de subir: proxyManager() devolve null e o
+ * RateLimitBucketStore usa buckets locais; nova tentativa de conexão a cada
+ * prediction.ratelimit.redis.reconnect-interval, feita por uma requisição só (as demais
+ * seguem com os buckets locais sem esperar). Depois de conectado, quedas são tratadas
+ * pelo próprio Lettuce (reconexão automática, comandos rejeitados enquanto isso).
+ */
+@Slf4j
+public class RateLimitRedisConnector {
+
+    private final RedisClient client;
+    private final String prefixo;
+    private final long intervaloNanos;
+    private final ReentrantLock conectando = new ReentrantLock();
+    private volatile ProxyManager<String> proxyManager;
+    private volatile StatefulRedisConnection<byte[], byte[]> conexao;
+    private volatile long proximaTentativa = System.nanoTime();
+
+    public RateLimitRedisConnector(RedisClient client, String prefixo, Duration intervaloNovaTentativa) {
+        this.client = client;
+        this.prefixo = prefixo;
+        this.intervaloNanos = intervaloNovaTentativa.toNanos();
+    }
+
+    /**
+     * Buckets remotos indexados pela chave do cliente (IP, com o prefixo do Redis)
+     *
+     * @return null enquanto não houver conexão com o Redis
+     */
+    public ProxyManager<String> proxyManager() {
+        ProxyManager<String> atual = proxyManager;
+        if (atual != null || System.nanoTime() - proximaTentativa < 0 || !conectando.tryLock()) {
+            return atual;
+        }
+        try {
+            if (proxyManager == null && System.nanoTime() - proximaTentativa >= 0) {
+                conectar();
+            }
+            return proxyManager;
+        } finally {
+            conectando.unlock();
+        }
+    }
+
+    private void conectar() {
+        try {
+            StatefulRedisConnection<byte[], byte[]> nova = client.connect(ByteArrayCodec.INSTANCE);
+            proxyManager = LettuceBasedProxyManager.builderFor(nova)
+                    .withExpirationStrategy(ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(Duration.ofSeconds(10)))
+                    .build()
+                    .withMapper((String cliente) -> (prefixo + cliente).getBytes(StandardCharsets.UTF_8));
+            conexao = nova;
+            log.info("🚦 Conectado ao Redis do rate limit");
+        } catch (RedisException ex) {
+            proximaTentativa = System.nanoTime() + intervaloNanos;
+            log.warn("⚠️ Redis do rate limit indisponível, usando buckets locais (nova tentativa em {}ms): {}",
+                    intervaloNanos / 1_000_000, ex.getMessage());
+        }
+    }
+
+    public void fechar() {
+        StatefulRedisConnection<byte[], byte[]> atual = conexao;
+        if (atual != null) {
+            atual.close();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.flightontime.api.scoring;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formato portátil do flightontime_pipeline.pkl, gerado por
+ * data_science/semana_04/scripts/export_modelo_java.py
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core) + Data Science
+ *
+ * Cobre as três etapas do pipeline:
+ * - fe: médias de atraso aprendidas no treino + lista de hubs
+ * - pre: mediana/média/escala das numéricas e o mapa categoria → coluna do one-hot
+ * - model: árvores do XGBoost achatadas em vetores (um elemento por nó)
+ *
+ * @param formato       Versão do formato ("flightontime-xgb-1")
+ * @param modeloVersao  Identificação do pickle exportado (hash)
+ * @param features      Nomes das colunas de saída do pré-processador, na ordem do modelo
+ * @param numericas     Colunas numéricas, na ordem de saída (índices 0..n-1)
+ * @param categoricas   Colunas categóricas e suas posições no one-hot
+ * @param zerosAusentes true se o pré-processador gera matriz esparsa (zero = ausente para o XGBoost)
+ * @param baseMargin    logit(base_score) do booster
+ * @param limiar        Probabilidade acima da qual o voo é "atrasado" (predict do XGBClassifier)
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ExportedPipeline(
+        String formato,
+        @JsonProperty("modelo_versao") String modeloVersao,
+        List<String> features,
+        List<Numerica> numericas,
+        List<Categorica> categoricas,
+        @JsonProperty("medias_atraso") MediasAtraso mediasAtraso,
+        List<String> hubs,
+        @JsonProperty("zeros_ausentes") boolean zerosAusentes,
+        @JsonProperty("base_margin") double baseMargin,
+        double limiar,
+        List<Arvore> arvores) {
+
+    public static final String FORMATO = "flightontime-xgb-1";
+
+    /**
+     * Coluna numérica: SimpleImputer(median) + StandardScaler
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Numerica(String nome, double mediana, double media, double escala) {
+    }
+
+    /**
+     * Coluna categórica: SimpleImputer(constant) + OneHotEncoder
+     *
+     * @param indices Categoria → índice absoluto da coluna de saída
+     *                (categorias infrequentes apontam para a coluna "infrequent_sklearn";
+     *                categoria desconhecida não acende nenhuma coluna)
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Categorica(String nome, String preenchimento, Map<String, Integer> indices) {
+    }
+
+    /**
+     * MediaAtrasoTransformer: médias por chave e média global (fallback)
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record MediasAtraso(
+            Map<String, Double> empresa,
+            Map<String, Double> origem,
+            Map<String, Double> destino,
+            double global) {
+    }
+
+    /**
+     * Uma árvore, indexada por nodeid. Em folhas, feature = -1 e folha = valor da folha.
+     * Decisão do XGBoost: valor ausente → ausente; valor &lt; limiar → sim; senão → nao.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Arvore(int[] feature, float[] limiar, int[] sim, int[] nao, int[] ausente, float[] folha) {
+    }
+}
@@ -0,0 +1,213 @@
+package com.flightontime.api.scoring;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reprodução em Java das etapas "fe" e "pre" do pipeline Python
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Cada coluna numérica é resolvida pelo nome UMA vez, no carregamento (código inteiro);
+ * colunas que o Java não sabe calcular derrubam o carregamento, em vez de gerar
+ * previsões silenciosamente diferentes das do Python.
+ *
+ * PARIDADE COM O PYTHON:
+ * - dia_semana segue o pandas (segunda = 0); fim_de_semana = sexta, sábado e domingo
+ * - cálculos em double (como o numpy) e conversão para float no fim (como o DMatrix)
+ * - matriz esparsa no Python: zero não armazenado = ausente para o XGBoost (NaN aqui)
+ */
+final class FlightFeatureEncoder {
+
+    private static final int HORA_DIA = 0;
+    private static final int DIA_SEMANA = 1;
+    private static final int MES_ANO = 2;
+    private static final int FIM_DE_SEMANA = 3;
+    private static final int ALTA_TEMPORADA = 4;
+    private static final int HORA_SIN = 5;
+    private static final int HORA_COS = 6;
+    private static final int IS_HUB = 7;
+    private static final int MEDIA_EMPRESA = 8;
+    private static final int MEDIA_ORIGEM = 9;
+    private static final int MEDIA_DESTINO = 10;
+
+    private static final int EMPRESA = 0;
+    private static final int ORIGEM = 1;
+    private static final int DESTINO = 2;
+    private static final int TIPO_LINHA = 3;
+    private static final int PERIODO_DIA = 4;
+
+    private final int totalFeatures;
+    private final boolean zerosAusentes;
+
+    private final int[] numericas;
+    private final double[] mediana;
+    private final double[] media;
+    private final double[] escala;
+
+    private final int[] categoricas;
+    private final String[] preenchimento;
+    private final List<Map<String, Integer>> indices;
+
+    private final Map<String, Double> mediasEmpresa;
+    private final Map<String, Double> mediasOrigem;
+    private final Map<String, Double> mediasDestino;
+    private final double mediaGlobal;
+    private final Set<String> hubs;
+
+    FlightFeatureEncoder(ExportedPipeline modelo) {
+        this.totalFeatures = modelo.features().size();
+        this.zerosAusentes = modelo.zerosAusentes();
+
+        int n = modelo.numericas().size();
+        this.numericas = new int[n];
+        this.mediana = new double[n];
+        this.media = new double[n];
+        this.escala = new double[n];
+        for (int i = 0; i < n; i++) {
+            ExportedPipeline.Numerica coluna = modelo.numericas().get(i);
+            numericas[i] = codigoNumerica(coluna.nome());
+            mediana[i] = coluna.mediana();
+            media[i] = coluna.media();
+            escala[i] = coluna.escala();
+        }
+
+        int c = modelo.categoricas().size();
+        this.categoricas = new int[c];
+        this.preenchimento = new String[c];
+        this.indices = modelo.categoricas().stream().map(ExportedPipeline.Categorica::indices).toList();
+        for (int i = 0; i < c; i++) {
+            ExportedPipeline.Categorica coluna = modelo.categoricas().get(i);
+            categoricas[i] = codigoCategorica(coluna.nome());
+            preenchimento[i] = coluna.preenchimento();
+            for (int indice : coluna.indices().values()) {
+                if (indice < n || indice >= totalFeatures) {
+                    throw new IllegalStateException("Índice de one-hot fora da faixa em " + coluna.nome() + ": " + indice);
+                }
+            }
+        }
+
+        ExportedPipeline.MediasAtraso medias = modelo.mediasAtraso();
+        this.mediasEmpresa = new HashMap<>(medias.empresa());
+        this.mediasOrigem = new HashMap<>(medias.origem());
+        this.mediasDestino = new HashMap<>(medias.destino());
+        this.mediaGlobal = medias.global();
+        this.hubs = new HashSet<>(modelo.hubs());
+    }
+
+    int totalFeatures() {
+        return totalFeatures;
+    }
+
+    /**
+     * Monta o vetor de entrada do modelo (mesma ordem de pre.get_feature_names_out())
+     */
+    float[] codificar(ScoringInput voo) {
+        float[] x = new float[totalFeatures];
+
+        for (int i = 0; i < numericas.length; i++) {
+            double bruto = numerica(numericas[i], voo);
+            if (Double.isNaN(bruto)) {
+                bruto = mediana[i];
+            }
+            x[i] = (float) ((bruto - media[i]) / escala[i]);
+        }
+
+        for (int i = 0; i < categoricas.length; i++) {
+            String valor = categorica(categoricas[i], voo);
+            Integer coluna = indices.get(i).get(valor != null ? valor : preenchimento[i]);
+            if (coluna != null) {
+                x[coluna] = 1.0f;
+            }
+        }
+
+        if (zerosAusentes) {
+            for (int i = 0; i < x.length; i++) {
+                if (x[i] == 0.0f) {
+                    x[i] = Float.NaN;
+                }
+            }
+        }
+        return x;
+    }
+
+    private double numerica(int codigo, ScoringInput voo) {
+        LocalDateTime partida = voo.partidaPrevista();
+        if (partida == null && codigo < IS_HUB) {
+            return Double.NaN;
+        }
+        return switch (codigo) {
+            case HORA_DIA -> partida.getHour();
+            case DIA_SEMANA -> partida.getDayOfWeek().getValue() - 1;
+            case MES_ANO -> partida.getMonthValue();
+            case FIM_DE_SEMANA -> partida.getDayOfWeek().getValue() >= 5 ? 1 : 0;
+            case ALTA_TEMPORADA -> partida.getMonthValue() == 7 || partida.getMonthValue() == 12 ? 1 : 0;
+            case HORA_SIN -> Math.sin(2 * Math.PI * partida.getHour() / 24);
+            case HORA_COS -> Math.cos(2 * Math.PI * partida.getHour() / 24);
+            case IS_HUB -> hubs.contains(voo.aerodromoOrigem()) || hubs.contains(voo.aerodromoDestino()) ? 1 : 0;
+            case MEDIA_EMPRESA -> mediasEmpresa.getOrDefault(voo.empresaAerea(), mediaGlobal);
+            case MEDIA_ORIGEM -> mediasOrigem.getOrDefault(voo.aerodromoOrigem(), mediaGlobal);
+            case MEDIA_DESTINO -> mediasDestino.getOrDefault(voo.aerodromoDestino(), mediaGlobal);
+            default -> throw new IllegalStateException("Feature numérica sem implementação: " + codigo);
+        };
+    }
+
+    private static String categorica(int codigo, ScoringInput voo) {
+        return switch (codigo) {
+            case EMPRESA -> voo.empresaAerea();
+            case ORIGEM -> voo.aerodromoOrigem();
+            case DESTINO -> voo.aerodromoDestino();
+            case TIPO_LINHA -> voo.codigoTipoLinha();
+            case PERIODO_DIA -> voo.partidaPrevista() != null ? periodo(voo.partidaPrevista().getHour()) : null;
+            default -> throw new IllegalStateException("Feature categórica sem implementação: " + codigo);
+        };
+    }
+
+    /**
+     * Mesmo corte do DatasFeaturesTransformer._classificar_periodo
+     */
+    private static String periodo(int hora) {
+        if (hora >= 5 && hora < 12) {
+            return "Manha";
+        }
+        if (hora >= 12 && hora < 18) {
+            return "Tarde";
+        }
+        if (hora >= 18 && hora < 22) {
+            return "Noite";
+        }
+        return "Madrugada";
+    }
+
+    private static int codigoNumerica(String nome) {
+        return switch (nome) {
+            case "hora_dia" -> HORA_DIA;
+            case "dia_semana" -> DIA_SEMANA;
+            case "mes_ano" -> MES_ANO;
+            case "fim_de_semana" -> FIM_DE_SEMANA;
+            case "alta_temporada" -> ALTA_TEMPORADA;
+            case "hora_sin" -> HORA_SIN;
+            case "hora_cos" -> HORA_COS;
+            case "is_hub" -> IS_HUB;
+            case "media_atraso_empresa" -> MEDIA_EMPRESA;
+            case "media_atraso_origem" -> MEDIA_ORIGEM;
+            case "media_atraso_destino" -> MEDIA_DESTINO;
+            default -> throw new IllegalStateException("Feature numérica não suportada pelo scorer Java: " + nome);
+        };
+    }
+
+    private static int codigoCategorica(String nome) {
+        return switch (nome) {
+            case "empresa_aerea" -> EMPRESA;
+            case "aerodromo_origem" -> ORIGEM;
+            case "aerodromo_destino" -> DESTINO;
+            case "codigo_tipo_linha" -> TIPO_LINHA;
+            case "periodo_dia" -> PERIODO_DIA;
+            default -> throw new IllegalStateException("Feature categórica não suportada pelo scorer Java: " + nome);
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package com.flightontime.api.scoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Scorer do modelo XGBoost dentro da JVM (sem ida ao Python)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Carrega o pipeline exportado por export_modelo_java.py (fe + pre + árvores) e calcula
+ * proba_atraso com as mesmas contas do Python. Uma previsão = codificar o voo em um
+ * float[] e somar as folhas; sem rede, sem DataFrame e sem rodar o modelo duas vezes.
+ *
+ * O que NÃO faz: explicabilidade local (continua sendo do Python).
+ *
+ * Desativado por padrão (prediction.scorer.enabled); ligado, um arquivo inválido
+ * impede a subida da aplicação em vez de gerar previsões diferentes das do Python.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "prediction.scorer.enabled", havingValue = "true")
+public class InJvmFlightScorer {
+
+    private final String modeloVersao;
+    private final double baseMargin;
+    private final double limiar;
+    private final FlightFeatureEncoder encoder;
+    private final XgbTreeEnsemble arvores;
+
+    public InJvmFlightScorer(
+            @Value("${prediction.scorer.model-path}") Resource arquivo,
+            ObjectMapper objectMapper) {
+        this(ler(arquivo, objectMapper));
+        log.info("🌲 Scorer Java carregado de {}: modelo {}, {} árvores, {} features",
+                arquivo.getDescription(), modeloVersao, arvores.totalArvores(), encoder.totalFeatures());
+    }
+
+    InJvmFlightScorer(ExportedPipeline modelo) {
+        if (!ExportedPipeline.FORMATO.equals(modelo.formato())) {
+            throw new IllegalStateException("Formato de modelo não suportado: " + modelo.formato()
+                    + " (esperado " + ExportedPipeline.FORMATO + ")");
+        }
+        this.modeloVersao = modelo.modeloVersao();
+        this.baseMargin = modelo.baseMargin();
+        this.limiar = modelo.limiar();
+        this.encoder = new FlightFeatureEncoder(modelo);
+        this.arvores = new XgbTreeEnsemble(modelo.arvores(), encoder.totalFeatures());
+    }
+
+    /**
+     * Carrega o scorer de um JSON exportado (usado nos testes e ferramentas)
+     */
+    public static InJvmFlightScorer carregar(InputStream json, ObjectMapper objectMapper) throws IOException {
+        return new InJvmFlightScorer(objectMapper.readValue(json, ExportedPipeline.class));
+    }
+
+    private static ExportedPipeline ler(Resource arquivo, ObjectMapper objectMapper) {
+        try (InputStream in = arquivo.getInputStream()) {
+            return objectMapper.readValue(in, ExportedPipeline.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível ler o modelo exportado em " + arquivo.getDescription(), e);
+        }
+    }
+
+    /**
+     * Probabilidade de atraso (equivalente a pipeline.predict_proba(x)[0, 1])
+     */
+    public double probabilidade(ScoringInput voo) {
+        float[] x = encoder.codificar(voo);
+        double margem = (double) arvores.margem(x) + baseMargin;
+        // A saída do XGBoost é float: arredondar igual mantém a paridade na sexta casa
+        return (float) (1.0 / (1.0 + Math.exp(-margem)));
+    }
+
+    /**
+     * Mesmo critério do XGBClassifier.predict
+     */
+    public boolean atrasado(double probabilidade) {
+        return probabilidade > limiar;
+    }
+
+    public String getModeloVersao() {
+        return modeloVersao;
+    }
+}
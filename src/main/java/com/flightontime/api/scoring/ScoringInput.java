@@ -0,0 +1,20 @@
+package com.flightontime.api.scoring;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dados brutos de um voo, no mesmo formato do payload "dados" do Python (códigos ICAO)
+ *
+ * @param partidaPrevista  Data/hora prevista de partida
+ * @param empresaAerea     ICAO da companhia
+ * @param aerodromoOrigem  ICAO da origem
+ * @param aerodromoDestino ICAO do destino
+ * @param codigoTipoLinha  Tipo de linha (N = nacional, I = internacional...)
+ */
+public record ScoringInput(
+        LocalDateTime partidaPrevista,
+        String empresaAerea,
+        String aerodromoOrigem,
+        String aerodromoDestino,
+        String codigoTipoLinha) {
+}
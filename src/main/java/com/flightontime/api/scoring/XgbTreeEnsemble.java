@@ -0,0 +1,101 @@
+package com.flightontime.api.scoring;
+
+import java.util.List;
+
+/**
+ * Soma das árvores do XGBoost em vetores contíguos
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Todas as árvores ficam em um único conjunto de arrays (um elemento por nó);
+ * os filhos já apontam para a posição global, então percorrer o ensemble é só
+ * indexação de array, sem objetos por nó nem alocação por previsão.
+ *
+ * Regras de decisão iguais às do XGBoost (valores em float, como no DMatrix):
+ * - valor ausente (NaN) → ramo "missing" aprendido no treino
+ * - valor &lt; limiar → ramo "yes"; senão → ramo "no"
+ */
+final class XgbTreeEnsemble {
+
+    private final int[] raizes;
+    private final int[] feature;
+    private final float[] limiar;
+    private final int[] sim;
+    private final int[] nao;
+    private final int[] ausente;
+    private final float[] folha;
+
+    XgbTreeEnsemble(List<ExportedPipeline.Arvore> arvores, int totalFeatures) {
+        int totalNos = 0;
+        for (ExportedPipeline.Arvore arvore : arvores) {
+            totalNos += arvore.feature().length;
+        }
+        this.raizes = new int[arvores.size()];
+        this.feature = new int[totalNos];
+        this.limiar = new float[totalNos];
+        this.sim = new int[totalNos];
+        this.nao = new int[totalNos];
+        this.ausente = new int[totalNos];
+        this.folha = new float[totalNos];
+
+        int base = 0;
+        for (int a = 0; a < arvores.size(); a++) {
+            ExportedPipeline.Arvore arvore = arvores.get(a);
+            int nos = arvore.feature().length;
+            if (arvore.limiar().length != nos || arvore.sim().length != nos || arvore.nao().length != nos
+                    || arvore.ausente().length != nos || arvore.folha().length != nos) {
+                throw new IllegalStateException("Árvore " + a + " com vetores de tamanhos diferentes");
+            }
+            raizes[a] = base;
+            for (int no = 0; no < nos; no++) {
+                int i = base + no;
+                feature[i] = arvore.feature()[no];
+                limiar[i] = arvore.limiar()[no];
+                folha[i] = arvore.folha()[no];
+                if (feature[i] < 0) {
+                    continue;
+                }
+                if (feature[i] >= totalFeatures) {
+                    throw new IllegalStateException("Árvore " + a + " usa a feature " + feature[i]
+                            + ", mas o pré-processador gera " + totalFeatures);
+                }
+                sim[i] = base + filho(arvore.sim()[no], no, nos, a);
+                nao[i] = base + filho(arvore.nao()[no], no, nos, a);
+                ausente[i] = base + filho(arvore.ausente()[no], no, nos, a);
+            }
+            base += nos;
+        }
+    }
+
+    /**
+     * No XGBoost o filho sempre tem nodeid maior que o pai: exigir isso garante
+     * que um arquivo corrompido não gere ciclo (loop infinito na previsão)
+     */
+    private static int filho(int filho, int pai, int nos, int arvore) {
+        if (filho <= pai || filho >= nos) {
+            throw new IllegalStateException("Árvore " + arvore + ": nó " + pai + " aponta para o nó inválido " + filho);
+        }
+        return filho;
+    }
+
+    int totalArvores() {
+        return raizes.length;
+    }
+
+    /**
+     * Margem bruta (soma das folhas), sem base_margin
+     */
+    float margem(float[] x) {
+        float soma = 0f;
+        for (int raiz : raizes) {
+            int no = raiz;
+            int f;
+            while ((f = feature[no]) >= 0) {
+                float v = x[f];
+                no = Float.isNaN(v) ? ausente[no] : (v < limiar[no] ? sim[no] : nao[no]);
+            }
+            soma += folha[no];
+        }
+        return soma;
+    }
+}
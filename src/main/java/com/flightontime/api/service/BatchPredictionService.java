@@ -0,0 +1,242 @@
+package com.flightontime.api.service;
+
+import com.flightontime.api.client.PythonPredictionClient;
+import com.flightontime.api.dto.BatchPredictionItem;
+import com.flightontime.api.dto.BatchPredictionResponse;
+import com.flightontime.api.dto.FlightPredictionRequest;
+import com.flightontime.api.dto.FlightPredictionResponse;
+import com.flightontime.api.exception.RateLimitExceededException;
+import com.flightontime.api.interceptor.RateLimitCost;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Serviço de previsão em lote
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * FLUXO:
+ * 1. Valida cada item individualmente (erro fica no próprio item)
+ * 2. Remove duplicados pela chave canônica (voos equivalentes são previstos uma única vez)
+ * 3. Atende pelo cache "predictions" o que já estiver lá
+ * 4. Dispara os restantes em paralelo no predictionExecutor
+ * 5. Remonta a resposta na ordem de entrada
+ *
+ * Prazo do lote (prediction.batch.timeout): item que ainda está na fila ao estourar
+ * não chega a rodar, e o que está rodando é interrompido (FutureTask.cancel(true))
+ * e solta a espera pelo Python - não segura o predictionExecutor depois do prazo.
+ * O envio ao executor também pode segurar a thread do lote (limite de concorrência das
+ * threads virtuais, CallerRunsPolicy): o prazo é conferido a cada envio e os itens que
+ * sobrarem falham sem sair; o item rodado na própria thread espera só até o prazo.
+ */
+@Slf4j
+@Service
+public class BatchPredictionService {
+
+    private static final String STATUS_OK = "OK";
+    private static final String STATUS_ERRO = "ERRO";
+
+    private final FlightPredictionService predictionService;
+    private final PredictionKeyGenerator keyGenerator;
+    private final PredictionCache predictionCache;
+    private final Validator validator;
+    private final Executor executor;
+
+    @Value("${prediction.batch.max-size:200}")
+    private int maxBatchSize;
+
+    @Value("${prediction.batch.timeout:10000}")
+    private long batchTimeoutMs;
+
+    public BatchPredictionService(
+            FlightPredictionService predictionService,
+            PredictionKeyGenerator keyGenerator,
+            PredictionCache predictionCache,
+            Validator validator,
+            @Qualifier("predictionExecutor") Executor executor) {
+        this.predictionService = predictionService;
+        this.keyGenerator = keyGenerator;
+        this.predictionCache = predictionCache;
+        this.validator = validator;
+        this.executor = executor;
+    }
+
+    /**
+     * Realiza a previsão de uma lista de voos
+     *
+     * @param requests Voos na ordem em que o cliente quer receber as respostas
+     * @return Resultados na mesma ordem, cada um com sua previsão OU seu erro
+     * @throws IllegalArgumentException se a lista estiver vazia ou exceder o limite
+     * @throws RateLimitExceededException sem saldo de rate limit para o custo máximo do lote
+     */
+    public BatchPredictionResponse predictBatch(List<FlightPredictionRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("A lista de voos não pode ser vazia");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException(
+                    "O lote excede o limite de " + maxBatchSize + " voos (recebidos: " + requests.size() + ")");
+        }
+
+        // Rate limit: reserva o custo máximo do lote antes de disparar qualquer item
+        // (sem saldo = 429); as threads do lote registram na conta da requisição só as
+        // respostas que vieram do modelo e a sobra volta ao bucket no final
+        RateLimitCost conta = RateLimitCost.daRequisicao();
+        conta.reservarPrevisoes(requests.size());
+        conta.registrarPrevisoes(requests.size() - 1);
+        NivelAplicado aplicado = NivelAplicado.daRequisicao();
+
+        BatchPredictionItem[] resultados = new BatchPredictionItem[requests.size()];
+
+        // 1. Validação item a item + deduplicação pela chave canônica
+        //    (mantém a ordem da primeira ocorrência; o primeiro request representa a chave)
+        Map<PredictionKey, List<Integer>> distintos = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            FlightPredictionRequest request = requests.get(i);
+            List<String> erros = validar(request);
+            if (!erros.isEmpty()) {
+                resultados[i] = erro(i, "Dados de entrada inválidos", erros);
+                continue;
+            }
+            distintos.computeIfAbsent(keyGenerator.of(request), k -> new ArrayList<>()).add(i);
+        }
+
+        // 2. Cache primeiro (só entradas frescas); o que faltar vai para o executor em paralelo.
+        //    Entradas a renovar ou em carência passam pelo predict, que cuida da renovação.
+        Instant agora = predictionCache.agora();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchTimeoutMs);
+        Map<PredictionKey, Future<FlightPredictionResponse>> pendentes = new LinkedHashMap<>();
+        int hits = 0;
+        int semEnvio = 0;
+        for (Map.Entry<PredictionKey, List<Integer>> entry : distintos.entrySet()) {
+            PredictionKey chave = entry.getKey();
+            FlightPredictionRequest request = requests.get(entry.getValue().get(0));
+            Optional<CachedPrediction> cached = predictionCache.get(chave).filter(c -> c.fresca(agora));
+            if (cached.isPresent()) {
+                preencher(resultados, entry.getValue(), cached.get().response());
+                hits++;
+            } else if (System.nanoTime() - deadline >= 0) {
+                // Envios anteriores seguraram esta thread até o prazo: o restante nem sai
+                entry.getValue().forEach(i -> resultados[i] = erro(i, "Tempo limite do lote excedido", null));
+                semEnvio++;
+            } else {
+                FutureTask<FlightPredictionResponse> tarefa = new FutureTask<>(() -> prever(request, conta, aplicado, deadline));
+                executor.execute(tarefa);
+                pendentes.put(chave, tarefa);
+            }
+        }
+
+        log.info("📦 Lote com {} voos: {} distintos, {} do cache, {} em paralelo{}",
+                requests.size(), distintos.size(), hits, pendentes.size(),
+                semEnvio > 0 ? ", " + semEnvio + " sem envio (prazo do lote)" : "");
+
+        // 3. Coleta com prazo único para o lote inteiro
+        pendentes.forEach((chave, future) -> {
+            List<Integer> indices = distintos.get(chave);
+            try {
+                long restante = Math.max(0, deadline - System.nanoTime());
+                preencher(resultados, indices, future.get(restante, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException ex) {
+                future.cancel(true);
+                indices.forEach(i -> resultados[i] = erro(i, "Tempo limite do lote excedido", null));
+            } catch (ExecutionException ex) {
+                String mensagem = ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage();
+                log.warn("⚠️ Falha em item do lote ({} → {}): {}", chave.origemIcao(), chave.destinoIcao(), mensagem);
+                indices.forEach(i -> resultados[i] = erro(i, mensagem, null));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                indices.forEach(i -> resultados[i] = erro(i, "Processamento interrompido", null));
+            }
+        });
+
+        List<BatchPredictionItem> itens = List.of(resultados);
+        int sucesso = (int) itens.stream().filter(item -> STATUS_OK.equals(item.getStatus())).count();
+
+        return BatchPredictionResponse.builder()
+                .total(itens.size())
+                .sucesso(sucesso)
+                .falhas(itens.size() - sucesso)
+                .resultados(itens)
+                .build();
+    }
+
+    /**
+     * Item no executor: não começa depois do prazo e não espera além dele (rodando na
+     * thread do lote ninguém o interromperia); interrompido, cancela a previsão em andamento
+     */
+    private FlightPredictionResponse prever(
+            FlightPredictionRequest request, RateLimitCost conta, NivelAplicado aplicado, long deadline) throws Exception {
+        if (System.nanoTime() - deadline >= 0) {
+            throw new TimeoutException("Tempo limite do lote excedido");
+        }
+        CompletableFuture<FlightPredictionResponse> previsao = predictionService.predictAsync(request, conta, aplicado);
+        try {
+            return previsao.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            previsao.cancel(true);
+            throw new TimeoutException("Tempo limite do lote excedido");
+        } catch (InterruptedException ex) {
+            previsao.cancel(true);
+            throw ex;
+        } catch (ExecutionException ex) {
+            if (PythonPredictionClient.causa(ex) instanceof Exception causa) {
+                throw causa;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Aplica as mesmas regras do @Valid do endpoint unitário,
+     * no formato "campo: mensagem" usado pelo GlobalExceptionHandler
+     */
+    private List<String> validar(FlightPredictionRequest request) {
+        if (request == null) {
+            return List.of("Item do lote não pode ser nulo");
+        }
+        Set<ConstraintViolation<FlightPredictionRequest>> violations = validator.validate(request);
+        List<String> erros = new ArrayList<>(violations.size());
+        for (ConstraintViolation<FlightPredictionRequest> v : violations) {
+            erros.add(v.getPropertyPath() + ": " + v.getMessage());
+        }
+        return erros;
+    }
+
+    private void preencher(BatchPredictionItem[] resultados, List<Integer> indices, FlightPredictionResponse response) {
+        for (Integer i : indices) {
+            resultados[i] = BatchPredictionItem.builder()
+                    .indice(i)
+                    .status(STATUS_OK)
+                    .resultado(response)
+                    .build();
+        }
+    }
+
+    private BatchPredictionItem erro(int indice, String mensagem, List<String> erros) {
+        return BatchPredictionItem.builder()
+                .indice(indice)
+                .status(STATUS_ERRO)
+                .erro(mensagem)
+                .erros(erros)
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.flightontime.api.service;
+
+import com.flightontime.api.dto.FlightPredictionResponse;
+import com.flightontime.api.dto.LocalExplanation;
+
+import java.time.Instant;
+
+/**
+ * Entrada do cache "predictions" com os marcos de tempo da previsão
+ *
+ * LINHA DO TEMPO:
+ * criadoEm ──(fresca)── renovarApos ──(serve + renova em background)── expiraEm
+ *          ──(carência: serve apenas se o Python falhar)── descartarApos
+ *
+ * @param response        Previsão armazenada
+ * @param criadoEm        Momento em que a previsão foi calculada
+ * @param renovarApos     A partir daqui a entrada é servida e renovada em background
+ * @param expiraEm        A partir daqui a entrada só é servida se o Python estiver indisponível
+ * @param descartarApos   Fim da carência: o Caffeine remove a entrada
+ * @param explicacaoLocal Explicabilidade local já pedida para este voo (null = nunca pedida)
+ * @param topkLocal       topk com que a explicacaoLocal foi calculada
+ * @param json            response já serializada (prediction.cache.serialized.enabled), ou null
+ */
+public record CachedPrediction(
+        FlightPredictionResponse response,
+        Instant criadoEm,
+        Instant renovarApos,
+        Instant expiraEm,
+        Instant descartarApos,
+        LocalExplanation explicacaoLocal,
+        int topkLocal,
+        byte[] json) {
+
+    public CachedPrediction(
+            FlightPredictionResponse response,
+            Instant criadoEm,
+            Instant renovarApos,
+            Instant expiraEm,
+            Instant descartarApos) {
+        this(response, criadoEm, renovarApos, expiraEm, descartarApos, null, 0, null);
+    }
+
+    public boolean fresca(Instant agora) {
+        return agora.isBefore(renovarApos);
+    }
+
+    public boolean valida(Instant agora) {
+        return agora.isBefore(expiraEm);
+    }
+}
@@ -0,0 +1,218 @@
+package com.flightontime.api.service;
+
+import com.flightontime.api.client.PythonBulkhead;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Degradação progressiva das previsões conforme a carga no Python
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Antes de recusar requisições, corta o que mais pesa no Python. Níveis, do mais leve ao mais duro:
+ * - COMPLETO: fluxo normal
+ * - SEM_EXPLICACAO: explicabilidade local só se já estiver no cache (o explicar_local_xgb
+ *   é o que mais consome CPU no Python)
+ * - SO_CACHE: previsões em cache (mesmo expiradas, dentro da carência) sem ida ao Python
+ *   e sem renovação em background; só o que não está no cache vai ao Python
+ * - REGRAS: nada vai ao Python; o que não está no cache sai do FallbackRuleEngine
+ *
+ * Sinais (o nível é o pior dos dois):
+ * - Latência das previsões no Python: média móvel exponencial. Sem amostra nova por
+ *   prediction.degradation.latency-window ela deixa de contar: nos níveis que não chamam
+ *   o Python a média não se atualiza, e o nível precisa poder voltar
+ * - Chamadas em andamento + na fila do PythonBulkhead
+ *
+ * Limiares em prediction.degradation.latency-thresholds / inflight-thresholds (um por nível
+ * a partir de SEM_EXPLICACAO). Piorar é imediato; melhorar só após prediction.degradation.cooldown
+ * no nível atual, para não oscilar a cada requisição.
+ *
+ * Métricas: prediction.degradation.level (0-3) e prediction.degradation.transitions{nivel}
+ */
+@Slf4j
+@Component
+public class DegradationController {
+
+    public enum Nivel {
+        COMPLETO("completo"),
+        SEM_EXPLICACAO("sem_explicacao"),
+        SO_CACHE("so_cache"),
+        REGRAS("regras");
+
+        private final String rotulo;
+
+        Nivel(String rotulo) {
+            this.rotulo = rotulo;
+        }
+
+        /**
+         * Valor do header X-Degradation-Level e da tag das métricas
+         */
+        public String rotulo() {
+            return rotulo;
+        }
+    }
+
+    private static final double ALFA = 0.2;
+    private static final Nivel[] NIVEIS = Nivel.values();
+
+    private final PythonBulkhead bulkhead;
+    private final boolean habilitado;
+    private final long[] limitesLatenciaNanos;
+    private final int[] limitesEmAndamento;
+    private final long janelaLatenciaNanos;
+    private final long carenciaNanos;
+    private final LongSupplier relogio;
+    private final Map<Nivel, Counter> transicoes = new EnumMap<>(Nivel.class);
+
+    // Lock em vez de synchronized: não prende a thread portadora com threads virtuais
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile double latenciaMediaNanos;
+    private volatile long ultimaAmostra;
+    private volatile Nivel nivel = Nivel.COMPLETO;
+    private long nivelDesde;
+
+    @Autowired
+    public DegradationController(
+            PythonBulkhead bulkhead,
+            MeterRegistry meterRegistry,
+            @Value("${prediction.degradation.enabled:true}") boolean habilitado,
+            @Value("${prediction.degradation.latency-thresholds:800ms,1500ms,2500ms}") String[] limitesLatencia,
+            @Value("${prediction.degradation.inflight-thresholds:8,16,22}") int[] limitesEmAndamento,
+            @Value("${prediction.degradation.latency-window:10s}") Duration janelaLatencia,
+            @Value("${prediction.degradation.cooldown:5s}") Duration carencia) {
+        this(bulkhead, meterRegistry, habilitado,
+                Arrays.stream(limitesLatencia).map(String::strip).map(DurationStyle::detectAndParse).toArray(Duration[]::new),
+                limitesEmAndamento, janelaLatencia, carencia, System::nanoTime);
+    }
+
+    DegradationController(
+            PythonBulkhead bulkhead,
+            MeterRegistry meterRegistry,
+            boolean habilitado,
+            Duration[] limitesLatencia,
+            int[] limitesEmAndamento,
+            Duration janelaLatencia,
+            Duration carencia,
+            LongSupplier relogio) {
+        if (limitesLatencia.length != NIVEIS.length - 1 || limitesEmAndamento.length != NIVEIS.length - 1) {
+            throw new IllegalArgumentException("prediction.degradation: um limiar por nível (" + (NIVEIS.length - 1) + ")");
+        }
+        this.bulkhead = bulkhead;
+        this.habilitado = habilitado;
+        this.limitesLatenciaNanos = Arrays.stream(limitesLatencia).mapToLong(Duration::toNanos).toArray();
+        this.limitesEmAndamento = limitesEmAndamento.clone();
+        this.janelaLatenciaNanos = janelaLatencia.toNanos();
+        this.carenciaNanos = carencia.toNanos();
+        this.relogio = relogio;
+        this.nivelDesde = relogio.getAsLong();
+
+        Gauge.builder("prediction.degradation.level", this, controle -> controle.nivel.ordinal())
+                .description("Nível de degradação das previsões (0 = completo, 3 = só regras)")
+                .register(meterRegistry);
+        for (Nivel n : NIVEIS) {
+            transicoes.put(n, Counter.builder("prediction.degradation.transitions")
+                    .description("Mudanças de nível de degradação, pelo nível de destino")
+                    .tag("nivel", n.rotulo())
+                    .register(meterRegistry));
+        }
+
+        log.info("🪜 Degradação por carga {}: latência {} / em andamento {}",
+                habilitado ? "ativa" : "desativada", Arrays.toString(limitesLatencia), Arrays.toString(limitesEmAndamento));
+    }
+
+    /**
+     * Latência de uma previsão no Python (respondida ou estourada no prazo)
+     */
+    public void registrarLatencia(long nanos) {
+        long agora = relogio.getAsLong();
+        double anterior = latenciaMediaNanos;
+        // Média vencida (Python sem chamadas por um tempo) recomeça da amostra nova
+        boolean vencida = anterior == 0.0 || agora - ultimaAmostra > janelaLatenciaNanos;
+        latenciaMediaNanos = vencida ? nanos : anterior + ALFA * (nanos - anterior);
+        ultimaAmostra = agora;
+    }
+
+    /**
+     * Nível a aplicar agora (reavaliado a cada chamada: só leituras de contadores)
+     */
+    public Nivel avaliar() {
+        if (!habilitado) {
+            return Nivel.COMPLETO;
+        }
+        long agora = relogio.getAsLong();
+        Nivel calculado = NIVEIS[Math.max(nivelPorLatencia(agora), nivelPorEmAndamento())];
+        Nivel atual = nivel;
+        if (calculado == atual) {
+            return atual;
+        }
+
+        lock.lock();
+        try {
+            atual = nivel;
+            if (calculado.ordinal() < atual.ordinal() && agora - nivelDesde < carenciaNanos) {
+                return atual;
+            }
+            if (calculado != atual) {
+                nivel = calculado;
+                nivelDesde = agora;
+                transicoes.get(calculado).increment();
+                if (calculado.ordinal() > atual.ordinal()) {
+                    log.warn("🪜 Degradação {} → {} (latência Python {}ms, em andamento {})", atual.rotulo(),
+                            calculado.rotulo(), TimeUnit.NANOSECONDS.toMillis((long) latenciaMediaNanos), emAndamento());
+                } else {
+                    log.info("🪜 Degradação {} → {}", atual.rotulo(), calculado.rotulo());
+                }
+            }
+            return calculado;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Último nível avaliado (sem reavaliar)
+     */
+    public Nivel nivel() {
+        return nivel;
+    }
+
+    private int nivelPorLatencia(long agora) {
+        if (latenciaMediaNanos == 0.0 || agora - ultimaAmostra > janelaLatenciaNanos) {
+            return 0;
+        }
+        double latencia = latenciaMediaNanos;
+        int n = 0;
+        while (n < limitesLatenciaNanos.length && latencia >= limitesLatenciaNanos[n]) {
+            n++;
+        }
+        return n;
+    }
+
+    private int nivelPorEmAndamento() {
+        int emAndamento = emAndamento();
+        int n = 0;
+        while (n < limitesEmAndamento.length && emAndamento >= limitesEmAndamento[n]) {
+            n++;
+        }
+        return n;
+    }
+
+    private int emAndamento() {
+        return bulkhead.getEmAndamento() + bulkhead.getNaFila();
+    }
+}
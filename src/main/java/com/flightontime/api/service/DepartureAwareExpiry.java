@@ -0,0 +1,110 @@
+package com.flightontime.api.service;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.lang.NonNull;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Política de expiração do cache "predictions" baseada na proximidade da partida
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * IDEIA:
+ * - Voo daqui a 3 meses: a previsão quase não muda → pode ficar horas em cache
+ * - Voo daqui a 30 minutos: precisa ser renovado com frequência
+ *
+ * As faixas vêm da configuração no formato "limite=ttl", ex: "2h=5m,24h=30m,7d=2h"
+ * (partida em até 2h → 5 min de cache; até 24h → 30 min; até 7 dias → 2h).
+ * Partidas além da última faixa usam o TTL padrão.
+ */
+@Slf4j
+public class DepartureAwareExpiry implements Expiry<Object, Object> {
+
+    /**
+     * Faixa de TTL: vale para partidas em até {@code limite} a partir de agora
+     */
+    public record Tier(Duration limite, Duration ttl) {
+    }
+
+    private final List<Tier> faixas;
+    private final Duration ttlPadrao;
+    private final Clock clock;
+
+    public DepartureAwareExpiry(List<Tier> faixas, Duration ttlPadrao, Clock clock) {
+        List<Tier> ordenadas = new ArrayList<>(faixas);
+        ordenadas.sort(Comparator.comparing(Tier::limite));
+        this.faixas = List.copyOf(ordenadas);
+        this.ttlPadrao = ttlPadrao;
+        this.clock = clock;
+    }
+
+    /**
+     * Converte a configuração "2h=5m,24h=30m,7d=2h" em faixas
+     *
+     * @throws IllegalArgumentException se alguma faixa estiver mal formatada
+     */
+    public static List<Tier> parseTiers(String configuracao) {
+        List<Tier> faixas = new ArrayList<>();
+        if (configuracao == null || configuracao.isBlank()) {
+            return faixas;
+        }
+        for (String faixa : configuracao.split(",")) {
+            String[] partes = faixa.trim().split("=");
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Faixa de TTL inválida (esperado limite=ttl): " + faixa);
+            }
+            faixas.add(new Tier(
+                    DurationStyle.detectAndParse(partes[0].trim()),
+                    DurationStyle.detectAndParse(partes[1].trim())));
+        }
+        return faixas;
+    }
+
+    /**
+     * TTL aplicável a uma partida, considerando o instante atual
+     */
+    public Duration ttlPara(LocalDateTime partida) {
+        Duration ate = Duration.between(LocalDateTime.now(clock), partida);
+        for (Tier faixa : faixas) {
+            if (ate.compareTo(faixa.limite()) <= 0) {
+                return faixa.ttl();
+            }
+        }
+        return ttlPadrao;
+    }
+
+    @Override
+    public long expireAfterCreate(@NonNull Object key, @NonNull Object value, long currentTime) {
+        return ttl(key, value).toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(@NonNull Object key, @NonNull Object value, long currentTime, long currentDuration) {
+        return ttl(key, value).toNanos();
+    }
+
+    @Override
+    public long expireAfterRead(@NonNull Object key, @NonNull Object value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+
+    private Duration ttl(Object key, Object value) {
+        if (value instanceof CachedPrediction entrada) {
+            // Entrada já traz o próprio prazo (TTL + carência), calculado na escrita
+            Duration restante = Duration.between(clock.instant(), entrada.descartarApos());
+            return restante.isNegative() ? Duration.ZERO : restante;
+        }
+        if (key instanceof PredictionKey chave) {
+            return ttlPara(chave.janelaPartida());
+        }
+        return ttlPadrao;
+    }
+}
@@ -0,0 +1,235 @@
+package com.flightontime.api.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Motor de regras do fallback (probabilidade de atraso sem o modelo)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * As heurísticas da Semana 1 (horário, dia da semana, datas críticas, tempestades de verão,
+ * companhias, hubs) vêm da configuração prediction.fallback.* e são compiladas UMA vez em
+ * tabelas primitivas:
+ * - calendário: 366 dias x 24 horas → base + regras de hora + regras de data
+ * - dia da semana: 7 posições
+ * - companhia, origem e destino: PackedCodeTable (código ICAO empacotado em int)
+ *
+ * Resolução de HORA (minutos da partida são ignorados): a mesma da janela da chave de
+ * cache (PredictionKeyGenerator), então voos de uma mesma chave recebem a mesma resposta.
+ *
+ * Uma previsão = 5 leituras de array + soma. Sem alocação e sem log: é o caminho usado
+ * em toda queda do Python, justamente quando a API está sob pressão.
+ *
+ * FORMATO DAS REGRAS (separadas por vírgula, ajuste com sinal):
+ * - horas:       "0-11=-0.20,18-23=+0.20"
+ * - dias:        "5=+0.15,6-7=-0.10" (1 = segunda ... 7 = domingo)
+ * - datas:       "12-20..12-31=+0.20,12-01..02-29@16-20=+0.15" (MM-dd..MM-dd, opcional @horas)
+ * - códigos:     "AZU|TAM=-0.05,GLO=+0.05" ou "SBJU|SBCJ@10-14=-0.10"
+ */
+@Slf4j
+@Component
+public class FallbackRuleEngine {
+
+    public static final String HORAS_PADRAO = "0-11=-0.20,18-23=+0.20";
+    public static final String DIAS_PADRAO = "5=+0.15,6-7=-0.10";
+    public static final String DATAS_PADRAO = "12-20..12-31=+0.20,12-01..02-29@16-20=+0.15,05-01..08-31=-0.08";
+    public static final String COMPANHIAS_PADRAO = "AZU|TAM|AFR=-0.05,GLO|ACN=+0.05";
+    public static final String ORIGENS_PADRAO = "SBGR|SBSP|SBRJ|SBGL|SBBR=+0.18";
+    public static final String DESTINOS_PADRAO = "SBJU|SBCJ|SBCR|SBAT|SBPC@10-14=-0.10";
+
+    private static final int DIAS_CALENDARIO = 366;
+    // Ano bissexto de referência: o índice do calendário é o dia do ano com 29/02 sempre presente
+    private static final int ANO_REFERENCIA = 2024;
+
+    private final double[] calendario = new double[DIAS_CALENDARIO * 24];
+    private final double[] diaSemana = new double[7];
+    private final PackedCodeTable companhias;
+    private final PackedCodeTable origens;
+    private final PackedCodeTable destinos;
+    private final double minimo;
+    private final double maximo;
+
+    public FallbackRuleEngine(
+            @Value("${prediction.fallback.base:0.5}") double base,
+            @Value("${prediction.fallback.min:0.10}") double minimo,
+            @Value("${prediction.fallback.max:0.95}") double maximo,
+            @Value("${prediction.fallback.hours:" + HORAS_PADRAO + "}") String horas,
+            @Value("${prediction.fallback.weekdays:" + DIAS_PADRAO + "}") String dias,
+            @Value("${prediction.fallback.dates:" + DATAS_PADRAO + "}") String datas,
+            @Value("${prediction.fallback.airlines:" + COMPANHIAS_PADRAO + "}") String companhias,
+            @Value("${prediction.fallback.origins:" + ORIGENS_PADRAO + "}") String origens,
+            @Value("${prediction.fallback.destinations:" + DESTINOS_PADRAO + "}") String destinos) {
+        if (minimo > maximo) {
+            throw new IllegalArgumentException("prediction.fallback.min deve ser menor que prediction.fallback.max");
+        }
+        this.minimo = minimo;
+        this.maximo = maximo;
+
+        Arrays.fill(calendario, base);
+        for (String regra : regras(horas)) {
+            int mascara = faixaHoras(antesDoAjuste(regra));
+            double ajuste = ajuste(regra);
+            for (int dia = 0; dia < DIAS_CALENDARIO; dia++) {
+                somarHoras(dia, mascara, ajuste);
+            }
+        }
+        for (String regra : regras(datas)) {
+            compilarData(regra);
+        }
+        for (String regra : regras(dias)) {
+            int[] faixa = faixa(antesDoAjuste(regra), 1, 7);
+            for (int d = faixa[0]; d <= faixa[1]; d++) {
+                diaSemana[d - 1] += ajuste(regra);
+            }
+        }
+        this.companhias = tabela(companhias);
+        this.origens = tabela(origens);
+        this.destinos = tabela(destinos);
+
+        log.info("🧮 Regras do fallback compiladas (base {}, limites {}..{})", base, minimo, maximo);
+    }
+
+    /**
+     * Motor com as regras padrão (as mesmas heurísticas do mock da Semana 1)
+     */
+    public static FallbackRuleEngine padrao() {
+        return new FallbackRuleEngine(0.5, 0.10, 0.95, HORAS_PADRAO, DIAS_PADRAO, DATAS_PADRAO,
+                COMPANHIAS_PADRAO, ORIGENS_PADRAO, DESTINOS_PADRAO);
+    }
+
+    /**
+     * Probabilidade de atraso pelas regras (já limitada entre min e max)
+     *
+     * @param partida  Data/hora prevista de partida
+     * @param companhia ICAO da companhia (maiúsculas ou minúsculas)
+     * @param origem    ICAO da origem
+     * @param destino   ICAO do destino
+     */
+    public double probabilidade(LocalDateTime partida, String companhia, String origem, String destino) {
+        int hora = partida.getHour();
+        int dia = partida.getDayOfYear() - 1;
+        if (dia >= 59 && !partida.toLocalDate().isLeapYear()) {
+            dia++; // pula o 29/02 do calendário de referência
+        }
+        double score = calendario[dia * 24 + hora]
+                + diaSemana[partida.getDayOfWeek().ordinal()]
+                + companhias.ajuste(companhia, hora)
+                + origens.ajuste(origem, hora)
+                + destinos.ajuste(destino, hora);
+        return Math.max(minimo, Math.min(maximo, score));
+    }
+
+    // ------------------------------------------------------------------
+    // Compilação das regras
+    // ------------------------------------------------------------------
+
+    private void compilarData(String regra) {
+        String periodo = antesDoAjuste(regra);
+        int mascara = PackedCodeTable.TODAS_AS_HORAS;
+        int arroba = periodo.indexOf('@');
+        if (arroba >= 0) {
+            mascara = faixaHoras(periodo.substring(arroba + 1));
+            periodo = periodo.substring(0, arroba);
+        }
+        String[] limites = periodo.split("\\.\\.");
+        if (limites.length != 2) {
+            throw new IllegalArgumentException("Regra de data inválida (esperado MM-dd..MM-dd): " + regra);
+        }
+        int inicio = diaDoCalendario(limites[0], regra);
+        int fim = diaDoCalendario(limites[1], regra);
+        double ajuste = ajuste(regra);
+        // Faixa que vira o ano (ex.: 12-01..02-29) continua no início do calendário
+        int dias = Math.floorMod(fim - inicio, DIAS_CALENDARIO) + 1;
+        for (int i = 0; i < dias; i++) {
+            somarHoras((inicio + i) % DIAS_CALENDARIO, mascara, ajuste);
+        }
+    }
+
+    private void somarHoras(int dia, int mascara, double ajuste) {
+        for (int hora = 0; hora < 24; hora++) {
+            if ((mascara & (1 << hora)) != 0) {
+                calendario[dia * 24 + hora] += ajuste;
+            }
+        }
+    }
+
+    private static PackedCodeTable tabela(String configuracao) {
+        Map<String, PackedCodeTable.Regra> regras = new HashMap<>();
+        for (String regra : regras(configuracao)) {
+            String codigos = antesDoAjuste(regra);
+            int mascara = PackedCodeTable.TODAS_AS_HORAS;
+            int arroba = codigos.indexOf('@');
+            if (arroba >= 0) {
+                mascara = faixaHoras(codigos.substring(arroba + 1));
+                codigos = codigos.substring(0, arroba);
+            }
+            PackedCodeTable.Regra compilada = new PackedCodeTable.Regra(ajuste(regra), mascara);
+            for (String codigo : codigos.split("\\|")) {
+                if (regras.put(codigo.trim(), compilada) != null) {
+                    throw new IllegalArgumentException("Código repetido nas regras do fallback: " + codigo.trim());
+                }
+            }
+        }
+        return new PackedCodeTable(regras);
+    }
+
+    private static String[] regras(String configuracao) {
+        if (configuracao == null || configuracao.isBlank()) {
+            return new String[0];
+        }
+        String[] regras = configuracao.split(",");
+        for (int i = 0; i < regras.length; i++) {
+            regras[i] = regras[i].trim();
+            if (regras[i].lastIndexOf('=') < 0) {
+                throw new IllegalArgumentException("Regra do fallback sem ajuste (esperado ...=ajuste): " + regras[i]);
+            }
+        }
+        return regras;
+    }
+
+    private static String antesDoAjuste(String regra) {
+        return regra.substring(0, regra.lastIndexOf('=')).trim();
+    }
+
+    private static double ajuste(String regra) {
+        return Double.parseDouble(regra.substring(regra.lastIndexOf('=') + 1).trim());
+    }
+
+    private static int faixaHoras(String faixa) {
+        int[] horas = faixa(faixa, 0, 23);
+        int mascara = 0;
+        for (int h = horas[0]; h <= horas[1]; h++) {
+            mascara |= 1 << h;
+        }
+        return mascara;
+    }
+
+    /**
+     * "a-b" ou "a", com a &lt;= b dentro dos limites
+     */
+    private static int[] faixa(String faixa, int minimo, int maximo) {
+        String[] partes = faixa.trim().split("-");
+        int de = Integer.parseInt(partes[0].trim());
+        int ate = partes.length > 1 ? Integer.parseInt(partes[1].trim()) : de;
+        if (partes.length > 2 || de < minimo || ate > maximo || de > ate) {
+            throw new IllegalArgumentException("Faixa inválida (" + minimo + ".." + maximo + "): " + faixa);
+        }
+        return new int[]{de, ate};
+    }
+
+    private static int diaDoCalendario(String mesDia, String regra) {
+        String[] partes = mesDia.trim().split("-");
+        if (partes.length != 2) {
+            throw new IllegalArgumentException("Data inválida (esperado MM-dd): " + regra);
+        }
+        return LocalDate.of(ANO_REFERENCIA, Integer.parseInt(partes[0]), Integer.parseInt(partes[1])).getDayOfYear() - 1;
+    }
+}
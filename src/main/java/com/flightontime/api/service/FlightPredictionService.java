@@ -5,25 +5,46 @@ import com.flightontime.api.dto.FlightPredictionRequest;
 import com.flightontime.api.dto.FlightPredictionResponse;
 import com.flightontime.api.dto.PythonPredictionRequest;
 import com.flightontime.api.dto.PythonPredictionResponse;
-import com.flightontime.api.mapper.AirlineCodeMapper;
-import com.flightontime.api.mapper.AirportCodeMapper;
-import lombok.RequiredArgsConstructor;
+import com.flightontime.api.exception.BulkheadFullException;
+import com.flightontime.api.interceptor.RateLimitCost;
+import com.flightontime.api.scoring.InJvmFlightScorer;
+import com.flightontime.api.scoring.ScoringInput;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
-import java.time.DayOfWeek;
-import java.time.LocalTime;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 // .
 /**
  * Serviço responsável pela lógica de previsão de voos
  *
  * FUNCIONALIDADES:
- * - Cache de previsões (reduz latência)
+ * - Cache de previsões (reduz latência) com refresh-ahead e carência (PredictionCache)
  * - Integração com microserviço Python
  * - Fallback automático para mock em caso de falha
+ * - Coalescência de chamadas idênticas ao Python (PredictionCoalescer)
+ * - Fluxo assíncrono (predictAsync): prazo total e fallback compostos no future,
+ *   sem thread parada aguardando o Python
+ * - Scorer Java opcional (prediction.scorer.enabled): o mesmo modelo XGBoost calculado
+ *   dentro da JVM, sem ida ao Python (InJvmFlightScorer)
+ * - Explicabilidade global fora da previsão: buscada uma vez por versão do modelo
+ *   (GlobalExplainabilityService); o cache guarda só previsão + explicabilidade local
+ * - Explicabilidade local sob demanda (explain): o Python só explica o voo quando o
+ *   cliente pede, reaproveitando a previsão em cache (LocalExplainabilityService)
+ * - Degradação por carga (DegradationController): com o Python lento ou saturado corta
+ *   primeiro a explicabilidade local, depois as idas ao Python para o que está no cache
+ *   e, por último, todas (regras)
+ * - Tempo por etapa (PipelineTimer): mapeamento, cache, payload, Python, tradução, regras...
+ *   em prediction.pipeline.* e no header Server-Timing; fallbacks por causa em prediction.fallback
  *
  * ESTRATÉGIA DE TRANSIÇÃO:
  * - Flag (use-mock-service) controla mock vs Python
@@ -32,222 +53,410 @@ import java.time.format.DateTimeFormatter;
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class FlightPredictionService {
 
-    private final AirportCodeMapper airportMapper;
-    private final AirlineCodeMapper airlineMapper;
     private final PythonPredictionClient pythonClient;
+    private final PredictionCoalescer coalescer;
+    private final PredictionKeyGenerator keyGenerator;
+    private final PredictionCache predictionCache;
+    private final PredictionRefresher refresher;
+    private final InJvmFlightScorer scorer;
+    private final FallbackRuleEngine regras;
+    private final GlobalExplainabilityService explicabilidadeGlobal;
+    private final LocalExplainabilityService explicabilidadeLocal;
+    private final DegradationController degradacao;
+    private final PipelineTimer pipeline;
+    private final Counter servidaObsoletaRenovacao;
+    private final Counter servidaObsoletaFalha;
 
     @Value("${prediction.service.use-mock:true}")
     private boolean useMockService;
 
-    /*
-     * Verifica a saúde do microserviço de IA (Python).
-     * Este método atua como um 'health check delegate'. Ele permite que a camada de
-     * Controller monitore a disponibilidade do motor de integração sem precisar
-     * conhecer os detalhes técnicos do client HTTP.
-     * @return true se o serviço Python responder ao endpoint de health
+    // Prazo total da ida ao Python (fila do bulkhead + pool + resposta); estourou → fallback
+    @Value("${prediction.python.deadline:3s}")
+    private Duration prazoPython = Duration.ofSeconds(3);
+
+    public FlightPredictionService(
+            PythonPredictionClient pythonClient,
+            PredictionCoalescer coalescer,
+            PredictionKeyGenerator keyGenerator,
+            PredictionCache predictionCache,
+            PredictionRefresher refresher,
+            Optional<InJvmFlightScorer> scorer,
+            FallbackRuleEngine regras,
+            GlobalExplainabilityService explicabilidadeGlobal,
+            LocalExplainabilityService explicabilidadeLocal,
+            DegradationController degradacao,
+            PipelineTimer pipeline,
+            MeterRegistry meterRegistry) {
+        this.pythonClient = pythonClient;
+        this.coalescer = coalescer;
+        this.keyGenerator = keyGenerator;
+        this.predictionCache = predictionCache;
+        this.refresher = refresher;
+        this.scorer = scorer.orElse(null);
+        this.regras = regras;
+        this.explicabilidadeGlobal = explicabilidadeGlobal;
+        this.explicabilidadeLocal = explicabilidadeLocal;
+        this.degradacao = degradacao;
+        this.pipeline = pipeline;
+        this.servidaObsoletaRenovacao = contadorObsoleta(meterRegistry, "refresh_ahead");
+        this.servidaObsoletaFalha = contadorObsoleta(meterRegistry, "python_indisponivel");
+    }
+
+    private static Counter contadorObsoleta(MeterRegistry registry, String motivo) {
+        return Counter.builder("prediction.cache.stale.served")
+                .description("Previsões servidas do cache após o prazo de renovação")
+                .tag("motivo", motivo)
+                .register(registry);
+    }
+
+    /**
+     * Estado do circuit breaker que protege as chamadas ao Python
+     * (OPEN = respostas vindo direto do fallback, sem chamar o modelo)
+     */
+    public String getPythonCircuitState() {
+        return pythonClient.getCircuitState();
+    }
+
+    /**
+     * Nível de degradação global, da última avaliação (health)
+     * O header X-Degradation-Level usa o nível aplicado à requisição (NivelAplicado)
      */
-    public boolean isPythonHealthy() {
-        return pythonClient.isHealthy(); // Aqui usamos a variável 'pythonClient' minúscula que o Mateus injetou
+    public DegradationController.Nivel getNivelDegradacao() {
+        return degradacao.nivel();
     }
 
 
     /**
      * Realiza a previsão de atraso do voo
      * Resultado é cacheado para melhorar performance
+     * (chave canônica: ICAO + janela de horário, ver PredictionKeyGenerator)
      *
      * FLUXO:
-     * 1. Verifica cache (retorna se já existe)
-     * 2. Converte códigos IATA → ICAO
-     * 3. Chama serviço Python OU mock
-     * 4. Armazena no cache e retorna
+     * 1. Converte códigos IATA → ICAO (chave canônica)
+     * 2. Verifica cache:
+     *    - fresca → retorna
+     *    - a renovar → retorna e agenda renovação em background (refresh-ahead)
+     *    - expirada em carência → tenta o Python; se falhar, serve a expirada
+     * 3. Chama o scorer Java (se ativo), o serviço Python OU o mock
+     * 4. Armazena no cache e retorna (fallback do mock não é cacheado)
      *
      * @param request Dados do voo (formato IATA)
      * @return Previsão com status e probabilidade
      */
-    @Cacheable(value = "predictions", key = "#request.hashCode()")
     public FlightPredictionResponse predict(FlightPredictionRequest request) {
+        return PythonPredictionClient.aguardar(predictAsync(request));
+    }
+
+    /**
+     * Mesma previsão do predict, já em JSON (prediction.cache.serialized.enabled)
+     * Acerto de cache fresco devolve os bytes gravados com a entrada: sem ObjectMapper por requisição
+     *
+     * @param request Dados do voo (formato IATA)
+     * @return FlightPredictionResponse serializada
+     */
+    public byte[] predictSerialized(FlightPredictionRequest request) {
+        PipelineTimer.Medicao medicao = pipeline.iniciar();
+        long etapa = System.nanoTime();
+        PredictionKey chave = keyGenerator.of(request);
+        etapa = medicao.marcar(PipelineTimer.Etapa.MAPEAMENTO, etapa);
+        Optional<CachedPrediction> emCache = predictionCache.get(chave);
+        medicao.marcar(PipelineTimer.Etapa.CACHE, etapa);
+        if (emCache.isPresent() && emCache.get().json() != null && emCache.get().fresca(predictionCache.agora())) {
+            log.debug("🗄️ Previsão servida do cache já serializada ({} bytes)", emCache.get().json().length);
+            medicao.concluir(PipelineTimer.Origem.CACHE);
+            return emCache.get().json();
+        }
+        return predictionCache.json(chave, predict(request));
+    }
+
+    /**
+     * Serializar a previsão no cache está ativo (prediction.cache.serialized.enabled)
+     */
+    public boolean isSerializedCacheEnabled() {
+        return predictionCache.isSerializado();
+    }
+
+    /**
+     * Previsão + explicabilidade local do voo (as topk features que mais pesaram)
+     * A previsão segue o fluxo normal (normalmente vem do cache); só a explicação vai ao Python
+     *
+     * @param request Dados do voo (formato IATA)
+     * @param topk    Quantidade de features pedida (limitada por prediction.explain.local.max-topk)
+     * @return Previsão com explicabilidade local (sem ela, se o Python não puder explicar)
+     */
+    public FlightPredictionResponse explain(FlightPredictionRequest request, int topk) {
+        FlightPredictionResponse previsao = predict(request);
+        int limitado = explicabilidadeLocal.limitar(topk);
+        if (limitado == 0) {
+            return previsao;
+        }
+        PredictionKey chave = keyGenerator.of(request);
+        DegradationController.Nivel nivel = degradacao.avaliar();
+        NivelAplicado.daRequisicao().registrar(nivel);
+        if (nivel != DegradationController.Nivel.COMPLETO) {
+            // Python sob carga: só a explicação que já estiver no cache
+            return explicabilidadeLocal.anexarDoCache(chave, previsao, limitado);
+        }
+        PipelineTimer.Medicao medicao = pipeline.iniciar();
+        long etapa = System.nanoTime();
+        FlightPredictionResponse explicada =
+                explicabilidadeLocal.anexar(chave, previsao, limitado, requisicaoPython(request, chave, limitado));
+        medicao.marcar(PipelineTimer.Etapa.EXPLICACAO, etapa);
+        return explicada;
+    }
+
+    /**
+     * Mesmo fluxo do predict, sem bloquear: cache e mock respondem com um future já concluído;
+     * a ida ao Python recebe o prazo total e o fallback é aplicado quando o future falha
+     *
+     * @param request Dados do voo (formato IATA)
+     * @return future com a previsão (não falha por indisponibilidade do Python)
+     */
+    public CompletableFuture<FlightPredictionResponse> predictAsync(FlightPredictionRequest request) {
+        return predictAsync(request, RateLimitCost.daRequisicao(), NivelAplicado.daRequisicao());
+    }
+
+    /**
+     * predictAsync fora da thread da requisição (itens do lote)
+     *
+     * @param conta    Onde registrar a resposta vinda do modelo (RateLimitCost.daRequisicao() da requisição)
+     * @param aplicado Onde registrar o nível de degradação usado (NivelAplicado.daRequisicao() da requisição)
+     */
+    public CompletableFuture<FlightPredictionResponse> predictAsync(
+            FlightPredictionRequest request, RateLimitCost conta, NivelAplicado aplicado) {
         log.info("🔮 Processando previsão para voo {} → {} (Companhia: {})",
                 request.getOrigem(), request.getDestino(), request.getCompanhia());
 
+        PipelineTimer.Medicao medicao = pipeline.iniciar();
+        long etapa = System.nanoTime();
+
         // 1. Conversão IATA → ICAO (Necessário para ambos os modos)
-        String origemIcao = airportMapper.toIcao(request.getOrigem());
-        String destinoIcao = airportMapper.toIcao(request.getDestino());
-        String companhiaIcao = airlineMapper.toIcao(request.getCompanhia());
+        PredictionKey chave = keyGenerator.of(request);
+        etapa = medicao.marcar(PipelineTimer.Etapa.MAPEAMENTO, etapa);
+        String origemIcao = chave.origemIcao();
+        String destinoIcao = chave.destinoIcao();
+        String companhiaIcao = chave.companhiaIcao();
 
         log.debug("📝 Conversões: {} → {}, {} → {}, {} → {}",
                 request.getOrigem(), origemIcao,
                 request.getDestino(), destinoIcao,
                 request.getCompanhia(), companhiaIcao);
 
-        // 2. Decidir entre Mock ou Python
+        // 2. Cache
+        Optional<CachedPrediction> emCache = predictionCache.get(chave);
+        Instant agora = predictionCache.agora();
+        etapa = medicao.marcar(PipelineTimer.Etapa.CACHE, etapa);
+        if (emCache.isPresent() && emCache.get().fresca(agora)) {
+            medicao.concluir(PipelineTimer.Origem.CACHE);
+            return CompletableFuture.completedFuture(emCache.get().response());
+        }
+
+        // 3. Scorer Java: calcular localmente custa menos que renovar em background
+        if (scorer != null && !useMockService) {
+            try {
+                FlightPredictionResponse response = predictWithScorer(request, chave);
+                etapa = medicao.marcar(PipelineTimer.Etapa.SCORER, etapa);
+                conta.registrarChamadaAoModelo();
+                predictionCache.put(chave, response);
+                medicao.concluir(PipelineTimer.Origem.SCORER);
+                return CompletableFuture.completedFuture(response);
+            } catch (RuntimeException e) {
+                etapa = medicao.marcar(PipelineTimer.Etapa.SCORER, etapa);
+                log.error("❌ Falha no scorer Java: {}. Tentando o Python.", e.getMessage());
+            }
+        }
+
+        DegradationController.Nivel nivel = useMockService ? DegradationController.Nivel.COMPLETO : degradacao.avaliar();
+        aplicado.registrar(nivel);
+        if (emCache.isPresent() && emCache.get().valida(agora) && !useMockService) {
+            if (nivel.compareTo(DegradationController.Nivel.SO_CACHE) < 0) {
+                refresher.agendar(chave, () -> PythonPredictionClient.aguardar(
+                        predictWithPython(request, chave, pipeline.iniciar())));
+            }
+            servidaObsoletaRenovacao.increment();
+            medicao.concluir(PipelineTimer.Origem.CACHE);
+            return CompletableFuture.completedFuture(emCache.get().response());
+        }
+
+        // 4. Decidir entre Mock ou Python
         if (useMockService) {
-            log.info("🎭 MODO MOCK ativado - Usando lógica local");
-            return predictWithMock(request, origemIcao, destinoIcao, companhiaIcao);
-        } else {
-            log.info("🐍 MODO PYTHON ativado - Chamando microserviço");
-            return predictWithPython(request, origemIcao, destinoIcao, companhiaIcao);
+            log.debug("🎭 MODO MOCK ativado - Usando lógica local");
+            FlightPredictionResponse response = predictWithMock(request, origemIcao, destinoIcao, companhiaIcao, medicao);
+            predictionCache.put(chave, response);
+            medicao.concluir(PipelineTimer.Origem.MOCK);
+            return CompletableFuture.completedFuture(response);
+        }
+
+        // Python sob carga: expirada em carência sem tentar o Python; no último nível, regras
+        if (nivel.compareTo(DegradationController.Nivel.SO_CACHE) >= 0
+                && (emCache.isPresent() || nivel == DegradationController.Nivel.REGRAS)) {
+            return CompletableFuture.completedFuture(fallback(request, chave, emCache, PipelineTimer.Causa.DEGRADACAO, medicao));
         }
+
+        log.info("🐍 MODO PYTHON ativado - Chamando microserviço");
+        long inicio = System.nanoTime();
+        return predictWithPython(request, chave, medicao)
+                .orTimeout(prazoPython.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((response, ex) -> {
+                    if (ex == null) {
+                        degradacao.registrarLatencia(System.nanoTime() - inicio);
+                        predictionCache.put(chave, response);
+                        medicao.concluir(PipelineTimer.Origem.PYTHON);
+                        // Só a resposta do modelo paga cost.model (fallback fica no custo de cache)
+                        conta.registrarChamadaAoModelo();
+                        return response;
+                    }
+                    Throwable causa = PythonPredictionClient.causa(ex);
+                    if (causa instanceof TimeoutException) {
+                        degradacao.registrarLatencia(System.nanoTime() - inicio);
+                    }
+                    PipelineTimer.Causa motivo;
+                    if (causa instanceof CallNotPermittedException) {
+                        // Circuito aberto: nenhuma chamada foi feita, fallback imediato (sem log de erro por requisição)
+                        log.debug("⛔ Circuit breaker aberto - pulando o Python");
+                        motivo = PipelineTimer.Causa.CIRCUITO_ABERTO;
+                    } else if (causa instanceof BulkheadFullException) {
+                        // Python saturado: degrada para o fallback local sem esperar
+                        log.debug("🚧 {} - degradando para o fallback", causa.getMessage());
+                        motivo = PipelineTimer.Causa.BULKHEAD;
+                    } else if (causa instanceof TimeoutException) {
+                        log.warn("⏱️ Python não respondeu em {}. Acionando fallback.", prazoPython);
+                        motivo = PipelineTimer.Causa.TIMEOUT;
+                    } else {
+                        log.error("❌ Falha na integração Python: {}. Acionando fallback.", causa.getMessage());
+                        motivo = PipelineTimer.Causa.ERRO;
+                    }
+                    return fallback(request, chave, emCache, motivo, medicao);
+                });
     }
 
     /**
-     * Previsão usando o microserviço Python (SEMANA 2)
+     * Python indisponível ou poupado: serve a previsão expirada (se ainda em carência) ou usa o Mock
      */
-    private FlightPredictionResponse predictWithPython(
+    private FlightPredictionResponse fallback(
             FlightPredictionRequest request,
-            String origemIcao,
-            String destinoIcao,
-            String companhiaIcao) {
-
-        try {
-            // 1. Formatar data para o padrão que o Python espera (sem o 'T')
-            String dataFormatada = request.getDataPartida().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-
-            // 2. Montar o payload interno (DENTRO da chave "dados")
-            var payload = PythonPredictionRequest.PythonDataPayload.builder()
-                    .partidaPrevista(dataFormatada)
-                    .empresaAerea(companhiaIcao)
-                    .aerodromoOrigem(origemIcao)
-                    .aerodromoDestino(destinoIcao)
-                    .codigoTipoLinha("N")
-                    .build();
-
-            // 3. Montar o request final para a API Python
-            PythonPredictionRequest pythonRequest = PythonPredictionRequest.builder()
-                    .dados(payload)
-                    .topk(8)
-                    .build();
-
-            // 4. Chamar o Client HTTP
-            PythonPredictionResponse pythonResponse = pythonClient.getPrediction(pythonRequest);
-
-            // 5. Traduzir a label do Python para o nosso padrão de exibição
-            String resultadoTraduzido = (pythonResponse.getLabel() != null &&
-                    pythonResponse.getLabel().equalsIgnoreCase("atrasado"))
-                    ? "Atrasado" : "Pontual";
-
-            // 6. Retornar a resposta completa incluindo os dados dos gráficos
-            return FlightPredictionResponse.builder()
-                    .previsao(resultadoTraduzido)
-                    .probabilidade(pythonResponse.getProbaAtraso())
-                    .explicabilidadeGlobal(pythonResponse.getExplainGlobal()) // Dados para o gráfico global
-                    .explicabilidadeLocal(pythonResponse.getExplainLocal())   // Dados para o gráfico do voo
-                    .build();
-
-        } catch (Exception ex) {
-            log.error("❌ Falha na integração Python: {}. Acionando fallback para Mock.", ex.getMessage());
-            return predictWithMock(request, origemIcao, destinoIcao, companhiaIcao);
+            PredictionKey chave,
+            Optional<CachedPrediction> emCache,
+            PipelineTimer.Causa causa,
+            PipelineTimer.Medicao medicao) {
+        if (emCache.isPresent()) {
+            if (causa != PipelineTimer.Causa.DEGRADACAO) {
+                log.warn("⚠️ Servindo previsão expirada do cache (carência) no lugar do Python.");
+            }
+            servidaObsoletaFalha.increment();
+            medicao.fallback(causa, PipelineTimer.Origem.CARENCIA);
+            return emCache.get().response();
         }
+        FlightPredictionResponse response = predictWithMock(
+                request, chave.origemIcao(), chave.destinoIcao(), chave.companhiaIcao(), medicao);
+        medicao.fallback(causa, PipelineTimer.Origem.REGRAS);
+        return response;
     }
 
     /**
-     * Previsão usando lógica mockada (SEMANA 1)
-     * Mantida como fallback de segurança
+     * Previsão com o modelo exportado, calculada na JVM (sem explicabilidade)
      */
-    private FlightPredictionResponse predictWithMock(
-            FlightPredictionRequest request,
-            String origemIcao,
-            String destinoIcao,
-            String companhiaIcao) {
-
-        double probabilidadeAtraso = calcularProbabilidadeMock(request, origemIcao, destinoIcao, companhiaIcao);
-        String previsao = probabilidadeAtraso > 0.5 ? "Atrasado" : "Pontual";
-
-        log.info("✅ Previsão MOCK: {} (Probabilidade: {})", previsao, Math.round(probabilidadeAtraso * 100.0) / 100.0);
-
+    private FlightPredictionResponse predictWithScorer(FlightPredictionRequest request, PredictionKey chave) {
+        ScoringInput voo = new ScoringInput(
+                request.getDataPartida(),
+                chave.companhiaIcao(),
+                chave.origemIcao(),
+                chave.destinoIcao(),
+                "N");
+        double probabilidade = scorer.probabilidade(voo);
         return FlightPredictionResponse.builder()
-                .previsao(previsao)
-                .probabilidade(Math.round(probabilidadeAtraso * 100.0) / 100.0)
+                .previsao(scorer.atrasado(probabilidade) ? "Atrasado" : "Pontual")
+                .probabilidade(probabilidade)
                 .build();
     }
 
     /**
-     * Calcula probabilidade mockada com base em heurísticas simples
-     * (Mantido da Semana 1)
+     * Previsão usando o microserviço Python (SEMANA 2)
+     *
+     * @return future que falha se o Python falhar (quem chama decide o fallback)
      */
-    private double calcularProbabilidadeMock(
-            FlightPredictionRequest request,
-            String origemIcao,
-            String destinoIcao,
-            String companhiaIcao) {
-        double score = 0.5; // Base neutra
-
-        // Fator 1: Horário do voo
-        LocalTime horario = request.getDataPartida().toLocalTime();
-        if (horario.isBefore(LocalTime.of(12, 0))) {
-            score -= 0.2; // Manhã: menos atraso
-        } else if (horario.isAfter(LocalTime.of(18, 0))) {
-            score += 0.2; // Noite: mais atraso
-        }
-
-        // Fator 2: Dia da semana
-        DayOfWeek diaSemana = request.getDataPartida().getDayOfWeek();
-        if (diaSemana == DayOfWeek.SATURDAY || diaSemana == DayOfWeek.SUNDAY) {
-            score -= 0.1; // Fim de semana: menos atraso
-        } else if (diaSemana == DayOfWeek.FRIDAY) {
-            score += 0.15; // Sexta: mais atraso
-        }
-
-
-        // Fator 4: Companhias específicas (simulação)
-        if ("AZU".equalsIgnoreCase(companhiaIcao)) {
-            score -= 0.05; // boa reputação
-        } else if ("GLO".equalsIgnoreCase(companhiaIcao)) {
-            score += 0.05; // má reputação
-        } else if ("TAM".equalsIgnoreCase(companhiaIcao)) {
-            score -= 0.05; // boa reputação
-        } else if ("ACN".equalsIgnoreCase(companhiaIcao)) {
-            score += 0.05; // má reputação
-        } else if ("AFR".equalsIgnoreCase(companhiaIcao)) {
-            score -= 0.05; // boa reputação
-        }
-
-        // Fator 5: Datas Críticas (Ex: Natal/Ano Novo/)
-        int dia = request.getDataPartida().getDayOfMonth();
-        int mes = request.getDataPartida().getMonthValue();
+    private CompletableFuture<FlightPredictionResponse> predictWithPython(
+            FlightPredictionRequest request, PredictionKey chave, PipelineTimer.Medicao medicao) {
+        // 1-3. Payload do Python sem explicabilidade local (topk = 0: pedida à parte, sob demanda)
+        long etapa = System.nanoTime();
+        PythonPredictionRequest pythonRequest = requisicaoPython(request, chave, 0);
+        long chamada = medicao.marcar(PipelineTimer.Etapa.REQUISICAO, etapa);
+
+        // 4. Chamar o Client HTTP (chamadas idênticas simultâneas compartilham a mesma ida ao Python)
+        CompletableFuture<PythonPredictionResponse> copia =
+                coalescer.executeAsync(chave, () -> pythonClient.getPredictionAsync(pythonRequest));
+        // O orTimeout de quem chama chega à cópia do coalescer (e dali à troca HTTP)
+        return PythonPredictionClient.cancelarJunto(copia
+                .whenComplete((resposta, ex) -> medicao.marcar(PipelineTimer.Etapa.PYTHON, chamada))
+                .thenApply(resposta -> {
+                    long traducao = System.nanoTime();
+                    FlightPredictionResponse response = traduzir(resposta);
+                    medicao.marcar(PipelineTimer.Etapa.TRADUCAO, traducao);
+                    return response;
+                }), copia);
+    }
 
-        if (mes == 12 && dia >= 20) {
-            score += 0.20;
-        }
+    private static PythonPredictionRequest requisicaoPython(FlightPredictionRequest request, PredictionKey chave, int topk) {
+        // 1. Formatar data para o padrão que o Python espera (sem o 'T')
+        String dataFormatada = request.getDataPartida().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+
+        // 2. Montar o payload interno (DENTRO da chave "dados")
+        var payload = PythonPredictionRequest.PythonDataPayload.builder()
+                .partidaPrevista(dataFormatada)
+                .empresaAerea(chave.companhiaIcao())
+                .aerodromoOrigem(chave.origemIcao())
+                .aerodromoDestino(chave.destinoIcao())
+                .codigoTipoLinha("N")
+                .build();
 
+        // 3. Montar o request final para a API Python
+        return PythonPredictionRequest.builder()
+                .dados(payload)
+                .topk(topk)
+                .build();
+    }
 
-        // Fator 6: Tempestades de verão
-        int hora = horario.getHour();
-        if ((mes == 12 || mes <= 2) && (hora >= 16 && hora <= 20)) {
-            score += 0.15;
-            log.info("Alerta Clima: Voo em janela de alta probabilidade de chuvas fortes.");
-        }
+    private FlightPredictionResponse traduzir(PythonPredictionResponse pythonResponse) {
+        // 5. Traduzir a label do Python para o nosso padrão de exibição
+        String resultadoTraduzido = (pythonResponse.getLabel() != null &&
+                pythonResponse.getLabel().equalsIgnoreCase("atrasado"))
+                ? "Atrasado" : "Pontual";
 
-        // Fator 7: Aeroportos que devido ao fluxo elevado tendem a ter maior atraso
-        java.util.List<String> hubs = java.util.Arrays.asList("SBGR", "SBSP", "SBRJ", "SBGL", "SBBR");
-        if (hubs.contains(origemIcao.toUpperCase())) {
-            score += 0.18;
-            log.info("Alerta Hub: Origem em aeroporto de alta densidade detectada.");
+        // 6. Modelo trocado no Python → a explicabilidade global é renovada em background
+        explicabilidadeGlobal.observarVersao(pythonResponse.getModeloVersao());
+        if (pythonResponse.getExplainLocal() == null) {
+            explicabilidadeLocal.registrarEconomia();
         }
 
+        // 7. Retornar a previsão com o gráfico do voo (o global é servido à parte)
+        return FlightPredictionResponse.builder()
+                .previsao(resultadoTraduzido)
+                .probabilidade(pythonResponse.getProbaAtraso())
+                .explicabilidadeLocal(pythonResponse.getExplainLocal())   // Dados para o gráfico do voo
+                .build();
+    }
 
-        // ------------------------------- Fatores Mitigantes --------------------------------
-        // Pra o nosso mock não ficar tão pessimista e acabar tendendo muito ao atraso vou adicionar alguns casos onde o voo tende a ser mais pontual
-
-
-        // 1º fator mitigante: Aeroportos maiores e com baixo fluxo
-        java.util.List<String> hubsOtimizados = java.util.List.of("SBJU", "SBCJ", "SBCR", "SBAT", "SBPC");
-        if (hubsOtimizados.contains(destinoIcao.toUpperCase()) &&
-                (horario.isAfter(LocalTime.of(10, 0)) && horario.isBefore(LocalTime.of(15, 0)))) {
-            score -= 0.10;
-            log.info("Fator Mitigante: Fluxo otimizado no destino em horário de baixa densidade.");
-        }
-
-        // 2º fator mitigante: Estabilidade Climática (Outono/Inverno)
-        if (mes >= 5 && mes <= 8) {
-            score -= 0.08;
-            log.info("Fator Mitigante: Período de maior estabilidade climática.");
-        }
+    /**
+     * Previsão usando as regras da Semana 1 (FallbackRuleEngine)
+     * Mantida como fallback de segurança: sem alocação nas regras e sem log por chamada
+     */
+    private FlightPredictionResponse predictWithMock(
+            FlightPredictionRequest request,
+            String origemIcao,
+            String destinoIcao,
+            String companhiaIcao,
+            PipelineTimer.Medicao medicao) {
 
+        long etapa = System.nanoTime();
+        double probabilidadeAtraso = regras.probabilidade(request.getDataPartida(), companhiaIcao, origemIcao, destinoIcao);
 
-        // Garante que a probabilidade fica entre 0.1 e 0.95
-        return Math.max(0.1, Math.min(0.95, score));
+        FlightPredictionResponse response = FlightPredictionResponse.builder()
+                .previsao(probabilidadeAtraso > 0.5 ? "Atrasado" : "Pontual")
+                .probabilidade(Math.round(probabilidadeAtraso * 100.0) / 100.0)
+                .build();
+        medicao.marcar(PipelineTimer.Etapa.MOCK, etapa);
+        return response;
     }
 }
@@ -0,0 +1,171 @@
+package com.flightontime.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightontime.api.client.PythonPredictionClient;
+import com.flightontime.api.dto.FeatureImportances;
+import com.flightontime.api.dto.FlightPredictionResponse;
+import com.flightontime.api.dto.GlobalExplainabilityResponse;
+import com.flightontime.api.dto.PythonExplainGlobalResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Explicabilidade global do modelo, buscada UMA vez por versão do modelo
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * A importância global é a mesma para todos os voos: em vez de vir (e ser cacheada)
+ * em cada previsão, fica em memória junto com o JSON já serializado e o ETag.
+ * - Primeira leitura: busca no Python (GET /explain/global), uma busca por vez
+ * - Cada resposta do Python traz modelo_versao: versão diferente → nova busca em background
+ * - Python fora: responde vazio na hora e só tenta de novo após o intervalo configurado
+ */
+@Slf4j
+@Service
+public class GlobalExplainabilityService {
+
+    /**
+     * Explicabilidade de uma versão do modelo, pronta para servir
+     *
+     * @param json JSON de GlobalExplainabilityResponse (serializado uma vez)
+     * @param etag ETag forte: versão do modelo + hash do conteúdo
+     */
+    public record Snapshot(String modeloVersao, FeatureImportances conteudo, byte[] json, String etag) {
+    }
+
+    private final PythonPredictionClient pythonClient;
+    private final ObjectMapper objectMapper;
+    private final Duration prazo;
+    private final long intervaloNovaTentativaNanos;
+
+    private final AtomicReference<Snapshot> atual = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<Snapshot>> buscaEmAndamento = new AtomicReference<>();
+    private volatile long ultimaFalha;
+    private volatile boolean falhou;
+
+    private final Counter buscasSucesso;
+    private final Counter buscasFalha;
+
+    public GlobalExplainabilityService(
+            PythonPredictionClient pythonClient,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${prediction.explain.global.timeout:2s}") Duration prazo,
+            @Value("${prediction.explain.global.retry-interval:10s}") Duration intervaloNovaTentativa) {
+        this.pythonClient = pythonClient;
+        this.objectMapper = objectMapper;
+        this.prazo = prazo;
+        this.intervaloNovaTentativaNanos = intervaloNovaTentativa.toNanos();
+        this.buscasSucesso = contador(meterRegistry, "sucesso");
+        this.buscasFalha = contador(meterRegistry, "falha");
+    }
+
+    private static Counter contador(MeterRegistry registry, String resultado) {
+        return Counter.builder("prediction.explain.global.fetch")
+                .description("Buscas da explicabilidade global no Python")
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+
+    /**
+     * Explicabilidade atual; na primeira chamada aguarda a busca no Python (até o prazo)
+     *
+     * @return vazio se o Python não respondeu (ou falhou há pouco tempo)
+     */
+    public Optional<Snapshot> obter() {
+        Snapshot snapshot = atual.get();
+        if (snapshot != null) {
+            return Optional.of(snapshot);
+        }
+        if (falhou && System.nanoTime() - ultimaFalha < intervaloNovaTentativaNanos) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(buscar()
+                .completeOnTimeout(null, prazo.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(ex -> null)
+                .join());
+    }
+
+    /**
+     * Registra a versão do modelo vista numa previsão; se mudou, renova em background
+     */
+    public void observarVersao(String modeloVersao) {
+        Snapshot snapshot = atual.get();
+        if (modeloVersao != null && snapshot != null && !modeloVersao.equals(snapshot.modeloVersao())) {
+            log.info("🔄 Modelo do Python mudou ({} → {}) - renovando a explicabilidade global",
+                    snapshot.modeloVersao(), modeloVersao);
+            buscar();
+        }
+    }
+
+    /**
+     * Cópia da previsão com a explicabilidade global (a do cache não é alterada)
+     */
+    public FlightPredictionResponse anexar(FlightPredictionResponse response) {
+        return obter()
+                .map(snapshot -> new FlightPredictionResponse(response.getPrevisao(), response.getProbabilidade(),
+                        snapshot.conteudo(), response.getExplicabilidadeLocal()))
+                .orElse(response);
+    }
+
+    private CompletableFuture<Snapshot> buscar() {
+        CompletableFuture<Snapshot> nova = new CompletableFuture<>();
+        CompletableFuture<Snapshot> existente = buscaEmAndamento.compareAndExchange(null, nova);
+        if (existente != null) {
+            return existente;
+        }
+        pythonClient.getExplainGlobalAsync()
+                .thenApply(this::montar)
+                .whenComplete((snapshot, ex) -> {
+                    buscaEmAndamento.set(null);
+                    if (ex != null) {
+                        ultimaFalha = System.nanoTime();
+                        falhou = true;
+                        buscasFalha.increment();
+                        log.warn("⚠️ Explicabilidade global indisponível: {}", PythonPredictionClient.causa(ex).getMessage());
+                        nova.completeExceptionally(ex);
+                        return;
+                    }
+                    falhou = false;
+                    atual.set(snapshot);
+                    buscasSucesso.increment();
+                    log.info("📊 Explicabilidade global carregada (modelo {}, {} bytes)",
+                            snapshot.modeloVersao(), snapshot.json().length);
+                    nova.complete(snapshot);
+                });
+        return nova;
+    }
+
+    private Snapshot montar(PythonExplainGlobalResponse resposta) {
+        if (resposta == null || resposta.getExplainGlobal() == null) {
+            throw new IllegalStateException("Python respondeu sem explain_global");
+        }
+        try {
+            byte[] conteudo = objectMapper.writeValueAsBytes(resposta.getExplainGlobal());
+            String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(conteudo), 0, 8);
+            // Python antigo (sem modelo_versao): o próprio hash identifica a versão
+            String versao = resposta.getModeloVersao() != null ? resposta.getModeloVersao() : hash;
+            byte[] json = objectMapper.writeValueAsBytes(
+                    new GlobalExplainabilityResponse(versao, resposta.getExplainGlobal()));
+            return new Snapshot(versao, resposta.getExplainGlobal(), json, "\"" + versao + "-" + hash + "\"");
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
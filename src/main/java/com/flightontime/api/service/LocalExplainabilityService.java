@@ -0,0 +1,208 @@
+package com.flightontime.api.service;
+
+import com.flightontime.api.client.PythonPredictionClient;
+import com.flightontime.api.dto.FlightPredictionResponse;
+import com.flightontime.api.dto.LocalExplanation;
+import com.flightontime.api.dto.PythonPredictionRequest;
+import com.flightontime.api.dto.PythonPredictionResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Explicabilidade local sob demanda (gráfico "por que este voo atrasa")
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * As previsões vão ao Python com topk = 0: o explicar_local_xgb só roda quando um
+ * cliente pede o gráfico do voo. Aí:
+ * - explicação já anexada à entrada do cache (com topk suficiente) → recorta e responde
+ * - senão → POST /explain/local (sem refazer a previsão) e anexa ao cache
+ *
+ * ECONOMIA: o Python devolve o custo de cada explicação (tempo total e CPU); a média
+ * móvel desse custo é somada em prediction.explain.local.saved a cada previsão que
+ * foi ao Python sem explicação.
+ */
+@Slf4j
+@Service
+public class LocalExplainabilityService {
+
+    // Peso da última medição na média móvel do custo da explicação
+    private static final double ALFA = 0.1;
+
+    private final PythonPredictionClient pythonClient;
+    private final PredictionCache predictionCache;
+    private final int topkMaximo;
+    private final Duration prazo;
+
+    // Média móvel do custo no Python (ms); atualização sem trava: é uma estimativa
+    private volatile double custoMs;
+    private volatile double custoCpuMs;
+
+    private final Counter explicacoesCache;
+    private final Counter explicacoesPython;
+    private final Counter explicacoesFalha;
+    private final Counter explicacoesDegradadas;
+    private final Counter explicacoesPuladas;
+    private final Counter economiaLatencia;
+    private final Counter economiaCpu;
+
+    public LocalExplainabilityService(
+            PythonPredictionClient pythonClient,
+            PredictionCache predictionCache,
+            MeterRegistry meterRegistry,
+            @Value("${prediction.explain.local.max-topk:20}") int topkMaximo,
+            @Value("${prediction.explain.local.timeout:3s}") Duration prazo) {
+        if (topkMaximo < 1) {
+            throw new IllegalArgumentException("prediction.explain.local.max-topk deve ser pelo menos 1");
+        }
+        this.pythonClient = pythonClient;
+        this.predictionCache = predictionCache;
+        this.topkMaximo = topkMaximo;
+        this.prazo = prazo;
+
+        this.explicacoesCache = contadorExplicacoes(meterRegistry, "cache");
+        this.explicacoesPython = contadorExplicacoes(meterRegistry, "python");
+        this.explicacoesFalha = contadorExplicacoes(meterRegistry, "falha");
+        this.explicacoesDegradadas = contadorExplicacoes(meterRegistry, "degradada");
+        this.explicacoesPuladas = Counter.builder("prediction.explain.local.skipped")
+                .description("Previsões do Python feitas sem explicabilidade local (topk = 0)")
+                .register(meterRegistry);
+        this.economiaLatencia = contadorEconomia(meterRegistry, "latencia");
+        this.economiaCpu = contadorEconomia(meterRegistry, "cpu");
+        Gauge.builder("prediction.explain.local.cost", this, s -> s.custoMs)
+                .description("Custo médio de uma explicação local no Python")
+                .baseUnit("milliseconds")
+                .tag("recurso", "latencia")
+                .register(meterRegistry);
+        Gauge.builder("prediction.explain.local.cost", this, s -> s.custoCpuMs)
+                .description("Custo médio de uma explicação local no Python")
+                .baseUnit("milliseconds")
+                .tag("recurso", "cpu")
+                .register(meterRegistry);
+    }
+
+    private static Counter contadorExplicacoes(MeterRegistry registry, String origem) {
+        return Counter.builder("prediction.explain.local.requests")
+                .description("Explicações locais pedidas pelos clientes")
+                .tag("origem", origem)
+                .register(registry);
+    }
+
+    private static Counter contadorEconomia(MeterRegistry registry, String recurso) {
+        return Counter.builder("prediction.explain.local.saved")
+                .description("Tempo estimado de Python poupado por não explicar todas as previsões")
+                .baseUnit("milliseconds")
+                .tag("recurso", recurso)
+                .register(registry);
+    }
+
+    /**
+     * topk pedido pelo cliente dentro do limite (prediction.explain.local.max-topk)
+     *
+     * @return 0 (sem explicação) para valores negativos ou zero
+     */
+    public int limitar(int topk) {
+        return Math.max(0, Math.min(topk, topkMaximo));
+    }
+
+    /**
+     * Cópia da previsão com a explicabilidade local do voo
+     * Python indisponível: devolve a previsão sem explicação (a previsão nunca falha por ela)
+     *
+     * @param chave         Chave canônica da previsão (mesma do cache)
+     * @param previsao      Previsão já calculada (normalmente vinda do cache)
+     * @param topk          Quantidade de features pedida (já limitada)
+     * @param requisicao    Requisição ao Python com o topk pedido
+     */
+    public FlightPredictionResponse anexar(
+            PredictionKey chave,
+            FlightPredictionResponse previsao,
+            int topk,
+            PythonPredictionRequest requisicao) {
+        if (topk <= 0) {
+            return previsao;
+        }
+
+        Optional<CachedPrediction> emCache = predictionCache.get(chave);
+        if (explicacaoEmCache(emCache, topk)) {
+            explicacoesCache.increment();
+            return comExplicacao(previsao, emCache.get().explicacaoLocal().primeiras(topk));
+        }
+
+        PythonPredictionResponse resposta;
+        try {
+            resposta = PythonPredictionClient.aguardar(pythonClient.getExplainLocalAsync(requisicao)
+                    .orTimeout(prazo.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (RuntimeException e) {
+            explicacoesFalha.increment();
+            log.warn("⚠️ Explicabilidade local indisponível: {}", PythonPredictionClient.causa(e).getMessage());
+            return previsao;
+        }
+        if (resposta == null || resposta.getExplainLocal() == null) {
+            explicacoesFalha.increment();
+            return previsao;
+        }
+
+        explicacoesPython.increment();
+        registrarCusto(resposta);
+        emCache.ifPresent(entrada ->
+                predictionCache.anexarExplicacaoLocal(chave, entrada, resposta.getExplainLocal(), topk));
+        return comExplicacao(previsao, resposta.getExplainLocal().primeiras(topk));
+    }
+
+    /**
+     * Como anexar, sem ir ao Python: só a explicação que já estiver no cache
+     * (Python sob carga, ver DegradationController)
+     */
+    public FlightPredictionResponse anexarDoCache(PredictionKey chave, FlightPredictionResponse previsao, int topk) {
+        if (topk <= 0) {
+            return previsao;
+        }
+        Optional<CachedPrediction> emCache = predictionCache.get(chave);
+        if (explicacaoEmCache(emCache, topk)) {
+            explicacoesCache.increment();
+            return comExplicacao(previsao, emCache.get().explicacaoLocal().primeiras(topk));
+        }
+        explicacoesDegradadas.increment();
+        return previsao;
+    }
+
+    private static boolean explicacaoEmCache(Optional<CachedPrediction> emCache, int topk) {
+        return emCache.isPresent() && emCache.get().explicacaoLocal() != null && emCache.get().topkLocal() >= topk;
+    }
+
+    /**
+     * Uma previsão foi ao Python sem explicação local: soma o custo médio poupado
+     */
+    public void registrarEconomia() {
+        explicacoesPuladas.increment();
+        economiaLatencia.increment(custoMs);
+        economiaCpu.increment(custoCpuMs);
+    }
+
+    private void registrarCusto(PythonPredictionResponse resposta) {
+        if (resposta.getExplainLocalMs() != null) {
+            custoMs = media(custoMs, resposta.getExplainLocalMs());
+        }
+        if (resposta.getExplainLocalCpuMs() != null) {
+            custoCpuMs = media(custoCpuMs, resposta.getExplainLocalCpuMs());
+        }
+    }
+
+    private static double media(double atual, double medido) {
+        return atual == 0.0 ? medido : atual + ALFA * (medido - atual);
+    }
+
+    private static FlightPredictionResponse comExplicacao(FlightPredictionResponse previsao, LocalExplanation explicacao) {
+        return new FlightPredictionResponse(previsao.getPrevisao(), previsao.getProbabilidade(),
+                previsao.getExplicabilidadeGlobal(), explicacao);
+    }
+}
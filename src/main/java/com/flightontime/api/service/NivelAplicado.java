@@ -0,0 +1,59 @@
+package com.flightontime.api.service;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Nível de degradação aplicado às previsões de uma requisição HTTP (header X-Degradation-Level)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * O nível do DegradationController muda com a carga das outras requisições; o header
+ * informa o nível com que ESTA resposta foi montada. O FlightPredictionService registra
+ * aqui o nível que usou em cada previsão e o FlightController lê ao responder.
+ * - Cache fresco, scorer e mock não consultam o nível: ficam em completo
+ * - Lote ou previsão com explicação: vale o pior nível registrado
+ *
+ * Obter com daRequisicao() na thread da requisição (threads do lote recebem a instância).
+ * Fora de uma requisição não faz nada.
+ */
+public final class NivelAplicado {
+
+    static final String ATRIBUTO = NivelAplicado.class.getName() + ".nivel";
+
+    private static final NivelAplicado NENHUM = new NivelAplicado();
+
+    private final AtomicReference<DegradationController.Nivel> nivel =
+            new AtomicReference<>(DegradationController.Nivel.COMPLETO);
+
+    NivelAplicado() {
+    }
+
+    /**
+     * Nível da requisição atual (criado na primeira chamada); sem requisição, um que ignora tudo
+     */
+    public static NivelAplicado daRequisicao() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos == null) {
+            return NENHUM;
+        }
+        if (atributos.getAttribute(ATRIBUTO, RequestAttributes.SCOPE_REQUEST) instanceof NivelAplicado aplicado) {
+            return aplicado;
+        }
+        NivelAplicado aplicado = new NivelAplicado();
+        atributos.setAttribute(ATRIBUTO, aplicado, RequestAttributes.SCOPE_REQUEST);
+        return aplicado;
+    }
+
+    public void registrar(DegradationController.Nivel aplicado) {
+        if (this != NENHUM) {
+            nivel.accumulateAndGet(aplicado, (atual, novo) -> novo.compareTo(atual) > 0 ? novo : atual);
+        }
+    }
+
+    public DegradationController.Nivel nivel() {
+        return nivel.get();
+    }
+}
@@ -0,0 +1,109 @@
+package com.flightontime.api.service;
+
+import java.util.Map;
+
+/**
+ * Tabela código ICAO → ajuste, só com arrays primitivos (usada pelo FallbackRuleEngine)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * O código é empacotado em um int (6 bits por caractere, até 5 caracteres, sem diferenciar
+ * maiúsculas) e procurado por endereçamento aberto: nada de String.toUpperCase, hash de
+ * String ou boxing na consulta. Cada código também guarda as horas em que o ajuste vale
+ * (bit h = hora h).
+ */
+final class PackedCodeTable {
+
+    static final int TODAS_AS_HORAS = (1 << 24) - 1;
+
+    // Chave 0 = posição vazia (nenhum código empacotado vale 0)
+    private final int[] chaves;
+    private final double[] ajustes;
+    private final int[] horas;
+    private final int mascara;
+
+    /**
+     * @param regras código → {ajuste, máscara de horas}
+     * @throws IllegalArgumentException se algum código não puder ser empacotado
+     */
+    PackedCodeTable(Map<String, Regra> regras) {
+        int capacidade = Integer.highestOneBit(Math.max(4, regras.size() * 2) - 1) << 1;
+        this.chaves = new int[capacidade];
+        this.ajustes = new double[capacidade];
+        this.horas = new int[capacidade];
+        this.mascara = capacidade - 1;
+        regras.forEach((codigo, regra) -> {
+            int chave = empacotar(codigo);
+            if (chave < 0) {
+                throw new IllegalArgumentException("Código inválido (esperado até 5 letras/dígitos): " + codigo);
+            }
+            int i = posicao(chave);
+            while (chaves[i] != 0 && chaves[i] != chave) {
+                i = (i + 1) & mascara;
+            }
+            chaves[i] = chave;
+            ajustes[i] = regra.ajuste();
+            horas[i] = regra.horas();
+        });
+    }
+
+    /**
+     * Regra de um código: ajuste aplicado nas horas marcadas
+     */
+    record Regra(double ajuste, int horas) {
+    }
+
+    /**
+     * Ajuste do código na hora informada (0 se o código não tem regra ou a hora não se aplica)
+     */
+    double ajuste(CharSequence codigo, int hora) {
+        int chave = empacotar(codigo);
+        if (chave < 0) {
+            return 0.0;
+        }
+        int i = posicao(chave);
+        int atual;
+        while ((atual = chaves[i]) != 0) {
+            if (atual == chave) {
+                return (horas[i] & (1 << hora)) != 0 ? ajustes[i] : 0.0;
+            }
+            i = (i + 1) & mascara;
+        }
+        return 0.0;
+    }
+
+    private int posicao(int chave) {
+        return (chave * 0x9E3779B9) >>> 16 & mascara;
+    }
+
+    /**
+     * A-Z → 1..26 e 0-9 → 27..36 (maiúsculas e minúsculas iguais), 6 bits por caractere
+     *
+     * @return código empacotado, ou -1 se for nulo, vazio, longo demais ou tiver outro caractere
+     */
+    static int empacotar(CharSequence codigo) {
+        if (codigo == null) {
+            return -1;
+        }
+        int tamanho = codigo.length();
+        if (tamanho == 0 || tamanho > 5) {
+            return -1;
+        }
+        int chave = 0;
+        for (int i = 0; i < tamanho; i++) {
+            char c = codigo.charAt(i);
+            int valor;
+            if (c >= 'A' && c <= 'Z') {
+                valor = c - 'A' + 1;
+            } else if (c >= 'a' && c <= 'z') {
+                valor = c - 'a' + 1;
+            } else if (c >= '0' && c <= '9') {
+                valor = c - '0' + 27;
+            } else {
+                return -1;
+            }
+            chave = (chave << 6) | valor;
+        }
+        return chave;
+    }
+}
@@ -0,0 +1,176 @@
+package com.flightontime.api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo de cada etapa do pipeline de previsão
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * O http.server.requests só dá o total. Aqui cada etapa (IATA→ICAO, cache, payload do
+ * Python, chamada ao Python, tradução da resposta, scorer, regras...) vira:
+ * - prediction.pipeline.stage{etapa}: Timer com histograma de percentis
+ * - prediction.pipeline.duration{origem}: previsão inteira, por onde ela saiu
+ * - prediction.fallback{causa,destino}: previsões que não vieram do modelo, e por quê
+ * - Uma entrada no header Server-Timing da requisição (ServerTimingAdvice)
+ *
+ * Medicao é obtida na thread da requisição e pode ser usada nas continuações dos
+ * futures (outra thread): guarda a referência às etapas da requisição, não o contexto.
+ * Fora de uma requisição (lote, renovação em background) só alimenta as métricas.
+ */
+@Component
+public class PipelineTimer {
+
+    public static final String ATRIBUTO = PipelineTimer.class.getName() + ".etapas";
+
+    public enum Etapa {
+        MAPEAMENTO, CACHE, REQUISICAO, PYTHON, TRADUCAO, SCORER, MOCK, EXPLICACAO;
+
+        final String rotulo = name().toLowerCase(Locale.ROOT);
+    }
+
+    public enum Origem {
+        CACHE, CARENCIA, SCORER, PYTHON, MOCK, REGRAS;
+
+        final String rotulo = name().toLowerCase(Locale.ROOT);
+    }
+
+    public enum Causa {
+        CIRCUITO_ABERTO, BULKHEAD, TIMEOUT, ERRO, DEGRADACAO;
+
+        final String rotulo = name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Etapas de uma requisição, na ordem em que apareceram (somadas se repetidas)
+     */
+    public static final class Etapas {
+
+        private final long inicio = System.nanoTime();
+        private final Map<String, Long> duracoes = new LinkedHashMap<>();
+
+        synchronized void somar(String etapa, long nanos) {
+            duracoes.merge(etapa, nanos, Long::sum);
+        }
+
+        /**
+         * Valor do header Server-Timing (ms, com o total desde a primeira etapa)
+         */
+        public synchronized String serverTiming() {
+            StringBuilder header = new StringBuilder();
+            duracoes.forEach((etapa, nanos) -> header.append(etapa).append(";dur=").append(ms(nanos)).append(", "));
+            return header.append("total;dur=").append(ms(System.nanoTime() - inicio)).toString();
+        }
+
+        private static String ms(long nanos) {
+            return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+        }
+    }
+
+    /**
+     * Medição de uma previsão
+     */
+    public final class Medicao {
+
+        private final Etapas etapas;
+        private final long inicio = System.nanoTime();
+
+        private Medicao(Etapas etapas) {
+            this.etapas = etapas;
+        }
+
+        /**
+         * Registra a etapa que começou em desde
+         *
+         * @return agora (início da próxima etapa)
+         */
+        public long marcar(Etapa etapa, long desde) {
+            long agora = System.nanoTime();
+            long nanos = agora - desde;
+            porEtapa.get(etapa).record(nanos, TimeUnit.NANOSECONDS);
+            if (etapas != null) {
+                etapas.somar(etapa.rotulo, nanos);
+            }
+            return agora;
+        }
+
+        /**
+         * Fim da previsão: duração total, pela origem da resposta
+         */
+        public void concluir(Origem origem) {
+            porOrigem.get(origem).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Fim da previsão fora do modelo: duração total + a causa do fallback
+         */
+        public void fallback(Causa causa, Origem destino) {
+            concluir(destino);
+            fallbacks.get(causa).get(destino).increment();
+        }
+    }
+
+    private final Map<Etapa, Timer> porEtapa = new EnumMap<>(Etapa.class);
+    private final Map<Origem, Timer> porOrigem = new EnumMap<>(Origem.class);
+    private final Map<Causa, Map<Origem, Counter>> fallbacks = new EnumMap<>(Causa.class);
+
+    public PipelineTimer(MeterRegistry meterRegistry) {
+        for (Etapa etapa : Etapa.values()) {
+            porEtapa.put(etapa, Timer.builder("prediction.pipeline.stage")
+                    .description("Duração de cada etapa do pipeline de previsão")
+                    .tag("etapa", etapa.rotulo)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        for (Origem origem : Origem.values()) {
+            porOrigem.put(origem, Timer.builder("prediction.pipeline.duration")
+                    .description("Duração da previsão inteira, pela origem da resposta")
+                    .tag("origem", origem.rotulo)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        for (Causa causa : Causa.values()) {
+            Map<Origem, Counter> porDestino = new EnumMap<>(Origem.class);
+            for (Origem destino : new Origem[]{Origem.CARENCIA, Origem.REGRAS}) {
+                porDestino.put(destino, Counter.builder("prediction.fallback")
+                        .description("Previsões que não vieram do modelo, pela causa e pelo que foi servido")
+                        .tag("causa", causa.rotulo)
+                        .tag("destino", destino.rotulo)
+                        .register(meterRegistry));
+            }
+            fallbacks.put(causa, porDestino);
+        }
+    }
+
+    /**
+     * Nova medição; chamar na thread da requisição para as etapas irem ao Server-Timing
+     */
+    public Medicao iniciar() {
+        return new Medicao(etapasDaRequisicao());
+    }
+
+    private static Etapas etapasDaRequisicao() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos == null) {
+            return null;
+        }
+        Object atual = atributos.getAttribute(ATRIBUTO, RequestAttributes.SCOPE_REQUEST);
+        if (atual instanceof Etapas etapas) {
+            return etapas;
+        }
+        Etapas etapas = new Etapas();
+        atributos.setAttribute(ATRIBUTO, etapas, RequestAttributes.SCOPE_REQUEST);
+        return etapas;
+    }
+}
@@ -0,0 +1,164 @@
+package com.flightontime.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightontime.api.config.CacheConfig;
+import com.flightontime.api.dto.FlightPredictionResponse;
+import com.flightontime.api.dto.LocalExplanation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Acesso ao cache "predictions" com suporte a refresh-ahead e carência
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Em vez de guardar a resposta "crua" (como o @Cacheable fazia), cada entrada
+ * é um CachedPrediction com os marcos de tempo calculados no momento da escrita:
+ * - TTL: vem da DepartureAwareExpiry (proximidade da partida)
+ * - renovarApos: fração do TTL (prediction.cache.refresh-ahead.ratio)
+ * - descartarApos: TTL + carência (prediction.cache.stale-grace)
+ *
+ * Com prediction.cache.serialized.enabled, a entrada também guarda a resposta já em JSON:
+ * um acerto de cache escreve os bytes direto na resposta HTTP, sem passar pelo ObjectMapper.
+ */
+@Slf4j
+@Component
+public class PredictionCache {
+
+    private final Cache cache;
+    private final DepartureAwareExpiry expiry;
+    private final Clock clock;
+    private final boolean refreshAheadAtivo;
+    private final double fracaoRenovacao;
+    private final Duration carencia;
+    private final ObjectMapper objectMapper;
+    private final boolean serializado;
+
+    public PredictionCache(
+            CacheManager cacheManager,
+            DepartureAwareExpiry expiry,
+            Clock clock,
+            @Value("${prediction.cache.refresh-ahead.enabled:true}") boolean refreshAheadAtivo,
+            @Value("${prediction.cache.refresh-ahead.ratio:0.8}") double fracaoRenovacao,
+            @Value("${prediction.cache.stale-grace:30m}") Duration carencia,
+            ObjectMapper objectMapper,
+            @Value("${prediction.cache.serialized.enabled:false}") boolean serializado) {
+        if (fracaoRenovacao <= 0 || fracaoRenovacao > 1) {
+            throw new IllegalArgumentException("prediction.cache.refresh-ahead.ratio deve estar entre 0 (exclusivo) e 1");
+        }
+        this.cache = cacheManager.getCache(CacheConfig.PREDICTIONS_CACHE);
+        this.expiry = expiry;
+        this.clock = clock;
+        this.refreshAheadAtivo = refreshAheadAtivo;
+        this.fracaoRenovacao = fracaoRenovacao;
+        this.carencia = carencia;
+        this.objectMapper = objectMapper;
+        this.serializado = serializado;
+        log.info("🗄️ Refresh-ahead {} (fração {}), carência de {} para servir previsões expiradas",
+                refreshAheadAtivo ? "ativo" : "desativado", fracaoRenovacao, carencia);
+    }
+
+    /**
+     * Busca a entrada (fresca, a renovar ou em carência)
+     *
+     * @return vazio se não existir ou se a carência já terminou
+     */
+    public Optional<CachedPrediction> get(PredictionKey chave) {
+        CachedPrediction entrada = cache.get(chave, CachedPrediction.class);
+        if (entrada == null || !agora().isBefore(entrada.descartarApos())) {
+            return Optional.empty();
+        }
+        return Optional.of(entrada);
+    }
+
+    /**
+     * Armazena uma previsão calculando seus marcos de tempo
+     */
+    public CachedPrediction put(PredictionKey chave, FlightPredictionResponse response) {
+        Instant criadoEm = agora();
+        Duration ttl = expiry.ttlPara(chave.janelaPartida());
+        Duration janelaFresca = refreshAheadAtivo
+                ? Duration.ofMillis((long) (ttl.toMillis() * fracaoRenovacao))
+                : ttl;
+        Instant expiraEm = criadoEm.plus(ttl);
+
+        CachedPrediction entrada = new CachedPrediction(
+                response,
+                criadoEm,
+                criadoEm.plus(janelaFresca),
+                expiraEm,
+                expiraEm.plus(carencia),
+                null,
+                0,
+                serializado ? serializar(response) : null);
+        cache.put(chave, entrada);
+        return entrada;
+    }
+
+    /**
+     * Anexa a explicabilidade local à entrada, mantendo os marcos de tempo
+     * (a explicação expira junto com a previsão que explica; a response e o JSON não mudam)
+     *
+     * @return false se a entrada foi renovada ou removida nesse meio-tempo (nada é gravado)
+     */
+    public boolean anexarExplicacaoLocal(PredictionKey chave, CachedPrediction entrada, LocalExplanation explicacao, int topk) {
+        CachedPrediction comExplicacao = new CachedPrediction(
+                entrada.response(),
+                entrada.criadoEm(),
+                entrada.renovarApos(),
+                entrada.expiraEm(),
+                entrada.descartarApos(),
+                explicacao,
+                topk,
+                entrada.json());
+        // replace condicional: uma renovação concorrente não é sobrescrita pela previsão antiga
+        return mapa().replace(chave, entrada, comExplicacao);
+    }
+
+    /**
+     * Resposta em JSON: reaproveita os bytes da entrada quando a response é a do cache
+     */
+    public byte[] json(PredictionKey chave, FlightPredictionResponse response) {
+        CachedPrediction entrada = cache.get(chave, CachedPrediction.class);
+        if (entrada != null && entrada.response() == response && entrada.json() != null) {
+            return entrada.json();
+        }
+        return serializar(response);
+    }
+
+    public boolean isSerializado() {
+        return serializado;
+    }
+
+    private byte[] serializar(FlightPredictionResponse response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConcurrentMap<Object, Object> mapa() {
+        Object nativo = cache.getNativeCache();
+        if (nativo instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            return (ConcurrentMap<Object, Object>) caffeine.asMap();
+        }
+        return (ConcurrentMap<Object, Object>) nativo;
+    }
+
+    public Instant agora() {
+        return clock.instant();
+    }
+}
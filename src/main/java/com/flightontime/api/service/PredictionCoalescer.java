@@ -0,0 +1,116 @@
+package com.flightontime.api.service;
+
+import com.flightontime.api.dto.PythonPredictionResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Coalescência de chamadas idênticas ao Python ("single-flight")
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * PROBLEMA:
+ * - O @Cacheable não bloqueia carregamentos concorrentes da mesma chave
+ * - Um voo "viral" gera centenas de misses simultâneos → centenas de chamadas ao modelo
+ *
+ * SOLUÇÃO:
+ * - A primeira requisição de cada chave vira "líder" e faz a chamada real
+ * - As demais recebem o mesmo resultado (ou a mesma falha) do líder, sem bloquear
+ * - A chave sai do mapa assim que a chamada termina (não é um cache)
+ * - Cada chamador recebe uma cópia do future (timeouts aplicados por um não afetam os demais);
+ *   quando todos desistem antes da resposta, a chamada ao Python é cancelada
+ */
+@Slf4j
+@Component
+public class PredictionCoalescer {
+
+    /**
+     * Chamada compartilhada e quantos chamadores ainda aguardam por ela
+     */
+    private static final class Compartilhada {
+        final CompletableFuture<PythonPredictionResponse> resultado = new CompletableFuture<>();
+        final AtomicInteger aguardando = new AtomicInteger(1);
+        volatile CompletableFuture<PythonPredictionResponse> chamada;
+    }
+
+    private final ConcurrentHashMap<Object, Compartilhada> emAndamento = new ConcurrentHashMap<>();
+
+    private final Counter coalescidas;
+
+    public PredictionCoalescer(MeterRegistry meterRegistry) {
+        this.coalescidas = Counter.builder("prediction.python.coalesced")
+                .description("Requisições atendidas por uma chamada ao Python já em andamento")
+                .register(meterRegistry);
+        Gauge.builder("prediction.python.inflight.keys", emAndamento, ConcurrentHashMap::size)
+                .description("Chaves distintas com chamada ao Python em andamento")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Dispara a chamada apenas se não houver outra idêntica em andamento: o líder faz a
+     * chamada e todos recebem o mesmo resultado sem bloquear
+     *
+     * @param chave  Identifica a previsão (precisa de equals/hashCode consistentes)
+     * @param loader Chamada real ao Python, executada somente pelo líder
+     * @return Cópia do future compartilhado (falha com a mesma exceção do líder)
+     */
+    public CompletableFuture<PythonPredictionResponse> executeAsync(
+            Object chave,
+            Supplier<CompletableFuture<PythonPredictionResponse>> loader) {
+        Compartilhada nova = new Compartilhada();
+        Compartilhada existente = emAndamento.putIfAbsent(chave, nova);
+
+        if (existente != null) {
+            coalescidas.increment();
+            existente.aguardando.incrementAndGet();
+            log.debug("🔗 Aguardando chamada ao Python já em andamento para {}", chave);
+            return copia(chave, existente);
+        }
+
+        CompletableFuture<PythonPredictionResponse> chamada;
+        try {
+            chamada = loader.get();
+        } catch (RuntimeException | Error ex) {
+            chamada = CompletableFuture.failedFuture(ex);
+        }
+        nova.chamada = chamada;
+        chamada.whenComplete((resposta, ex) -> {
+            if (ex != null) {
+                nova.resultado.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null
+                        ? ex.getCause() : ex);
+            } else {
+                nova.resultado.complete(resposta);
+            }
+            emAndamento.remove(chave, nova);
+        });
+        return copia(chave, nova);
+    }
+
+    /**
+     * Cópia para um chamador; se todos desistirem (timeout/cancelamento) antes da resposta,
+     * a chamada ao Python é cancelada - ninguém mais vai usar o resultado
+     */
+    private CompletableFuture<PythonPredictionResponse> copia(Object chave, Compartilhada compartilhada) {
+        CompletableFuture<PythonPredictionResponse> copia = compartilhada.resultado.copy();
+        copia.whenComplete((resposta, ex) -> {
+            if (ex != null && !compartilhada.resultado.isDone() && compartilhada.aguardando.decrementAndGet() == 0) {
+                // Sai do mapa antes de cancelar: quem chegar agora dispara uma chamada nova
+                emAndamento.remove(chave, compartilhada);
+                CompletableFuture<PythonPredictionResponse> chamada = compartilhada.chamada;
+                if (chamada != null) {
+                    chamada.cancel(true);
+                }
+            }
+        });
+        return copia;
+    }
+}
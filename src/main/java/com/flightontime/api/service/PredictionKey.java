@@ -0,0 +1,23 @@
+package com.flightontime.api.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Chave canônica de uma previsão
+ *
+ * Contém SOMENTE o que o modelo Python usa (códigos ICAO normalizados e a
+ * janela de horário da partida). Por ser um record, equals/hashCode comparam
+ * todos os campos: dois voos diferentes nunca compartilham a mesma entrada
+ * de cache, mesmo que o hashCode colida.
+ *
+ * @param companhiaIcao Código ICAO da companhia (ex: "GLO")
+ * @param origemIcao    Código ICAO do aeroporto de origem (ex: "SBGR")
+ * @param destinoIcao   Código ICAO do aeroporto de destino (ex: "SBGL")
+ * @param janelaPartida Início da janela de horário da partida (ex: 14:00 para 14:37 com janela de 60 min)
+ */
+public record PredictionKey(
+        String companhiaIcao,
+        String origemIcao,
+        String destinoIcao,
+        LocalDateTime janelaPartida) {
+}
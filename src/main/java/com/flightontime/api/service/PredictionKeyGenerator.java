@@ -0,0 +1,75 @@
+package com.flightontime.api.service;
+
+import com.flightontime.api.dto.FlightPredictionRequest;
+import com.flightontime.api.mapper.AirlineCodeMapper;
+import com.flightontime.api.mapper.AirportCodeMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Gera a chave canônica (PredictionKey) do cache "predictions"
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * REGRAS:
+ * - Códigos IATA são convertidos para ICAO (GRU e SBGR viram a mesma chave)
+ * - distanciaKm é ignorada (o modelo não recebe essa informação)
+ * - O horário é arredondado para baixo na janela configurada
+ *   (padrão 60 min, a resolução da feature hora_sin do modelo)
+ *
+ * A janela nunca pode ser mais grossa que o que decide a previsão: o modelo (hora_dia,
+ * hora_sin/cos), o InJvmFlightScorer e o FallbackRuleEngine só leem a HORA da partida.
+ * Por isso a janela precisa dividir 60 (1, 5, 15, 30, 60...): nunca cruza a virada de
+ * uma hora, e todos os voos de uma chave recebem a mesma resposta. Quem passar a usar
+ * os minutos da partida numa regra precisa reduzir a janela junto.
+ */
+@Slf4j
+@Component
+public class PredictionKeyGenerator {
+
+    private final AirportCodeMapper airportMapper;
+    private final AirlineCodeMapper airlineMapper;
+    private final long janelaMinutos;
+
+    public PredictionKeyGenerator(
+            AirportCodeMapper airportMapper,
+            AirlineCodeMapper airlineMapper,
+            @Value("${prediction.cache.key.bucket-minutes:60}") long janelaMinutos) {
+        if (janelaMinutos <= 0 || 60 % janelaMinutos != 0) {
+            throw new IllegalArgumentException(
+                    "prediction.cache.key.bucket-minutes deve dividir 60 (as regras usam a hora da partida): " + janelaMinutos);
+        }
+        this.airportMapper = airportMapper;
+        this.airlineMapper = airlineMapper;
+        this.janelaMinutos = janelaMinutos;
+        log.info("🔑 Chave de cache com janela de {} minuto(s)", janelaMinutos);
+    }
+
+    /**
+     * Monta a chave canônica de um request
+     *
+     * @param request Dados do voo (formato IATA)
+     * @return Chave normalizada, usada no cache e na coalescência de chamadas
+     */
+    public PredictionKey of(FlightPredictionRequest request) {
+        return new PredictionKey(
+                airlineMapper.toIcao(request.getCompanhia()),
+                airportMapper.toIcao(request.getOrigem()),
+                airportMapper.toIcao(request.getDestino()),
+                inicioDaJanela(request.getDataPartida()));
+    }
+
+    /**
+     * Arredonda para baixo no múltiplo da janela, contando a partir de 1970-01-01T00:00
+     * (janelas que dividem 24h ficam alinhadas à meia-noite)
+     */
+    private LocalDateTime inicioDaJanela(LocalDateTime dataPartida) {
+        long minutos = dataPartida.toEpochSecond(ZoneOffset.UTC) / 60;
+        long inicio = Math.floorDiv(minutos, janelaMinutos) * janelaMinutos;
+        return LocalDateTime.ofEpochSecond(inicio * 60, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,105 @@
+package com.flightontime.api.service;
+
+import com.flightontime.api.dto.FlightPredictionResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Renovação de previsões em background (refresh-ahead)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * - Pool e fila LIMITADOS: se a fila encher, a renovação é descartada
+ *   (a entrada continua sendo servida e será renovada numa próxima leitura)
+ * - Cada chave tem no máximo uma renovação em andamento
+ * - Falha na renovação NÃO apaga a entrada atual
+ */
+@Slf4j
+@Component
+public class PredictionRefresher {
+
+    private final PredictionCache predictionCache;
+    private final ThreadPoolExecutor executor;
+    private final Set<PredictionKey> emAndamento = ConcurrentHashMap.newKeySet();
+
+    private final Counter sucesso;
+    private final Counter falha;
+    private final Counter descartada;
+
+    public PredictionRefresher(
+            PredictionCache predictionCache,
+            MeterRegistry meterRegistry,
+            @Value("${prediction.cache.refresh-ahead.threads:2}") int threads,
+            @Value("${prediction.cache.refresh-ahead.queue-capacity:100}") int capacidadeFila) {
+        this.predictionCache = predictionCache;
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacidadeFila),
+                new CustomizableThreadFactory("prediction-refresh-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.sucesso = contador(meterRegistry, "sucesso");
+        this.falha = contador(meterRegistry, "falha");
+        this.descartada = contador(meterRegistry, "descartada");
+        Gauge.builder("prediction.cache.refresh.queue", executor, e -> e.getQueue().size())
+                .description("Renovações aguardando na fila")
+                .register(meterRegistry);
+    }
+
+    private static Counter contador(MeterRegistry registry, String resultado) {
+        return Counter.builder("prediction.cache.refresh")
+                .description("Renovações de previsões em background")
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+
+    /**
+     * Agenda a renovação de uma chave, se ainda não houver uma em andamento
+     *
+     * @param chave  Chave canônica da previsão
+     * @param loader Cálculo da nova previsão; deve lançar exceção em caso de falha
+     */
+    public void agendar(PredictionKey chave, Supplier<FlightPredictionResponse> loader) {
+        if (!emAndamento.add(chave)) {
+            return;
+        }
+        try {
+            executor.execute(() -> renovar(chave, loader));
+        } catch (RejectedExecutionException ex) {
+            emAndamento.remove(chave);
+            descartada.increment();
+            log.debug("⏭️ Fila de renovação cheia, renovação de {} descartada", chave);
+        }
+    }
+
+    private void renovar(PredictionKey chave, Supplier<FlightPredictionResponse> loader) {
+        try {
+            predictionCache.put(chave, loader.get());
+            sucesso.increment();
+            log.debug("🔄 Previsão renovada em background para {}", chave);
+        } catch (Exception ex) {
+            falha.increment();
+            log.warn("⚠️ Falha ao renovar previsão de {} em background: {}", chave, ex.getMessage());
+        } finally {
+            emAndamento.remove(chave);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
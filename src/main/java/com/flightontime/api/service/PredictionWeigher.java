@@ -0,0 +1,86 @@
+package com.flightontime.api.service;
+
+import com.flightontime.api.dto.FeatureImportances;
+import com.flightontime.api.dto.FlightPredictionResponse;
+import com.flightontime.api.dto.LocalExplanation;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.springframework.lang.NonNull;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Estima o peso (em bytes aproximados) de cada entrada do cache "predictions"
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Respostas do Python com explicabilidade global/local são dezenas de vezes
+ * maiores que uma resposta do mock. Limitar o cache por quantidade de entradas
+ * deixaria a memória real variar muito; por peso, o limite é previsível.
+ *
+ * A estimativa é grosseira (cabeçalhos de objeto + conteúdo), o suficiente
+ * para comparar entradas entre si.
+ */
+public class PredictionWeigher implements Weigher<Object, Object> {
+
+    private static final int OBJETO = 16;
+    private static final int REFERENCIA = 8;
+    private static final int CHAVE = 96;
+    private static final int PROFUNDIDADE_MAXIMA = 8;
+
+    @Override
+    public int weigh(@NonNull Object key, @NonNull Object value) {
+        long peso = CHAVE + estimar(value, 0);
+        return (int) Math.min(Integer.MAX_VALUE, peso);
+    }
+
+    static long estimar(Object valor, int profundidade) {
+        if (valor == null) {
+            return 0;
+        }
+        if (profundidade > PROFUNDIDADE_MAXIMA) {
+            return OBJETO;
+        }
+        if (valor instanceof CachedPrediction entrada) {
+            return OBJETO + 7L * REFERENCIA + 4L * 24
+                    + estimar(entrada.response(), profundidade + 1)
+                    + estimar(entrada.explicacaoLocal(), profundidade + 1)
+                    + (entrada.json() != null ? OBJETO + entrada.json().length : 0);
+        }
+        if (valor instanceof FlightPredictionResponse resposta) {
+            return OBJETO + 4L * REFERENCIA
+                    + estimar(resposta.getPrevisao(), profundidade + 1)
+                    + estimar(resposta.getProbabilidade(), profundidade + 1)
+                    + estimar(resposta.getExplicabilidadeGlobal(), profundidade + 1)
+                    + estimar(resposta.getExplicabilidadeLocal(), profundidade + 1);
+        }
+        if (valor instanceof LocalExplanation local) {
+            // Nomes de feature são compartilhados entre entradas: só as referências contam
+            return OBJETO + 4L * REFERENCIA + 8 + 3L * OBJETO + local.tamanho() * (REFERENCIA + 16L);
+        }
+        if (valor instanceof FeatureImportances global) {
+            return OBJETO + 2L * REFERENCIA + 2L * OBJETO + global.tamanho() * (REFERENCIA + 8L);
+        }
+        if (valor instanceof CharSequence texto) {
+            return OBJETO + 24 + texto.length();
+        }
+        if (valor instanceof Number || valor instanceof Boolean) {
+            return OBJETO + REFERENCIA;
+        }
+        if (valor instanceof Map<?, ?> mapa) {
+            long total = OBJETO + 32;
+            for (Map.Entry<?, ?> entry : mapa.entrySet()) {
+                total += 32 + estimar(entry.getKey(), profundidade + 1) + estimar(entry.getValue(), profundidade + 1);
+            }
+            return total;
+        }
+        if (valor instanceof Collection<?> colecao) {
+            long total = OBJETO + 24;
+            for (Object item : colecao) {
+                total += REFERENCIA + estimar(item, profundidade + 1);
+            }
+            return total;
+        }
+        return OBJETO + REFERENCIA;
+    }
+}
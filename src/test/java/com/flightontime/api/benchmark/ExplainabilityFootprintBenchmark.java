@@ -0,0 +1,158 @@
+package com.flightontime.api.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightontime.api.dto.FlightPredictionResponse;
+import com.flightontime.api.dto.LocalExplanation;
+import com.flightontime.api.service.CachedPrediction;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark de memória: 100k entradas do cache "predictions" com explicabilidade local
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Não é um teste (não roda no mvn test). Monta as mesmas N entradas (topk = 8) de três
+ * formas e imprime o heap ocupado após o GC:
+ * - mapas: explicação como o Jackson lê em Object (LinkedHashMap/ArrayList/Double) - antes
+ * - tipado: LocalExplanation (arrays paralelos, nomes de features compartilhados)
+ * - tipado+json: o anterior + bytes da resposta (prediction.cache.serialized.enabled=true)
+ *
+ * Para executar (heap fixo para a medição não oscilar):
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       -Dexec.args="-Xms1g -Xmx1g -cp %classpath com.flightontime.api.benchmark.ExplainabilityFootprintBenchmark 100000"
+ */
+public final class ExplainabilityFootprintBenchmark {
+
+    private static final String[] FEATURES = {
+            "num__mes_ano", "num__hora_sin", "num__hora_cos", "num__dia_semana_sin",
+            "cat__codigo_tipo_linha_N", "cat__empresa_aerea_GLO", "cat__aerodromo_origem_SBGR",
+            "cat__aerodromo_destino_SBRJ", "num__distancia_km", "cat__empresa_aerea_AZU",
+            "cat__aerodromo_origem_SBSP", "num__dia_semana_cos"};
+    private static final int TOPK = 8;
+
+    private ExplainabilityFootprintBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int entradas = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        // Aquecimento: carrega classes e caches do Jackson fora da medição
+        for (Modo modo : Modo.values()) {
+            montar(1_000, objectMapper, modo);
+        }
+
+        System.out.printf("▶ %d entradas, explicação local com %d features%n", entradas, TOPK);
+        long[] bytes = new long[Modo.values().length];
+        for (Modo modo : Modo.values()) {
+            bytes[modo.ordinal()] = medir(() -> montar(entradas, objectMapper, modo));
+        }
+        long semExplicacao = bytes[Modo.SEM_EXPLICACAO.ordinal()];
+        for (Modo modo : Modo.values()) {
+            long total = bytes[modo.ordinal()];
+            System.out.printf(Locale.ROOT, "%-14s %8.1f MB  %6d bytes/entrada  (explicação: %d bytes/entrada)%n",
+                    modo.nome, total / 1_048_576.0, total / entradas, (total - semExplicacao) / entradas);
+        }
+    }
+
+    private enum Modo {
+        SEM_EXPLICACAO("sem explicação"),
+        MAPAS("mapas"),
+        TIPADO("tipado"),
+        TIPADO_JSON("tipado+json");
+
+        private final String nome;
+
+        Modo(String nome) {
+            this.nome = nome;
+        }
+    }
+
+    private interface Montagem {
+        List<Object> executar() throws Exception;
+    }
+
+    // Heap ocupado pelo que a montagem devolve (diferença após GC, com a lista ainda viva)
+    private static long medir(Montagem montagem) throws Exception {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        long antes = usadoAposGc(memoria);
+        List<Object> vivos = montagem.executar();
+        long depois = usadoAposGc(memoria);
+        if (vivos.isEmpty()) {
+            throw new IllegalStateException("nada montado");
+        }
+        return depois - antes;
+    }
+
+    // Várias coletas: a lista da rodada anterior às vezes só é liberada após algumas
+    private static long usadoAposGc(MemoryMXBean memoria) throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memoria.getHeapMemoryUsage().getUsed();
+    }
+
+    private static List<Object> montar(int entradas, ObjectMapper objectMapper, Modo modo) throws Exception {
+        Random random = new Random(42);
+        Instant agora = Instant.now();
+        List<Object> entradasCache = new ArrayList<>(entradas * 2);
+        for (int i = 0; i < entradas; i++) {
+            byte[] python = respostaPython(random);
+            FlightPredictionResponse response = new FlightPredictionResponse(
+                    random.nextBoolean() ? "Atrasado" : "Pontual", random.nextDouble(), null, null);
+            Object explicacao;
+            byte[] json = null;
+            switch (modo) {
+                case SEM_EXPLICACAO -> explicacao = null;
+                case MAPAS -> explicacao = objectMapper.readValue(python, Map.class).get("explain_local");
+                default -> {
+                    explicacao = objectMapper.readValue(python, LocalExplanationHolder.class).explainLocal;
+                    if (modo == Modo.TIPADO_JSON) {
+                        json = objectMapper.writeValueAsBytes(response);
+                    }
+                }
+            }
+            LocalExplanation tipada = explicacao instanceof LocalExplanation l ? l : null;
+            CachedPrediction entrada = new CachedPrediction(response, agora, agora.plusSeconds(240),
+                    agora.plusSeconds(300), agora.plusSeconds(2100), tipada, TOPK, json);
+            entradasCache.add(entrada);
+            if (modo == Modo.MAPAS) {
+                // Antes a explicação ficava dentro da própria resposta: mantém o mapa vivo junto da entrada
+                entradasCache.add(explicacao);
+            }
+        }
+        return entradasCache;
+    }
+
+    // explain_local como o Python devolve (mesmo JSON nos três modos)
+    private static byte[] respostaPython(Random random) {
+        StringBuilder json = new StringBuilder("{\"explain_local\":{\"top_features\":[");
+        for (int f = 0; f < TOPK; f++) {
+            double contribuicao = random.nextGaussian() * 0.3;
+            if (f > 0) {
+                json.append(',');
+            }
+            json.append("{\"feature\":\"").append(FEATURES[random.nextInt(FEATURES.length)])
+                    .append("\",\"contribution\":").append(contribuicao)
+                    .append(",\"direction\":\"").append(contribuicao >= 0 ? "increase" : "decrease")
+                    .append("\",\"value\":").append(random.nextDouble() * 2 - 1).append('}');
+        }
+        return json.append("],\"bias\":-0.34}}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class LocalExplanationHolder {
+        @JsonProperty("explain_local")
+        public LocalExplanation explainLocal;
+    }
+}
@@ -0,0 +1,141 @@
+package com.flightontime.api.benchmark;
+
+import com.flightontime.api.service.FallbackRuleEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmark JMH: calcularProbabilidadeMock (antes) x FallbackRuleEngine (depois)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Não roda no mvn test. Para executar (com o perfil de alocação do GC):
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main FallbackRuleEngineBenchmark -prof gc"
+ *
+ * Comparar ns/op e gc.alloc.rate.norm (bytes por chamada) das duas variantes.
+ * O "antes" é a cópia fiel do método antigo SEM os log.info: o custo real era maior
+ * (até 4 linhas de log INFO por previsão).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FallbackRuleEngineBenchmark {
+
+    private static final int VOOS = 1024;
+
+    private final LocalDateTime[] partidas = new LocalDateTime[VOOS];
+    private final String[] companhias = new String[VOOS];
+    private final String[] origens = new String[VOOS];
+    private final String[] destinos = new String[VOOS];
+    private FallbackRuleEngine regras;
+    private int i;
+
+    @Setup
+    public void setUp() {
+        regras = FallbackRuleEngine.padrao();
+        String[] codigosCompanhia = {"AZU", "GLO", "TAM", "ACN", "AFR", "PTB", "ONE"};
+        String[] aeroportos = {"SBGR", "SBSP", "SBRJ", "SBGL", "SBBR", "SBJU", "SBPA", "SBCF", "SBSV", "SBRF"};
+        Random random = new Random(42);
+        for (int v = 0; v < VOOS; v++) {
+            partidas[v] = LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(random.nextInt(365 * 24 * 60));
+            companhias[v] = codigosCompanhia[random.nextInt(codigosCompanhia.length)];
+            origens[v] = aeroportos[random.nextInt(aeroportos.length)];
+            destinos[v] = aeroportos[random.nextInt(aeroportos.length)];
+        }
+    }
+
+    @Benchmark
+    public double antes() {
+        int v = i++ & (VOOS - 1);
+        return calcularProbabilidadeMock(partidas[v], origens[v], destinos[v], companhias[v]);
+    }
+
+    @Benchmark
+    public double depois() {
+        int v = i++ & (VOOS - 1);
+        return regras.probabilidade(partidas[v], companhias[v], origens[v], destinos[v]);
+    }
+
+    /**
+     * Cópia do FlightPredictionService.calcularProbabilidadeMock anterior ao FallbackRuleEngine
+     */
+    static double calcularProbabilidadeMock(
+            LocalDateTime partida,
+            String origemIcao,
+            String destinoIcao,
+            String companhiaIcao) {
+        double score = 0.5;
+
+        LocalTime horario = partida.toLocalTime();
+        if (horario.isBefore(LocalTime.of(12, 0))) {
+            score -= 0.2;
+        } else if (horario.isAfter(LocalTime.of(18, 0))) {
+            score += 0.2;
+        }
+
+        DayOfWeek diaSemana = partida.getDayOfWeek();
+        if (diaSemana == DayOfWeek.SATURDAY || diaSemana == DayOfWeek.SUNDAY) {
+            score -= 0.1;
+        } else if (diaSemana == DayOfWeek.FRIDAY) {
+            score += 0.15;
+        }
+
+        if ("AZU".equalsIgnoreCase(companhiaIcao)) {
+            score -= 0.05;
+        } else if ("GLO".equalsIgnoreCase(companhiaIcao)) {
+            score += 0.05;
+        } else if ("TAM".equalsIgnoreCase(companhiaIcao)) {
+            score -= 0.05;
+        } else if ("ACN".equalsIgnoreCase(companhiaIcao)) {
+            score += 0.05;
+        } else if ("AFR".equalsIgnoreCase(companhiaIcao)) {
+            score -= 0.05;
+        }
+
+        int dia = partida.getDayOfMonth();
+        int mes = partida.getMonthValue();
+        if (mes == 12 && dia >= 20) {
+            score += 0.20;
+        }
+
+        int hora = horario.getHour();
+        if ((mes == 12 || mes <= 2) && (hora >= 16 && hora <= 20)) {
+            score += 0.15;
+        }
+
+        java.util.List<String> hubs = java.util.Arrays.asList("SBGR", "SBSP", "SBRJ", "SBGL", "SBBR");
+        if (hubs.contains(origemIcao.toUpperCase())) {
+            score += 0.18;
+        }
+
+        java.util.List<String> hubsOtimizados = java.util.List.of("SBJU", "SBCJ", "SBCR", "SBAT", "SBPC");
+        if (hubsOtimizados.contains(destinoIcao.toUpperCase()) &&
+                (horario.isAfter(LocalTime.of(10, 0)) && horario.isBefore(LocalTime.of(15, 0)))) {
+            score -= 0.10;
+        }
+
+        if (mes >= 5 && mes <= 8) {
+            score -= 0.08;
+        }
+
+        return Math.max(0.1, Math.min(0.95, score));
+    }
+}
@@ -0,0 +1,263 @@
+package com.flightontime.api.benchmark;
+
+import com.flightontime.api.client.ApacheAsyncPythonTransport;
+import com.flightontime.api.client.PythonHttpTransport;
+import com.flightontime.api.client.UnixSocketPythonTransport;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.URLEncoder;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Benchmark de carga: TCP (loopback) x socket Unix entre o Java e o Python co-localizado
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Não é um teste (não roda no mvn test). Chama POST /predict direto pelos transportes
+ * (sem Spring, cache, bulkhead ou circuit breaker), para medir só o custo do fio:
+ * N clientes simultâneos por T segundos em cada transporte, imprimindo vazão e p50/p99.
+ *
+ * COMO COMPARAR (mesmo modelo, dois processos uvicorn de 1 worker na mesma máquina):
+ * 1. cd data_science/semana_04/scripts
+ *      uvicorn api_app:app --port 5000 &
+ *      uvicorn api_app:app --uds /tmp/model.sock &
+ * 2. mvn test-compile exec:java -Dexec.classpathScope=test \
+ *        -Dexec.mainClass=com.flightontime.api.benchmark.PythonTransportBenchmark \
+ *        -Dexec.args="http://127.0.0.1:5000 http+unix://%2Ftmp%2Fmodel.sock 8 30"
+ *
+ * Use 8 clientes (= prediction.python.bulkhead.max-concurrent) para o cenário real, e 1
+ * cliente para isolar a latência por requisição. Com o modelo ocupando a maior parte
+ * do tempo, a diferença aparece mais no p50 com 1 cliente do que na vazão.
+ *
+ * SÓ O FIO (sem Python): -Dexec.args="eco 8 30" sobe no próprio JVM um servidor HTTP de
+ * eco (mesma resposta fixa de /predict) em TCP loopback e em socket Unix, e mede os dois.
+ * Mostra o teto de cada transporte; com o modelo real o ganho relativo é menor.
+ */
+public final class PythonTransportBenchmark {
+
+    private static final byte[] CORPO = """
+            {"dados":{"partida_prevista":"2025-12-25 10:30:00","empresa_aerea":"GLO",\
+            "aerodromo_origem":"SBGR","aerodromo_destino":"SBRJ","codigo_tipo_linha":"N"}}"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    private PythonTransportBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("eco")) {
+            try (ServidorEco tcp = ServidorEco.tcp(); ServidorEco uds = ServidorEco.uds()) {
+                comparar(tcp.url(), uds.url(),
+                        args.length > 1 ? Integer.parseInt(args[1]) : 8,
+                        args.length > 2 ? Integer.parseInt(args[2]) : 30);
+            }
+            return;
+        }
+        comparar(args.length > 0 ? args[0] : "http://127.0.0.1:5000",
+                args.length > 1 ? args[1] : "http+unix://%2Ftmp%2Fmodel.sock",
+                args.length > 2 ? Integer.parseInt(args[2]) : 8,
+                args.length > 3 ? Integer.parseInt(args[3]) : 30);
+    }
+
+    private static void comparar(String tcpUrl, String udsUrl, int clientes, int segundos) throws Exception {
+        try (CloseableHttpAsyncClient apache = HttpAsyncClients.custom()
+                .setConnectionManager(PoolingAsyncClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(clientes)
+                        .setMaxConnPerRoute(clientes)
+                        .build())
+                .build();
+             ExecutorService respostas = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())) {
+            apache.start();
+            UnixSocketPythonTransport uds = new UnixSocketPythonTransport(clientes, 5_000, 1_000, false);
+            try {
+                // Aquecimento (JIT + pools abertos) antes de medir cada um
+                medir("TCP", new ApacheAsyncPythonTransport(apache, respostas, false), tcpUrl, clientes, 5, false);
+                medir("UDS", uds, udsUrl, clientes, 5, false);
+                medir("TCP", new ApacheAsyncPythonTransport(apache, respostas, false), tcpUrl, clientes, segundos, true);
+                medir("UDS", uds, udsUrl, clientes, segundos, true);
+            } finally {
+                uds.fechar();
+            }
+        }
+    }
+
+    private static void medir(String nome, PythonHttpTransport transport, String baseUrl,
+                              int clientes, int segundos, boolean imprimir) throws InterruptedException {
+        String url = baseUrl + "/predict";
+        LongAdder erros = new LongAdder();
+        long[][] latencias = new long[clientes][];
+        long fim = System.nanoTime() + Duration.ofSeconds(segundos).toNanos();
+
+        long inicio = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clientes; c++) {
+                int cliente = c;
+                executor.submit(() -> {
+                    long[] amostras = new long[1024];
+                    int n = 0;
+                    while (System.nanoTime() < fim) {
+                        long t0 = System.nanoTime();
+                        try {
+                            int status = transport.post(url, "application/json", "application/json", CORPO)
+                                    .join().status();
+                            if (status != 200) {
+                                erros.increment();
+                            }
+                        } catch (Exception ex) {
+                            erros.increment();
+                        }
+                        if (n == amostras.length) {
+                            amostras = Arrays.copyOf(amostras, n * 2);
+                        }
+                        amostras[n++] = (System.nanoTime() - t0) / 1_000;
+                    }
+                    latencias[cliente] = Arrays.copyOf(amostras, n);
+                    return null;
+                });
+            }
+        }
+        double decorrido = (System.nanoTime() - inicio) / 1e9;
+        if (!imprimir) {
+            return;
+        }
+
+        long[] todas = Arrays.stream(latencias).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("▶ %s (%s), %d clientes por %ds%n", nome, url, clientes, segundos);
+        System.out.printf("  Requisições: %d → %.0f req/s (erros: %d)%n",
+                todas.length, todas.length / decorrido, erros.sum());
+        if (todas.length > 0) {
+            System.out.printf("  Latência: p50=%dµs p99=%dµs max=%dµs%n",
+                    percentil(todas, 0.50), percentil(todas, 0.99), todas[todas.length - 1]);
+        }
+    }
+
+    private static long percentil(long[] ordenadas, double p) {
+        return ordenadas[Math.min(ordenadas.length - 1, (int) Math.ceil(p * ordenadas.length) - 1)];
+    }
+
+    /**
+     * HTTP/1.1 keep-alive mínimo que responde a qualquer requisição com a mesma previsão
+     * (uma thread virtual por conexão, como o transporte UDS do lado do cliente)
+     */
+    private static final class ServidorEco implements AutoCloseable {
+
+        private static final byte[] RESPOSTA = respostaHttp(
+                "{\"prediction\":1,\"label\":\"atrasado\",\"proba_atraso\":0.81}");
+
+        private final ServerSocketChannel servidor;
+        private final String url;
+        private final Path socket;
+
+        private ServidorEco(ServerSocketChannel servidor, String url, Path socket) {
+            this.servidor = servidor;
+            this.url = url;
+            this.socket = socket;
+            Thread.ofVirtual().name("eco-accept").start(this::aceitar);
+        }
+
+        static ServidorEco tcp() throws IOException {
+            ServerSocketChannel servidor = ServerSocketChannel.open(StandardProtocolFamily.INET);
+            servidor.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            int porta = ((InetSocketAddress) servidor.getLocalAddress()).getPort();
+            return new ServidorEco(servidor, "http://127.0.0.1:" + porta, null);
+        }
+
+        static ServidorEco uds() throws IOException {
+            Path socket = Files.createTempDirectory("eco").resolve("model.sock");
+            ServerSocketChannel servidor = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            servidor.bind(UnixDomainSocketAddress.of(socket));
+            return new ServidorEco(servidor, UnixSocketPythonTransport.ESQUEMA
+                    + URLEncoder.encode(socket.toString(), StandardCharsets.UTF_8), socket);
+        }
+
+        String url() {
+            return url;
+        }
+
+        private void aceitar() {
+            try {
+                while (servidor.isOpen()) {
+                    SocketChannel cliente = servidor.accept();
+                    if (cliente.getRemoteAddress() instanceof InetSocketAddress) {
+                        cliente.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    }
+                    Thread.ofVirtual().start(() -> atender(cliente));
+                }
+            } catch (IOException fechado) {
+                // fim do benchmark
+            }
+        }
+
+        private static void atender(SocketChannel cliente) {
+            try (cliente; InputStream entrada = new BufferedInputStream(Channels.newInputStream(cliente))) {
+                String linha;
+                while ((linha = lerLinha(entrada)) != null) {
+                    int tamanho = 0;
+                    while (!(linha = lerLinha(entrada)).isEmpty()) {
+                        if (linha.regionMatches(true, 0, "content-length:", 0, 15)) {
+                            tamanho = Integer.parseInt(linha.substring(15).strip());
+                        }
+                    }
+                    entrada.skipNBytes(tamanho);
+                    ByteBuffer saida = ByteBuffer.wrap(RESPOSTA);
+                    while (saida.hasRemaining()) {
+                        cliente.write(saida);
+                    }
+                }
+            } catch (IOException desconectado) {
+                // cliente fechou a conexão
+            }
+        }
+
+        private static String lerLinha(InputStream entrada) throws IOException {
+            StringBuilder linha = new StringBuilder(64);
+            int b;
+            while ((b = entrada.read()) != '\n') {
+                if (b < 0) {
+                    return null;
+                }
+                if (b != '\r') {
+                    linha.append((char) b);
+                }
+            }
+            return linha.toString();
+        }
+
+        private static byte[] respostaHttp(String json) {
+            byte[] corpo = json.getBytes(StandardCharsets.UTF_8);
+            byte[] cabecalho = ("HTTP/1.1 200 OK\r\ncontent-type: application/json\r\ncontent-length: "
+                    + corpo.length + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1);
+            byte[] http = Arrays.copyOf(cabecalho, cabecalho.length + corpo.length);
+            System.arraycopy(corpo, 0, http, cabecalho.length, corpo.length);
+            return http;
+        }
+
+        @Override
+        public void close() throws IOException {
+            servidor.close();
+            if (socket != null) {
+                Files.deleteIfExists(socket);
+            }
+        }
+    }
+}
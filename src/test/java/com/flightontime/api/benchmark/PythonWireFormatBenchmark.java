@@ -0,0 +1,156 @@
+package com.flightontime.api.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.flightontime.api.dto.FeatureImportances;
+import com.flightontime.api.dto.LocalExplanation;
+import com.flightontime.api.dto.PythonExplainGlobalResponse;
+import com.flightontime.api.dto.PythonPredictionRequest;
+import com.flightontime.api.dto.PythonPredictionResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Microbenchmark JMH: JSON x CBOR na ida e volta ao Python (PythonWireFormat)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Não roda no mvn test. Para executar (com o perfil de alocação do GC):
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main PythonWireFormatBenchmark -prof gc"
+ *
+ * Por previsão, mede o CPU do Java para serializar a requisição e ler a resposta
+ * (ns/op e gc.alloc.rate.norm), nos três tamanhos de resposta:
+ * - previsao: só a previsão (caso normal: topk = 0, sem explicabilidade global)
+ * - local: previsão + explain_local com 8 features (/explain/local)
+ * - global: explain_global com 30 features (/explain/global)
+ * O setup imprime os bytes no fio de cada combinação (com e sem gzip).
+ * A resposta CBOR usa string referencing, como o cbor2 do api_app.py.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PythonWireFormatBenchmark {
+
+    private static final String[] FEATURES = {
+            "num__mes_ano", "num__hora_sin", "num__hora_cos", "num__dia_semana_sin", "num__dia_semana_cos",
+            "cat__codigo_tipo_linha_N", "cat__codigo_tipo_linha_I", "cat__empresa_aerea_GLO",
+            "cat__empresa_aerea_AZU", "cat__empresa_aerea_TAM", "cat__aerodromo_origem_SBGR",
+            "cat__aerodromo_origem_SBSP", "cat__aerodromo_origem_SBRJ", "cat__aerodromo_origem_SBBR",
+            "cat__aerodromo_destino_SBGR", "cat__aerodromo_destino_SBSP", "cat__aerodromo_destino_SBRJ",
+            "cat__aerodromo_destino_SBGL", "cat__aerodromo_destino_SBCF", "cat__aerodromo_destino_SBPA",
+            "num__distancia_km", "num__mes_sin", "num__mes_cos", "cat__aerodromo_origem_SBCF",
+            "cat__aerodromo_origem_SBPA", "cat__aerodromo_origem_SBSV", "cat__aerodromo_destino_SBSV",
+            "cat__empresa_aerea_PTB", "cat__aerodromo_origem_SBRF", "cat__aerodromo_destino_SBRF"};
+
+    @Param({"json", "cbor"})
+    public String formato;
+
+    @Param({"previsao", "local", "global"})
+    public String resposta;
+
+    private ObjectMapper mapper;
+    private PythonPredictionRequest requisicao;
+    private byte[] corpoResposta;
+    private Class<?> tipoResposta;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper json = new ObjectMapper();
+        // Mesma cópia do PythonWireFormat; a variante com stringref imita o cbor2 do Python
+        ObjectMapper cbor = json.copyWith(new CBORFactory());
+        ObjectMapper cborPython = json.copyWith(CBORFactory.builder()
+                .enable(CBORGenerator.Feature.STRINGREF)
+                .build());
+        mapper = formato.equals("cbor") ? cbor : json;
+
+        requisicao = PythonPredictionRequest.builder()
+                .dados(PythonPredictionRequest.PythonDataPayload.builder()
+                        .partidaPrevista("2025-12-25 10:30:00")
+                        .empresaAerea("GLO")
+                        .aerodromoOrigem("SBGR")
+                        .aerodromoDestino("SBRJ")
+                        .codigoTipoLinha("N")
+                        .build())
+                .build();
+
+        Object valor = respostaPython(resposta);
+        tipoResposta = valor.getClass();
+        corpoResposta = (formato.equals("cbor") ? cborPython : json).writeValueAsBytes(valor);
+
+        byte[] corpoRequisicao = mapper.writeValueAsBytes(requisicao);
+        System.out.printf("%n📦 %s/%s: requisição %d bytes, resposta %d bytes (gzip: %d)%n",
+                formato, resposta, corpoRequisicao.length, corpoResposta.length, gzip(corpoResposta).length);
+    }
+
+    private static Object respostaPython(String tipo) {
+        Random random = new Random(42);
+        if (tipo.equals("global")) {
+            double[] importancias = new double[FEATURES.length];
+            for (int i = 0; i < importancias.length; i++) {
+                importancias[i] = random.nextDouble() * 3000;
+            }
+            PythonExplainGlobalResponse global = new PythonExplainGlobalResponse();
+            global.setModeloVersao("3f2a9c1b7d40");
+            global.setExplainGlobal(new FeatureImportances(FEATURES.clone(), importancias));
+            return global;
+        }
+        PythonPredictionResponse previsao = new PythonPredictionResponse();
+        previsao.setPrediction(1);
+        previsao.setLabel("atrasado");
+        previsao.setProbaAtraso(0.7234518812);
+        previsao.setModeloVersao("3f2a9c1b7d40");
+        if (tipo.equals("local")) {
+            int topk = 8;
+            String[] features = new String[topk];
+            double[] contribuicoes = new double[topk];
+            double[] valores = new double[topk];
+            for (int i = 0; i < topk; i++) {
+                features[i] = FEATURES[i];
+                contribuicoes[i] = random.nextGaussian() * 0.3;
+                valores[i] = random.nextDouble() * 2 - 1;
+            }
+            previsao.setExplainLocal(new LocalExplanation(features, contribuicoes, valores, -0.3412));
+            previsao.setExplainLocalMs(4.12);
+            previsao.setExplainLocalCpuMs(3.87);
+        }
+        return previsao;
+    }
+
+    private static byte[] gzip(byte[] corpo) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(corpo);
+        }
+        return saida.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serializarRequisicao() throws IOException {
+        return mapper.writeValueAsBytes(requisicao);
+    }
+
+    @Benchmark
+    public Object lerResposta() throws IOException {
+        return mapper.readValue(corpoResposta, tipoResposta);
+    }
+}
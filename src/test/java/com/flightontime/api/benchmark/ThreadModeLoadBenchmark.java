@@ -0,0 +1,124 @@
+package com.flightontime.api.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Benchmark de carga: threads de plataforma x threads virtuais no /api/v1/predict
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Não é um teste (não roda no mvn test). Sobe N clientes simultâneos, cada um
+ * repetindo POST /api/v1/predict durante o tempo definido, e imprime vazão,
+ * p50/p99 e a contagem por status HTTP (429 = rate limit, 503 = limite de concorrência).
+ *
+ * COMO COMPARAR:
+ * 1. Subir a API com o Python real (ou o mock_python_service.py com latência):
+ *      mvn spring-boot:run -Dspring-boot.run.arguments="--spring.threads.virtual.enabled=false --prediction.service.use-mock=false"
+ * 2. Rodar com 1000 e depois 5000 clientes:
+ *      mvn test-compile exec:java -Dexec.classpathScope=test \
+ *          -Dexec.mainClass=com.flightontime.api.benchmark.ThreadModeLoadBenchmark \
+ *          -Dexec.args="http://localhost:8080 1000 30"
+ * 3. Repetir os passos 1 e 2 com --spring.threads.virtual.enabled=true
+ *
+ * Cada cliente envia um X-Forwarded-For próprio para não esbarrar no rate limit por IP.
+ * Para medir só o modelo de threads, suba a API com prediction.concurrency.max-limit alto.
+ */
+public final class ThreadModeLoadBenchmark {
+
+    private ThreadModeLoadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clientes = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        URI uri = URI.create(baseUrl + "/api/v1/predict");
+
+        LongAdder total = new LongAdder();
+        Map<Integer, LongAdder> porStatus = new ConcurrentHashMap<>();
+        // Latências (µs) de cada cliente, para os percentis no final
+        long[][] latencias = new long[clientes][];
+        long fim = System.nanoTime() + Duration.ofSeconds(segundos).toNanos();
+
+        System.out.printf("▶ %d clientes por %ds contra %s%n", clientes, segundos, uri);
+        long inicio = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clientes; c++) {
+                int cliente = c;
+                executor.submit(() -> {
+                    long[] amostras = new long[1024];
+                    int n = 0;
+                    while (System.nanoTime() < fim) {
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                                .timeout(Duration.ofSeconds(30))
+                                .header("Content-Type", "application/json")
+                                .header("X-Forwarded-For", "10.%d.%d.%d".formatted(
+                                        (cliente >> 16) & 0xff, (cliente >> 8) & 0xff, cliente & 0xff))
+                                .POST(HttpRequest.BodyPublishers.ofString(corpo(cliente, n)))
+                                .build();
+                        long t0 = System.nanoTime();
+                        int status;
+                        try {
+                            status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception ex) {
+                            status = -1;
+                        }
+                        if (n == amostras.length) {
+                            amostras = Arrays.copyOf(amostras, n * 2);
+                        }
+                        amostras[n++] = (System.nanoTime() - t0) / 1_000;
+                        total.increment();
+                        porStatus.computeIfAbsent(status, k -> new LongAdder()).increment();
+                    }
+                    latencias[cliente] = Arrays.copyOf(amostras, n);
+                    return null;
+                });
+            }
+        }
+        double decorrido = (System.nanoTime() - inicio) / 1e9;
+
+        long[] todas = Arrays.stream(latencias).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("Requisições: %d em %.1fs → %.0f req/s%n", total.sum(), decorrido, total.sum() / decorrido);
+        if (todas.length > 0) {
+            System.out.printf("Latência: p50=%.1fms p99=%.1fms max=%.1fms%n",
+                    percentil(todas, 0.50) / 1000.0, percentil(todas, 0.99) / 1000.0, todas[todas.length - 1] / 1000.0);
+        }
+        Map<Integer, Long> status = new TreeMap<>();
+        porStatus.forEach((k, v) -> status.put(k, v.sum()));
+        System.out.println("Status HTTP (-1 = erro de conexão/timeout): " + status);
+    }
+
+    /**
+     * Varia rota e horário para não medir apenas o cache
+     */
+    private static String corpo(int cliente, int iteracao) {
+        String[][] rotas = {{"GRU", "GIG"}, {"CGH", "SDU"}, {"BSB", "GRU"}, {"CNF", "VCP"}, {"REC", "SSA"}};
+        String[] rota = rotas[(cliente + iteracao) % rotas.length];
+        LocalDateTime partida = LocalDateTime.now().plusDays(1 + (cliente % 7)).withHour(iteracao % 24)
+                .withMinute(0).withSecond(0).withNano(0);
+        return """
+                {"companhia":"G3","origem":"%s","destino":"%s","data_partida":"%s"}"""
+                .formatted(rota[0], rota[1], partida);
+    }
+
+    private static long percentil(long[] ordenadas, double p) {
+        return ordenadas[Math.min(ordenadas.length - 1, (int) Math.ceil(p * ordenadas.length) - 1)];
+    }
+}
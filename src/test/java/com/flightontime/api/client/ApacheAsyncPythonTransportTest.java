@@ -0,0 +1,102 @@
+package com.flightontime.api.client;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para ApacheAsyncPythonTransport
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("ApacheAsyncPythonTransport - Testes Unitários")
+class ApacheAsyncPythonTransportTest {
+
+    private final ExecutorService respostas = Executors.newSingleThreadExecutor(tarefa -> new Thread(tarefa, "python-resposta-teste"));
+    private final CloseableHttpAsyncClient httpClient = mock(CloseableHttpAsyncClient.class);
+    @SuppressWarnings("unchecked")
+    private final Future<SimpleHttpResponse> troca = mock(Future.class);
+    private final ApacheAsyncPythonTransport transport = new ApacheAsyncPythonTransport(httpClient, respostas, false);
+
+    @AfterEach
+    void tearDown() {
+        respostas.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Deve concluir o future (e as continuações) fora da thread de I/O")
+    void deveConcluirForaDaThreadDeIo() throws Exception {
+        FutureCallback<SimpleHttpResponse> callback = executar();
+        CompletableFuture<String> continuacao = transport.post("http://localhost:5000/predict", "application/json",
+                        "application/json", new byte[0])
+                .thenApply(resposta -> Thread.currentThread().getName());
+
+        SimpleHttpResponse resposta = SimpleHttpResponse.create(200, "{}".getBytes(StandardCharsets.UTF_8), ContentType.APPLICATION_JSON);
+        callback.completed(resposta);
+
+        assertEquals("python-resposta-teste", continuacao.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Deve entregar a falha fora da thread de I/O")
+    void deveEntregarFalhaForaDaThreadDeIo() throws Exception {
+        FutureCallback<SimpleHttpResponse> callback = executar();
+        CompletableFuture<String> continuacao = transport.get("http://localhost:5000/health", "application/json")
+                .handle((resposta, ex) -> Thread.currentThread().getName());
+
+        callback.failed(new IOException("Connection reset"));
+
+        assertEquals("python-resposta-teste", continuacao.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Timeout de quem chama deve cancelar a troca no client HTTP")
+    void deveCancelarTrocaNoTimeout() {
+        executar();
+        CompletableFuture<PythonHttpResponse> future = transport.get("http://localhost:5000/health", "application/json")
+                .orTimeout(1, TimeUnit.MILLISECONDS);
+
+        assertThrows(Exception.class, future::join);
+        verify(troca).cancel(true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private FutureCallback<SimpleHttpResponse> executar() {
+        ArgumentCaptor<FutureCallback<SimpleHttpResponse>> callback = ArgumentCaptor.forClass(FutureCallback.class);
+        when(httpClient.execute(any(SimpleHttpRequest.class), callback.capture())).thenReturn(troca);
+        return new FutureCallback<>() {
+            @Override
+            public void completed(SimpleHttpResponse resposta) {
+                callback.getValue().completed(resposta);
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                callback.getValue().failed(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                callback.getValue().cancelled();
+            }
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package com.flightontime.api.client;
+
+import com.flightontime.api.exception.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para PythonBulkhead
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("PythonBulkhead - Testes Unitários")
+class PythonBulkheadTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Deve rejeitar imediatamente quando as vagas e a fila estão ocupadas")
+    void deveRejeitarComFilaCheia() throws Exception {
+        PythonBulkhead bulkhead = new PythonBulkhead(1, 1, Duration.ofSeconds(5), registry);
+        CompletableFuture<String> python = new CompletableFuture<>();
+
+        CompletableFuture<String> emAndamento = bulkhead.executarAsync(() -> python);
+        CompletableFuture<String> naFila = bulkhead.executarAsync(() -> CompletableFuture.completedFuture("fila"));
+        assertEquals(1, bulkhead.getEmAndamento());
+        assertEquals(1, bulkhead.getNaFila());
+
+        CompletableFuture<String> rejeitada = bulkhead.executarAsync(() -> CompletableFuture.completedFuture("não"));
+        assertTrue(rejeitada.isCompletedExceptionally(), "Rejeição deve ser imediata");
+        assertBulkheadCheio(rejeitada);
+        assertEquals(1, registry.counter("prediction.python.bulkhead.rejected", "motivo", "fila_cheia").count());
+
+        // A vaga devolvida vai direto para quem estava na fila
+        python.complete("ok");
+        assertEquals("ok", emAndamento.get(5, TimeUnit.SECONDS));
+        assertEquals("fila", naFila.get(5, TimeUnit.SECONDS));
+        assertEquals(0, bulkhead.getEmAndamento());
+        assertEquals(0, bulkhead.getNaFila());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar após o tempo máximo de espera e sair da fila")
+    void deveRejeitarAposTimeout() throws Exception {
+        PythonBulkhead bulkhead = new PythonBulkhead(1, 5, Duration.ofMillis(50), registry);
+        CompletableFuture<String> python = new CompletableFuture<>();
+        AtomicInteger disparadas = new AtomicInteger();
+
+        bulkhead.executarAsync(() -> python);
+        CompletableFuture<String> esperando = bulkhead.executarAsync(() -> {
+            disparadas.incrementAndGet();
+            return CompletableFuture.completedFuture("tarde demais");
+        });
+
+        assertBulkheadCheio(esperando);
+        assertEquals(1, registry.counter("prediction.python.bulkhead.rejected", "motivo", "timeout").count());
+        assertEquals(0, bulkhead.getNaFila());
+
+        // A vaga devolvida depois não vai para quem já desistiu
+        python.complete("ok");
+        assertEquals(0, disparadas.get());
+        assertEquals(0, bulkhead.getEmAndamento());
+        assertEquals("livre", bulkhead.executarAsync(() -> CompletableFuture.completedFuture("livre")).get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Deve devolver a vaga quando a chamada falha ao disparar ou termina com erro")
+    void deveDevolverVagaNaFalha() {
+        PythonBulkhead bulkhead = new PythonBulkhead(1, 0, Duration.ofMillis(50), registry);
+
+        CompletableFuture<String> naoDisparou = bulkhead.executarAsync(() -> {
+            throw new IllegalStateException("Falha ao serializar");
+        });
+        assertInstanceOf(IllegalStateException.class, assertThrows(ExecutionException.class, naoDisparou::get).getCause());
+        assertEquals(0, bulkhead.getEmAndamento());
+
+        CompletableFuture<String> python = new CompletableFuture<>();
+        CompletableFuture<String> comErro = bulkhead.executarAsync(() -> python);
+        assertEquals(1, bulkhead.getEmAndamento());
+        python.completeExceptionally(new IllegalStateException("HTTP 500"));
+        assertTrue(comErro.isCompletedExceptionally());
+        assertEquals(0, bulkhead.getEmAndamento());
+        assertTrue(bulkhead.tentarAdquirir(), "A vaga deve estar livre de novo");
+    }
+
+    @Test
+    @DisplayName("Cancelar o future deve cancelar a chamada em andamento e devolver a vaga")
+    void deveCancelarChamadaEDevolverVaga() throws Exception {
+        PythonBulkhead bulkhead = new PythonBulkhead(1, 1, Duration.ofSeconds(5), registry);
+        CompletableFuture<String> python = new CompletableFuture<>();
+        AtomicInteger disparadas = new AtomicInteger();
+
+        CompletableFuture<String> emAndamento = bulkhead.executarAsync(() -> python);
+        CompletableFuture<String> naFila = bulkhead.executarAsync(() -> {
+            disparadas.incrementAndGet();
+            return CompletableFuture.completedFuture("desistiu");
+        });
+
+        // Quem estava na fila desiste; depois o timeout de quem está em andamento
+        naFila.cancel(false);
+        emAndamento.orTimeout(1, TimeUnit.MILLISECONDS);
+        assertThrows(ExecutionException.class, () -> emAndamento.get(5, TimeUnit.SECONDS));
+
+        assertTrue(python.isCancelled(), "A chamada ao Python deve ser abortada");
+        assertEquals(0, disparadas.get(), "Quem desistiu na fila não dispara a chamada");
+        assertEquals(0, bulkhead.getEmAndamento());
+        assertEquals(0, bulkhead.getNaFila());
+        assertEquals("livre", bulkhead.executarAsync(() -> CompletableFuture.completedFuture("livre")).get(1, TimeUnit.SECONDS));
+    }
+
+    private static void assertBulkheadCheio(CompletableFuture<?> future) {
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(BulkheadFullException.class, ex.getCause());
+    }
+}
@@ -0,0 +1,121 @@
+package com.flightontime.api.client;
+
+import com.flightontime.api.dto.PythonHealthResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para PythonHealthProber (snapshot da saúde do Python)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("PythonHealthProber - Health check em background")
+@ExtendWith(MockitoExtension.class)
+class PythonHealthProberTest {
+
+    @Mock
+    private PythonPredictionClient pythonClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PythonHealthProber prober;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Sem iniciar(): as verificações são disparadas pelo próprio teste
+        prober = new PythonHealthProber(pythonClient, meterRegistry,
+                Duration.ofSeconds(5), Duration.ofMillis(100), 2);
+    }
+
+    @Test
+    @DisplayName("Deve começar desconhecido e ficar UP com a versão do modelo após responder")
+    void deveFicarUpComVersao() {
+        assertFalse(prober.estado().verificado());
+        when(pythonClient.getHealthAsync()).thenReturn(CompletableFuture.completedFuture(health(true, "3f2a9c1b7d40")));
+
+        PythonHealthProber.Estado estado = prober.verificar();
+
+        assertTrue(estado.up());
+        assertTrue(estado.verificado());
+        assertEquals("3f2a9c1b7d40", estado.modeloVersao());
+        assertEquals(0, estado.falhasConsecutivas());
+        assertSame(estado, prober.estado());
+        assertEquals(1, meterRegistry.get("prediction.python.health.up").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Deve ir para DOWN só após falhas seguidas, mantendo a última versão conhecida")
+    void deveIrParaDownAposFalhasSeguidas() {
+        when(pythonClient.getHealthAsync())
+                .thenReturn(CompletableFuture.completedFuture(health(true, "v1")))
+                .thenReturn(CompletableFuture.failedFuture(new ConnectException("Connection refused")));
+
+        prober.verificar();
+        PythonHealthProber.Estado primeiraFalha = prober.verificar();
+        PythonHealthProber.Estado segundaFalha = prober.verificar();
+
+        assertTrue(primeiraFalha.up());
+        assertEquals(1, primeiraFalha.falhasConsecutivas());
+        assertFalse(segundaFalha.up());
+        assertEquals(2, segundaFalha.falhasConsecutivas());
+        assertEquals("v1", segundaFalha.modeloVersao());
+        assertEquals("Connection refused", segundaFalha.erro());
+        assertEquals(0, meterRegistry.get("prediction.python.health.up").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Deve contar como falha o Python sem modelo carregado e o Python que não responde no prazo")
+    void deveFalharSemModeloOuSemResposta() {
+        when(pythonClient.getHealthAsync())
+                .thenReturn(CompletableFuture.completedFuture(health(false, null)))
+                .thenReturn(new CompletableFuture<>());
+
+        PythonHealthProber.Estado semModelo = prober.verificar();
+        PythonHealthProber.Estado semResposta = prober.verificar();
+
+        assertFalse(semModelo.up());
+        assertEquals("modelo não carregado", semModelo.erro());
+        assertEquals("sem resposta em 100ms", semResposta.erro());
+        assertTrue(semResposta.latenciaMs() >= 100);
+        verify(pythonClient, times(2)).getHealthAsync();
+    }
+
+    @Test
+    @DisplayName("Python fora não deve derrubar o /actuator/health: componente UP com o Python no detalhe")
+    void naoDeveDerrubarHealthAgregado() {
+        PythonModelHealthIndicator indicador = new PythonModelHealthIndicator(prober);
+        assertEquals(Status.UNKNOWN, indicador.health().getStatus());
+        when(pythonClient.getHealthAsync())
+                .thenReturn(CompletableFuture.failedFuture(new ConnectException("Connection refused")));
+
+        prober.verificar();
+        prober.verificar();
+        Health health = indicador.health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals("DOWN", health.getDetails().get("python"));
+        assertEquals("Connection refused", health.getDetails().get("erro"));
+    }
+
+    private static PythonHealthResponse health(boolean modeloCarregado, String modeloVersao) {
+        PythonHealthResponse health = new PythonHealthResponse();
+        health.setStatus("UP");
+        health.setModeloCarregado(modeloCarregado);
+        health.setModeloVersao(modeloVersao);
+        return health;
+    }
+}
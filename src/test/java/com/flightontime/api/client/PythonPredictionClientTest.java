@@ -0,0 +1,170 @@
+package com.flightontime.api.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.flightontime.api.dto.PythonPredictionRequest;
+import com.flightontime.api.dto.PythonPredictionResponse;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para PythonPredictionClient (circuit breaker)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("PythonPredictionClient - Circuit Breaker")
+@ExtendWith(MockitoExtension.class)
+class PythonPredictionClientTest {
+
+    @Mock
+    private PythonHttpTransport transport;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PythonBulkhead bulkhead;
+    private PythonPredictionClient client;
+
+    @BeforeEach
+    void setUp() {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build();
+        meterRegistry = new SimpleMeterRegistry();
+        bulkhead = new PythonBulkhead(2, 2, Duration.ofMillis(50), meterRegistry);
+        PythonReplicaBalancer balancer = new PythonReplicaBalancer("http://localhost:5000",
+                3, Duration.ofSeconds(10), false, 0.95, Duration.ofMillis(20), meterRegistry);
+        client = new PythonPredictionClient(transport,
+                new PythonWireFormat(new ObjectMapper(), "cbor", meterRegistry), balancer,
+                CircuitBreakerRegistry.of(config), meterRegistry,
+                bulkhead);
+    }
+
+    @Test
+    @DisplayName("Deve abrir o circuito após falhas e rejeitar chamadas sem acessar o Python")
+    void deveAbrirCircuitoAposFalhas() {
+        when(transport.post(anyString(), anyString(), anyString(), any()))
+                .thenAnswer(inv -> CompletableFuture.failedFuture(new ConnectException("Connection refused")));
+        PythonPredictionRequest request = PythonPredictionRequest.builder().build();
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(RuntimeException.class, () -> client.getPrediction(request));
+        }
+
+        assertEquals("OPEN", client.getCircuitState());
+        assertThrows(CallNotPermittedException.class, () -> client.getPrediction(request));
+        verify(transport, times(4)).post(anyString(), anyString(), anyString(), any());
+        assertEquals(1, meterRegistry.counter("prediction.python.circuit.transitions",
+                "de", "CLOSED", "para", "OPEN").count());
+        assertEquals(4, meterRegistry.counter("prediction.python.responses", "caminho", "/predict", "status", "erro").count());
+        assertEquals(4, meterRegistry.timer("prediction.python.request", "resultado", "erro").count());
+        assertEquals(1, meterRegistry.timer("prediction.python.request", "resultado", "circuito_aberto").count());
+    }
+
+    @Test
+    @DisplayName("Deve entregar a previsão pelo future sem bloquear e manter o adaptador bloqueante")
+    void deveEntregarPrevisaoAssincrona() {
+        byte[] corpo = "{\"prediction\":1,\"label\":\"atrasado\",\"proba_atraso\":0.81}"
+                .getBytes(StandardCharsets.UTF_8);
+        CompletableFuture<PythonHttpResponse> resposta = new CompletableFuture<>();
+        when(transport.post(eq("http://localhost:5000/predict"), anyString(), anyString(), any())).thenReturn(resposta);
+        PythonPredictionRequest request = PythonPredictionRequest.builder().build();
+
+        CompletableFuture<PythonPredictionResponse> future = client.getPredictionAsync(request);
+
+        assertFalse(future.isDone(), "Não deve esperar o Python para devolver o future");
+        resposta.complete(new PythonHttpResponse(200, "application/json", corpo));
+        assertEquals(0.81, future.join().getProbaAtraso());
+
+        when(transport.post(anyString(), anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new PythonHttpResponse(200, "application/json", corpo)));
+        assertEquals("atrasado", client.getPrediction(request).getLabel());
+    }
+
+    @Test
+    @DisplayName("Timeout de quem chama deve abortar a troca com o Python e devolver a vaga do bulkhead")
+    void deveAbortarTrocaNoTimeout() {
+        CompletableFuture<PythonHttpResponse> troca = new CompletableFuture<>();
+        when(transport.post(anyString(), anyString(), anyString(), any())).thenReturn(troca);
+
+        CompletableFuture<PythonPredictionResponse> future = client.getPredictionAsync(PythonPredictionRequest.builder().build())
+                .orTimeout(1, TimeUnit.MILLISECONDS);
+
+        assertInstanceOf(TimeoutException.class, future.handle((r, ex) -> ex).join());
+        assertTrue(troca.isCancelled(), "A troca HTTP deve ser cancelada");
+        assertEquals(0, bulkhead.getEmAndamento());
+    }
+
+    @Test
+    @DisplayName("Deve tratar status HTTP de erro do Python como falha")
+    void deveFalharComStatusDeErro() {
+        when(transport.post(anyString(), anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new PythonHttpResponse(500, null, new byte[0])));
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> client.getPrediction(PythonPredictionRequest.builder().build()));
+        assertTrue(ex.getMessage().contains("HTTP 500"));
+        assertEquals(1, meterRegistry.counter("prediction.python.responses", "caminho", "/predict", "status", "500").count());
+    }
+
+    @Test
+    @DisplayName("Deve passar a enviar CBOR depois que o Python responder em CBOR")
+    void deveNegociarCbor() throws Exception {
+        byte[] cbor = new CBORMapper().writeValueAsBytes(Map.of("label", "atrasado", "proba_atraso", 0.81));
+        when(transport.post(anyString(), anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new PythonHttpResponse(200, PythonWireFormat.CBOR, cbor)));
+        PythonPredictionRequest request = PythonPredictionRequest.builder().build();
+
+        assertEquals(0.81, client.getPrediction(request).getProbaAtraso());
+        assertEquals(0.81, client.getPrediction(request).getProbaAtraso());
+
+        // 1ª chamada em JSON (réplica ainda não anunciou CBOR), 2ª já em CBOR; Accept sempre com CBOR
+        verify(transport).post(anyString(), eq("application/json"), startsWith(PythonWireFormat.CBOR), any());
+        verify(transport).post(anyString(), eq(PythonWireFormat.CBOR), startsWith(PythonWireFormat.CBOR), any());
+    }
+
+    @Test
+    @DisplayName("Deve voltar a JSON e repetir a chamada quando o Python recusar CBOR (415)")
+    void deveVoltarAJsonQuandoCborRecusado() throws Exception {
+        byte[] cbor = new CBORMapper().writeValueAsBytes(Map.of("label", "atrasado", "proba_atraso", 0.81));
+        byte[] json = "{\"label\":\"pontual\",\"proba_atraso\":0.12}".getBytes(StandardCharsets.UTF_8);
+        when(transport.post(anyString(), eq("application/json"), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new PythonHttpResponse(200, PythonWireFormat.CBOR, cbor)))
+                .thenReturn(CompletableFuture.completedFuture(new PythonHttpResponse(200, "application/json", json)));
+        when(transport.post(anyString(), eq(PythonWireFormat.CBOR), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new PythonHttpResponse(415, "application/json", new byte[0])));
+        PythonPredictionRequest request = PythonPredictionRequest.builder().build();
+
+        client.getPrediction(request);
+        PythonPredictionResponse resposta = client.getPrediction(request);
+
+        assertEquals(0.12, resposta.getProbaAtraso());
+        verify(transport, times(1)).post(anyString(), eq(PythonWireFormat.CBOR), anyString(), any());
+        verify(transport, times(2)).post(anyString(), eq("application/json"), anyString(), any());
+        assertEquals(1, meterRegistry.counter("prediction.python.wire.fallbacks").count());
+    }
+}
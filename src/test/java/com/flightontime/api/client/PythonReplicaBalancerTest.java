@@ -0,0 +1,149 @@
+package com.flightontime.api.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightontime.api.client.PythonReplicaBalancer.Replica;
+import com.flightontime.api.dto.PythonPredictionRequest;
+import com.flightontime.api.dto.PythonPredictionResponse;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para PythonReplicaBalancer (balanceamento, ejeção e hedge)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("PythonReplicaBalancer - Testes Unitários")
+class PythonReplicaBalancerTest {
+
+    private static final String A = "http://python-a:5000";
+    private static final String B = "http://python-b:5000";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private PythonReplicaBalancer balancer(boolean hedge) {
+        return new PythonReplicaBalancer(A + ", " + B + "/", 2, Duration.ofMinutes(1),
+                hedge, 0.5, Duration.ofMillis(1), registry);
+    }
+
+    @Test
+    @DisplayName("Deve preferir a réplica com menos chamadas em andamento")
+    void devePreferirReplicaMenosOcupada() {
+        PythonReplicaBalancer balancer = balancer(false);
+        Replica ocupada = balancer.getReplicas().get(0);
+        balancer.iniciar(ocupada);
+        balancer.iniciar(ocupada);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(B, balancer.escolher(null).url());
+        }
+    }
+
+    @Test
+    @DisplayName("Deve ejetar a réplica após falhas seguidas e tirá-la de rotação")
+    void deveEjetarAposFalhasSeguidas() {
+        PythonReplicaBalancer balancer = balancer(false);
+        Replica a = balancer.getReplicas().get(0);
+
+        balancer.iniciar(a);
+        balancer.concluir(a, false, 0);
+        balancer.iniciar(a);
+        balancer.concluir(a, false, 0);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(B, balancer.escolher(null).url());
+        }
+        assertEquals(1, registry.counter("prediction.python.replica.ejections").count());
+        assertEquals(1.0, registry.get("prediction.python.replica.ejected").tag("replica", A).gauge().value());
+    }
+
+    @Test
+    @DisplayName("Deve repetir em outra réplica quando a primeira demora e ficar com a primeira resposta")
+    void deveDispararHedgeQuandoReplicaDemora() {
+        PythonReplicaBalancer balancer = balancer(true);
+        // Alimenta a janela de latências (percentil calculado a cada 64 amostras)
+        for (int i = 0; i < 64; i++) {
+            Replica r = balancer.escolher(null);
+            balancer.iniciar(r);
+            balancer.concluir(r, true, TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(5), balancer.getAtrasoHedgeNanos());
+
+        byte[] corpo = "{\"label\":\"pontual\",\"proba_atraso\":0.12}".getBytes(StandardCharsets.UTF_8);
+        PythonHttpTransport transport = mock(PythonHttpTransport.class);
+        CompletableFuture<PythonHttpResponse> lenta = new CompletableFuture<>();
+        when(transport.post(anyString(), anyString(), anyString(), any())).thenAnswer(inv ->
+                inv.getArgument(0, String.class).startsWith(A)
+                        ? lenta
+                        : CompletableFuture.completedFuture(new PythonHttpResponse(200, "application/json", corpo)));
+        // Garante que a primeira escolha caia em A: B fica mais ocupada
+        balancer.iniciar(balancer.getReplicas().get(1));
+
+        PythonBulkhead bulkhead = new PythonBulkhead(4, 4, Duration.ofMillis(50), registry);
+        PythonPredictionClient client = new PythonPredictionClient(transport,
+                new PythonWireFormat(new ObjectMapper(), "cbor", registry), balancer,
+                CircuitBreakerRegistry.ofDefaults(), registry, bulkhead);
+
+        PythonPredictionResponse resposta = client.getPredictionAsync(PythonPredictionRequest.builder().build())
+                .orTimeout(2, TimeUnit.SECONDS)
+                .join();
+
+        assertEquals(0.12, resposta.getProbaAtraso());
+        verify(transport).post(eq(A + "/predict"), anyString(), anyString(), any());
+        verify(transport).post(eq(B + "/predict"), anyString(), anyString(), any());
+        assertEquals(1, registry.counter("prediction.python.hedge.fired").count());
+        assertEquals(1, registry.counter("prediction.python.hedge.won").count());
+
+        // A chamada perdedora (A) segue no Python: continua ocupando uma vaga até terminar
+        assertEquals(1, bulkhead.getEmAndamento());
+        lenta.complete(new PythonHttpResponse(200, "application/json", corpo));
+        assertEquals(0, bulkhead.getEmAndamento());
+    }
+
+    @Test
+    @DisplayName("Não deve disparar o hedge sem vaga livre no bulkhead")
+    void naoDeveDispararHedgeSemVaga() throws Exception {
+        PythonReplicaBalancer balancer = balancer(true);
+        for (int i = 0; i < 64; i++) {
+            Replica r = balancer.escolher(null);
+            balancer.iniciar(r);
+            balancer.concluir(r, true, TimeUnit.MILLISECONDS.toNanos(5));
+            balancer.concluir(r, true, TimeUnit.MILLISECONDS.toNanos(5));
+        }
+
+        byte[] corpo = "{\"label\":\"pontual\",\"proba_atraso\":0.12}".getBytes(StandardCharsets.UTF_8);
+        PythonHttpTransport transport = mock(PythonHttpTransport.class);
+        CompletableFuture<PythonHttpResponse> lenta = new CompletableFuture<>();
+        when(transport.post(anyString(), anyString(), anyString(), any())).thenReturn(lenta);
+
+        // Uma vaga só: a da chamada original
+        PythonPredictionClient client = new PythonPredictionClient(transport,
+                new PythonWireFormat(new ObjectMapper(), "cbor", registry), balancer,
+                CircuitBreakerRegistry.ofDefaults(), registry,
+                new PythonBulkhead(1, 4, Duration.ofMillis(50), registry));
+
+        CompletableFuture<PythonPredictionResponse> resposta =
+                client.getPredictionAsync(PythonPredictionRequest.builder().build());
+        for (int i = 0; i < 200 && registry.counter("prediction.python.hedge.skipped").count() == 0; i++) {
+            Thread.sleep(5);
+        }
+        lenta.complete(new PythonHttpResponse(200, "application/json", corpo));
+
+        assertEquals(0.12, resposta.orTimeout(2, TimeUnit.SECONDS).join().getProbaAtraso());
+        verify(transport, times(1)).post(anyString(), anyString(), anyString(), any());
+        assertEquals(1, registry.counter("prediction.python.hedge.skipped").count());
+        assertEquals(0, registry.counter("prediction.python.hedge.fired").count());
+    }
+}
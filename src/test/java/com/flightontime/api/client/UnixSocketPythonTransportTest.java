@@ -0,0 +1,193 @@
+package com.flightontime.api.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.URLEncoder;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do transporte HTTP sobre socket Unix (servidor HTTP mínimo no próprio teste)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("UnixSocketPythonTransport - HTTP/1.1 sobre socket Unix")
+class UnixSocketPythonTransportTest {
+
+    @TempDir
+    Path pasta;
+
+    private ServerSocketChannel servidor;
+    private final AtomicInteger conexoesAceitas = new AtomicInteger();
+    // Caminho HTTP → resposta crua (status line + headers + corpo)
+    private final Map<String, Function<String, byte[]>> rotas = new ConcurrentHashMap<>();
+    private UnixSocketPythonTransport transport;
+    private String base;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path socket = pasta.resolve("model.sock");
+        servidor = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        servidor.bind(UnixDomainSocketAddress.of(socket));
+        Thread.ofVirtual().start(this::aceitar);
+        transport = new UnixSocketPythonTransport(4, 300, 1000, true);
+        base = UnixSocketPythonTransport.ESQUEMA + URLEncoder.encode(socket.toString(), StandardCharsets.UTF_8);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        transport.fechar();
+        servidor.close();
+    }
+
+    @Test
+    @DisplayName("Deve reaproveitar a mesma conexão entre chamadas (keep-alive)")
+    void deveReaproveitarConexao() {
+        rotas.put("/predict", corpo -> resposta("200 OK", "application/json", corpo.getBytes(StandardCharsets.UTF_8), null));
+
+        for (int i = 0; i < 3; i++) {
+            PythonHttpResponse resposta = transport.post(base + "/predict", "application/json",
+                    "application/json", ("{\"i\":" + i + "}").getBytes(StandardCharsets.UTF_8)).join();
+            assertEquals(200, resposta.status());
+            assertEquals("{\"i\":" + i + "}", new String(resposta.corpo(), StandardCharsets.UTF_8));
+        }
+        assertEquals(1, conexoesAceitas.get());
+        assertEquals(0, transport.prazosPendentes(), "O prazo de cada troca concluída deve ser cancelado");
+    }
+
+    @Test
+    @DisplayName("Deve ler corpo chunked e descompactar gzip")
+    void deveLerChunkedEGzip() throws IOException {
+        byte[] json = "{\"explain_global\":[{\"feature\":\"num__hora_sin\",\"importance\":245.61}]}"
+                .getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream compactado = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compactado)) {
+            gzip.write(json);
+        }
+        rotas.put("/explain/global", corpo -> resposta("200 OK", "application/cbor; charset=utf-8",
+                compactado.toByteArray(), "gzip"));
+
+        PythonHttpResponse resposta = transport.get(base + "/explain/global", "application/json").join();
+
+        assertEquals("application/cbor", resposta.contentType());
+        assertArrayEquals(json, resposta.corpo());
+    }
+
+    @Test
+    @DisplayName("Deve falhar com timeout quando o Python não responde no prazo")
+    void deveFalharComTimeout() {
+        rotas.put("/predict", corpo -> {
+            try {
+                Thread.sleep(2_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return resposta("200 OK", "application/json", new byte[0], null);
+        });
+
+        CompletionException ex = assertThrows(CompletionException.class, () ->
+                transport.post(base + "/predict", "application/json", "application/json", new byte[0]).join());
+        assertInstanceOf(SocketTimeoutException.class, ex.getCause());
+    }
+
+    @Test
+    @DisplayName("Deve recusar URL que não é http+unix://")
+    void deveRecusarUrlInvalida() {
+        CompletionException ex = assertThrows(CompletionException.class, () ->
+                transport.get("http://localhost:5000/health", "application/json").join());
+        assertInstanceOf(IllegalArgumentException.class, ex.getCause());
+    }
+
+    // Com content-encoding, o corpo vai em chunks de 16 bytes (como o GZipMiddleware em streaming)
+    private static byte[] resposta(String status, String contentType, byte[] corpo, String contentEncoding) {
+        ByteArrayOutputStream http = new ByteArrayOutputStream();
+        String cabecalho = "HTTP/1.1 " + status + "\r\ncontent-type: " + contentType + "\r\n"
+                + (contentEncoding != null ? "content-encoding: " + contentEncoding + "\r\n" : "")
+                + (contentEncoding != null ? "transfer-encoding: chunked\r\n" : "content-length: " + corpo.length + "\r\n")
+                + "\r\n";
+        http.writeBytes(cabecalho.getBytes(StandardCharsets.ISO_8859_1));
+        if (contentEncoding == null) {
+            http.writeBytes(corpo);
+            return http.toByteArray();
+        }
+        for (int i = 0; i < corpo.length; i += 16) {
+            int n = Math.min(16, corpo.length - i);
+            http.writeBytes((Integer.toHexString(n) + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            http.write(corpo, i, n);
+            http.writeBytes("\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        }
+        http.writeBytes("0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        return http.toByteArray();
+    }
+
+    private void aceitar() {
+        try {
+            while (servidor.isOpen()) {
+                SocketChannel cliente = servidor.accept();
+                conexoesAceitas.incrementAndGet();
+                Thread.ofVirtual().start(() -> atender(cliente));
+            }
+        } catch (IOException fechado) {
+            // fim do teste
+        }
+    }
+
+    private void atender(SocketChannel cliente) {
+        try (cliente; var entrada = Channels.newInputStream(cliente)) {
+            while (true) {
+                String linha = lerLinha(entrada);
+                if (linha == null) {
+                    return;
+                }
+                String caminho = linha.split(" ")[1];
+                int tamanho = 0;
+                String cabecalho;
+                while ((cabecalho = lerLinha(entrada)) != null && !cabecalho.isEmpty()) {
+                    if (cabecalho.toLowerCase().startsWith("content-length:")) {
+                        tamanho = Integer.parseInt(cabecalho.substring(15).strip());
+                    }
+                }
+                String corpo = new String(entrada.readNBytes(tamanho), StandardCharsets.UTF_8);
+                cliente.write(ByteBuffer.wrap(rotas.get(caminho).apply(corpo)));
+            }
+        } catch (IOException desconectado) {
+            // cliente fechou a conexão
+        }
+    }
+
+    private static String lerLinha(InputStream entrada) throws IOException {
+        StringBuilder linha = new StringBuilder();
+        int b;
+        while ((b = entrada.read()) != '\n') {
+            if (b < 0) {
+                return linha.isEmpty() ? null : linha.toString();
+            }
+            if (b != '\r') {
+                linha.append((char) b);
+            }
+        }
+        return linha.toString();
+    }
+}
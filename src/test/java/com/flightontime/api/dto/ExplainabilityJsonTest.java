@@ -0,0 +1,94 @@
+package com.flightontime.api.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do contrato JSON de FeatureImportances e LocalExplanation
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("Explicabilidade tipada - Contrato JSON")
+class ExplainabilityJsonTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final String RESPOSTA_PYTHON = """
+            {
+              "prediction": 1,
+              "label": "atrasado",
+              "proba_atraso": 0.72,
+              "explain_global": [
+                {"feature": "cat__codigo_tipo_linha_N", "importance": 3253.21},
+                {"feature": "num__hora_sin", "importance": 245.61, "extra": {"ignorado": true}}
+              ],
+              "explain_local": {
+                "top_features": [
+                  {"feature": "num__mes_ano", "contribution": 0.57, "direction": "increase", "value": 1.68},
+                  {"feature": "num__hora_sin", "contribution": -0.21, "direction": "decrease", "value": null}
+                ],
+                "bias": -0.34
+              }
+            }
+            """;
+
+    @Test
+    @DisplayName("Deve ler a resposta do Python em arrays paralelos")
+    void deveLerRespostaDoPython() throws Exception {
+        PythonPredictionResponse resposta = objectMapper.readValue(RESPOSTA_PYTHON, PythonPredictionResponse.class);
+
+        FeatureImportances global = resposta.getExplainGlobal();
+        assertArrayEquals(new String[]{"cat__codigo_tipo_linha_N", "num__hora_sin"}, global.features());
+        assertArrayEquals(new double[]{3253.21, 245.61}, global.importancias());
+
+        LocalExplanation local = resposta.getExplainLocal();
+        assertArrayEquals(new String[]{"num__mes_ano", "num__hora_sin"}, local.features());
+        assertArrayEquals(new double[]{0.57, -0.21}, local.contribuicoes());
+        assertTrue(Double.isNaN(local.valores()[1]));
+        assertEquals(-0.34, local.bias());
+        // Mesmo nome de feature nas duas explicações = mesma String em memória
+        assertSame(global.features()[1], local.features()[1]);
+    }
+
+    @Test
+    @DisplayName("Deve escrever o mesmo contrato que o front-end já consome")
+    void deveEscreverMesmoContrato() throws Exception {
+        PythonPredictionResponse resposta = objectMapper.readValue(RESPOSTA_PYTHON, PythonPredictionResponse.class);
+        FlightPredictionResponse previsao = new FlightPredictionResponse("Atrasado", 0.72,
+                resposta.getExplainGlobal(), resposta.getExplainLocal());
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsBytes(previsao));
+
+        JsonNode global = json.get("explicabilidade_global");
+        assertEquals(2, global.size());
+        assertEquals("num__hora_sin", global.get(1).get("feature").asText());
+        assertEquals(245.61, global.get(1).get("importance").asDouble());
+        assertNull(global.get(1).get("extra"));
+
+        JsonNode top = json.get("explicabilidade_local").get("top_features");
+        assertEquals("increase", top.get(0).get("direction").asText());
+        assertEquals("decrease", top.get(1).get("direction").asText());
+        assertTrue(top.get(1).get("value").isNull());
+        assertEquals(-0.34, json.get("explicabilidade_local").get("bias").asDouble());
+
+        assertEquals(previsao, objectMapper.readValue(objectMapper.writeValueAsBytes(previsao), FlightPredictionResponse.class));
+    }
+
+    @Test
+    @DisplayName("Deve recortar a explicação local nas topk primeiras features")
+    void deveRecortarExplicacaoLocal() {
+        LocalExplanation local = new LocalExplanation(new String[]{"a", "b", "c"},
+                new double[]{0.3, -0.2, 0.1}, new double[]{1, 2, 3}, -0.5);
+
+        LocalExplanation duas = local.primeiras(2);
+
+        assertArrayEquals(new String[]{"a", "b"}, duas.features());
+        assertArrayEquals(new double[]{0.3, -0.2}, duas.contribuicoes());
+        assertEquals(-0.5, duas.bias());
+        assertSame(local, local.primeiras(8));
+    }
+}
@@ -41,6 +41,20 @@ class GlobalExceptionHandlerTest {
         assertNotNull(body.getTimestamp());
     }
 
+    @Test
+    @DisplayName("Deve retornar 429 com Retry-After para lote sem saldo de rate limit")
+    void deveTratarRateLimitDoLote() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRequestURI("/api/v1/predict/batch");
+
+        ResponseEntity<ErrorResponse> response = handler.handleRateLimitExceededException(
+                new RateLimitExceededException("Rate limit excedido", 12), request);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("12", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("Too Many Requests", response.getBody().getError());
+    }
+
     @Test
     @DisplayName("Deve tratar status 404 - Not Found com NoHandlerFoundException")
     void deveTratarResourceNotFound() {
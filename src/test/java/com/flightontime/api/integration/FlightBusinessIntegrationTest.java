@@ -4,13 +4,18 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.flightontime.api.dto.FlightPredictionRequest;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalDateTime;
+import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -24,6 +29,7 @@ class FlightBusinessIntegrationTest {
 
     @Autowired private MockMvc mockMvc;
     @Autowired private ObjectMapper objectMapper;
+    @Autowired private MeterRegistry meterRegistry;
 
     @Test
     @DisplayName("Site Todo: Deve processar previsão com sucesso e aplicar regras de horário")
@@ -34,11 +40,42 @@ class FlightBusinessIntegrationTest {
                 .dataPartida(LocalDateTime.now().plusDays(2))
                 .distanciaKm(400).build();
 
-        mockMvc.perform(post("/api/predict")
+        mockMvc.perform(post("/api/v1/predict")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.previsao").exists())
-                .andExpect(jsonPath("$.probabilidade").exists());
+                .andExpect(jsonPath("$.probabilidade").exists())
+                .andExpect(header().string("Server-Timing", containsString("mapeamento;dur=")));
+
+        // Cache "predictions" com recordStats: acertos/falhas e remoções no registro de métricas
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", "predictions").tag("result", "miss")
+                .functionCounter().count() >= 1);
+        assertNotNull(meterRegistry.get("cache.evictions").tag("cache", "predictions").functionCounter());
+    }
+
+    @Test
+    @DisplayName("Lote: Deve devolver resultados na ordem e isolar o item inválido")
+    void deveProcessarLoteComErroIsolado() throws Exception {
+        FlightPredictionRequest valido = FlightPredictionRequest.builder()
+                .companhia("G3")
+                .origem("GRU").destino("GIG")
+                .dataPartida(LocalDateTime.now().plusDays(2))
+                .distanciaKm(400).build();
+        FlightPredictionRequest invalido = FlightPredictionRequest.builder()
+                .companhia("G3")
+                .origem("GRU").destino("GRU")
+                .dataPartida(LocalDateTime.now().plusDays(2))
+                .distanciaKm(400).build();
+
+        mockMvc.perform(post("/api/v1/predict/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(valido, invalido, valido))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.falhas").value(1))
+                .andExpect(jsonPath("$.resultados[0].status").value("OK"))
+                .andExpect(jsonPath("$.resultados[1].status").value("ERRO"))
+                .andExpect(jsonPath("$.resultados[2].resultado.previsao").exists());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+package com.flightontime.api.interceptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para AdaptiveConcurrencyLimiter
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("AdaptiveConcurrencyLimiter - Testes Unitários")
+class AdaptiveConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private AdaptiveConcurrencyLimiter limiter(int inicial) {
+        return new AdaptiveConcurrencyLimiter(inicial, 2, 100, 1.5, 0.5, 10, 600, registry);
+    }
+
+    /** Simula janelas com o limite todo ocupado e a mesma latência para todas as requisições */
+    private void janelasSaturadas(AdaptiveConcurrencyLimiter limiter, int janelas, long rttMs) {
+        for (int j = 0; j < janelas; j++) {
+            int vagas = limiter.getLimite();
+            for (int i = 0; i < vagas; i++) {
+                assertTrue(limiter.tentarAdquirir());
+            }
+            for (int i = 0; i < vagas; i++) {
+                limiter.liberar(TimeUnit.MILLISECONDS.toNanos(rttMs));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar acima do limite e contar a rejeição")
+    void deveRejeitarAcimaDoLimite() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2);
+
+        assertTrue(limiter.tentarAdquirir());
+        assertTrue(limiter.tentarAdquirir());
+        assertFalse(limiter.tentarAdquirir());
+        assertEquals(1, registry.counter("prediction.concurrency.rejected").count());
+
+        limiter.liberar(TimeUnit.MILLISECONDS.toNanos(10));
+        assertTrue(limiter.tentarAdquirir());
+        assertEquals(2, registry.get("prediction.concurrency.limit").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Deve aumentar o limite com latência estável e reduzir quando a latência sobe")
+    void deveAdaptarLimitePelaLatencia() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+        janelasSaturadas(limiter, 5, 20);
+        int aposLatenciaEstavel = limiter.getLimite();
+        assertTrue(aposLatenciaEstavel > 10, "Limite deveria crescer: " + aposLatenciaEstavel);
+
+        janelasSaturadas(limiter, 5, 200);
+        assertTrue(limiter.getLimite() < aposLatenciaEstavel,
+                "Limite deveria cair com latência 10x maior: " + limiter.getLimite());
+    }
+
+    @Test
+    @DisplayName("Não deve crescer o limite quando a demanda é baixa")
+    void naoDeveCrescerSemDemanda() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tentarAdquirir());
+            limiter.liberar(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+
+        assertEquals(20, limiter.getLimite());
+        assertEquals(0, limiter.getEmAndamento());
+    }
+}
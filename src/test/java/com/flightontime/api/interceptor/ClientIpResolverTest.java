@@ -0,0 +1,74 @@
+package com.flightontime.api.interceptor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para ClientIpResolver (X-Forwarded-For e proxies confiáveis)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("ClientIpResolver - IP do cliente atrás de proxies")
+class ClientIpResolverTest {
+
+    private final ClientIpResolver resolver = new ClientIpResolver(
+            new String[]{"127.0.0.0/8", "::1/128", "10.0.0.0/8"});
+
+    @Test
+    @DisplayName("Deve ignorar o X-Forwarded-For de conexões que não vêm de proxy confiável")
+    void deveIgnorarHeaderDeClienteDireto() {
+        assertEquals("203.0.113.9", resolver.resolver("203.0.113.9", "1.2.3.4"));
+        assertEquals("127.0.0.1", resolver.resolver("127.0.0.1", null));
+    }
+
+    @Test
+    @DisplayName("Deve pular os proxies confiáveis da direita para a esquerda")
+    void devePularProxiesConfiaveis() {
+        // 6.6.6.6 foi escrito pelo cliente: não é o endereço que os proxies viram
+        assertEquals("198.51.100.7", resolver.resolver("127.0.0.1", "6.6.6.6, 198.51.100.7, 10.0.0.5"));
+        // Cliente dentro da rede interna: fica o salto mais à esquerda
+        assertEquals("10.1.1.1", resolver.resolver("127.0.0.1", "10.1.1.1,10.0.0.5"));
+    }
+
+    @Test
+    @DisplayName("Deve parar no último proxy válido quando o header tiver lixo")
+    void deveIgnorarEntradasInvalidas() {
+        assertEquals("10.0.0.5", resolver.resolver("127.0.0.1", "garbage, 10.0.0.5"));
+        assertEquals("127.0.0.1", resolver.resolver("127.0.0.1", "256.1.1.1"));
+        assertEquals("127.0.0.1", resolver.resolver("127.0.0.1", ""));
+    }
+
+    @Test
+    @DisplayName("Deve agrupar IPv6 por /64 e tratar IPv4 mapeado como IPv4")
+    void deveNormalizarIpv6() {
+        assertEquals("2001:db8:1:2::/64", resolver.resolver("::1", "2001:db8:1:2:aaaa::1"));
+        assertEquals("2001:db8:1:2::/64", resolver.resolver("::1", "2001:db8:1:2:bbbb:cccc:dddd:1"));
+        assertEquals("198.51.100.7", resolver.resolver("::ffff:127.0.0.1", "::ffff:198.51.100.7"));
+    }
+
+    @Test
+    @DisplayName("Deve validar IPv4 e IPv6 sem aceitar formatos ambíguos")
+    void deveValidarEnderecos() {
+        assertEquals(0x01020304L, ClientIpResolver.ipv4("1.2.3.4", 0, 7));
+        assertEquals(-1, ClientIpResolver.ipv4("1.2.3", 0, 5));
+        assertEquals(-1, ClientIpResolver.ipv4("1234.2.3.4", 0, 10));
+
+        long[] endereco = new long[2];
+        assertTrue(ClientIpResolver.ipv6("fe80::", 0, 6, endereco));
+        assertEquals(0xfe80000000000000L, endereco[0]);
+        assertTrue(ClientIpResolver.ipv6("1:2:3:4:5:6:1.2.3.4", 0, 19, endereco));
+        assertEquals(0x0005000601020304L, endereco[1]);
+        assertFalse(ClientIpResolver.ipv6("1:::2", 0, 5, endereco));
+        assertFalse(ClientIpResolver.ipv6("1::2:3:4:5:6:7:8", 0, 16, endereco));
+        assertFalse(ClientIpResolver.ipv6("fe80::1%eth0", 0, 12, endereco));
+    }
+
+    @Test
+    @DisplayName("Deve recusar proxy confiável mal configurado na inicialização")
+    void deveRecusarCidrInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> new ClientIpResolver(new String[]{"10.0.0.0/33"}));
+        assertThrows(IllegalArgumentException.class, () -> new ClientIpResolver(new String[]{"proxy.interno"}));
+    }
+}
@@ -0,0 +1,105 @@
+package com.flightontime.api.interceptor;
+
+import com.flightontime.api.config.RateLimitConfig;
+import io.lettuce.core.RedisClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do rate limit compartilhado via Redis (InProcessRedisServer, sem rede externa)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("RateLimitBucketStore - Modo Redis compartilhado entre réplicas")
+class DistributedRateLimitTest {
+
+    private static final long CAPACIDADE = 100;
+    private static final long PRE_FETCH = 10;
+    private static final RateLimitPlan PLANO = new RateLimitPlan("teste", CAPACIDADE, Duration.ofMinutes(1));
+
+    private final RateLimitConfig config = new RateLimitConfig();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private InProcessRedisServer redis;
+    private RedisClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = new InProcessRedisServer();
+        client = config.rateLimitRedisClient(redis.uri(), Duration.ofSeconds(1), Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        redis.fechar();
+    }
+
+    @Test
+    @DisplayName("Deve dividir o limite entre réplicas com poucas idas ao Redis")
+    void deveCompartilharLimiteEntreReplicas() {
+        RateLimitBucketStore replicaA = replica();
+        RateLimitBucketStore replicaB = replica();
+
+        int permitidas = 0;
+        int requisicoes = 400;
+        for (int i = 0; i < requisicoes; i++) {
+            RateLimitBucketStore replica = i % 2 == 0 ? replicaA : replicaB;
+            if (replica.tentarConsumir("198.51.100.7", PLANO, 1).isConsumed()) {
+                permitidas++;
+            }
+        }
+
+        // Local: 2 x capacidade. Compartilhado: capacidade + no máximo o pre-fetch de cada réplica
+        assertTrue(permitidas >= CAPACIDADE, "permitidas=" + permitidas);
+        assertTrue(permitidas <= CAPACIDADE + 2 * PRE_FETCH, "permitidas=" + permitidas);
+        assertTrue(redis.comandos() < requisicoes / 2, "comandos=" + redis.comandos());
+        assertEquals(0, registry.get("prediction.ratelimit.redis.errors").counter().count());
+    }
+
+    @Test
+    @DisplayName("Deve cair para buckets locais quando o Redis sair do ar")
+    void deveUsarBucketsLocaisSemRedis() {
+        RateLimitBucketStore store = replica();
+        assertTrue(store.tentarConsumir("198.51.100.7", PLANO, 1).isConsumed());
+
+        redis.fechar();
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(store.tentarConsumir("198.51.100.7", PLANO, 1).isConsumed());
+        }
+        assertTrue(registry.get("prediction.ratelimit.redis.errors").counter().count() > 0);
+    }
+
+    @Test
+    @DisplayName("Deve subir com o Redis fora do ar e passar a compartilhar quando ele voltar")
+    void deveSubirSemRedisEConectarDepois() throws Exception {
+        int porta = redis.porta();
+        redis.fechar();
+
+        RateLimitBucketStore store = replica();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(store.tentarConsumir("198.51.100.7", PLANO, 1).isConsumed());
+        }
+        assertEquals(CAPACIDADE - 5, store.disponiveis("198.51.100.7").orElseThrow());
+        assertTrue(registry.get("prediction.ratelimit.redis.errors").counter().count() > 0);
+
+        redis = new InProcessRedisServer(porta);
+        store.tentarConsumir("198.51.100.7", PLANO, 1);
+        assertTrue(redis.comandos() > 0, "Deve conectar ao Redis quando ele voltar");
+    }
+
+    private RateLimitBucketStore replica() {
+        return new RateLimitBucketStore(registry,
+                Optional.of(config.rateLimitRedisConnector(client, "teste:ratelimit:", Duration.ZERO)),
+                1_000, Duration.ofMinutes(1),
+                PRE_FETCH, Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,283 @@
+package com.flightontime.api.interceptor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor RESP2 mínimo para os testes do rate limit distribuído (sem Redis/Docker)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * Só o que o Lettuce e o LettuceBasedProxyManager (compare-and-swap) do Bucket4j usam:
+ * handshake, PING, GET, SET [NX] [PX], PSETEX, DEL e os scripts EVAL do proxy manager,
+ * reconhecidos pelo conteúdo. Comandos executam um por vez, como no Redis.
+ */
+class InProcessRedisServer implements AutoCloseable {
+
+    private record Valor(byte[] dados, long expiraEm) {
+        boolean expirado(long agora) {
+            return expiraEm > 0 && agora >= expiraEm;
+        }
+    }
+
+    private final ServerSocket servidor;
+    private final Map<String, Valor> dados = new HashMap<>();
+    private final Set<Socket> conexoes = ConcurrentHashMap.newKeySet();
+    private final AtomicLong comandos = new AtomicLong();
+
+    InProcessRedisServer() throws IOException {
+        this(0);
+    }
+
+    /**
+     * @param porta 0 = porta livre qualquer
+     */
+    InProcessRedisServer(int porta) throws IOException {
+        servidor = new ServerSocket();
+        servidor.setReuseAddress(true);
+        servidor.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), porta), 50);
+        Thread.ofVirtual().name("redis-teste-accept").start(this::aceitar);
+    }
+
+    String uri() {
+        return "redis://127.0.0.1:" + porta();
+    }
+
+    int porta() {
+        return servidor.getLocalPort();
+    }
+
+    /**
+     * Comandos de dados recebidos (GET, SET, EVAL...), sem o handshake
+     */
+    long comandos() {
+        return comandos.get();
+    }
+
+    /**
+     * Derruba o servidor e as conexões abertas (simula o Redis fora do ar)
+     */
+    void fechar() {
+        try {
+            servidor.close();
+        } catch (IOException ignored) {
+            // já fechado
+        }
+        for (Socket conexao : conexoes) {
+            try {
+                conexao.close();
+            } catch (IOException ignored) {
+                // já fechada
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        fechar();
+    }
+
+    private void aceitar() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket conexao = servidor.accept();
+                conexoes.add(conexao);
+                Thread.ofVirtual().name("redis-teste-conexao").start(() -> atender(conexao));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void atender(Socket conexao) {
+        try (conexao;
+             InputStream in = new BufferedInputStream(conexao.getInputStream());
+             OutputStream out = new BufferedOutputStream(conexao.getOutputStream())) {
+            while (true) {
+                List<byte[]> comando = lerComando(in);
+                if (comando == null) {
+                    return;
+                }
+                executar(comando, out);
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // conexão encerrada
+        } finally {
+            conexoes.remove(conexao);
+        }
+    }
+
+    private synchronized void executar(List<byte[]> comando, OutputStream out) throws IOException {
+        String nome = texto(comando.get(0)).toUpperCase(Locale.ROOT);
+        long agora = System.currentTimeMillis();
+        switch (nome) {
+            case "HELLO" -> erro(out, "ERR unknown command 'HELLO'");
+            case "CLIENT", "SELECT" -> simples(out, "OK");
+            case "PING" -> simples(out, "PONG");
+            case "GET" -> {
+                comandos.incrementAndGet();
+                Valor valor = ler(texto(comando.get(1)), agora);
+                bulk(out, valor == null ? null : valor.dados());
+            }
+            case "SET" -> {
+                comandos.incrementAndGet();
+                String chave = texto(comando.get(1));
+                boolean nx = false;
+                long px = 0;
+                for (int i = 3; i < comando.size(); i++) {
+                    String opcao = texto(comando.get(i)).toUpperCase(Locale.ROOT);
+                    if (opcao.equals("NX")) {
+                        nx = true;
+                    } else if (opcao.equals("PX")) {
+                        px = Long.parseLong(texto(comando.get(++i)));
+                    }
+                }
+                if (nx && ler(chave, agora) != null) {
+                    bulk(out, null);
+                } else {
+                    dados.put(chave, new Valor(comando.get(2), px > 0 ? agora + px : 0));
+                    simples(out, "OK");
+                }
+            }
+            case "PSETEX" -> {
+                comandos.incrementAndGet();
+                long px = Long.parseLong(texto(comando.get(2)));
+                dados.put(texto(comando.get(1)), new Valor(comando.get(3), agora + px));
+                simples(out, "OK");
+            }
+            case "DEL" -> {
+                comandos.incrementAndGet();
+                long removidas = 0;
+                for (int i = 1; i < comando.size(); i++) {
+                    if (dados.remove(texto(comando.get(i))) != null) {
+                        removidas++;
+                    }
+                }
+                inteiro(out, removidas);
+            }
+            case "EVAL" -> {
+                comandos.incrementAndGet();
+                inteiro(out, script(comando, agora) ? 1 : 0);
+            }
+            default -> erro(out, "ERR unknown command '" + nome + "'");
+        }
+    }
+
+    /**
+     * Scripts do LettuceBasedProxyManager: criação (SET NX, com ou sem PX) e
+     * compare-and-swap (GET == esperado, então SET/PSETEX)
+     */
+    private boolean script(List<byte[]> comando, long agora) {
+        String script = texto(comando.get(1));
+        int numeroChaves = Integer.parseInt(texto(comando.get(2)));
+        String chave = texto(comando.get(3));
+        List<byte[]> argv = comando.subList(3 + numeroChaves, comando.size());
+
+        if (script.contains("'nx'")) {
+            if (ler(chave, agora) != null) {
+                return false;
+            }
+            long px = script.contains("'px'") ? Long.parseLong(texto(argv.get(1))) : 0;
+            dados.put(chave, new Valor(argv.get(0), px > 0 ? agora + px : 0));
+            return true;
+        }
+        Valor atual = ler(chave, agora);
+        if (atual == null || !Arrays.equals(atual.dados(), argv.get(0))) {
+            return false;
+        }
+        long px = script.contains("psetex") ? Long.parseLong(texto(argv.get(2))) : 0;
+        dados.put(chave, new Valor(argv.get(1), px > 0 ? agora + px : 0));
+        return true;
+    }
+
+    private Valor ler(String chave, long agora) {
+        Valor valor = dados.get(chave);
+        if (valor != null && valor.expirado(agora)) {
+            dados.remove(chave);
+            return null;
+        }
+        return valor;
+    }
+
+    // ===== RESP2 =====
+
+    private static List<byte[]> lerComando(InputStream in) throws IOException {
+        int tipo = in.read();
+        if (tipo == -1) {
+            return null;
+        }
+        if (tipo != '*') {
+            throw new IOException("Comando inline não suportado");
+        }
+        int tamanho = Integer.parseInt(lerLinha(in));
+        byte[][] partes = new byte[tamanho][];
+        for (int i = 0; i < tamanho; i++) {
+            if (in.read() != '$') {
+                throw new IOException("Esperado bulk string");
+            }
+            int bytes = Integer.parseInt(lerLinha(in));
+            partes[i] = in.readNBytes(bytes);
+            in.readNBytes(2);
+        }
+        return List.of(partes);
+    }
+
+    private static String lerLinha(InputStream in) throws IOException {
+        StringBuilder linha = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c == -1) {
+                throw new IOException("Conexão encerrada");
+            }
+            linha.append((char) c);
+        }
+        in.read();
+        return linha.toString();
+    }
+
+    private static String texto(byte[] bytes) {
+        // ISO-8859-1: chaves binárias continuam distintas
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void simples(OutputStream out, String valor) throws IOException {
+        out.write(('+' + valor + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void erro(OutputStream out, String mensagem) throws IOException {
+        out.write(('-' + mensagem + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void inteiro(OutputStream out, long valor) throws IOException {
+        out.write((":" + valor + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void bulk(OutputStream out, byte[] valor) throws IOException {
+        if (valor == null) {
+            out.write("$-1\r\n".getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        out.write(("$" + valor.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(valor);
+        out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,69 @@
+package com.flightontime.api.interceptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para RateLimitBucketStore (buckets com memória limitada)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("RateLimitBucketStore - Buckets por cliente")
+class RateLimitBucketStoreTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Deve manter o mesmo bucket por cliente e limitar as requisições")
+    void deveLimitarPorCliente() {
+        RateLimitBucketStore store = local(100);
+        RateLimitPlan plano = new RateLimitPlan("teste", 2, Duration.ofMinutes(1));
+
+        assertTrue(store.tentarConsumir("198.51.100.7", plano, 1).isConsumed());
+        assertTrue(store.tentarConsumir("198.51.100.7", plano, 1).isConsumed());
+        assertFalse(store.tentarConsumir("198.51.100.7", plano, 1).isConsumed());
+        assertTrue(store.tentarConsumir("203.0.113.9", plano, 1).isConsumed());
+        assertEquals(2, store.tamanho());
+    }
+
+    @Test
+    @DisplayName("Deve cobrar além do saldo e deixar o cliente em débito")
+    void deveCobrarAlemDoSaldo() {
+        RateLimitBucketStore store = local(100);
+        RateLimitPlan plano = new RateLimitPlan("teste", 10, Duration.ofMinutes(1));
+
+        assertEquals(9, store.tentarConsumir("198.51.100.7", plano, 1).getRemainingTokens());
+        store.cobrar("198.51.100.7", plano, 15);
+
+        assertEquals(-6, store.disponiveis("198.51.100.7").orElseThrow());
+        assertFalse(store.tentarConsumir("198.51.100.7", plano, 1).isConsumed());
+        assertTrue(store.disponiveis("203.0.113.9").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve respeitar o teto de clientes e contar as remoções")
+    void deveRespeitarTetoDeClientes() {
+        RateLimitBucketStore store = local(50);
+        RateLimitPlan plano = new RateLimitPlan("teste", 100, Duration.ofMinutes(1));
+
+        // Varredura de IPs falsos, cada um visto uma vez
+        for (int i = 0; i < 1_000; i++) {
+            store.tentarConsumir("10.0." + (i / 256) + "." + (i % 256), plano, 1);
+        }
+
+        assertTrue(store.tamanho() <= 50);
+        assertEquals(store.tamanho(), registry.get("prediction.ratelimit.buckets").gauge().value());
+        assertTrue(registry.get("prediction.ratelimit.evictions").tag("motivo", "tamanho").counter().count() >= 950);
+    }
+
+    private RateLimitBucketStore local(long maxClientes) {
+        return new RateLimitBucketStore(registry, Optional.empty(), maxClientes, Duration.ofMinutes(1),
+                10, Duration.ofMillis(500));
+    }
+}
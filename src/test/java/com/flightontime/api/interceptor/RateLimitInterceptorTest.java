@@ -0,0 +1,142 @@
+package com.flightontime.api.interceptor;
+
+import com.flightontime.api.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para RateLimitInterceptor (planos por API key e custo por requisição)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("RateLimitInterceptor - Planos e custo em tokens")
+class RateLimitInterceptorTest {
+
+    private final RateLimitPlans planos = new RateLimitPlans(10, Duration.ofMinutes(1),
+            new String[]{"parceiro:100:1m"}, new String[]{"acme:parceiro:segredo-acme"}, Duration.ofMinutes(1));
+    private final RateLimitBucketStore buckets = new RateLimitBucketStore(new SimpleMeterRegistry(), Optional.empty(),
+            1_000, Duration.ofMinutes(1), 10, Duration.ofMillis(500));
+    private final RateLimitInterceptor interceptor = new RateLimitInterceptor(
+            new ClientIpResolver(new String[]{"127.0.0.0/8"}), buckets, planos, 1, 5, 20);
+
+    @Test
+    @DisplayName("Deve usar o plano anônimo por IP e informar o saldo nos headers")
+    void deveLimitarAnonimoPorIp() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(requisicao("/api/v1/predict"), response, new Object()));
+
+        assertEquals("10", response.getHeader(RateLimitInterceptor.X_RATELIMIT_LIMIT));
+        assertEquals("9", response.getHeader(RateLimitInterceptor.X_RATELIMIT_REMAINING));
+        assertEquals("60", response.getHeader(RateLimitInterceptor.X_RATELIMIT_RESET));
+        assertEquals(9, buckets.disponiveis("198.51.100.7").orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Deve cobrar a explicabilidade na entrada e recusar sem saldo")
+    void deveCobrarExplicabilidade() {
+        MockHttpServletRequest explicacao = requisicao("/api/v1/predict");
+        explicacao.setParameter("explicabilidade_local", "5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Plano anônimo tem 10 tokens; a explicação custa 20
+        assertFalse(interceptor.preHandle(explicacao, response, new Object()));
+        assertEquals(429, response.getStatus());
+        assertNotNull(response.getHeader("Retry-After"));
+        assertEquals(10, buckets.disponiveis("198.51.100.7").orElseThrow());
+
+        MockHttpServletRequest parceiro = requisicao("/api/v1/predict/explain");
+        parceiro.addHeader(RateLimitInterceptor.X_API_KEY, "segredo-acme");
+        assertTrue(interceptor.preHandle(parceiro, new MockHttpServletResponse(), new Object()));
+        assertEquals(80, buckets.disponiveis("api:acme").orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Deve reservar o custo máximo do lote e devolver o que não foi ao modelo")
+    void deveReservarLoteEDevolverSobra() throws Exception {
+        MockHttpServletRequest request = requisicao("/api/v1/predict/batch");
+        request.addHeader(RateLimitInterceptor.X_API_KEY, "segredo-acme");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, new Object()));
+        // Lote de 4 itens: reserva 4 x 5 menos o 1 pago na entrada
+        RateLimitCost conta = RateLimitCost.de(request);
+        conta.reservarPrevisoes(4);
+        assertEquals(100 - 1 - 19, buckets.disponiveis("api:acme").orElseThrow());
+        assertEquals("80", response.getHeader(RateLimitInterceptor.X_RATELIMIT_REMAINING));
+
+        // 3 além do pago na entrada, 2 respondidos pelo modelo (os outros do cache/fallback)
+        conta.registrarPrevisoes(3);
+        conta.registrarChamadaAoModelo();
+        conta.registrarChamadaAoModelo();
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        // 1 na entrada + 3 x 1 + 2 x (5 - 1)
+        assertEquals(100 - 1 - 3 - 8, buckets.disponiveis("api:acme").orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Deve recusar o lote sem saldo para a reserva, sem consumir nada")
+    void deveRecusarLoteSemSaldo() {
+        MockHttpServletRequest request = requisicao("/api/v1/predict/batch");
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), new Object()));
+        RateLimitCost conta = RateLimitCost.de(request);
+
+        // Plano anônimo: 9 tokens após a entrada; 3 itens reservam 3 x 5 - 1 = 14
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class, () -> conta.reservarPrevisoes(3));
+        assertTrue(ex.getSegundosParaNovaTentativa() >= 1);
+        assertEquals(9, buckets.disponiveis("198.51.100.7").orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Deve cobrar ao final a resposta do modelo de uma previsão única, mesmo sem saldo")
+    void deveCobrarModeloDaPrevisaoUnica() throws Exception {
+        MockHttpServletRequest request = requisicao("/api/v1/predict");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, new Object()));
+        RateLimitCost.de(request).registrarChamadaAoModelo();
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        assertEquals(10 - 5, buckets.disponiveis("198.51.100.7").orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Deve recusar API key desconhecida sem consumir tokens")
+    void deveRecusarChaveDesconhecida() {
+        MockHttpServletRequest request = requisicao("/api/v1/predict");
+        request.addHeader(RateLimitInterceptor.X_API_KEY, "chave-falsa");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request, response, new Object()));
+        assertEquals(401, response.getStatus());
+        assertTrue(buckets.disponiveis("198.51.100.7").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve recusar plano ou API key mal configurados na inicialização")
+    void deveRecusarConfiguracaoInvalida() {
+        Duration minuto = Duration.ofMinutes(1);
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitPlans(10, minuto,
+                new String[]{"parceiro:0:1m"}, new String[0], minuto));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitPlans(10, minuto,
+                new String[]{"parceiro:100"}, new String[0], minuto));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitPlans(10, minuto,
+                new String[0], new String[]{"acme:ouro:segredo"}, minuto));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitPlans(10, minuto,
+                new String[0], new String[]{"acme:anonimo:x", "outro:anonimo:x"}, minuto));
+    }
+
+    private static MockHttpServletRequest requisicao(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setRemoteAddr("198.51.100.7");
+        return request;
+    }
+}
@@ -0,0 +1,148 @@
+package com.flightontime.api.scoring;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Testes unitários do scorer Java
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ *
+ * modelo_sintetico.json é um modelo pequeno escrito à mão no formato do
+ * export_modelo_java.py (NÃO vem do flightontime_pipeline.pkl); casos_sintetico.json
+ * traz as probabilidades esperadas calculadas a partir dele. Servem para testar o
+ * encoder e as árvores, não a equivalência com o Python.
+ *
+ * Equivalência com o modelo real: rodar o exportador sobre o .pkl e copiar
+ * flightontime_model.json e flightontime_equivalence.json para src/test/resources/scoring;
+ * sem eles o teste de equivalência é ignorado.
+ */
+@DisplayName("InJvmFlightScorer - Testes Unitários")
+class InJvmFlightScorerTest {
+
+    private static final DateTimeFormatter FORMATO_PYTHON = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private InJvmFlightScorer scorer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        scorer = carregar("modelo_sintetico.json");
+    }
+
+    @Test
+    @DisplayName("Deve calcular as probabilidades esperadas do modelo sintético")
+    void deveCalcularProbabilidadesDoModeloSintetico() throws IOException {
+        assertCasos(scorer, "casos_sintetico.json");
+    }
+
+    @Test
+    @DisplayName("Deve reproduzir a proba_atraso do Python para o modelo exportado do .pkl")
+    void deveReproduzirProbabilidadesDoPython() throws IOException {
+        assumeTrue(InJvmFlightScorerTest.class.getResource("/scoring/flightontime_equivalence.json") != null,
+                "Sem flightontime_model.json/flightontime_equivalence.json gerados pelo export_modelo_java.py");
+
+        assertCasos(carregar("flightontime_model.json"), "flightontime_equivalence.json");
+    }
+
+    @Test
+    @DisplayName("Deve tratar companhia desconhecida como a média global e sem coluna de one-hot")
+    void deveTratarCompanhiaDesconhecida() {
+        ScoringInput desconhecida = new ScoringInput(LocalDateTime.of(2025, 7, 5, 0, 10), "XXX", "SBPA", "SBGR", "N");
+        ScoringInput semCompanhia = new ScoringInput(LocalDateTime.of(2025, 7, 5, 0, 10), null, "SBPA", "SBGR", "N");
+
+        assertEquals(scorer.probabilidade(desconhecida), scorer.probabilidade(semCompanhia), 0.0);
+    }
+
+    @Test
+    @DisplayName("Deve recusar arquivo com formato desconhecido")
+    void deveRecusarFormatoDesconhecido() throws IOException {
+        ObjectNode modelo = (ObjectNode) lerModelo();
+        modelo.put("formato", "flightontime-xgb-99");
+
+        assertThrows(IllegalStateException.class, () -> carregar(modelo));
+    }
+
+    @Test
+    @DisplayName("Deve recusar feature que o Java não sabe calcular")
+    void deveRecusarFeatureNaoSuportada() throws IOException {
+        ObjectNode modelo = (ObjectNode) lerModelo();
+        ((ObjectNode) modelo.get("numericas").get(0)).put("nome", "temperatura");
+
+        IllegalStateException erro = assertThrows(IllegalStateException.class, () -> carregar(modelo));
+        assertTrue(erro.getMessage().contains("temperatura"));
+    }
+
+    @Test
+    @DisplayName("Deve recusar árvore com ciclo (filho apontando para nó anterior)")
+    void deveRecusarArvoreComCiclo() throws IOException {
+        ObjectNode modelo = (ObjectNode) lerModelo();
+        ((ArrayNode) modelo.get("arvores").get(0).get("sim")).set(2, IntNode.valueOf(0));
+
+        assertThrows(IllegalStateException.class, () -> carregar(modelo));
+    }
+
+    private void assertCasos(InJvmFlightScorer scorer, String arquivo) throws IOException {
+        JsonNode casos;
+        try (InputStream in = recurso(arquivo)) {
+            casos = objectMapper.readTree(in);
+        }
+        assertEquals(scorer.getModeloVersao(), casos.get("modelo_versao").asText());
+        assertFalse(casos.get("casos").isEmpty());
+
+        for (JsonNode caso : casos.get("casos")) {
+            JsonNode dados = caso.get("dados");
+            double esperada = caso.get("proba_atraso").asDouble();
+
+            double obtida = scorer.probabilidade(voo(dados));
+
+            assertEquals(esperada, obtida, 1e-5, "proba_atraso divergente para " + dados);
+            assertEquals(esperada > 0.5, scorer.atrasado(obtida), "rótulo divergente para " + dados);
+        }
+    }
+
+    private InJvmFlightScorer carregar(String arquivo) throws IOException {
+        try (InputStream in = recurso(arquivo)) {
+            return InJvmFlightScorer.carregar(in, objectMapper);
+        }
+    }
+
+    private InJvmFlightScorer carregar(JsonNode modelo) throws IOException {
+        return new InJvmFlightScorer(objectMapper.treeToValue(modelo, ExportedPipeline.class));
+    }
+
+    private JsonNode lerModelo() throws IOException {
+        try (InputStream in = recurso("modelo_sintetico.json")) {
+            return objectMapper.readTree(in);
+        }
+    }
+
+    private static ScoringInput voo(JsonNode dados) {
+        return new ScoringInput(
+                LocalDateTime.parse(dados.get("partida_prevista").asText(), FORMATO_PYTHON),
+                dados.get("empresa_aerea").asText(),
+                dados.get("aerodromo_origem").asText(),
+                dados.get("aerodromo_destino").asText(),
+                dados.get("codigo_tipo_linha").asText());
+    }
+
+    private static InputStream recurso(String nome) {
+        InputStream in = InJvmFlightScorerTest.class.getResourceAsStream("/scoring/" + nome);
+        assertNotNull(in, "Arquivo de teste ausente: " + nome);
+        return in;
+    }
+}
@@ -0,0 +1,221 @@
+package com.flightontime.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightontime.api.dto.BatchPredictionResponse;
+import com.flightontime.api.dto.FlightPredictionRequest;
+import com.flightontime.api.dto.FlightPredictionResponse;
+import com.flightontime.api.exception.RateLimitExceededException;
+import com.flightontime.api.interceptor.ClientIpResolver;
+import com.flightontime.api.interceptor.RateLimitBucketStore;
+import com.flightontime.api.interceptor.RateLimitInterceptor;
+import com.flightontime.api.interceptor.RateLimitPlans;
+import com.flightontime.api.mapper.AirlineCodeMapper;
+import com.flightontime.api.mapper.AirportCodeMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para BatchPredictionService
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("BatchPredictionService - Testes Unitários")
+@ExtendWith(MockitoExtension.class)
+class BatchPredictionServiceTest {
+
+    @Mock
+    private FlightPredictionService predictionService;
+
+    private PredictionCache predictionCache;
+    private PredictionKeyGenerator keyGenerator;
+    private BatchPredictionService service;
+
+    @BeforeEach
+    void setUp() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        Clock clock = Clock.systemDefaultZone();
+        predictionCache = new PredictionCache(new ConcurrentMapCacheManager("predictions"),
+                new DepartureAwareExpiry(List.of(), Duration.ofMinutes(10), clock), clock,
+                true, 0.8, Duration.ofMinutes(30), new ObjectMapper(), false);
+        keyGenerator = new PredictionKeyGenerator(new AirportCodeMapper(), new AirlineCodeMapper(), 60);
+        service = new BatchPredictionService(predictionService, keyGenerator, predictionCache, validator,
+                Executors.newFixedThreadPool(4));
+        ReflectionTestUtils.setField(service, "maxBatchSize", 10);
+        ReflectionTestUtils.setField(service, "batchTimeoutMs", 5000L);
+    }
+
+    private FlightPredictionRequest voo(String origem, String destino) {
+        return FlightPredictionRequest.builder()
+                .companhia("G3")
+                .origem(origem)
+                .destino(destino)
+                .dataPartida(LocalDateTime.now().plusDays(1).withNano(0))
+                .distanciaKm(350)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Deve prever voos idênticos apenas uma vez e manter a ordem de entrada")
+    void deveDeduplicarEManterOrdem() {
+        FlightPredictionRequest gruGig = voo("GRU", "GIG");
+        FlightPredictionRequest cghSdu = voo("CGH", "SDU");
+
+        when(predictionService.predictAsync(eq(gruGig), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new FlightPredictionResponse("Pontual", 0.2, null, null)));
+        when(predictionService.predictAsync(eq(cghSdu), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new FlightPredictionResponse("Atrasado", 0.8, null, null)));
+
+        BatchPredictionResponse response = service.predictBatch(List.of(gruGig, cghSdu, gruGig));
+
+        assertEquals(3, response.getTotal());
+        assertEquals(3, response.getSucesso());
+        assertEquals("Pontual", response.getResultados().get(0).getResultado().getPrevisao());
+        assertEquals("Atrasado", response.getResultados().get(1).getResultado().getPrevisao());
+        assertEquals("Pontual", response.getResultados().get(2).getResultado().getPrevisao());
+        assertEquals(2, response.getResultados().get(2).getIndice());
+
+        verify(predictionService, times(1)).predictAsync(eq(gruGig), any(), any());
+        verify(predictionService, times(1)).predictAsync(eq(cghSdu), any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve atender pelo cache sem chamar o serviço de previsão")
+    void deveAtenderPeloCache() {
+        FlightPredictionRequest gruGig = voo("GRU", "GIG");
+        predictionCache.put(keyGenerator.of(gruGig), new FlightPredictionResponse("Pontual", 0.3, null, null));
+
+        BatchPredictionResponse response = service.predictBatch(List.of(gruGig));
+
+        assertEquals(1, response.getSucesso());
+        assertEquals(0.3, response.getResultados().get(0).getResultado().getProbabilidade());
+        verifyNoInteractions(predictionService);
+    }
+
+    @Test
+    @DisplayName("Item inválido ou com falha não deve derrubar o lote")
+    void deveIsolarErrosPorItem() {
+        FlightPredictionRequest valido = voo("GRU", "GIG");
+        FlightPredictionRequest invalido = voo("GRU", "GRU");
+        FlightPredictionRequest comFalha = voo("BSB", "REC");
+
+        when(predictionService.predictAsync(eq(valido), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new FlightPredictionResponse("Pontual", 0.2, null, null)));
+        when(predictionService.predictAsync(eq(comFalha), any(), any())).thenThrow(new IllegalStateException("Falha inesperada"));
+
+        BatchPredictionResponse response = service.predictBatch(List.of(valido, invalido, comFalha));
+
+        assertEquals(1, response.getSucesso());
+        assertEquals(2, response.getFalhas());
+        assertEquals("OK", response.getResultados().get(0).getStatus());
+        assertEquals("ERRO", response.getResultados().get(1).getStatus());
+        assertFalse(response.getResultados().get(1).getErros().isEmpty());
+        assertEquals("Falha inesperada", response.getResultados().get(2).getErro());
+        verify(predictionService, never()).predictAsync(eq(invalido), any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve interromper o item em andamento e não iniciar o da fila após o prazo do lote")
+    void deveLiberarExecutorAposPrazo() {
+        service = new BatchPredictionService(predictionService, keyGenerator, predictionCache,
+                Validation.buildDefaultValidatorFactory().getValidator(), Executors.newSingleThreadExecutor());
+        ReflectionTestUtils.setField(service, "maxBatchSize", 10);
+        ReflectionTestUtils.setField(service, "batchTimeoutMs", 100L);
+        FlightPredictionRequest lento = voo("GRU", "GIG");
+        FlightPredictionRequest naFila = voo("CGH", "SDU");
+        CompletableFuture<FlightPredictionResponse> semResposta = new CompletableFuture<>();
+        when(predictionService.predictAsync(eq(lento), any(), any())).thenReturn(semResposta);
+
+        BatchPredictionResponse response = service.predictBatch(List.of(lento, naFila));
+
+        assertEquals(2, response.getFalhas());
+        assertEquals("Tempo limite do lote excedido", response.getResultados().get(1).getErro());
+        // A espera pelo Python é cancelada junto com o item (na thread do executor, logo após a interrupção)
+        assertThrows(CancellationException.class, () -> semResposta.get(1, TimeUnit.SECONDS));
+        verify(predictionService, never()).predictAsync(eq(naFila), any(), any());
+    }
+
+    @Test
+    @DisplayName("Executor que roda o item na thread do lote (CallerRunsPolicy) não deve passar do prazo")
+    void deveRespeitarPrazoComExecucaoNaThreadDoLote() {
+        service = new BatchPredictionService(predictionService, keyGenerator, predictionCache,
+                Validation.buildDefaultValidatorFactory().getValidator(), Runnable::run);
+        ReflectionTestUtils.setField(service, "maxBatchSize", 10);
+        ReflectionTestUtils.setField(service, "batchTimeoutMs", 100L);
+        FlightPredictionRequest lento = voo("GRU", "GIG");
+        FlightPredictionRequest depoisDoPrazo = voo("CGH", "SDU");
+        CompletableFuture<FlightPredictionResponse> semResposta = new CompletableFuture<>();
+        when(predictionService.predictAsync(eq(lento), any(), any())).thenReturn(semResposta);
+
+        long inicio = System.nanoTime();
+        BatchPredictionResponse response = service.predictBatch(List.of(lento, depoisDoPrazo));
+
+        assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(2), "O lote deve terminar perto do prazo");
+        assertEquals(2, response.getFalhas());
+        assertEquals("Tempo limite do lote excedido", response.getResultados().get(0).getErro());
+        assertEquals("Tempo limite do lote excedido", response.getResultados().get(1).getErro());
+        assertTrue(semResposta.isCancelled());
+        verify(predictionService, never()).predictAsync(eq(depoisDoPrazo), any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar lote vazio ou acima do limite")
+    void deveRejeitarLoteForaDoLimite() {
+        assertThrows(IllegalArgumentException.class, () -> service.predictBatch(List.of()));
+
+        List<FlightPredictionRequest> grande = java.util.Collections.nCopies(11, voo("GRU", "GIG"));
+        assertThrows(IllegalArgumentException.class, () -> service.predictBatch(grande));
+        verify(predictionService, never()).predictAsync(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve recusar o lote sem saldo de rate limit antes de disparar os itens")
+    void deveRecusarLoteSemSaldoAntesDeDisparar() {
+        RateLimitPlans planos = new RateLimitPlans(10, Duration.ofMinutes(1), new String[0], new String[0],
+                Duration.ofMinutes(1));
+        RateLimitBucketStore buckets = new RateLimitBucketStore(new SimpleMeterRegistry(), Optional.empty(),
+                1_000, Duration.ofMinutes(1), 10, Duration.ofMillis(500));
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(
+                new ClientIpResolver(new String[0]), buckets, planos, 1, 5, 20);
+        MockHttpServletRequest http = new MockHttpServletRequest("POST", "/api/v1/predict/batch");
+        assertTrue(interceptor.preHandle(http, new MockHttpServletResponse(), new Object()));
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(http));
+        try {
+            // 9 tokens após a entrada; 3 itens reservam 3 x 5 - 1 = 14
+            assertThrows(RateLimitExceededException.class,
+                    () -> service.predictBatch(List.of(voo("GRU", "GIG"), voo("CGH", "SDU"), voo("BSB", "SSA"))));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        verify(predictionService, never()).predictAsync(any(), any(), any());
+        assertEquals(9, buckets.disponiveis(http.getRemoteAddr()).orElseThrow());
+    }
+}
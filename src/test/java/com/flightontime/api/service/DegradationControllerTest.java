@@ -0,0 +1,90 @@
+package com.flightontime.api.service;
+
+import com.flightontime.api.client.PythonBulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para DegradationController (níveis de degradação por carga)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("DegradationController - Degradação por carga no Python")
+class DegradationControllerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PythonBulkhead bulkhead = mock(PythonBulkhead.class);
+    private final AtomicLong relogio = new AtomicLong(1_000);
+    private DegradationController controle;
+
+    @BeforeEach
+    void setUp() {
+        controle = new DegradationController(bulkhead, registry, true,
+                new Duration[]{Duration.ofMillis(800), Duration.ofMillis(1500), Duration.ofMillis(2500)},
+                new int[]{8, 16, 22}, Duration.ofSeconds(10), Duration.ofSeconds(5), relogio::get);
+    }
+
+    @Test
+    @DisplayName("Deve subir de nível com as chamadas em andamento e na fila do bulkhead")
+    void deveDegradarPorEmAndamento() {
+        assertEquals(DegradationController.Nivel.COMPLETO, controle.avaliar());
+
+        when(bulkhead.getEmAndamento()).thenReturn(8);
+        when(bulkhead.getNaFila()).thenReturn(10);
+
+        assertEquals(DegradationController.Nivel.SO_CACHE, controle.avaliar());
+        assertEquals(2.0, registry.get("prediction.degradation.level").gauge().value());
+        assertEquals(1.0, registry.get("prediction.degradation.transitions").tag("nivel", "so_cache").counter().count());
+    }
+
+    @Test
+    @DisplayName("Deve voltar só depois da carência no nível atual")
+    void deveVoltarAposCarencia() {
+        controle.registrarLatencia(Duration.ofSeconds(3).toNanos());
+        assertEquals(DegradationController.Nivel.REGRAS, controle.avaliar());
+
+        // Latência sem amostra nova deixa de contar, mas a carência ainda segura o nível
+        relogio.addAndGet(Duration.ofSeconds(4).toNanos());
+        controle.registrarLatencia(Duration.ofMillis(100).toNanos());
+        assertEquals(DegradationController.Nivel.REGRAS, controle.avaliar());
+
+        relogio.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertEquals(DegradationController.Nivel.SO_CACHE, controle.avaliar(),
+                "média móvel ainda acima de 1.5s após uma amostra rápida");
+    }
+
+    @Test
+    @DisplayName("Deve descartar a média de latência vencida")
+    void deveDescartarLatenciaVencida() {
+        controle.registrarLatencia(Duration.ofSeconds(3).toNanos());
+        assertEquals(DegradationController.Nivel.REGRAS, controle.avaliar());
+
+        // Sem chamadas ao Python pela janela inteira: o nível pode voltar
+        relogio.addAndGet(Duration.ofSeconds(11).toNanos());
+        assertEquals(DegradationController.Nivel.COMPLETO, controle.avaliar());
+
+        // E a primeira amostra depois disso recomeça a média
+        controle.registrarLatencia(Duration.ofMillis(100).toNanos());
+        assertEquals(DegradationController.Nivel.COMPLETO, controle.avaliar());
+    }
+
+    @Test
+    @DisplayName("Deve ficar no nível completo quando desativado")
+    void deveIgnorarSinaisQuandoDesativado() {
+        DegradationController desativado = new DegradationController(bulkhead, new SimpleMeterRegistry(), false,
+                new Duration[]{Duration.ofMillis(800), Duration.ofMillis(1500), Duration.ofMillis(2500)},
+                new int[]{8, 16, 22}, Duration.ofSeconds(10), Duration.ofSeconds(5), relogio::get);
+        desativado.registrarLatencia(Duration.ofSeconds(3).toNanos());
+
+        assertEquals(DegradationController.Nivel.COMPLETO, desativado.avaliar());
+    }
+}
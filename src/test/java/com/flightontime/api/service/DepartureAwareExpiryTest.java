@@ -0,0 +1,86 @@
+package com.flightontime.api.service;
+
+import com.flightontime.api.dto.FeatureImportances;
+import com.flightontime.api.dto.FlightPredictionResponse;
+import com.flightontime.api.dto.LocalExplanation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para DepartureAwareExpiry e PredictionWeigher
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("Cache de previsões - TTL adaptativo e peso")
+class DepartureAwareExpiryTest {
+
+    private static final ZoneId ZONA = ZoneId.of("America/Sao_Paulo");
+    private static final LocalDateTime AGORA = LocalDateTime.of(2026, 3, 10, 12, 0);
+
+    private final DepartureAwareExpiry expiry = new DepartureAwareExpiry(
+            DepartureAwareExpiry.parseTiers("24h=30m, 2h=5m, 7d=2h"),
+            Duration.ofHours(6),
+            Clock.fixed(AGORA.atZone(ZONA).toInstant(), ZONA));
+
+    private PredictionKey chave(LocalDateTime partida) {
+        return new PredictionKey("GLO", "SBGR", "SBGL", partida);
+    }
+
+    @Test
+    @DisplayName("Deve aplicar a faixa correspondente à proximidade da partida")
+    void deveEscolherFaixaPelaProximidade() {
+        assertEquals(Duration.ofMinutes(5), expiry.ttlPara(AGORA.plusMinutes(30)));
+        assertEquals(Duration.ofMinutes(30), expiry.ttlPara(AGORA.plusHours(10)));
+        assertEquals(Duration.ofHours(2), expiry.ttlPara(AGORA.plusDays(3)));
+        assertEquals(Duration.ofHours(6), expiry.ttlPara(AGORA.plusDays(90)));
+    }
+
+    @Test
+    @DisplayName("Partida já passada deve usar a menor faixa")
+    void deveUsarMenorFaixaParaPartidaPassada() {
+        assertEquals(Duration.ofMinutes(5), expiry.ttlPara(AGORA.minusHours(1)));
+    }
+
+    @Test
+    @DisplayName("Expiração do Caffeine deve seguir a chave canônica")
+    void deveCalcularExpiracaoPelaChave() {
+        long nanos = expiry.expireAfterCreate(chave(AGORA.plusMinutes(45)), new FlightPredictionResponse(), 0);
+
+        assertEquals(Duration.ofMinutes(5).toNanos(), nanos);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar faixa mal formatada")
+    void deveRejeitarFaixaInvalida() {
+        assertThrows(IllegalArgumentException.class, () -> DepartureAwareExpiry.parseTiers("2h-5m"));
+    }
+
+    @Test
+    @DisplayName("Resposta com explicabilidade deve pesar mais que resposta do mock")
+    void devePesarExplicabilidade() {
+        PredictionWeigher weigher = new PredictionWeigher();
+        FlightPredictionResponse mock = new FlightPredictionResponse("Pontual", 0.3, null, null);
+        // Tamanhos do modelo real: 20 features na global, topk 8 na local
+        String[] features = new String[20];
+        for (int i = 0; i < features.length; i++) {
+            features[i] = "num__feature_" + i;
+        }
+        String[] top = Arrays.copyOf(features, 8);
+        FlightPredictionResponse python = new FlightPredictionResponse("Pontual", 0.3,
+                new FeatureImportances(features, new double[20]),
+                new LocalExplanation(top, new double[8], new double[8], -0.34));
+
+        int pesoMock = weigher.weigh(chave(AGORA), mock);
+        int pesoPython = weigher.weigh(chave(AGORA), python);
+
+        assertTrue(pesoPython > 2 * pesoMock, "Explicabilidade deve aumentar o peso da entrada");
+    }
+}
@@ -0,0 +1,67 @@
+package com.flightontime.api.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para FallbackRuleEngine (regras compiladas em tabelas)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("FallbackRuleEngine - Testes Unitários")
+class FallbackRuleEngineTest {
+
+    private final FallbackRuleEngine regras = FallbackRuleEngine.padrao();
+
+    @Test
+    @DisplayName("Deve somar os ajustes de hora, dia, data, companhia e aeroportos")
+    void deveSomarAjustes() {
+        // Sexta, 19/12/2025 19h, GLO saindo de hub: 0.5 + 0.2 (noite) + 0.15 (sexta)
+        // + 0.15 (tempestade) + 0.05 (GLO) + 0.18 (hub) = 1.23 → teto 0.95
+        assertEquals(0.95, regras.probabilidade(LocalDateTime.of(2025, 12, 19, 19, 0), "GLO", "SBGR", "SBPA"), 1e-9);
+
+        // Domingo, 15/06/2025 07h, AZU: 0.5 - 0.2 (manhã) - 0.1 (domingo) - 0.08 (inverno) - 0.05 (AZU) = 0.07 → piso 0.10
+        assertEquals(0.10, regras.probabilidade(LocalDateTime.of(2025, 6, 15, 7, 0), "AZU", "SBPA", "SBFL"), 1e-9);
+
+        // Terça, 04/03/2025 13h, destino de baixa densidade: 0.5 - 0.10 = 0.40
+        assertEquals(0.40, regras.probabilidade(LocalDateTime.of(2025, 3, 4, 13, 0), "PTB", "SBPA", "SBJU"), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Deve aplicar a faixa de datas que vira o ano e respeitar o 29/02")
+    void deveAplicarFaixaQueViraOAno() {
+        // Quinta, 29/02/2024, quinta, 27/02/2025 e quinta, 02/01/2025 às 17h: dentro de 12-01..02-29
+        assertEquals(0.65, regras.probabilidade(LocalDateTime.of(2024, 2, 29, 17, 0), "X", "SBPA", "SBFL"), 1e-9);
+        assertEquals(0.65, regras.probabilidade(LocalDateTime.of(2025, 2, 27, 17, 0), "X", "SBPA", "SBFL"), 1e-9);
+        assertEquals(0.65, regras.probabilidade(LocalDateTime.of(2025, 1, 2, 17, 0), "X", "SBPA", "SBFL"), 1e-9);
+        // Terça, 05/03/2024 (bissexto) e terça, 04/03/2025 às 17h: fora
+        assertEquals(0.5, regras.probabilidade(LocalDateTime.of(2024, 3, 5, 17, 0), "X", "SBPA", "SBFL"), 1e-9);
+        assertEquals(0.5, regras.probabilidade(LocalDateTime.of(2025, 3, 4, 17, 0), "X", "SBPA", "SBFL"), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Deve comparar códigos sem diferenciar maiúsculas e ignorar códigos inválidos")
+    void deveCompararCodigosSemDiferenciarMaiusculas() {
+        LocalDateTime terca = LocalDateTime.of(2025, 3, 4, 13, 0);
+
+        assertEquals(regras.probabilidade(terca, "GLO", "SBGR", "SBPA"), regras.probabilidade(terca, "glo", "sbgr", "SBPA"));
+        assertEquals(0.5, regras.probabilidade(terca, null, "SB-GR", "SBPAXX"), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Deve recusar configuração mal formatada")
+    void deveRecusarConfiguracaoInvalida() {
+        assertThrows(IllegalArgumentException.class, () -> new FallbackRuleEngine(0.5, 0.1, 0.95,
+                "0-24=+0.1", "", "", "", "", ""));
+        assertThrows(IllegalArgumentException.class, () -> new FallbackRuleEngine(0.5, 0.1, 0.95,
+                "", "", "12-20=+0.2", "", "", ""));
+        assertThrows(IllegalArgumentException.class, () -> new FallbackRuleEngine(0.5, 0.1, 0.95,
+                "", "", "", "GLO=+0.05,GLO=-0.05", "", ""));
+        assertThrows(IllegalArgumentException.class, () -> new FallbackRuleEngine(0.5, 0.1, 0.95,
+                "", "", "", "", "SBGR", ""));
+    }
+}
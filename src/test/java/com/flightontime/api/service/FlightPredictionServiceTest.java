@@ -1,10 +1,17 @@
 package com.flightontime.api.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightontime.api.client.PythonBulkhead;
 import com.flightontime.api.client.PythonPredictionClient;
 import com.flightontime.api.dto.FlightPredictionRequest;
 import com.flightontime.api.dto.FlightPredictionResponse;
+import com.flightontime.api.dto.PythonPredictionResponse;
+import com.flightontime.api.interceptor.RateLimitCost;
 import com.flightontime.api.mapper.AirlineCodeMapper;
 import com.flightontime.api.mapper.AirportCodeMapper;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,12 +20,24 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -42,11 +61,42 @@ class FlightPredictionServiceTest {
     @Mock
     private PythonPredictionClient pythonClient;
 
+    @Mock
+    private GlobalExplainabilityService globalExplainabilityService;
+
+    @Mock
+    private LocalExplainabilityService localExplainabilityService;
+
     private FlightPredictionService service;
+    private ConcurrentMapCacheManager cacheManager;
+    private PredictionKeyGenerator keyGenerator;
+    private DegradationController degradacao;
+    private SimpleMeterRegistry registry;
 
     @BeforeEach
     void setUp() {
-        service = new FlightPredictionService(airportMapper, airlineMapper, pythonClient);
+        registry = new SimpleMeterRegistry();
+        Clock clock = Clock.systemDefaultZone();
+        cacheManager = new ConcurrentMapCacheManager("predictions");
+        PredictionCache predictionCache = new PredictionCache(cacheManager,
+                new DepartureAwareExpiry(List.of(), Duration.ofMinutes(10), clock), clock,
+                true, 0.8, Duration.ofMinutes(30), new ObjectMapper(), true);
+        keyGenerator = new PredictionKeyGenerator(airportMapper, airlineMapper, 60);
+        degradacao = new DegradationController(new PythonBulkhead(8, 16, Duration.ofMillis(200), registry), registry, true,
+                new Duration[]{Duration.ofMillis(800), Duration.ofMillis(1500), Duration.ofMillis(2500)},
+                new int[]{8, 16, 22}, Duration.ofSeconds(10), Duration.ZERO, System::nanoTime);
+        service = new FlightPredictionService(pythonClient,
+                new PredictionCoalescer(registry),
+                keyGenerator,
+                predictionCache,
+                new PredictionRefresher(predictionCache, registry, 1, 10),
+                Optional.empty(),
+                FallbackRuleEngine.padrao(),
+                globalExplainabilityService,
+                localExplainabilityService,
+                degradacao,
+                new PipelineTimer(registry),
+                registry);
         
         // Configura o serviço para usar MOCK (não chamar Python)
         ReflectionTestUtils.setField(service, "useMockService", true);
@@ -221,7 +271,8 @@ class FlightPredictionServiceTest {
                 .build();
 
         // 3. Simulamos uma falha crítica no Python (ex: Timeout ou Conexão Recusada)
-        when(pythonClient.getPrediction(any())).thenThrow(new RuntimeException("Python Service Offline"));
+        when(pythonClient.getPredictionAsync(any()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Python Service Offline")));
 
         // Executamos a chamada. O service deve capturar o erro e chamar o predictWithMock internamente
         FlightPredictionResponse response = service.predict(request);
@@ -230,7 +281,7 @@ class FlightPredictionServiceTest {
         assertTrue(response.getProbabilidade() > 0, "Deve retornar uma probabilidade calculada pelo Mock");
 
         // Verificamos se o client do Python foi realmente consultado antes de falhar
-        verify(pythonClient, atLeastOnce()).getPrediction(any());
+        verify(pythonClient, atLeastOnce()).getPredictionAsync(any());
 
         System.out.println("✅ Squad B: Fallback validado! O sistema usou o Mock após erro no Python.");
     }
@@ -257,4 +308,252 @@ class FlightPredictionServiceTest {
         assertNotNull(response);
         System.out.println("✅ Teste de Massa: " + cia + " voando de " + ori + " para " + dest + " - Status: " + response.getPrevisao());
     }
+
+    @Test
+    @DisplayName("Deve servir previsão expirada (em carência) quando o Python falhar, sem cair no Mock")
+    void deveServirPrevisaoExpiradaQuandoPythonFalhar() {
+        ReflectionTestUtils.setField(service, "useMockService", false);
+        FlightPredictionRequest request = FlightPredictionRequest.builder()
+                .companhia("G3")
+                .origem("GRU")
+                .destino("GIG")
+                .dataPartida(LocalDateTime.now().plusDays(1))
+                .build();
+
+        Instant agora = Instant.now();
+        FlightPredictionResponse anterior = new FlightPredictionResponse("Atrasado", 0.77, null, null);
+        cacheManager.getCache("predictions").put(keyGenerator.of(request), new CachedPrediction(
+                anterior, agora.minusSeconds(3600), agora.minusSeconds(1200), agora.minusSeconds(60), agora.plusSeconds(1800)));
+
+        when(pythonClient.getPredictionAsync(any()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Python Service Offline")));
+
+        FlightPredictionResponse response = service.predict(request);
+
+        assertSame(anterior, response, "Deve servir a previsão expirada em vez do Mock");
+        verify(pythonClient, times(1)).getPredictionAsync(any());
+    }
+
+    @Test
+    @DisplayName("Deve servir previsão a renovar imediatamente e renová-la em background")
+    void deveRenovarEmBackground() {
+        ReflectionTestUtils.setField(service, "useMockService", false);
+        FlightPredictionRequest request = FlightPredictionRequest.builder()
+                .companhia("G3")
+                .origem("GRU")
+                .destino("GIG")
+                .dataPartida(LocalDateTime.now().plusDays(1))
+                .build();
+
+        Instant agora = Instant.now();
+        FlightPredictionResponse anterior = new FlightPredictionResponse("Pontual", 0.21, null, null);
+        cacheManager.getCache("predictions").put(keyGenerator.of(request), new CachedPrediction(
+                anterior, agora.minusSeconds(500), agora.minusSeconds(20), agora.plusSeconds(100), agora.plusSeconds(1900)));
+
+        PythonPredictionResponse nova = new PythonPredictionResponse();
+        nova.setLabel("atrasado");
+        nova.setProbaAtraso(0.81);
+        when(pythonClient.getPredictionAsync(any())).thenReturn(CompletableFuture.completedFuture(nova));
+
+        assertSame(anterior, service.predict(request), "Deve responder com a entrada atual, sem esperar o Python");
+
+        verify(pythonClient, timeout(2000)).getPredictionAsync(any());
+        long limite = System.currentTimeMillis() + 2000;
+        while (System.currentTimeMillis() < limite && service.predict(request) == anterior) {
+            Thread.onSpinWait();
+        }
+        assertEquals(0.81, service.predict(request).getProbabilidade());
+    }
+
+    @Test
+    @DisplayName("Deve prever no Python sem explicabilidade local e registrar a economia")
+    void devePreverSemExplicacaoLocal() {
+        ReflectionTestUtils.setField(service, "useMockService", false);
+        FlightPredictionRequest request = FlightPredictionRequest.builder()
+                .companhia("G3")
+                .origem("GRU")
+                .destino("GIG")
+                .dataPartida(LocalDateTime.now().plusDays(1))
+                .build();
+        PythonPredictionResponse resposta = new PythonPredictionResponse();
+        resposta.setLabel("atrasado");
+        resposta.setProbaAtraso(0.7);
+        when(pythonClient.getPredictionAsync(any())).thenReturn(CompletableFuture.completedFuture(resposta));
+
+        FlightPredictionResponse response = service.predict(request);
+
+        assertNull(response.getExplicabilidadeLocal());
+        verify(pythonClient).getPredictionAsync(argThat(r -> r.getTopk() == 0));
+        verify(localExplainabilityService).registrarEconomia();
+    }
+
+    @Test
+    @DisplayName("Deve usar só cache e regras com o Python saturado")
+    void deveDegradarParaCacheERegras() {
+        ReflectionTestUtils.setField(service, "useMockService", false);
+        FlightPredictionRequest emCache = FlightPredictionRequest.builder()
+                .companhia("G3")
+                .origem("GRU")
+                .destino("GIG")
+                .dataPartida(LocalDateTime.now().plusDays(1))
+                .build();
+        FlightPredictionRequest novo = FlightPredictionRequest.builder()
+                .companhia("AD")
+                .origem("VCP")
+                .destino("CNF")
+                .dataPartida(LocalDateTime.now().plusDays(1))
+                .build();
+
+        Instant agora = Instant.now();
+        FlightPredictionResponse anterior = new FlightPredictionResponse("Atrasado", 0.77, null, null);
+        cacheManager.getCache("predictions").put(keyGenerator.of(emCache), new CachedPrediction(
+                anterior, agora.minusSeconds(3600), agora.minusSeconds(1200), agora.minusSeconds(60), agora.plusSeconds(1800)));
+
+        degradacao.registrarLatencia(Duration.ofSeconds(3).toNanos());
+
+        assertSame(anterior, service.predict(emCache), "Expirada em carência deve sair do cache, sem o Python");
+        assertNotNull(service.predict(novo).getPrevisao());
+        assertEquals(DegradationController.Nivel.REGRAS, service.getNivelDegradacao());
+        verify(pythonClient, never()).getPredictionAsync(any());
+    }
+
+    @Test
+    @DisplayName("Deve informar o nível aplicado à requisição, não o global do momento")
+    void deveInformarNivelAplicadoPorRequisicao() {
+        ReflectionTestUtils.setField(service, "useMockService", false);
+        FlightPredictionRequest novo = FlightPredictionRequest.builder()
+                .companhia("AD")
+                .origem("VCP")
+                .destino("CNF")
+                .dataPartida(LocalDateTime.now().plusDays(1))
+                .build();
+        FlightPredictionRequest emCache = FlightPredictionRequest.builder()
+                .companhia("G3")
+                .origem("GRU")
+                .destino("GIG")
+                .dataPartida(LocalDateTime.now().plusDays(1))
+                .build();
+        Instant agora = Instant.now();
+        cacheManager.getCache("predictions").put(keyGenerator.of(emCache), new CachedPrediction(
+                new FlightPredictionResponse("Pontual", 0.2, null, null),
+                agora, agora.plusSeconds(600), agora.plusSeconds(1200), agora.plusSeconds(1800)));
+        degradacao.registrarLatencia(Duration.ofSeconds(3).toNanos());
+
+        try {
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+            service.predict(novo);
+            assertEquals(DegradationController.Nivel.REGRAS, NivelAplicado.daRequisicao().nivel());
+
+            // Outra requisição, servida do cache fresco sem consultar o nível
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+            service.predict(emCache);
+            assertEquals(DegradationController.Nivel.COMPLETO, NivelAplicado.daRequisicao().nivel());
+            assertEquals(DegradationController.Nivel.REGRAS, service.getNivelDegradacao());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve cortar a explicabilidade local antes das previsões com o Python lento")
+    void deveCortarExplicacaoComPythonLento() {
+        ReflectionTestUtils.setField(service, "useMockService", false);
+        FlightPredictionRequest request = FlightPredictionRequest.builder()
+                .companhia("G3")
+                .origem("GRU")
+                .destino("GIG")
+                .dataPartida(LocalDateTime.now().plusDays(1))
+                .build();
+        PythonPredictionResponse resposta = new PythonPredictionResponse();
+        resposta.setLabel("pontual");
+        resposta.setProbaAtraso(0.2);
+        when(pythonClient.getPredictionAsync(any())).thenReturn(CompletableFuture.completedFuture(resposta));
+        when(localExplainabilityService.limitar(5)).thenReturn(5);
+        when(localExplainabilityService.anexarDoCache(any(), any(), eq(5))).thenAnswer(inv -> inv.getArgument(1));
+
+        degradacao.registrarLatencia(Duration.ofMillis(1200).toNanos());
+        FlightPredictionResponse response = service.explain(request, 5);
+
+        assertEquals("Pontual", response.getPrevisao());
+        assertEquals(DegradationController.Nivel.SEM_EXPLICACAO, service.getNivelDegradacao());
+        verify(pythonClient).getPredictionAsync(any());
+        verify(localExplainabilityService, never()).anexar(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Deve contar o fallback pela causa e medir as etapas da previsão")
+    void deveMedirEtapasEContarFallbackPorCausa() {
+        ReflectionTestUtils.setField(service, "useMockService", false);
+        FlightPredictionRequest request = FlightPredictionRequest.builder()
+                .companhia("G3")
+                .origem("GRU")
+                .destino("GIG")
+                .dataPartida(LocalDateTime.now().plusDays(1))
+                .build();
+        when(pythonClient.getPredictionAsync(any())).thenReturn(CompletableFuture.failedFuture(
+                CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("teste"))));
+
+        assertNotNull(service.predict(request).getPrevisao());
+
+        assertEquals(1.0, registry.get("prediction.fallback")
+                .tag("causa", "circuito_aberto").tag("destino", "regras").counter().count());
+        assertEquals(1, registry.get("prediction.pipeline.duration").tag("origem", "regras").timer().count());
+        assertEquals(1, registry.get("prediction.pipeline.stage").tag("etapa", "python").timer().count());
+        assertEquals(1, registry.get("prediction.pipeline.stage").tag("etapa", "mock").timer().count());
+    }
+
+    @Test
+    @DisplayName("Deve cobrar custo de modelo só quando o Python respondeu, não no fallback")
+    void deveCobrarModeloSoQuandoPythonResponde() {
+        ReflectionTestUtils.setField(service, "useMockService", false);
+        FlightPredictionRequest comCircuitoAberto = FlightPredictionRequest.builder()
+                .companhia("G3")
+                .origem("GRU")
+                .destino("GIG")
+                .dataPartida(LocalDateTime.now().plusDays(1))
+                .build();
+        FlightPredictionRequest respondido = FlightPredictionRequest.builder()
+                .companhia("AD")
+                .origem("VCP")
+                .destino("CNF")
+                .dataPartida(LocalDateTime.now().plusDays(1))
+                .build();
+        PythonPredictionResponse resposta = new PythonPredictionResponse();
+        resposta.setLabel("pontual");
+        resposta.setProbaAtraso(0.2);
+        when(pythonClient.getPredictionAsync(any()))
+                .thenReturn(CompletableFuture.failedFuture(
+                        CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("teste"))))
+                .thenReturn(CompletableFuture.completedFuture(resposta));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            RateLimitCost conta = RateLimitCost.daRequisicao();
+
+            service.predict(comCircuitoAberto);
+            assertEquals(0, conta.chamadasAoModelo());
+
+            service.predict(respondido);
+            assertEquals(1, conta.chamadasAoModelo());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve servir do cache os bytes já serializados, sem serializar de novo")
+    void deveServirPrevisaoSerializadaDoCache() throws Exception {
+        FlightPredictionRequest request = FlightPredictionRequest.builder()
+                .companhia("G3")
+                .origem("GRU")
+                .destino("GIG")
+                .dataPartida(LocalDateTime.now().plusDays(1))
+                .build();
+
+        byte[] primeira = service.predictSerialized(request);
+        byte[] segunda = service.predictSerialized(request);
+
+        assertSame(primeira, segunda, "Acerto de cache deve devolver os mesmos bytes");
+        FlightPredictionResponse lida = new ObjectMapper().readValue(segunda, FlightPredictionResponse.class);
+        assertEquals(service.predict(request), lida);
+    }
 }
@@ -0,0 +1,123 @@
+package com.flightontime.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightontime.api.client.PythonPredictionClient;
+import com.flightontime.api.dto.FeatureImportances;
+import com.flightontime.api.dto.FlightPredictionResponse;
+import com.flightontime.api.dto.LocalExplanation;
+import com.flightontime.api.dto.PythonExplainGlobalResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para GlobalExplainabilityService (uma busca por versão do modelo)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("GlobalExplainabilityService - Testes Unitários")
+@ExtendWith(MockitoExtension.class)
+class GlobalExplainabilityServiceTest {
+
+    @Mock
+    private PythonPredictionClient pythonClient;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private GlobalExplainabilityService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new GlobalExplainabilityService(pythonClient, objectMapper, meterRegistry,
+                Duration.ofSeconds(1), Duration.ofMinutes(1));
+    }
+
+    private static PythonExplainGlobalResponse resposta(String versao, double importancia) {
+        PythonExplainGlobalResponse resposta = new PythonExplainGlobalResponse();
+        resposta.setModeloVersao(versao);
+        resposta.setExplainGlobal(new FeatureImportances(new String[]{"num__hora_sin"}, new double[]{importancia}));
+        return resposta;
+    }
+
+    @Test
+    @DisplayName("Deve buscar no Python uma única vez e servir o JSON já serializado com ETag")
+    void deveBuscarUmaVez() throws Exception {
+        when(pythonClient.getExplainGlobalAsync())
+                .thenReturn(CompletableFuture.completedFuture(resposta("abc123", 0.4)));
+
+        GlobalExplainabilityService.Snapshot primeiro = service.obter().orElseThrow();
+        GlobalExplainabilityService.Snapshot segundo = service.obter().orElseThrow();
+        service.observarVersao("abc123");
+
+        assertSame(primeiro, segundo);
+        verify(pythonClient, times(1)).getExplainGlobalAsync();
+        assertTrue(primeiro.etag().startsWith("\"abc123-"));
+        JsonNode json = objectMapper.readTree(primeiro.json());
+        assertEquals("abc123", json.get("modelo_versao").asText());
+        assertEquals("num__hora_sin", json.get("explicabilidade_global").get(0).get("feature").asText());
+        assertEquals(0.4, json.get("explicabilidade_global").get(0).get("importance").asDouble());
+    }
+
+    @Test
+    @DisplayName("Deve renovar quando a previsão vem de outra versão do modelo")
+    void deveRenovarQuandoVersaoMuda() {
+        when(pythonClient.getExplainGlobalAsync())
+                .thenReturn(CompletableFuture.completedFuture(resposta("v1", 0.4)))
+                .thenReturn(CompletableFuture.completedFuture(resposta("v2", 0.7)));
+
+        String etagV1 = service.obter().orElseThrow().etag();
+        service.observarVersao("v2");
+        GlobalExplainabilityService.Snapshot atual = service.obter().orElseThrow();
+
+        assertEquals("v2", atual.modeloVersao());
+        assertNotEquals(etagV1, atual.etag());
+        assertEquals(2.0, meterRegistry.counter("prediction.explain.global.fetch", "resultado", "sucesso").count());
+    }
+
+    @Test
+    @DisplayName("Deve responder vazio com o Python fora e não insistir antes do intervalo")
+    void deveRespeitarIntervaloAposFalha() {
+        when(pythonClient.getExplainGlobalAsync())
+                .thenReturn(CompletableFuture.failedFuture(new ConnectException("Connection refused")));
+
+        assertTrue(service.obter().isEmpty());
+        assertTrue(service.obter().isEmpty());
+
+        verify(pythonClient, times(1)).getExplainGlobalAsync();
+        assertEquals(1.0, meterRegistry.counter("prediction.explain.global.fetch", "resultado", "falha").count());
+    }
+
+    @Test
+    @DisplayName("Deve anexar a explicabilidade global numa cópia, sem alterar a previsão do cache")
+    void deveAnexarEmCopia() {
+        when(pythonClient.getExplainGlobalAsync())
+                .thenReturn(CompletableFuture.completedFuture(resposta("v1", 0.4)));
+        FlightPredictionResponse doCache = FlightPredictionResponse.builder()
+                .previsao("Atrasado")
+                .probabilidade(0.8)
+                .explicabilidadeLocal(new LocalExplanation(new String[]{"num__hora_sin"}, new double[]{0.1},
+                        new double[]{0.5}, -0.3))
+                .build();
+
+        FlightPredictionResponse completa = service.anexar(doCache);
+
+        assertNotSame(doCache, completa);
+        assertNull(doCache.getExplicabilidadeGlobal());
+        assertNotNull(completa.getExplicabilidadeGlobal());
+        assertEquals(doCache.getExplicabilidadeLocal(), completa.getExplicabilidadeLocal());
+        assertEquals(0.8, completa.getProbabilidade());
+    }
+}
@@ -0,0 +1,143 @@
+package com.flightontime.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightontime.api.client.PythonPredictionClient;
+import com.flightontime.api.dto.FlightPredictionResponse;
+import com.flightontime.api.dto.LocalExplanation;
+import com.flightontime.api.dto.PythonPredictionRequest;
+import com.flightontime.api.dto.PythonPredictionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.net.ConnectException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para LocalExplainabilityService (explicação local sob demanda)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("LocalExplainabilityService - Testes Unitários")
+@ExtendWith(MockitoExtension.class)
+class LocalExplainabilityServiceTest {
+
+    private static final PredictionKey CHAVE =
+            new PredictionKey("GLO", "SBGR", "SBGL", LocalDateTime.of(2030, 1, 10, 14, 0));
+
+    @Mock
+    private PythonPredictionClient pythonClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PredictionCache predictionCache;
+    private LocalExplainabilityService service;
+    private FlightPredictionResponse previsao;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        Clock clock = Clock.systemDefaultZone();
+        predictionCache = new PredictionCache(new ConcurrentMapCacheManager("predictions"),
+                new DepartureAwareExpiry(List.of(), Duration.ofMinutes(10), clock), clock,
+                true, 0.8, Duration.ofMinutes(30), new ObjectMapper(), false);
+        service = new LocalExplainabilityService(pythonClient, predictionCache, meterRegistry, 10, Duration.ofSeconds(1));
+        previsao = predictionCache.put(CHAVE, new FlightPredictionResponse("Atrasado", 0.8, null, null)).response();
+    }
+
+    private static PythonPredictionResponse explicacao(int features, double custoMs, double custoCpuMs) {
+        String[] nomes = new String[features];
+        double[] contribuicoes = new double[features];
+        for (int i = 0; i < features; i++) {
+            nomes[i] = "f" + i;
+            contribuicoes[i] = 1.0 / (i + 1);
+        }
+        PythonPredictionResponse resposta = new PythonPredictionResponse();
+        resposta.setExplainLocal(new LocalExplanation(nomes, contribuicoes, new double[features], -0.3));
+        resposta.setExplainLocalMs(custoMs);
+        resposta.setExplainLocalCpuMs(custoCpuMs);
+        return resposta;
+    }
+
+    @Test
+    @DisplayName("Deve limitar o topk ao máximo configurado e tratar negativos como zero")
+    void deveLimitarTopk() {
+        assertEquals(10, service.limitar(50));
+        assertEquals(3, service.limitar(3));
+        assertEquals(0, service.limitar(-1));
+    }
+
+    @Test
+    @DisplayName("Deve explicar no Python uma vez e servir pedidos menores recortando a explicação do cache")
+    void deveReaproveitarExplicacaoDoCache() {
+        when(pythonClient.getExplainLocalAsync(any()))
+                .thenReturn(CompletableFuture.completedFuture(explicacao(8, 5.0, 4.0)));
+        PythonPredictionRequest requisicao = PythonPredictionRequest.builder().topk(8).build();
+
+        FlightPredictionResponse primeira = service.anexar(CHAVE, previsao, 8, requisicao);
+        FlightPredictionResponse segunda = service.anexar(CHAVE, previsao, 3, requisicao);
+
+        verify(pythonClient, times(1)).getExplainLocalAsync(any());
+        assertEquals(8, primeira.getExplicabilidadeLocal().tamanho());
+        assertArrayEquals(new String[]{"f0", "f1", "f2"}, segunda.getExplicabilidadeLocal().features());
+        assertNull(previsao.getExplicabilidadeLocal(), "A previsão recebida não deve ser alterada");
+        CachedPrediction entrada = predictionCache.get(CHAVE).orElseThrow();
+        assertEquals(8, entrada.topkLocal());
+        assertNull(entrada.response().getExplicabilidadeLocal(), "O /predict comum continua sem explicação");
+        assertEquals(1.0, meterRegistry.counter("prediction.explain.local.requests", "origem", "cache").count());
+    }
+
+    @Test
+    @DisplayName("Deve manter os marcos de tempo da previsão ao anexar a explicação")
+    void deveManterPrazosDaPrevisao() {
+        CachedPrediction antes = predictionCache.get(CHAVE).orElseThrow();
+        when(pythonClient.getExplainLocalAsync(any()))
+                .thenReturn(CompletableFuture.completedFuture(explicacao(4, 5.0, 4.0)));
+
+        service.anexar(CHAVE, previsao, 4, PythonPredictionRequest.builder().topk(4).build());
+
+        CachedPrediction depois = predictionCache.get(CHAVE).orElseThrow();
+        assertEquals(antes.renovarApos(), depois.renovarApos());
+        assertEquals(antes.descartarApos(), depois.descartarApos());
+        assertEquals(0.8, depois.response().getProbabilidade());
+    }
+
+    @Test
+    @DisplayName("Deve devolver a previsão sem explicação quando o Python falhar")
+    void deveDegradarSemExplicacao() {
+        when(pythonClient.getExplainLocalAsync(any()))
+                .thenReturn(CompletableFuture.failedFuture(new ConnectException("Connection refused")));
+
+        FlightPredictionResponse response = service.anexar(CHAVE, previsao, 5, PythonPredictionRequest.builder().build());
+
+        assertSame(previsao, response);
+        assertEquals(1.0, meterRegistry.counter("prediction.explain.local.requests", "origem", "falha").count());
+    }
+
+    @Test
+    @DisplayName("Deve somar o custo médio medido a cada previsão sem explicação")
+    void deveRegistrarEconomia() {
+        when(pythonClient.getExplainLocalAsync(any()))
+                .thenReturn(CompletableFuture.completedFuture(explicacao(2, 6.0, 5.0)));
+        service.anexar(CHAVE, previsao, 2, PythonPredictionRequest.builder().topk(2).build());
+
+        service.registrarEconomia();
+        service.registrarEconomia();
+
+        assertEquals(2.0, meterRegistry.counter("prediction.explain.local.skipped").count());
+        assertEquals(12.0, meterRegistry.counter("prediction.explain.local.saved", "recurso", "latencia").count(), 1e-9);
+        assertEquals(10.0, meterRegistry.counter("prediction.explain.local.saved", "recurso", "cpu").count(), 1e-9);
+    }
+}
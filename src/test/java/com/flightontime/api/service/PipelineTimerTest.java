@@ -0,0 +1,65 @@
+package com.flightontime.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para PipelineTimer (tempo por etapa e Server-Timing)
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("PipelineTimer - Tempo por etapa da previsão")
+class PipelineTimerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PipelineTimer pipeline = new PipelineTimer(registry);
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Deve somar as etapas da requisição e montar o Server-Timing na ordem")
+    void deveMontarServerTiming() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        PipelineTimer.Medicao medicao = pipeline.iniciar();
+        long agora = System.nanoTime();
+        medicao.marcar(PipelineTimer.Etapa.MAPEAMENTO, agora - TimeUnit.MILLISECONDS.toNanos(2));
+        medicao.marcar(PipelineTimer.Etapa.PYTHON, agora - TimeUnit.MILLISECONDS.toNanos(40));
+        // Segunda medição na mesma requisição (ex.: explicação) entra no mesmo header
+        pipeline.iniciar().marcar(PipelineTimer.Etapa.PYTHON, agora - TimeUnit.MILLISECONDS.toNanos(10));
+        medicao.concluir(PipelineTimer.Origem.PYTHON);
+
+        PipelineTimer.Etapas etapas = (PipelineTimer.Etapas) request.getAttribute(PipelineTimer.ATRIBUTO);
+        String header = etapas.serverTiming();
+        assertTrue(header.matches("mapeamento;dur=2\\.\\d\\d, python;dur=5\\d\\.\\d\\d, total;dur=\\d+\\.\\d\\d"), header);
+        assertEquals(2, registry.get("prediction.pipeline.stage").tag("etapa", "python").timer().count());
+        assertEquals(1, registry.get("prediction.pipeline.duration").tag("origem", "python").timer().count());
+    }
+
+    @Test
+    @DisplayName("Deve contar o fallback pela causa e pelo destino fora de uma requisição")
+    void deveContarFallbackSemRequisicao() {
+        PipelineTimer.Medicao medicao = pipeline.iniciar();
+        medicao.marcar(PipelineTimer.Etapa.MOCK, System.nanoTime());
+        medicao.fallback(PipelineTimer.Causa.TIMEOUT, PipelineTimer.Origem.CARENCIA);
+
+        assertEquals(1.0, registry.get("prediction.fallback")
+                .tag("causa", "timeout").tag("destino", "carencia").counter().count());
+        assertEquals(0.0, registry.get("prediction.fallback")
+                .tag("causa", "timeout").tag("destino", "regras").counter().count());
+        assertEquals(1, registry.get("prediction.pipeline.duration").tag("origem", "carencia").timer().count());
+    }
+}
@@ -0,0 +1,148 @@
+package com.flightontime.api.service;
+
+import com.flightontime.api.dto.PythonPredictionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para PredictionCoalescer
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("PredictionCoalescer - Testes Unitários")
+class PredictionCoalescerTest {
+
+    private static final int CHAMADORES = 8;
+
+    private SimpleMeterRegistry registry;
+    private PredictionCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        coalescer = new PredictionCoalescer(registry);
+    }
+
+    @Test
+    @DisplayName("Chamadas simultâneas com a mesma chave devem gerar uma única ida ao Python")
+    void deveCompartilharResultadoEntreChamadasSimultaneas() throws Exception {
+        AtomicInteger chamadasReais = new AtomicInteger();
+        CompletableFuture<PythonPredictionResponse> python = new CompletableFuture<>();
+        PythonPredictionResponse resposta = new PythonPredictionResponse();
+        resposta.setProbaAtraso(0.42);
+
+        List<CompletableFuture<PythonPredictionResponse>> futuros = new ArrayList<>();
+        for (int i = 0; i < CHAMADORES; i++) {
+            futuros.add(coalescer.executeAsync("GRU-GIG", () -> {
+                chamadasReais.incrementAndGet();
+                return python;
+            }));
+        }
+        assertTrue(futuros.stream().noneMatch(CompletableFuture::isDone), "Ninguém responde antes do Python");
+
+        python.complete(resposta);
+
+        for (CompletableFuture<PythonPredictionResponse> futuro : futuros) {
+            assertSame(resposta, futuro.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, chamadasReais.get());
+        assertEquals(CHAMADORES - 1, registry.counter("prediction.python.coalesced").count());
+    }
+
+    @Test
+    @DisplayName("A falha do líder deve ser repassada a todos os seguidores")
+    void deveCompartilharFalha() {
+        CompletableFuture<PythonPredictionResponse> python = new CompletableFuture<>();
+
+        List<CompletableFuture<PythonPredictionResponse>> futuros = new ArrayList<>();
+        for (int i = 0; i < CHAMADORES; i++) {
+            futuros.add(coalescer.executeAsync("GRU-GIG", () -> python));
+        }
+        python.completeExceptionally(new IllegalStateException("Python Service Offline"));
+
+        for (CompletableFuture<PythonPredictionResponse> futuro : futuros) {
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> futuro.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, ex.getCause());
+        }
+    }
+
+    @Test
+    @DisplayName("Timeout aplicado por um chamador não deve afetar os demais (cada um recebe uma cópia)")
+    void deveIsolarTimeoutDeCadaChamador() throws Exception {
+        CompletableFuture<PythonPredictionResponse> python = new CompletableFuture<>();
+        PythonPredictionResponse resposta = new PythonPredictionResponse();
+
+        CompletableFuture<PythonPredictionResponse> apressado = coalescer.executeAsync("GRU-GIG", () -> python);
+        CompletableFuture<PythonPredictionResponse> paciente = coalescer.executeAsync("GRU-GIG", () -> python);
+        apressado.orTimeout(1, TimeUnit.MILLISECONDS);
+        assertThrows(ExecutionException.class, () -> apressado.get(5, TimeUnit.SECONDS));
+
+        python.complete(resposta);
+
+        assertSame(resposta, paciente.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, apressado.handle((r, ex) -> ex).join());
+    }
+
+    @Test
+    @DisplayName("A chamada ao Python só deve ser cancelada quando todos os chamadores desistirem")
+    void deveCancelarChamadaQuandoTodosDesistirem() {
+        CompletableFuture<PythonPredictionResponse> python = new CompletableFuture<>();
+
+        CompletableFuture<PythonPredictionResponse> primeiro = coalescer.executeAsync("GRU-GIG", () -> python);
+        CompletableFuture<PythonPredictionResponse> segundo = coalescer.executeAsync("GRU-GIG", () -> python);
+
+        primeiro.cancel(false);
+        assertFalse(python.isCancelled(), "Ainda há quem aguarde a resposta");
+
+        segundo.orTimeout(1, TimeUnit.MILLISECONDS);
+        assertThrows(ExecutionException.class, () -> segundo.get(5, TimeUnit.SECONDS));
+        assertTrue(python.isCancelled(), "Ninguém mais aguarda: a chamada deve ser abortada");
+
+        // A chave foi liberada: a próxima requisição dispara uma chamada nova
+        PythonPredictionResponse nova = new PythonPredictionResponse();
+        assertSame(nova, coalescer.executeAsync("GRU-GIG", () -> CompletableFuture.completedFuture(nova)).join());
+    }
+
+    @Test
+    @DisplayName("Falha ao disparar a chamada deve chegar como future com falha e liberar a chave")
+    void deveTratarFalhaAoDisparar() {
+        CompletableFuture<PythonPredictionResponse> falhou = coalescer.executeAsync("GRU-GIG", () -> {
+            throw new IllegalStateException("Falha ao serializar");
+        });
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> falhou.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+        assertTrue(coalescer.executeAsync("GRU-GIG", () -> CompletableFuture.completedFuture(null)).isDone());
+        assertEquals(0, registry.counter("prediction.python.coalesced").count());
+    }
+
+    @Test
+    @DisplayName("Após a conclusão, uma nova chamada com a mesma chave deve ir ao Python novamente")
+    void naoDeveFuncionarComoCache() {
+        AtomicInteger chamadasReais = new AtomicInteger();
+
+        coalescer.executeAsync("GRU-GIG", () -> {
+            chamadasReais.incrementAndGet();
+            return CompletableFuture.completedFuture(new PythonPredictionResponse());
+        }).join();
+        coalescer.executeAsync("GRU-GIG", () -> {
+            chamadasReais.incrementAndGet();
+            return CompletableFuture.completedFuture(new PythonPredictionResponse());
+        }).join();
+
+        assertEquals(2, chamadasReais.get());
+        assertEquals(0, registry.counter("prediction.python.coalesced").count());
+    }
+}
@@ -0,0 +1,91 @@
+package com.flightontime.api.service;
+
+import com.flightontime.api.dto.FlightPredictionRequest;
+import com.flightontime.api.mapper.AirlineCodeMapper;
+import com.flightontime.api.mapper.AirportCodeMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para PredictionKeyGenerator
+ *
+ * EQUIPE RESPONSÁVEL: Squad B (Integração & Core)
+ */
+@DisplayName("PredictionKeyGenerator - Testes Unitários")
+class PredictionKeyGeneratorTest {
+
+    private final PredictionKeyGenerator generator =
+            new PredictionKeyGenerator(new AirportCodeMapper(), new AirlineCodeMapper(), 60);
+
+    private FlightPredictionRequest voo(String origem, LocalDateTime partida, Integer distancia) {
+        return FlightPredictionRequest.builder()
+                .companhia("G3")
+                .origem(origem)
+                .destino("GIG")
+                .dataPartida(partida)
+                .distanciaKm(distancia)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Voos na mesma janela de horário devem gerar a mesma chave, ignorando a distância")
+    void deveNormalizarJanelaEIgnorarDistancia() {
+        PredictionKey a = generator.of(voo("GRU", LocalDateTime.of(2026, 3, 10, 14, 5), 350));
+        PredictionKey b = generator.of(voo("GRU", LocalDateTime.of(2026, 3, 10, 14, 55), 900));
+
+        assertEquals(a, b);
+        assertEquals(new PredictionKey("GLO", "SBGR", "SBGL", LocalDateTime.of(2026, 3, 10, 14, 0)), a);
+    }
+
+    @Test
+    @DisplayName("Janelas, rotas ou datas diferentes devem gerar chaves diferentes")
+    void deveDiferenciarVoosDistintos() {
+        LocalDateTime partida = LocalDateTime.of(2026, 3, 10, 14, 30);
+
+        assertNotEquals(generator.of(voo("GRU", partida, 350)), generator.of(voo("GRU", partida.plusHours(1), 350)));
+        assertNotEquals(generator.of(voo("GRU", partida, 350)), generator.of(voo("CGH", partida, 350)));
+        assertNotEquals(generator.of(voo("GRU", partida, 350)), generator.of(voo("GRU", partida.plusDays(7), 350)));
+    }
+
+    @Test
+    @DisplayName("Janela configurável deve agrupar horários no múltiplo correspondente")
+    void deveRespeitarJanelaConfigurada() {
+        PredictionKeyGenerator quinzeMinutos =
+                new PredictionKeyGenerator(new AirportCodeMapper(), new AirlineCodeMapper(), 15);
+
+        PredictionKey chave = quinzeMinutos.of(voo("GRU", LocalDateTime.of(2026, 3, 10, 14, 29), 350));
+
+        assertEquals(LocalDateTime.of(2026, 3, 10, 14, 15), chave.janelaPartida());
+    }
+
+    @Test
+    @DisplayName("Voos da mesma chave devem receber a mesma previsão das regras")
+    void deveAgruparSoHorariosComMesmaPrevisao() {
+        FallbackRuleEngine regras = FallbackRuleEngine.padrao();
+        LocalDateTime inicio = LocalDateTime.of(2026, 12, 14, 0, 0);
+
+        // Uma semana de dezembro, hora a hora: início e fim da janela caem na mesma chave e na mesma regra
+        for (LocalDateTime hora = inicio; hora.isBefore(inicio.plusDays(7)); hora = hora.plusHours(1)) {
+            LocalDateTime fimDaJanela = hora.plusMinutes(59);
+            assertEquals(generator.of(voo("GRU", hora, 350)), generator.of(voo("GRU", fimDaJanela, 350)));
+            assertEquals(regras.probabilidade(hora, "GLO", "SBGR", "SBGL"),
+                    regras.probabilidade(fimDaJanela, "GLO", "SBGR", "SBGL"), "hora " + hora);
+        }
+        // A virada da hora (onde as regras mudam) sempre troca de chave
+        assertNotEquals(generator.of(voo("GRU", inicio.withHour(17).withMinute(59), 350)),
+                generator.of(voo("GRU", inicio.withHour(18), 350)));
+    }
+
+    @Test
+    @DisplayName("Deve recusar janela que cruza a virada da hora")
+    void deveRecusarJanelaMaisGrossaQueAsRegras() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PredictionKeyGenerator(new AirportCodeMapper(), new AirlineCodeMapper(), 90));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PredictionKeyGenerator(new AirportCodeMapper(), new AirlineCodeMapper(), 45));
+    }
+}